@@ -81,6 +81,9 @@ public interface IKeyword {
 	/** The ask. */
 	String ASK = "ask";
 
+	/** The asynchronous. */
+	String ASYNCHRONOUS = "asynchronous";
+
 	/** The aspect. */
 	String ASPECT = "aspect";
 
@@ -155,6 +158,9 @@ public interface IKeyword {
 	
 	String BUFFERING = "buffering";
 
+	/** The cache. */
+	String CACHE = "cache";
+
 	/** The camera. */
 	String CAMERA = "camera";
 
@@ -194,6 +200,9 @@ public interface IKeyword {
 	/** The color red. */
 	String COLOR_RED = "red";
 
+	/** The columnar. */
+	String COLUMNAR = "columnar";
+
 	/** The condition. */
 	String CONDITION = "condition";
 
@@ -770,6 +779,9 @@ public interface IKeyword {
 	// "
 	String PARALLEL = "parallel";
 
+	/** The parallel species. */
+	String PARALLEL_SPECIES = "parallel_species";
+
 	/** The parameter. */
 	String PARAMETER = "parameter";
 
@@ -821,6 +833,9 @@ public interface IKeyword {
 	/** The pragma. */
 	String PRAGMA = "pragma";
 
+	/** The pragma that enables the compilation of expressions. */
+	String PRAGMA_JIT = "jit";
+
 	/** The no experiment. */
 	String PRAGMA_NO_EXPERIMENT = "no_experiment";
 
@@ -1004,6 +1019,9 @@ public interface IKeyword {
 	/** The source. */
 	String SOURCE = "source";
 
+	/** The spatial index. */
+	String SPATIAL_INDEX = "spatial_index";
+
 	/** The species. */
 	String SPECIES = "species";
 
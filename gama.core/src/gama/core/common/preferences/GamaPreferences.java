@@ -858,6 +858,11 @@ public class GamaPreferences {
 				"Optimize the path computation operators and goto action (but with possible 'jump' issues)", false,
 				IType.BOOL, true).in(NAME, OPTIMIZATIONS);
 
+		/** The Constant SHORTEST_PATHS_CACHE_SIZE. */
+		public static final Pref<Integer> SHORTEST_PATHS_CACHE_SIZE = create("pref_shortest_paths_cache_size",
+				"Max. number of steps of the shortest paths kept in the cache of each graph (0 for no limit)", 1000000,
+				IType.INT, true).between(0, null).in(NAME, OPTIMIZATIONS);
+
 		/** The Constant TOLERANCE_POINTS. */
 		public static final Pref<Double> TOLERANCE_POINTS =
 				create("pref_point_tolerance", "Tolerance for the comparison of points", 0.0, IType.FLOAT, true)
@@ -969,6 +974,36 @@ public class GamaPreferences {
 				"Forces the spatial index to synchronize its operations. Useful for interactive models where the users interfere or parallel models with concurrency errors. Note that it may slow down simulations with a lot of mobile agents",
 				true, IType.BOOL, true).in(NAME, CATEGORY);
 
+		/** The Constant QUADTREE_CONCURRENT. */
+		public static final Pref<Boolean> QUADTREE_CONCURRENT = create("pref_concurrent_quadtree",
+				"Use a lock-free spatial index for the species of models that use parallelism (replaces the synchronization of the spatial index for these species)",
+				false, IType.BOOL, true).in(NAME, CATEGORY);
+
+		/** The Constant QUADTREE_STATIC. */
+		public static final Pref<Boolean> QUADTREE_STATIC = create("pref_static_quadtree",
+				"Bulk-load the agents created from geometries (shapefiles, lists of geometries...) in a static spatial index (which reverts to a regular one if they move)",
+				false, IType.BOOL, true).in(NAME, CATEGORY);
+
+		/** The Constant QUADTREE_HASH. */
+		public static final Pref<Boolean> QUADTREE_HASH = create("pref_spatial_hash",
+				"Use a spatial hash instead of a quadtree for the species whose agents are points (when they do not redefine 'shape')",
+				false, IType.BOOL, true).in(NAME, CATEGORY);
+
+		/** The Constant SPATIAL_INDEX_DEFERRED. */
+		public static final Pref<Boolean> SPATIAL_INDEX_DEFERRED = create("pref_deferred_spatial_index",
+				"Cycle-consistent spatial queries: apply the moves of the agents to the spatial index at the end of the step of their species (the queries see the agents where they were when the step began)",
+				false, IType.BOOL, true).in(NAME, CATEGORY);
+
+		/** The Constant COMPILE_EXPRESSIONS. */
+		public static final Pref<Boolean> COMPILE_EXPRESSIONS = create("pref_compile_expressions",
+				"Compile the arithmetic and logical expressions that are evaluated often (can also be enabled in a model with the '@jit' pragma)",
+				false, IType.BOOL, true).in(NAME, CATEGORY).activates("pref_compile_expressions_threshold");
+
+		/** The Constant COMPILE_EXPRESSIONS_THRESHOLD. */
+		public static final Pref<Integer> COMPILE_EXPRESSIONS_THRESHOLD = create("pref_compile_expressions_threshold",
+				"Number of evaluations after which an expression is compiled", 1000, IType.INT, true)
+						.in(NAME, CATEGORY).between(1, null);
+
 		/** The Constant CONSTANT_OPTIMIZATION. */
 		public static final Pref<Boolean> CONSTANT_OPTIMIZATION = create("pref_optimize_constant_expressions",
 				"Optimize constant expressions (experimental, performs a rebuild of models)", false, IType.BOOL, true)
@@ -19,11 +19,15 @@ import java.util.Random;
 
 import gama.core.common.interfaces.IKeyword;
 import gama.core.common.preferences.GamaPreferences;
+import gama.core.kernel.simulation.SimulationClock;
+import gama.core.metamodel.agent.IAgent;
 import gama.core.metamodel.shape.GamaPoint;
+import gama.core.runtime.IScope;
 import gama.core.util.random.IGamaRNG;
 import gama.core.util.random.JavaRNG;
 import gama.core.util.random.MersenneTwisterRNG;
 import gama.core.util.random.ParallelMersenneTwisterRNG;
+import gama.core.util.random.SplitMixRNG;
 import gama.core.util.random.ThreadLocalRNG;
 import gama.gaml.operators.Maths;
 
@@ -39,7 +43,7 @@ public class RandomUtils {
 
 	/** The Constant DOC. */
 	public static final String DOC =
-			"The random number generator to use. Four different ones are at the disposal of the modeler: " + "'"
+			"The random number generator to use. Five different ones are at the disposal of the modeler: " + "'"
 					+ IKeyword.MERSENNE + "'"
 					+ " represents the default generator, based on the Mersenne-Twister algorithm. Very reliable, fast and deterministic (that is, using the same seed and the same sequence of calls, it will return the same stream of pseudo-random numbers). This algorithm is however not safe to use in simulations where agents can behave in parallel; "
 					+ "'threaded'"
@@ -47,7 +51,9 @@ public class RandomUtils {
 					+ "'" + IKeyword.PARALLEL + "'"
 					+ " is a version of the Mersenne-Twister algorithm that can be safely used in parallel simulations by preventing a concurrent access to its internal state. Determinism is guaranteed (in terms of generation, but not in terms of execution, as the sequence in which the threads will access it cannot be determined) and it performs a bit slower than its base version."
 					+ "'" + IKeyword.JAVA + "'"
-					+ " invokes the standard generator provided by the JDK, deterministic and thread-safe, albeit slower than all the other ones";
+					+ " invokes the standard generator provided by the JDK, deterministic and thread-safe, albeit slower than all the other ones; "
+					+ "'splitmix'"
+					+ " is a counter-based generator in which each agent draws from its own stream, derived from the seed, the cycle and the agent. Deterministic even when agents are executed in parallel: the numbers drawn by an agent do not depend on the order in which the agents are executed nor on the number of threads";
 
 	/**
 	 * The Enum GeneratorNames.
@@ -64,7 +70,10 @@ public class RandomUtils {
 				" invokes the standard generator provided by the JDK, deterministic and thread-safe, albeit slower than all the other ones; "),
 		/** The threaded. */
 		THREADED("threaded",
-				" is a very fast generator, based on the DotMix algorithm, that can be safely used in parallel simulations as it creates one instance per thread. However, determinism cannot be guaranteed and this algorithm does not accept a seed as each instance will compute its own; ");
+				" is a very fast generator, based on the DotMix algorithm, that can be safely used in parallel simulations as it creates one instance per thread. However, determinism cannot be guaranteed and this algorithm does not accept a seed as each instance will compute its own; "),
+		/** The splitmix. */
+		SPLITMIX("splitmix",
+				" is a counter-based generator in which each agent draws from its own stream, derived from the seed, the cycle and the agent. Deterministic even when agents are executed in parallel: the numbers drawn by an agent do not depend on the order in which the agents are executed nor on the number of threads; ");
 
 		/** The name. */
 		private String name;
@@ -158,11 +167,51 @@ public class RandomUtils {
 			case JAVA -> new JavaRNG(this);
 			case THREADED -> new ThreadLocalRNG(this);
 			case PARALLEL -> new ParallelMersenneTwisterRNG(this);
+			case SPLITMIX -> new SplitMixRNG(this);
 			default -> new MersenneTwisterRNG(this);
 		};
 
 	}
 
+	/**
+	 * Makes the current thread draw from the stream of the agent, if the generator provides one stream per agent (see
+	 * {@link SplitMixRNG}), until {@link #exitStream()} is called.
+	 *
+	 * @param scope
+	 *            the scope, which gives the current cycle
+	 * @param agent
+	 *            the agent
+	 * @return true if a stream has been entered (and must be exited), false if the generator does not use streams
+	 */
+	public boolean enterStream(final IScope scope, final IAgent agent) {
+		if (!(generator instanceof SplitMixRNG rng)) return false;
+		final IAgent host = agent.getHost();
+		long key = (long) agent.getSpeciesName().hashCode() << 32 ^ agent.getIndex();
+		if (host != null) { key = (key * 31 + host.getSpeciesName().hashCode()) * 31 + host.getIndex(); }
+		final SimulationClock clock = scope.getClock();
+		final long cycle = clock == null ? 0 : clock.getCycle();
+		rng.enter(key, cycle, agent.nextStreamEntry(cycle));
+		return true;
+	}
+
+	/**
+	 * Whether the generator provides one stream per agent (see {@link SplitMixRNG}), so that the numbers drawn by the
+	 * agents do not depend on the order in which they are executed.
+	 *
+	 * @return true if the generator provides streams
+	 */
+	public boolean providesStreams() {
+		return generator instanceof SplitMixRNG;
+	}
+
+	/**
+	 * Makes the current thread go back to the stream it was using before the last call to
+	 * {@link #enterStream(IScope, IAgent)}.
+	 */
+	public void exitStream() {
+		if (generator instanceof SplitMixRNG rng) { rng.exit(); }
+	}
+
 	/**
 	 * Sets the usage.
 	 *
@@ -0,0 +1,222 @@
+/*******************************************************************************************************
+ *
+ * BatchResultStore.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.kernel.batch;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+import gama.core.kernel.experiment.BatchAgent;
+import gama.core.kernel.experiment.ParametersSet;
+import gama.core.kernel.model.IModel;
+import gama.core.runtime.IScope;
+import gama.core.util.IMap;
+import gama.core.util.file.json.Json;
+import gama.core.util.file.json.JsonValue;
+import gama.dev.DEBUG;
+
+/**
+ * An on-disk store of the outputs of the simulations run by a batch experiment (see the facet 'cache' of experiments),
+ * so that running the experiment again, or extending its exploration, only runs the simulations that have not been run
+ * yet. The store of an experiment is a file, in the '.results' folder next to the model, named after the experiment
+ * and a hash of the compiled model: modifying the model starts a new store. Each line of the file contains the outputs
+ * of a simulation, addressed by a hash of its parameters (all the parameters of the experiment, not only the explored
+ * ones) and of its seed. The floats are written with all their digits, so that they are read back exactly.
+ * Simulations without a fixed seed are not looked up, as their results cannot be reproduced. The data files used by
+ * the model are not part of the hash: the store must be deleted if they are modified.
+ */
+@SuppressWarnings ("unchecked")
+public final class BatchResultStore {
+
+	static {
+		DEBUG.OFF();
+	}
+
+	/** The name of the folder of the stores. */
+	public static final String FOLDER = ".results";
+
+	/** The keys of the lines. */
+	static final String KEY = "key", OUTPUTS = "outputs";
+
+	/** The file. */
+	final File file;
+
+	/** The outputs (as JSON), by key. */
+	final Map<String, String> results = new HashMap<>();
+
+	/** The writer, opened when the first result is added. */
+	Writer writer;
+
+	/**
+	 * Opens the store of a batch experiment.
+	 *
+	 * @param batch
+	 *            the batch agent
+	 * @return the store, or null if the model does not come from a file
+	 */
+	public static BatchResultStore of(final BatchAgent batch) {
+		final IModel model = batch.getSpecies().getModel();
+		if (model.getFilePath() == null) return null;
+		final File folder = new File(new File(model.getFilePath()).getParentFile(), FOLDER);
+		return new BatchResultStore(new File(folder,
+				batch.getSpecies().getName() + "-" + hash(modelContents(model)).substring(0, 16) + ".jsonl"));
+	}
+
+	/**
+	 * Returns the contents of a model used to identify it: its compiled form if possible (which includes the models it
+	 * imports), otherwise its file.
+	 */
+	private static String modelContents(final IModel model) {
+		try {
+			return model.getDescription().serializeToGaml(false);
+		} catch (final RuntimeException e) {
+			try {
+				return Files.readString(new File(model.getFilePath()).toPath());
+			} catch (final IOException e1) {
+				return model.getFilePath();
+			}
+		}
+	}
+
+	/**
+	 * The SHA-256 hash of a string, in hexadecimal.
+	 */
+	private static String hash(final String s) {
+		try {
+			return HexFormat.of()
+					.formatHex(MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8)));
+		} catch (final NoSuchAlgorithmException e) {
+			// Every JVM supports SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Instantiates a new store and reads the results already present in its file.
+	 *
+	 * @param file
+	 *            the file
+	 */
+	BatchResultStore(final File file) {
+		this.file = file;
+		if (!file.exists()) return;
+		final Json json = Json.getNew();
+		try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.isBlank()) { continue; }
+				try {
+					final JsonValue value = json.parse(line);
+					results.put(value.asObject().get(KEY).asString(), value.asObject().get(OUTPUTS).toString());
+				} catch (final RuntimeException e) {
+					// A line may have been truncated if the experiment was interrupted
+					DEBUG.LOG("Ignoring an invalid line in " + file);
+				}
+			}
+		} catch (final IOException e) {
+			DEBUG.LOG("Impossible to read " + file + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * The key of a simulation.
+	 *
+	 * @param batch
+	 *            the batch agent
+	 * @param parameters
+	 *            the parameters of the simulation (which override the ones of the experiment)
+	 * @param seed
+	 *            the seed
+	 * @return the key
+	 */
+	private String key(final BatchAgent batch, final ParametersSet parameters, final Double seed) {
+		final Map<String, Object> all = new TreeMap<>(batch.getParameterValues());
+		all.putAll(parameters);
+		return hash(Json.getLossless().valueOf(all).toString() + "|" + seed);
+	}
+
+	/**
+	 * Returns the outputs of a simulation, if it has already been run.
+	 *
+	 * @param scope
+	 *            the scope used to read the outputs
+	 * @param batch
+	 *            the batch agent
+	 * @param parameters
+	 *            the parameters
+	 * @param seed
+	 *            the seed
+	 * @return the outputs, or null if the simulation has not been run or has no fixed seed
+	 */
+	public synchronized IMap<String, Object> get(final IScope scope, final BatchAgent batch,
+			final ParametersSet parameters, final Double seed) {
+		if (seed == null || results.isEmpty()) return null;
+		final String outputs = results.get(key(batch, parameters, seed));
+		if (outputs == null) return null;
+		return (IMap<String, Object>) Json.getNew().parse(outputs).toGamlValue(scope);
+	}
+
+	/**
+	 * Adds the outputs of a simulation to the store.
+	 *
+	 * @param batch
+	 *            the batch agent
+	 * @param parameters
+	 *            the parameters
+	 * @param seed
+	 *            the seed
+	 * @param outputs
+	 *            the outputs
+	 */
+	public synchronized void put(final BatchAgent batch, final ParametersSet parameters, final Double seed,
+			final Map<String, Object> outputs) {
+		if (seed == null) return;
+		final Json json = Json.getLossless();
+		final String key = key(batch, parameters, seed);
+		final String value = json.valueOf(outputs).toString();
+		if (value.equals(results.put(key, value))) return;
+		try {
+			if (writer == null) {
+				file.getParentFile().mkdirs();
+				writer = new BufferedWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+						StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+			}
+			writer.write(json.object(KEY, key, OUTPUTS, json.parse(value)).toString());
+			writer.write('\n');
+			// Flushed after each simulation so that an interrupted exploration can be resumed
+			writer.flush();
+		} catch (final IOException e) {
+			DEBUG.LOG("Impossible to write in " + file + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Closes the file.
+	 */
+	public synchronized void close() {
+		if (writer == null) return;
+		try {
+			writer.close();
+		} catch (final IOException e) {}
+		writer = null;
+	}
+
+}
@@ -0,0 +1,453 @@
+/*******************************************************************************************************
+ *
+ * BatchWorkers.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.kernel.batch;
+
+import static gama.core.runtime.concurrent.GamaExecutorService.BATCH_WORKERS;
+import static gama.core.runtime.concurrent.GamaExecutorService.BATCH_WORKER_COMMAND;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import gama.core.kernel.experiment.BatchAgent;
+import gama.core.kernel.experiment.IParameter;
+import gama.core.kernel.experiment.ParametersSet;
+import gama.core.runtime.IScope;
+import gama.core.runtime.exceptions.GamaRuntimeException;
+import gama.core.util.IMap;
+import gama.core.util.file.json.Json;
+import gama.dev.DEBUG;
+import gama.gaml.operators.Cast;
+
+/**
+ * Local worker processes to which a batch experiment dispatches its simulations, so that large explorations are not
+ * bound by the memory and the garbage collector of a single JVM. Each worker is a headless instance of GAMA, launched
+ * with the {@code -worker} option, that compiles the model and opens the experiment once, then runs the simulations it
+ * is sent one after the other. The requests and the outputs are exchanged as lines of JSON over a local socket, the
+ * floats being written with all their digits so that the parameters and the outputs are not rounded on their way. Each
+ * worker is run in its own temporary directory, where it creates its workspace, and which is deleted when it stops. A
+ * worker that crashes (or exits because it ran out of memory) is restarted and the simulation it was running is sent
+ * again (up to {@link #MAX_ATTEMPTS} times).
+ */
+@SuppressWarnings ("unchecked")
+public final class BatchWorkers {
+
+	static {
+		DEBUG.OFF();
+	}
+
+	/** The option of the headless application that starts a worker. */
+	public static final String WORKER_OPTION = "-worker";
+
+	/** The number of times a simulation is sent to a worker before giving up. */
+	static final int MAX_ATTEMPTS = 3;
+
+	/** The time given to a worker to compile the model and connect (in ms). */
+	static final int CONNECTION_TIMEOUT = 300_000;
+
+	/** The keys of the messages. */
+	static final String PARAMETERS = "parameters", SEED = "seed", OUTPUTS = "outputs", ERROR = "error";
+
+	/**
+	 * Whether a batch experiment should dispatch its simulations to worker processes.
+	 *
+	 * @param batch
+	 *            the batch agent
+	 * @return true, if workers are configured and the model comes from a file
+	 */
+	public static boolean shouldBeUsedBy(final BatchAgent batch) {
+		return BATCH_WORKERS.getValue() > 0 && batch.getSpecies().getModel().getFilePath() != null;
+	}
+
+	/**
+	 * A simulation to run.
+	 */
+	static final class Task {
+
+		/** The call of {@link BatchWorkers#run} it belongs to. */
+		final int generation;
+
+		/** The simulation (its parameters and seed). */
+		final Map<String, Object> sim;
+
+		/** The parameters. */
+		final ParametersSet parameters;
+
+		/** The seed. */
+		final Double seed;
+
+		/** The number of times it has been sent. */
+		int attempts;
+
+		/** The answer of the worker (or null if none could run it). */
+		String answer;
+
+		/**
+		 * Instantiates a new task.
+		 */
+		Task(final int generation, final Map<String, Object> sim) {
+			this.generation = generation;
+			this.sim = sim;
+			this.parameters = (ParametersSet) sim.get(PARAMETERS);
+			this.seed = (Double) sim.get(SEED);
+		}
+	}
+
+	/** The batch agent. */
+	final BatchAgent batch;
+
+	/** The scope of the batch agent. */
+	final IScope scope;
+
+	/** The command that launches a headless instance of GAMA. */
+	final List<String> command;
+
+	/** The workers. */
+	final List<Worker> workers = new ArrayList<>();
+
+	/** The tasks waiting for a worker. */
+	final BlockingQueue<Task> pending = new LinkedBlockingQueue<>();
+
+	/** The tasks that have been run. */
+	final BlockingQueue<Task> done = new LinkedBlockingQueue<>();
+
+	/** The number of calls to {@link #run}, used to ignore the tasks of a previous call that was interrupted. */
+	int generation;
+
+	/** Whether the workers have been disposed. */
+	volatile boolean disposed;
+
+	/**
+	 * Starts the workers of a batch agent, as many as indicated in the preferences.
+	 *
+	 * @param batch
+	 *            the batch agent
+	 * @throws GamaRuntimeException
+	 *             if the headless script cannot be found
+	 */
+	public BatchWorkers(final BatchAgent batch) throws GamaRuntimeException {
+		this.batch = batch;
+		this.scope = batch.getScope();
+		// Computed here, so that a missing script is reported at once rather than as failures of the workers
+		this.command = command();
+		for (int i = 0; i < BATCH_WORKERS.getValue(); i++) {
+			final Worker w = new Worker(i);
+			workers.add(w);
+			w.start();
+		}
+	}
+
+	/**
+	 * Runs simulations on the workers and gives their outputs, in the calling thread, as they arrive.
+	 *
+	 * @param sims
+	 *            the parameters and seed of each simulation
+	 * @param results
+	 *            what to do with the outputs of each simulation (given with its parameters and seed)
+	 * @throws GamaRuntimeException
+	 *             if a simulation could not be run
+	 */
+	public void run(final List<Map<String, Object>> sims,
+			final BiConsumer<Map<String, Object>, IMap<String, Object>> results)
+			throws GamaRuntimeException {
+		final int current = ++generation;
+		for (final Map<String, Object> sim : sims) {
+			pending.add(new Task(current, sim));
+		}
+		int remaining = sims.size();
+		try {
+			while (remaining > 0 && !batch.dead()) {
+				final Task task = done.poll(100, TimeUnit.MILLISECONDS);
+				if (task == null || task.generation != current) { continue; }
+				remaining--;
+				if (task.answer == null) throw GamaRuntimeException
+						.error("The workers failed " + MAX_ATTEMPTS + " times to run " + task.parameters, scope);
+				final IMap<String, Object> answer =
+						(IMap<String, Object>) Json.getNew().parse(task.answer).toGamlValue(scope);
+				if (answer.containsKey(ERROR)) throw GamaRuntimeException
+						.error("Error in a worker with " + task.parameters + ": " + answer.get(ERROR), scope);
+				results.accept(task.sim, (IMap<String, Object>) answer.get(OUTPUTS));
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			pending.clear();
+		}
+	}
+
+	/**
+	 * Stops the workers.
+	 */
+	public void dispose() {
+		disposed = true;
+		pending.clear();
+		for (final Worker w : workers) { w.dispose(); }
+		workers.clear();
+	}
+
+	/**
+	 * Returns the command that launches a headless instance of GAMA.
+	 *
+	 * @return the command
+	 * @throws GamaRuntimeException
+	 *             if the command is not defined in the preferences and the script of the installation does not exist
+	 */
+	List<String> command() throws GamaRuntimeException {
+		final String command = BATCH_WORKER_COMMAND.getValue();
+		if (command != null && !command.isBlank()) return Arrays.asList(command.trim().split("\\s+"));
+		File script = null;
+		try {
+			final File home = Paths.get(URI.create(System.getProperty("osgi.install.area"))).toFile();
+			final boolean windows = System.getProperty("os.name").toLowerCase().contains("win");
+			script = new File(home, "headless" + File.separator + (windows ? "gama-headless.bat" : "gama-headless.sh"));
+		} catch (final RuntimeException e) {}
+		if (script == null || !script.isFile())
+			throw GamaRuntimeException.error("Impossible to locate the 'gama-headless' script"
+					+ (script == null ? "" : " in " + script.getParent()) + ": " + BATCH_WORKER_COMMAND.getKey()
+					+ " should be defined in the preferences", scope);
+		return List.of(script.getAbsolutePath());
+	}
+
+	/**
+	 * A worker process, and the thread that sends it the tasks.
+	 */
+	final class Worker extends Thread {
+
+		/** The server socket the process connects to. */
+		ServerSocket server;
+
+		/** The process. */
+		Process process;
+
+		/** The socket. */
+		Socket socket;
+
+		/** The reader. */
+		BufferedReader in;
+
+		/** The writer. */
+		Writer out;
+
+		/** The temporary directory the process is run in. */
+		Path directory;
+
+		/**
+		 * Instantiates a new worker.
+		 *
+		 * @param index
+		 *            the index
+		 */
+		Worker(final int index) {
+			super("Batch worker " + index + " of " + batch.getName());
+			setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			while (!disposed) {
+				final Task task;
+				try {
+					task = pending.take();
+				} catch (final InterruptedException e) {
+					return;
+				}
+				try {
+					if (socket == null) { connect(); }
+					out.write(Json.getLossless().object(PARAMETERS, task.parameters, SEED, task.seed).toString());
+					out.write('\n');
+					out.flush();
+					final String line = in.readLine();
+					if (line == null) throw new IOException("the worker has exited");
+					task.answer = line;
+					done.add(task);
+				} catch (final IOException | RuntimeException e) {
+					if (disposed) return;
+					DEBUG.LOG(getName() + " is restarted: " + e.getMessage());
+					stopProcess();
+					if (++task.attempts < MAX_ATTEMPTS) {
+						pending.add(task);
+					} else {
+						done.add(task);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Launches the process and waits for it to connect.
+		 *
+		 * @throws IOException
+		 *             Signals that an I/O exception has occurred.
+		 */
+		void connect() throws IOException {
+			if (server == null) { server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress()); }
+			final List<String> command = new ArrayList<>(BatchWorkers.this.command);
+			command.addAll(List.of(WORKER_OPTION, String.valueOf(server.getLocalPort()),
+					batch.getSpecies().getName(), batch.getSpecies().getModel().getFilePath()));
+			final ProcessBuilder builder = new ProcessBuilder(command);
+			// Each worker needs its own workspace, which the scripts create in the current directory
+			directory = Files.createTempDirectory("gama-worker");
+			builder.directory(directory.toFile());
+			builder.redirectOutput(ProcessBuilder.Redirect.DISCARD).redirectError(ProcessBuilder.Redirect.INHERIT);
+			process = builder.start();
+			server.setSoTimeout(1000);
+			final long limit = System.currentTimeMillis() + CONNECTION_TIMEOUT;
+			while (socket == null) {
+				try {
+					socket = server.accept();
+				} catch (final SocketTimeoutException e) {
+					if (disposed || !process.isAlive() || System.currentTimeMillis() > limit)
+						throw new IOException("the worker could not be started with " + command);
+				}
+			}
+			in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+		}
+
+		/**
+		 * Closes the connection, destroys the process (and the JVM launched by the script) and deletes its directory.
+		 */
+		void stopProcess() {
+			try {
+				if (socket != null) { socket.close(); }
+			} catch (final IOException e) {}
+			socket = null;
+			if (process != null) {
+				process.descendants().forEach(ProcessHandle::destroyForcibly);
+				process.destroyForcibly();
+				try {
+					// The files of the workspace cannot be deleted while the process holds them
+					process.waitFor(10, TimeUnit.SECONDS);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			process = null;
+			if (directory != null) {
+				try (Stream<Path> paths = Files.walk(directory)) {
+					paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+				} catch (final IOException e) {}
+			}
+			directory = null;
+		}
+
+		/**
+		 * Stops the worker.
+		 */
+		void dispose() {
+			interrupt();
+			stopProcess();
+			try {
+				if (server != null) { server.close(); }
+			} catch (final IOException e) {}
+		}
+	}
+
+	/**
+	 * The loop of a worker process: connects to the batch experiment that launched it and runs the simulations it is
+	 * sent with the batch agent of its own experiment, until the connection is closed.
+	 *
+	 * @param batch
+	 *            the batch agent of the experiment opened by the worker
+	 * @param port
+	 *            the local port to connect to
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static void serve(final BatchAgent batch, final int port) throws IOException {
+		new Server(batch).serve(port);
+	}
+
+	/**
+	 * The side of a worker process.
+	 */
+	private static final class Server {
+
+		/** The batch agent of the experiment opened by the worker. */
+		final BatchAgent batch;
+
+		/** Its scope. */
+		final IScope scope;
+
+		/**
+		 * Instantiates a new server.
+		 *
+		 * @param batch
+		 *            the batch agent
+		 */
+		Server(final BatchAgent batch) {
+			this.batch = batch;
+			this.scope = batch.getScope();
+		}
+
+		/**
+		 * Runs the simulations sent through the connection, until it is closed.
+		 *
+		 * @param port
+		 *            the local port to connect to
+		 * @throws IOException
+		 *             Signals that an I/O exception has occurred.
+		 */
+		void serve(final int port) throws IOException {
+			final Map<String, IParameter.Batch> explorable = batch.getSpecies().getExplorableParameters();
+			try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+					BufferedReader in =
+							new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+					Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = in.readLine()) != null) {
+					final Json json = Json.getLossless();
+					String answer;
+					try {
+						final IMap<String, Object> request = (IMap<String, Object>) json.parse(line).toGamlValue(scope);
+						final ParametersSet parameters = new ParametersSet();
+						((Map<String, Object>) request.get(PARAMETERS)).forEach((name, value) -> {
+							// JSON does not keep the types (e.g. 1.0 is read as an int)
+							final IParameter p = explorable.get(name);
+							parameters.put(name, p == null ? value : p.getType().cast(scope, value, null, false));
+						});
+						final Object seed = request.get(SEED);
+						answer = json.object(OUTPUTS,
+								batch.runSimulation(parameters, seed == null ? null : Cast.asFloat(scope, seed))).toString();
+					} catch (final RuntimeException e) {
+						answer = json.object(ERROR, String.valueOf(e.getMessage())).toString();
+					}
+					out.write(answer);
+					out.write('\n');
+					out.flush();
+				}
+			}
+		}
+	}
+
+}
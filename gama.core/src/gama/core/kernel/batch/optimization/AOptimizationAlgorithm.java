@@ -12,11 +12,15 @@ package gama.core.kernel.batch.optimization;
 
 import static gama.gaml.operators.Cast.asFloat;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.math3.distribution.TDistribution;
+
 import gama.annotations.precompiler.ISymbolKind;
 import gama.annotations.precompiler.GamlAnnotations.inside;
 import gama.core.common.interfaces.IKeyword;
@@ -48,6 +52,13 @@ public abstract class AOptimizationAlgorithm extends Symbol implements IExplorat
 	/** The Constant C_MEAN. */
 	public final static short C_MAX = 0, C_MIN = 1, C_MEAN = 2;
 
+	/** The name of the facet that enables racing. */
+	public static final String RACING = "racing";
+
+	/** The documentation of the facet that enables racing. */
+	public static final String RACING_DOC =
+			"if set (to a confidence between 0 and 1, e.g. 0.95), the replicates of each solution are run progressively and a solution stops being replicated as soon as its replicates show, with this confidence, that it cannot beat the best solution found so far. Applies when the fitness of the replicates is aggregated by their average (using a one-sided Welch's t-test), by their minimum when maximizing or by their maximum when minimizing";
+
 	/** The Constant COMBINATIONS. */
 	public final static String[] COMBINATIONS = { "maximum", "minimum", "average" };
 	static {
@@ -75,6 +86,12 @@ public abstract class AOptimizationAlgorithm extends Symbol implements IExplorat
 	/** The combination. */
 	protected short combination;
 
+	/** The confidence used to drop a solution when racing, or 0 if the solutions are not raced. */
+	protected double racingConfidence;
+
+	/** The fitness of each replicate of the best solution, or null if they are not known. */
+	protected List<Double> bestReplicates = null;
+
 	/**
 	 * Find best solution.
 	 *
@@ -89,6 +106,10 @@ public abstract class AOptimizationAlgorithm extends Symbol implements IExplorat
 	@Override
 	public void initializeFor(final IScope scope, final BatchAgent agent) throws GamaRuntimeException {
 		// setCurrentExperiment(agent);
+		final IExpression racing = getFacet(RACING);
+		racingConfidence = racing == null ? 0d : asFloat(scope, racing.value(scope));
+		if (racingConfidence < 0 || racingConfidence >= 1) throw GamaRuntimeException
+				.error("The confidence of the racing must be between 0 and 1, not " + racingConfidence, scope);
 	}
 
 	/**
@@ -322,14 +343,88 @@ public abstract class AOptimizationAlgorithm extends Symbol implements IExplorat
 	 *            the fitness
 	 */
 	public void updateBestFitness(final ParametersSet solution, final Double fitness) {
+		updateBestFitness(solution, fitness, null);
+	}
+
+	/**
+	 * Update best fitness, remembering the fitness of each replicate of the solution so that the next solutions can
+	 * be raced against it.
+	 *
+	 * @param solution
+	 *            the solution
+	 * @param fitness
+	 *            the fitness (the combination of the fitness of the replicates)
+	 * @param replicates
+	 *            the fitness of each replicate, or null if they are not known
+	 */
+	public void updateBestFitness(final ParametersSet solution, final Double fitness, final List<Double> replicates) {
 		if (fitness == null) return;
 		Double best = getBestFitness();
 		if (bestSolution == null || (isMaximize() ? fitness > best : fitness < best)) {
 			setBestFitness(fitness);
 			setBestSolution(solution);
+			bestReplicates = replicates == null ? null : new ArrayList<>(replicates);
+		}
+	}
+
+	/**
+	 * Whether the replicates of the solutions are raced (see the facet 'racing').
+	 *
+	 * @return true, if the solutions are raced
+	 */
+	public boolean isRacing() { return racingConfidence > 0; }
+
+	/**
+	 * Whether the replicates already run for a solution show that it cannot beat the best solution found so far, in
+	 * which case its remaining replicates do not need to be run. When the fitness of the replicates is their minimum
+	 * (resp. maximum) and the algorithm maximizes (resp. minimizes), the answer is exact, as running more replicates
+	 * can only make the fitness worse. When it is their average, a one-sided Welch's t-test is performed, at the
+	 * confidence of the racing, against the replicates of the best solution. In the other cases, nothing can be
+	 * concluded before all the replicates are run.
+	 *
+	 * @param replicates
+	 *            the fitness of the replicates already run
+	 * @return true if the solution can be dropped
+	 */
+	public boolean cannotBeatBest(final List<Double> replicates) {
+		if (!isRacing() || bestSolution == null || replicates.isEmpty()) return false;
+		final double best = getBestFitness();
+		switch (combination) {
+			case C_MIN:
+				return isMaximize && Collections.min(replicates) <= best;
+			case C_MAX:
+				return !isMaximize && Collections.max(replicates) >= best;
+			default:
+				if (bestReplicates == null || bestReplicates.size() < 2 || replicates.size() < 2) return false;
+				final double[] candidate = meanAndVariance(replicates), incumbent = meanAndVariance(bestReplicates);
+				// The difference is positive when the candidate is worse than the best solution
+				final double diff = isMaximize ? incumbent[0] - candidate[0] : candidate[0] - incumbent[0];
+				if (diff <= 0) return false;
+				final double a = candidate[1] / replicates.size(), b = incumbent[1] / bestReplicates.size();
+				// No variance at all: the replicates are identical
+				if (a + b == 0) return true;
+				final double df = (a + b) * (a + b)
+						/ (a * a / (replicates.size() - 1) + b * b / (bestReplicates.size() - 1));
+				return diff / Math.sqrt(a + b) > new TDistribution(df).inverseCumulativeProbability(racingConfidence);
 		}
 	}
 
+	/**
+	 * Computes the mean and the (unbiased) variance of a list of values.
+	 *
+	 * @param values
+	 *            the values (at least 2)
+	 * @return an array containing the mean and the variance
+	 */
+	private static double[] meanAndVariance(final List<Double> values) {
+		double mean = 0;
+		for (final Double v : values) { mean += v; }
+		mean /= values.size();
+		double variance = 0;
+		for (final Double v : values) { variance += (v - mean) * (v - mean); }
+		return new double[] { mean, variance / (values.size() - 1) };
+	}
+
 	/**
 	 * Gets the current experiment.
 	 *
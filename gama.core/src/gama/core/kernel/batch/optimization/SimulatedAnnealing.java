@@ -91,7 +91,12 @@ import gama.gaml.types.IType;
 						type = IType.LABEL,
 						optional = true,
 						values = { IKeyword.MIN, IKeyword.MAX },
-						doc = @doc ("the agregation method")) },
+						doc = @doc ("the agregation method")),
+				@facet (
+						name = AOptimizationAlgorithm.RACING,
+						type = IType.FLOAT,
+						optional = true,
+						doc = @doc (AOptimizationAlgorithm.RACING_DOC)) },
 		omissible = IKeyword.NAME)
 @doc (
 		value = "This algorithm is an implementation of the Simulated Annealing algorithm. See the wikipedia article and [batch161 the batch dedicated page].",
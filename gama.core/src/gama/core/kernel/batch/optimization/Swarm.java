@@ -97,7 +97,12 @@ import gama.gaml.types.IType;
 						type = IType.LABEL,
 						optional = true,
 						values = { IKeyword.MIN, IKeyword.MAX, "avr" },
-						doc = @doc ("the agregation method")) },
+						doc = @doc ("the agregation method")),
+				@facet (
+						name = AOptimizationAlgorithm.RACING,
+						type = IType.FLOAT,
+						optional = true,
+						doc = @doc (AOptimizationAlgorithm.RACING_DOC)) },
 		omissible = IKeyword.NAME)
 @doc (
 		value = "This algorithm is an implementation of the Particle Swarm Optimization algorithm. Only usable for numerical paramaters and based on a continuous parameter space search. See the wikipedia article for more details.",
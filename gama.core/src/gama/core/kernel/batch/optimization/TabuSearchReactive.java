@@ -111,7 +111,12 @@ import gama.gaml.types.IType;
 						type = IType.LABEL,
 						optional = true,
 						values = { IKeyword.MIN, IKeyword.MAX, "avr" },
-						doc = @doc ("the agregation method")) },
+						doc = @doc ("the agregation method")),
+				@facet (
+						name = AOptimizationAlgorithm.RACING,
+						type = IType.FLOAT,
+						optional = true,
+						doc = @doc (AOptimizationAlgorithm.RACING_DOC)) },
 		omissible = IKeyword.NAME)
 @doc (
 		value = "This algorithm is a simple implementation of the Reactive Tabu Search algorithm ((Battiti et al., 1993)). This Reactive Tabu Search is an enhance version of the Tabu search. It adds two new elements to the classic Tabu Search. The first one concerns the size of the tabu list: in the Reactive Tabu Search, this one is not constant anymore but it dynamically evolves according to the context. Thus, when the exploration process visits too often the same solutions, the tabu list is extended in order to favor the diversification of the search process. On the other hand, when the process has not visited an already known solution for a high number of iterations, the tabu list is shortened in order to favor the intensification of the search process. The second new element concerns the adding of cycle detection capacities. Thus, when a cycle is detected, the process applies random movements in order to break the cycle. See the batch dedicated page.",
@@ -9,6 +9,8 @@
  ********************************************************************************************************/
 package gama.core.kernel.experiment;
 
+import static gama.core.runtime.concurrent.GamaExecutorService.BATCH_WORKERS;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -16,13 +18,20 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
-import java.util.stream.DoubleStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.jfree.data.statistics.Statistics;
 
 import gama.annotations.precompiler.GamlAnnotations.doc;
 import gama.annotations.precompiler.GamlAnnotations.experiment;
 import gama.core.common.interfaces.IKeyword;
+import gama.core.kernel.batch.BatchResultStore;
+import gama.core.kernel.batch.BatchWorkers;
 import gama.core.kernel.batch.exploration.AExplorationAlgorithm;
 import gama.core.kernel.batch.optimization.AOptimizationAlgorithm;
 import gama.core.kernel.experiment.IParameter.Batch;
@@ -95,6 +104,12 @@ public class BatchAgent extends ExperimentAgent {
 	/** Keep simulations between ''runs'' */
 	private boolean simDispose;
 
+	/** The worker processes, if the simulations are dispatched to them. */
+	private BatchWorkers workers;
+
+	/** The store of the outputs of the simulations, if they are cached. */
+	private BatchResultStore store;
+
 	/**
 	 * Instantiates a new batch agent.
 	 *
@@ -216,6 +231,9 @@ public class BatchAgent extends ExperimentAgent {
 			}
 		}
 
+		if (store != null && sol != null && sim instanceof SimulationAgent simulation) {
+			store.put(this, sol, simulation.getSeed(), out);
+		}
 		if (dispose && sim instanceof AbstractAgent agent) { agent.primDie(sim.getScope()); }
 		return out;
 	}
@@ -232,6 +250,7 @@ public class BatchAgent extends ExperimentAgent {
 		// We run the exploration algorithm. The future steps will be called by the exploration algorithm through the
 		// launchSimulationsWithSolution() method
 		getSpecies().getExplorationAlgorithm().run(scope);
+		closeWorkersAndStore();
 		// Once the algorithm has finished exploring the solutions, the agent is
 		// killed.
 		scope.getGui().getStatus().informStatus(scope, endStatus());
@@ -267,12 +286,14 @@ public class BatchAgent extends ExperimentAgent {
 	 *            the sim
 	 * @param simToParameter
 	 *            the sim to parameter
+	 * @param scheduleIt
+	 *            whether the simulation is stepped by the population
 	 * @return the simulation agent
 	 */
 	private SimulationAgent createSimulation(final Map<String, Object> sim,
-			final Map<IAgent, ParametersSet> simToParameter) {
+			final Map<IAgent, ParametersSet> simToParameter, final boolean scheduleIt) {
 		ParametersSet sol = (ParametersSet) sim.get("parameters");
-		final SimulationAgent s = createSimulation(sol, true);
+		final SimulationAgent s = createSimulation(sol, scheduleIt);
 		s.setSeed((Double) sim.get("seed"));
 		simToParameter.put(s, sol);
 		return s;
@@ -281,8 +302,13 @@ public class BatchAgent extends ExperimentAgent {
 	public IMap<ParametersSet, Map<String, List<Object>>>
 			runSimulationsAndReturnResults(final List<ParametersSet> sets) {
 		IMap<ParametersSet, Map<String, List<Object>>> res;
-		if (GamaExecutorService.shouldRunAllSimulationsInParallel(this)) {
-			res = launchSimulationsInParallelWithParametersSets(sets);
+		openStore();
+		if (BatchWorkers.shouldBeUsedBy(this)) {
+			res = launchSimulationsInWorkers(sets);
+		} else if (GamaExecutorService.shouldRunAllSimulationsInParallel(this)) {
+			res = getSpecies().runsSimulationsAsynchronously()
+					? launchSimulationsAsynchronouslyWithParametersSets(sets)
+					: launchSimulationsInParallelWithParametersSets(sets);
 		} else {
 			res = GamaMapFactory.create();
 			for (ParametersSet sol : sets) { res.put(sol, launchSimulationsWithSingleParametersSet(sol)); }
@@ -311,25 +337,12 @@ public class BatchAgent extends ExperimentAgent {
 		IMap<ParametersSet, Map<String, List<Object>>> res = GamaMapFactory.create();
 		if (pop == null) return res;
 
-		final List<Map<String, Object>> sims = new ArrayList<>();
+		final List<Map<String, Object>> sims = simulationsToRun(sols, res);
 
 		int numberOfCores = pop.getMaxNumberOfConcurrentSimulations();
 		if (numberOfCores == 0) { numberOfCores = 1; }
 
-		// The values present in the solution are passed to the parameters of
-		// the experiment
-		// @Patrick What this set was for ?
-		// LinkedHashSet<ParametersSet> sols_u = new LinkedHashSet<>(sols);
-		for (ParametersSet sol : sols) {
-			for (int i = 0; i < getSeeds().length; i++) {
-				runNumber = runNumber + 1;
-				Map<String, Object> sim = new HashMap<>();
-				sim.put("parameters", sol);
-				sim.put("seed", getSeeds()[i]);
-				sims.add(sim);
-			}
-		}
-
+		final int total = sims.size();
 		int nb = Math.min(sims.size(), numberOfCores);
 
 		List<Map<String, Object>> simsToRun = new Vector<>();
@@ -337,7 +350,7 @@ public class BatchAgent extends ExperimentAgent {
 		for (int i = 0; i < nb; i++) { simsToRun.add(sims.remove(0)); }
 		Map<IAgent, ParametersSet> simToParameter = GamaMapFactory.create();
 		Iterator<Map<String, Object>> it = simsToRun.iterator();
-		while (it.hasNext()) { createSimulation(it.next(), simToParameter); }
+		while (it.hasNext()) { createSimulation(it.next(), simToParameter, true); }
 		while (pop.hasScheduledSimulations() && !dead) {
 			// We step all the simulations
 			pop.step(getScope());
@@ -346,32 +359,333 @@ public class BatchAgent extends ExperimentAgent {
 				currentSolution = new ParametersSet(ps);
 
 				// test the condition first in case it is paused
-				final boolean stopConditionMet = dead
-						|| Cast.asBool(agent.getScope(), agent.getScope().evaluate(stopCondition, agent).getValue());
-				final boolean mustStop = stopConditionMet || agent.dead();
+				final boolean mustStop = dead || stopConditionMet(agent) || agent.dead();
 				// AD -- removed because it would prevent simulations from running if 'do pause' was called in the
 				// experiment
 				// || agent.getScope().isPaused();
 				if (mustStop) {
 					pop.unscheduleSimulation(agent);
 					// pop.remove(agent);
-					IMap<String, Object> localRes = manageOutputAndCloseSimulation(agent, ps, false, simDispose);
+					addResults(res, ps, manageOutputAndCloseSimulation(agent, ps, false, simDispose));
+					race(sims, ps, res);
 
-					if (!res.containsKey(ps)) { res.put(ps, GamaMapFactory.create()); }
-					localRes.forEach((output, obj) -> {
-						if (!res.get(ps).containsKey(output)) { res.get(ps).put(output, GamaListFactory.create()); }
-						res.get(ps).get(output).add(obj);
-					});
-
-					if (!sims.isEmpty()) { createSimulation(sims.remove(0), simToParameter); }
+					if (!sims.isEmpty()) { createSimulation(sims.remove(0), simToParameter, true); }
 
 				}
 			}
-			if (!dead) { informStatus(pop, sims.size()); }
+			if (!dead) {
+				informStatus(pop.getNumberOfActiveThreads(),
+						total - sims.size() - pop.getRunningSimulations().size(), total);
+			}
 			// We then verify that the front scheduler has not been paused
-			while (getSpecies().getController().isPaused() && !dead) { THREADS.WAIT(100); }
+			waitWhilePaused(100);
+		}
+		return combineResults(res);
+	}
+
+	/**
+	 * Launch simulations asynchronously: instead of stepping all the running simulations together, cycle after cycle,
+	 * each simulation is run in its own task until its stop condition is met, and a new simulation is created as soon
+	 * as one finishes. Its results are added to the map when it finishes, so that a slow simulation does not hold back
+	 * the others.
+	 *
+	 * @param sols
+	 *            the sols
+	 * @return the map
+	 * @throws GamaRuntimeException
+	 *             the gama runtime exception
+	 */
+	private IMap<ParametersSet, Map<String, List<Object>>> launchSimulationsAsynchronouslyWithParametersSets(
+			final List<ParametersSet> sols) throws GamaRuntimeException {
+		final SimulationPopulation pop = getSimulationPopulation();
+		IMap<ParametersSet, Map<String, List<Object>>> res = GamaMapFactory.create();
+		if (pop == null) return res;
+
+		final List<Map<String, Object>> sims = simulationsToRun(sols, res);
+		final int total = sims.size();
+		final int threads = Math.max(1, Math.min(pop.getMaxNumberOfConcurrentSimulations(), total));
+		// The simulations that are running, removed when they finish
+		final Map<IAgent, ParametersSet> simToParameter = GamaMapFactory.create();
+		boolean interrupted = false;
+		try (ExecutorService executor =
+				Executors.newFixedThreadPool(threads, r -> new Thread(r, "Batch simulation of " + getName()))) {
+			// The simulations are created and closed by this thread only: the tasks only step them
+			final CompletionService<SimulationAgent> running = new ExecutorCompletionService<>(executor);
+			int nbRunning = 0;
+			while (nbRunning < threads && !sims.isEmpty()) {
+				running.submit(runInTask(createSimulation(sims.remove(0), simToParameter, false)));
+				nbRunning++;
+			}
+			while (nbRunning > 0) {
+				final Future<SimulationAgent> finished;
+				try {
+					finished = running.take();
+				} catch (final InterruptedException e) {
+					// The tasks stop stepping their simulations, which are closed once the executor has terminated
+					executor.shutdownNow();
+					interrupted = true;
+					break;
+				}
+				// The tasks report their own errors, and always return their simulation
+				final SimulationAgent agent = finished.resultNow();
+				nbRunning--;
+				final ParametersSet ps = simToParameter.remove(agent);
+				currentSolution = new ParametersSet(ps);
+				addResults(res, ps, manageOutputAndCloseSimulation(agent, ps, false, simDispose));
+				race(sims, ps, res);
+				if (!dead && !sims.isEmpty()) {
+					running.submit(runInTask(createSimulation(sims.remove(0), simToParameter, false)));
+					nbRunning++;
+				}
+				if (!dead) { informStatus(nbRunning, total - sims.size() - nbRunning, total); }
+			}
+		}
+		if (interrupted) {
+			// The partial results are not combined
+			for (final IAgent agent : simToParameter.keySet()) { agent.primDie(agent.getScope()); }
+			Thread.currentThread().interrupt();
+			throw GamaRuntimeException.error("The simulations of " + getName() + " have been interrupted", null);
+		}
+		return combineResults(res);
+	}
+
+	/**
+	 * Returns the task that runs a simulation until it is stopped.
+	 *
+	 * @param agent
+	 *            the simulation
+	 * @return the task
+	 */
+	private Callable<SimulationAgent> runInTask(final SimulationAgent agent) {
+		return () -> {
+			try {
+				runUntilStopped(agent);
+			} catch (final Throwable t) {
+				GamaExecutorService.EXCEPTION_HANDLER.uncaughtException(Thread.currentThread(), t);
+			}
+			return agent;
+		};
+	}
+
+	/**
+	 * Steps a simulation until its stop condition is met, it dies or the batch is stopped, waiting while the
+	 * experiment is paused.
+	 *
+	 * @param agent
+	 *            the simulation
+	 */
+	private void runUntilStopped(final SimulationAgent agent) {
+		final Thread thread = Thread.currentThread();
+		while (!dead && !agent.dead() && !thread.isInterrupted()) {
+			// We verify that the front scheduler has not been paused
+			waitWhilePaused(100);
+			if (dead) { break; }
+			agent.step();
+			if (agent.dead() || stopConditionMet(agent)) { break; }
+		}
+	}
+
+	/**
+	 * Waits while the experiment is paused, unless the batch is stopped.
+	 *
+	 * @param delay
+	 *            the delay between two verifications, in milliseconds
+	 */
+	private void waitWhilePaused(final int delay) {
+		while (getSpecies().getController().isPaused() && !dead) { THREADS.WAIT(delay); }
+	}
+
+	/**
+	 * Whether the stop condition of the experiment is met by a simulation.
+	 *
+	 * @param agent
+	 *            the simulation
+	 * @return true, if met
+	 */
+	private boolean stopConditionMet(final SimulationAgent agent) {
+		return Cast.asBool(agent.getScope(), agent.getScope().evaluate(stopCondition, agent).getValue());
+	}
+
+	/**
+	 * Runs a single simulation in the current thread until it is stopped, and returns its outputs (used by the worker
+	 * processes, see {@link BatchWorkers}). The simulation is disposed of afterwards.
+	 *
+	 * @param parameters
+	 *            the parameters
+	 * @param seed
+	 *            the seed (or null to choose one)
+	 * @return the outputs of the simulation
+	 */
+	public IMap<String, Object> runSimulation(final ParametersSet parameters, final Double seed) {
+		runNumber = runNumber + 1;
+		final SimulationAgent agent = createSimulation(parameters, false);
+		agent.setSeed(seed);
+		runUntilStopped(agent);
+		return manageOutputAndCloseSimulation(agent, parameters, false, true);
+	}
+
+	/**
+	 * Launch the simulations in the worker processes, which are started the first time.
+	 *
+	 * @param sols
+	 *            the sols
+	 * @return the map
+	 * @throws GamaRuntimeException
+	 *             the gama runtime exception
+	 */
+	private IMap<ParametersSet, Map<String, List<Object>>> launchSimulationsInWorkers(final List<ParametersSet> sols)
+			throws GamaRuntimeException {
+		final IMap<ParametersSet, Map<String, List<Object>>> res = GamaMapFactory.create();
+		final List<Map<String, Object>> sims = simulationsToRun(sols, res);
+		if (sims.isEmpty()) return combineResults(res);
+		if (workers == null) { workers = new BatchWorkers(this); }
+		final int[] finished = { 0 };
+		workers.run(sims, (sim, outputs) -> {
+			final ParametersSet ps = (ParametersSet) sim.get("parameters");
+			currentSolution = new ParametersSet(ps);
+			if (store != null) { store.put(this, ps, (Double) sim.get("seed"), outputs); }
+			addResults(res, ps, outputs);
+			if (!dead) { informStatus(BATCH_WORKERS.getValue(), ++finished[0], sims.size()); }
+		});
+		return combineResults(res);
+	}
+
+	/**
+	 * Opens the store of the outputs of the simulations if the experiment caches them. As the simulations whose seed
+	 * is not fixed cannot be reproduced, their outputs are not stored.
+	 */
+	private void openStore() {
+		if (store == null && getSpecies().cachesResults() && getSpecies().keepsSeed()) {
+			store = BatchResultStore.of(this);
+		}
+	}
+
+	/**
+	 * Stops the worker processes and closes the store of the outputs, if any.
+	 */
+	private void closeWorkersAndStore() {
+		if (workers != null) {
+			workers.dispose();
+			workers = null;
+		}
+		if (store != null) {
+			store.close();
+			store = null;
+		}
+	}
+
+	/**
+	 * Returns the simulations to run for a list of parameter sets (one per seed and parameter set), and increments the
+	 * run number accordingly. The outputs of the simulations already present in the store are directly added to the
+	 * results.
+	 *
+	 * @param sols
+	 *            the sols
+	 * @param res
+	 *            the results
+	 * @return the parameters and seed of each simulation
+	 */
+	private List<Map<String, Object>> simulationsToRun(final List<ParametersSet> sols,
+			final IMap<ParametersSet, Map<String, List<Object>>> res) {
+		final List<Map<String, Object>> sims = new ArrayList<>();
+		// The values present in the solution are passed to the parameters of
+		// the experiment
+		// @Patrick What this set was for ?
+		// LinkedHashSet<ParametersSet> sols_u = new LinkedHashSet<>(sols);
+		// When racing, the first replicates of all the parameter sets are run before the next ones, so that the parameter
+		// sets that cannot beat the best one are dropped as early as possible
+		final boolean byReplicate = isRacing();
+		final int nbSeeds = getSeeds().length;
+		for (int k = 0; k < sols.size() * nbSeeds; k++) {
+			final ParametersSet sol = sols.get(byReplicate ? k % sols.size() : k / nbSeeds);
+			final int i = byReplicate ? k / sols.size() : k % nbSeeds;
+			runNumber = runNumber + 1;
+			final IMap<String, Object> stored = store == null ? null : store.get(getScope(), this, sol, getSeeds()[i]);
+			if (stored != null) {
+				addResults(res, sol, stored);
+				continue;
+			}
+			Map<String, Object> sim = new HashMap<>();
+			sim.put("parameters", sol);
+			sim.put("seed", getSeeds()[i]);
+			sims.add(sim);
 		}
+		if (byReplicate) { res.keySet().forEach(ps -> race(sims, ps, res)); }
+		return sims;
+	}
+
+	/**
+	 * Whether the exploration algorithm races the replicates of the parameter sets (see the facet 'racing' of the
+	 * optimization algorithms).
+	 *
+	 * @return true, if racing
+	 */
+	private boolean isRacing() {
+		return getSpecies().getExplorationAlgorithm() instanceof AOptimizationAlgorithm oAlgo && oAlgo.isRacing();
+	}
 
+	/**
+	 * Removes the simulations of a parameter set that have not been run yet when the exploration algorithm races the
+	 * replicates and the ones already run show that the parameter set cannot beat the best one found so far. Its
+	 * fitness is then the combination of the replicates already run.
+	 *
+	 * @param sims
+	 *            the simulations not run yet
+	 * @param ps
+	 *            the parameter set
+	 * @param res
+	 *            the results
+	 */
+	private void race(final List<Map<String, Object>> sims, final ParametersSet ps,
+			final IMap<ParametersSet, Map<String, List<Object>>> res) {
+		if (!isRacing() || !res.containsKey(ps) || !res.get(ps).containsKey(IKeyword.FITNESS)) return;
+		if (((AOptimizationAlgorithm) getSpecies().getExplorationAlgorithm()).cannotBeatBest(fitnessOf(res.get(ps)))) {
+			sims.removeIf(sim -> ps.equals(sim.get("parameters")));
+		}
+	}
+
+	/**
+	 * Returns the fitness of each simulation run with a parameter set.
+	 *
+	 * @param outputs
+	 *            the outputs of the simulations
+	 * @return the fitness values
+	 */
+	private List<Double> fitnessOf(final Map<String, List<Object>> outputs) {
+		final List<Double> fitness = new ArrayList<>();
+		for (final Object o : outputs.get(IKeyword.FITNESS)) { fitness.add(Double.parseDouble(o.toString())); }
+		return fitness;
+	}
+
+	/**
+	 * Adds the outputs of a simulation to the results of its parameter set.
+	 *
+	 * @param res
+	 *            the results
+	 * @param ps
+	 *            the parameter set
+	 * @param localRes
+	 *            the outputs of the simulation
+	 */
+	private void addResults(final IMap<ParametersSet, Map<String, List<Object>>> res, final ParametersSet ps,
+			final IMap<String, Object> localRes) {
+		if (!res.containsKey(ps)) { res.put(ps, GamaMapFactory.create()); }
+		localRes.forEach((output, obj) -> {
+			if (!res.get(ps).containsKey(output)) { res.get(ps).put(output, GamaListFactory.create()); }
+			res.get(ps).get(output).add(obj);
+		});
+	}
+
+	/**
+	 * Steps the experiment once the simulations are finished and combines the fitness values of the simulations run
+	 * with the same parameter set.
+	 *
+	 * @param res
+	 *            the results
+	 * @return the results
+	 */
+	private IMap<ParametersSet, Map<String, List<Object>>>
+			combineResults(final IMap<ParametersSet, Map<String, List<Object>>> res) {
 		// When the simulations are finished, we give a chance to the outputs of
 		// the experiment and the experiment
 		// agent itself to "step" once, effectively emulating what the front
@@ -395,15 +709,13 @@ public class BatchAgent extends ExperimentAgent {
 
 			res.forEach((p, map) -> {
 				lastSolution = p;
-				try (DoubleStream fit =
-						map.get(IKeyword.FITNESS).stream().mapToDouble(o -> Double.parseDouble(o.toString()))) {
-					lastFitness = fitnessCombination == AOptimizationAlgorithm.C_MAX ? fit.max().getAsDouble()
-							: fitnessCombination == AOptimizationAlgorithm.C_MIN ? fit.min().getAsDouble()
-							: fit.average().getAsDouble();
-				}
+				final List<Double> replicates = fitnessOf(map);
+				lastFitness = fitnessCombination == AOptimizationAlgorithm.C_MAX ? Collections.max(replicates)
+						: fitnessCombination == AOptimizationAlgorithm.C_MIN ? Collections.min(replicates)
+						: Statistics.calculateMean(replicates);
 				map.put(IKeyword.FITNESS, Collections.singletonList(lastFitness));
 				// we update the best solution found so far
-				oAlgo.updateBestFitness(lastSolution, lastFitness);
+				oAlgo.updateBestFitness(lastSolution, lastFitness, replicates);
 			});
 		}
 
@@ -429,6 +741,7 @@ public class BatchAgent extends ExperimentAgent {
 		Map<String, List<Object>> outputs = GamaMapFactory.create();
 
 		if (pop == null) return outputs;
+		openStore();
 
 		currentSolution = new ParametersSet(sol);
 		fitnessValues.clear();
@@ -450,9 +763,21 @@ public class BatchAgent extends ExperimentAgent {
 		while (repeatIndex < getSeeds().length && !dead) {
 			for (int coreIndex = 0; coreIndex < numberOfCores; coreIndex++) {
 				runNumber = runNumber + 1;
-
-				setSeed(getSeeds()[repeatIndex]);
-				createSimulation(currentSolution, true);
+				final IMap<String, Object> stored =
+						store == null ? null : store.get(getScope(), this, currentSolution, getSeeds()[repeatIndex]);
+				if (stored != null) {
+					// The simulation has already been run
+					if (stored.containsKey(IKeyword.FITNESS)) {
+						fitnessValues.add(Double.parseDouble(stored.get(IKeyword.FITNESS).toString()));
+					}
+					stored.forEach((out_vars, obj) -> {
+						if (!outputs.containsKey(out_vars)) { outputs.put(out_vars, GamaListFactory.create()); }
+						outputs.get(out_vars).add(obj);
+					});
+				} else {
+					setSeed(getSeeds()[repeatIndex]);
+					createSimulation(currentSolution, true);
+				}
 				repeatIndex++;
 				if (repeatIndex == getSeeds().length || dead) { break; }
 			}
@@ -486,7 +811,13 @@ public class BatchAgent extends ExperimentAgent {
 				if (!dead) { informStatus(pop, repeatIndex); }
 
 				// We then verify that the front scheduler has not been paused
-				while (getSpecies().getController().isPaused() && !dead) { THREADS.WAIT(10); }
+				waitWhilePaused(10);
+			}
+			// When racing, the remaining replicates are not run if the ones already run show that the solution cannot
+			// beat the best one
+			if (repeatIndex < getSeeds().length && isRacing()
+					&& ((AOptimizationAlgorithm) getSpecies().getExplorationAlgorithm()).cannotBeatBest(fitnessValues)) {
+				break;
 			}
 
 		}
@@ -517,7 +848,7 @@ public class BatchAgent extends ExperimentAgent {
 					: Statistics.calculateMean(fitnessValues);
 			outputs.put(IKeyword.FITNESS, GamaListFactory.createWithoutCasting(Types.FLOAT, lastFitness));
 			// we update the best solution found so far
-			oAlgo.updateBestFitness(lastSolution, lastFitness);
+			oAlgo.updateBestFitness(lastSolution, lastFitness, fitnessValues);
 		}
 
 		// At last, we update the parameters (last fitness and best fitness)
@@ -530,9 +861,22 @@ public class BatchAgent extends ExperimentAgent {
 	boolean pairIcon;
 
 	private void informStatus(final SimulationPopulation pop, final int repeatIndex) {
+		informStatus(pop.getNumberOfActiveThreads(), repeatIndex, seeds.length);
+	}
+
+	/**
+	 * Inform status.
+	 *
+	 * @param threads
+	 *            the number of threads running simulations
+	 * @param done
+	 *            the number of simulations done
+	 * @param total
+	 *            the number of simulations to run
+	 */
+	private void informStatus(final int threads, final int done, final int total) {
 		getScope().getGui().getStatus().setStatus(getScope(),
-				"Run " + runNumber + " | " + repeatIndex + "/" + seeds.length + " simulations (using "
-						+ pop.getNumberOfActiveThreads() + " threads)",
+				"Run " + runNumber + " | " + done + "/" + total + " simulations (using " + threads + " threads)",
 				"overlays/small.exp.batch.white" + (pairIcon ? "2" : ""));
 		pairIcon = !pairIcon;
 	}
@@ -618,6 +962,12 @@ public class BatchAgent extends ExperimentAgent {
 		 */
 	public void setKeepSimulations(final boolean keepSim) { this.simDispose = !keepSim; }
 
+	@Override
+	public void dispose() {
+		closeWorkersAndStore();
+		super.dispose();
+	}
+
 	@Override
 	public void closeSimulations(final boolean andLeaveExperimentPerspective) {
 		// We interrupt the simulation scope directly (as it cannot be
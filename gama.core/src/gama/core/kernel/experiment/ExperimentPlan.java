@@ -28,6 +28,7 @@ import gama.annotations.precompiler.IConcept;
 import gama.annotations.precompiler.ISymbolKind;
 import gama.core.common.interfaces.IKeyword;
 import gama.core.common.preferences.GamaPreferences;
+import gama.core.common.util.RandomUtils;
 import gama.core.kernel.batch.BatchOutput;
 import gama.core.kernel.batch.IExploration;
 import gama.core.kernel.batch.exploration.Exploration;
@@ -56,6 +57,7 @@ import gama.gaml.compilation.annotations.validator;
 import gama.gaml.compilation.kernel.GamaMetaModel;
 import gama.gaml.descriptions.ExperimentDescription;
 import gama.gaml.descriptions.IDescription;
+import gama.gaml.descriptions.VariableDescription;
 import gama.gaml.expressions.IExpression;
 import gama.gaml.interfaces.IGamlIssue;
 import gama.gaml.operators.Cast;
@@ -125,6 +127,16 @@ import gama.gaml.variables.IVariable;
 						optional = true,
 						doc = @doc ("the control architecture used for defining the behavior of the experiment"),
 						internal = true),
+				@facet (
+						name = IKeyword.ASYNCHRONOUS,
+						type = IType.BOOL,
+						optional = true,
+						doc = @doc ("In the case of a batch experiment that runs its simulations in parallel, specifies whether each simulation runs on its own until its stop condition is met, a new one being started as soon as one finishes, instead of all the simulations being stepped together, cycle after cycle. Useful when the simulations take very different times. False by default")),
+				@facet (
+						name = IKeyword.CACHE,
+						type = IType.BOOL,
+						optional = true,
+						doc = @doc ("In the case of a batch experiment, specifies whether the outputs of the simulations should be stored on disk (in the '.results' folder next to the model) and reused, instead of running the simulations again, when the experiment is run again with the same model, parameters and seeds (see 'keep_seed'). Allows to extend an exploration or to resume an interrupted one. False by default")),
 				@facet (
 						name = IKeyword.KEEP_SEED,
 						type = IType.BOOL,
@@ -150,6 +162,11 @@ import gama.gaml.variables.IVariable;
 						type = { IType.BOOL, IType.INT },
 						optional = true,
 						doc = @doc ("When set to true, use multiple threads to run its simulations. Setting it to n will set the numbers of threads to use")),
+				@facet (
+						name = IKeyword.PARALLEL_SPECIES,
+						type = IType.BOOL,
+						optional = true,
+						doc = @doc ("When set to true, the simulations step concurrently the populations of the species that neither refer to each other nor write the global attributes the others read (as determined when compiling the model), instead of one after the other. The schedule is printed in the console when the experiment is benchmarked. The simulations then synchronize their spatial indexes. As the numbers drawn from the other random generators depend on the order in which the agents are executed, the model should declare 'splitmix' as its 'rng' (a warning is emitted otherwise) to remain reproducible. False by default")),
 				@facet (
 						name = IKeyword.TYPE,
 						type = IType.LABEL,
@@ -314,6 +331,31 @@ public class ExperimentPlan extends GamlSpecies implements IExperimentPlan {
 								+ type + " experiment",
 						IGamlIssue.MISSING_FACET, desc.getUnderlyingElement(), UNTIL, "true");
 			}
+			if (desc.hasFacet(PARALLEL_SPECIES) && !FALSE.equals(desc.getLitteral(PARALLEL_SPECIES))) {
+				final String rng = getDeclaredRng(desc);
+				if (!RandomUtils.Generators.SPLITMIX.getName().equals(rng)) {
+					desc.warning("The random number generator of the model is "
+							+ (rng == null ? "computed" : "'" + rng + "'")
+							+ ": as its species are stepped concurrently, the numbers it draws will depend on the order in which the agents are executed. Declare 'string rng <- \"splitmix\";' in the global section to keep the simulations reproducible",
+							IGamlIssue.CONFLICTING_FACETS, PARALLEL_SPECIES);
+				}
+			}
+		}
+
+		/**
+		 * Returns the name of the random number generator the simulations of the model start with: the initial value of
+		 * the 'rng' attribute of the model if it is constant, the default generator if it is not redefined, and null
+		 * if it is computed.
+		 *
+		 * @param desc
+		 *            the description of the experiment
+		 * @return the name of the generator or null
+		 */
+		private String getDeclaredRng(final IDescription desc) {
+			final VariableDescription rng = desc.getModelDescription().getAttribute(RNG);
+			final IExpression init = rng == null ? null : rng.getFacetExpr(INIT);
+			if (init == null) return GamaPreferences.External.CORE_RNG.getValue();
+			return init.isConst() ? String.valueOf(init.getConstValue()) : null;
 		}
 	}
 
@@ -370,6 +412,15 @@ public class ExperimentPlan extends GamlSpecies implements IExperimentPlan {
 	/** The benchmarkable. */
 	private final boolean benchmarkable;
 
+	/** Whether the independent species are stepped concurrently. */
+	private final boolean parallelSpecies;
+
+	/** Whether the simulations of a batch run asynchronously. */
+	private final boolean asynchronous;
+
+	/** Whether the outputs of the simulations of a batch are stored on disk and reused. */
+	private final boolean cacheResults;
+
 	/** The should record. */
 	private final IExpression shouldRecord;
 
@@ -493,6 +544,12 @@ public class ExperimentPlan extends GamlSpecies implements IExperimentPlan {
 		}
 		final IExpression bm = getFacet(IKeyword.BENCHMARK);
 		benchmarkable = bm != null && Cast.asBool(myScope, bm.value(myScope));
+		final IExpression ps = getFacet(IKeyword.PARALLEL_SPECIES);
+		parallelSpecies = ps != null && Cast.asBool(myScope, ps.value(myScope));
+		final IExpression as = getFacet(IKeyword.ASYNCHRONOUS);
+		asynchronous = as != null && IKeyword.BATCH.equals(experimentType) && Cast.asBool(myScope, as.value(myScope));
+		final IExpression ca = getFacet(IKeyword.CACHE);
+		cacheResults = ca != null && IKeyword.BATCH.equals(experimentType) && Cast.asBool(myScope, ca.value(myScope));
 		shouldRecord = getFacet(IKeyword.RECORD);
 		stopCondition = getFacet(IKeyword.UNTIL);
 	}
@@ -917,7 +974,7 @@ public class ExperimentPlan extends GamlSpecies implements IExperimentPlan {
 	protected IParameter.Batch checkGetParameterByTitle(final String parameterName) throws GamaRuntimeException {
 		final IParameter.Batch v = getParameterByTitle(parameterName);
 		if (v == null) throw GamaRuntimeException
-				.error("No parameter named " + parameterName + " in experiment " + getName(), getExperimentScope());
+				.error("No parameter named " + parameterName + " in experiment " + getName(), myScope);
 		return v;
 	}
 
@@ -933,7 +990,7 @@ public class ExperimentPlan extends GamlSpecies implements IExperimentPlan {
 	protected IParameter.Batch checkGetParameter(final String parameterName) throws GamaRuntimeException {
 		final IParameter.Batch v = getParameter(parameterName);
 		if (v == null) throw GamaRuntimeException
-				.error("No parameter named " + parameterName + " in experiment " + getName(), getExperimentScope());
+				.error("No parameter named " + parameterName + " in experiment " + getName(), myScope);
 		return v;
 	}
 
@@ -1123,6 +1180,21 @@ public class ExperimentPlan extends GamlSpecies implements IExperimentPlan {
 		return benchmarkable;
 	}
 
+	@Override
+	public boolean stepsSpeciesConcurrently() {
+		return parallelSpecies;
+	}
+
+	@Override
+	public boolean runsSimulationsAsynchronously() {
+		return asynchronous;
+	}
+
+	@Override
+	public boolean cachesResults() {
+		return cacheResults;
+	}
+
 	@Override
 	public List<IExperimentDisplayable> getDisplayables() { return displayables; }
 
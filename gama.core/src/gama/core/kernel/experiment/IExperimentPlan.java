@@ -333,6 +333,35 @@ public interface IExperimentPlan extends ISpecies {
 				.error("The until condition of the experiment should be a boolean", GAMA.getRuntimeScope());
 	}
 
+	/**
+	 * Whether the simulations step concurrently the populations of the species that do not depend on each other.
+	 *
+	 * @return true, if successful
+	 */
+	default boolean stepsSpeciesConcurrently() {
+		return false;
+	}
+
+	/**
+	 * Whether the simulations of a batch experiment run each on its own until their stop condition is met, instead of
+	 * being stepped together.
+	 *
+	 * @return true, if successful
+	 */
+	default boolean runsSimulationsAsynchronously() {
+		return false;
+	}
+
+	/**
+	 * Whether the outputs of the simulations of a batch experiment are stored on disk and reused when the same
+	 * simulations are run again.
+	 *
+	 * @return true, if successful
+	 */
+	default boolean cachesResults() {
+		return false;
+	}
+
 	/**
 	 * Sets the parameter values.
 	 *
@@ -211,6 +211,9 @@ public class SimulationAgent extends GamlAgent implements ITopLevelAgent {
 	/** The random. */
 	private RandomUtils random;
 
+	/** The schedule of the species, if the experiment steps the independent ones concurrently. */
+	private SpeciesSchedule speciesSchedule;
+
 	/** The executer. */
 	private final ActionExecuter executer;
 
@@ -329,7 +332,9 @@ public class SimulationAgent extends GamlAgent implements ITopLevelAgent {
 	public void setTopology(final IScope scope, final IShape shape) {
 		// A topology has already been computed. We update it and updates all
 		// the agents present in the spatial index
-		final boolean[] parallel = { GamaExecutorService.CONCURRENCY_SPECIES.getValue() };
+		final IExperimentAgent experiment = getExperiment();
+		final boolean[] parallel = { GamaExecutorService.CONCURRENCY_SPECIES.getValue()
+				|| experiment != null && experiment.getSpecies().stepsSpeciesConcurrently() };
 
 		if (!parallel[0]) {
 			getSpecies().getDescription().visitMicroSpecies(s -> {
@@ -395,6 +400,22 @@ public class SimulationAgent extends GamlAgent implements ITopLevelAgent {
 		return super.preStep(scope);
 	}
 
+	@Override
+	protected boolean stepSubPopulations(final IScope scope) {
+		final IExperimentAgent experiment = getExperiment();
+		if (experiment == null || !experiment.getSpecies().stepsSpeciesConcurrently())
+			return super.stepSubPopulations(scope);
+		final IPopulation<? extends IAgent>[] populations = getMicroPopulations();
+		if (speciesSchedule == null || speciesSchedule.populations != populations) {
+			speciesSchedule = new SpeciesSchedule(populations);
+			if (experiment.getSpecies().shouldBeBenchmarked()) {
+				scope.getGui().getConsole().informConsole("Species schedule of " + getName() + ": " + speciesSchedule,
+						this);
+			}
+		}
+		return speciesSchedule.step(scope);
+	}
+
 	@Override
 	protected void postStep(final IScope scope) {
 		super.postStep(scope);
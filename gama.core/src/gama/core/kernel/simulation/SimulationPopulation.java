@@ -47,8 +47,11 @@ public class SimulationPopulation extends GamaPopulation<SimulationAgent> {
 	/** The current simulation. */
 	private SimulationAgent currentSimulation;
 
-	/** The runner. */
-	private final ISimulationRunner runner;
+	/**
+	 * The runner, chosen when it is first needed and again after the population has been disposed (as batch
+	 * experiments do after each of their steps), so that it follows the preference.
+	 */
+	private volatile ISimulationRunner runner;
 
 	/**
 	 * Instantiates a new simulation population.
@@ -60,7 +63,16 @@ public class SimulationPopulation extends GamaPopulation<SimulationAgent> {
 	 */
 	public SimulationPopulation(final ExperimentAgent agent, final ISpecies species) {
 		super(agent, species);
-		runner = SimulationRunner.of(this);
+	}
+
+	/**
+	 * Returns the runner of the simulations, creating it if needed.
+	 *
+	 * @return the runner
+	 */
+	private synchronized ISimulationRunner runner() {
+		if (runner == null) { runner = SimulationRunner.of(this); }
+		return runner;
 	}
 
 	/**
@@ -73,8 +85,10 @@ public class SimulationPopulation extends GamaPopulation<SimulationAgent> {
 				Caller.SIMULATION);
 	}
 
+	// The creation and the removal of the simulations are serialized, as the simulations of a batch can die in the
+	// threads that step them while the experiment creates others
 	@Override
-	public void removeValue(final IScope scope, final Object value) {
+	public synchronized void removeValue(final IScope scope, final Object value) {
 		if (value instanceof SimulationAgent sim) {
 			int index = indexOf(sim);
 			if (index == -1) return;
@@ -104,7 +118,8 @@ public class SimulationPopulation extends GamaPopulation<SimulationAgent> {
 	@Override
 	protected void fireAgentRemoved(final IScope scope, final IAgent old) {
 		super.fireAgentRemoved(scope, old);
-		runner.remove((SimulationAgent) old);
+		final ISimulationRunner r = runner;
+		if (r != null) { r.remove((SimulationAgent) old); }
 	}
 
 	@Override
@@ -116,7 +131,9 @@ public class SimulationPopulation extends GamaPopulation<SimulationAgent> {
 
 	@Override
 	public void dispose() {
-		runner.dispose();
+		final ISimulationRunner r = runner;
+		runner = null;
+		if (r != null) { r.dispose(); }
 		// currentSimulation = null;
 		super.dispose();
 	}
@@ -127,7 +144,7 @@ public class SimulationPopulation extends GamaPopulation<SimulationAgent> {
 	}
 
 	@Override
-	public IList<SimulationAgent> createAgents(final IScope scope, final int number,
+	public synchronized IList<SimulationAgent> createAgents(final IScope scope, final int number,
 			final List<? extends Map<String, Object>> initialValues, final boolean isRestored,
 			final boolean toBeScheduled, final RemoteSequence sequence) throws GamaRuntimeException {
 
@@ -149,7 +166,7 @@ public class SimulationPopulation extends GamaPopulation<SimulationAgent> {
 			// Necessary to set it early -- see Issue #3872
 			setCurrentSimulation(sim);
 			initSimulation(scope, sim, initialValues, i, isRestored, toBeScheduled, sequence);
-			if (toBeScheduled) { runner.add(sim); }
+			if (toBeScheduled) { runner().add(sim); }
 			result.add(sim);
 		}
 		// Linked to Issue #2430. Should not return this, but the newly created simulations
@@ -234,7 +251,7 @@ public class SimulationPopulation extends GamaPopulation<SimulationAgent> {
 
 	@Override
 	protected boolean stepAgents(final IScope scope) {
-		runner.step();
+		runner().step();
 		return true;
 	}
 
@@ -244,7 +261,7 @@ public class SimulationPopulation extends GamaPopulation<SimulationAgent> {
 	 * @param sim
 	 */
 	public void unscheduleSimulation(final SimulationAgent sim) {
-		runner.remove(sim);
+		runner().remove(sim);
 	}
 
 	/**
@@ -252,20 +269,20 @@ public class SimulationPopulation extends GamaPopulation<SimulationAgent> {
 	 *
 	 * @return the number of active stepables
 	 */
-	public Set<SimulationAgent> getRunningSimulations() { return runner.getStepable(); }
+	public Set<SimulationAgent> getRunningSimulations() { return runner().getStepable(); }
 
 	/**
 	 * Gets the number of active threads.
 	 *
 	 * @return the number of active threads
 	 */
-	public int getNumberOfActiveThreads() { return runner.getActiveThreads(); }
+	public int getNumberOfActiveThreads() { return runner().getActiveThreads(); }
 
 	/**
 	 * @return
 	 */
 	public boolean hasScheduledSimulations() {
-		return runner.hasSimulations();
+		return runner().hasSimulations();
 	}
 
 	/**
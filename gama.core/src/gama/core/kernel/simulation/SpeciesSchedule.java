@@ -0,0 +1,104 @@
+/*******************************************************************************************************
+ *
+ * SpeciesSchedule.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform
+ * .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.kernel.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+
+import gama.core.metamodel.agent.IAgent;
+import gama.core.metamodel.population.IPopulation;
+import gama.core.runtime.IScope;
+import gama.core.runtime.concurrent.GamaExecutorService;
+import gama.gaml.descriptions.SpeciesFootprint;
+
+/**
+ * The order in which a simulation steps the populations of its species when the experiment asks for the independent
+ * species to be stepped concurrently. The populations are grouped in successive waves: a population is put in the wave
+ * that follows the last one containing a population it conflicts with (see {@link SpeciesFootprint}), so that the
+ * populations that conflict are still stepped in the order of the model, and the ones of the same wave are stepped
+ * concurrently on the agent executor. The simulation then draws its random numbers from the streams of the agents and
+ * uses synchronized spatial indexes (see {@link SimulationAgent}).
+ */
+public final class SpeciesSchedule {
+
+	/** The populations, in the order of the model. */
+	final IPopulation<? extends IAgent>[] populations;
+
+	/** The waves. */
+	private final List<List<IPopulation<? extends IAgent>>> waves = new ArrayList<>();
+
+	/**
+	 * Builds the schedule of the populations.
+	 *
+	 * @param populations
+	 *            the populations, in the order in which they are stepped sequentially
+	 */
+	SpeciesSchedule(final IPopulation<? extends IAgent>[] populations) {
+		this.populations = populations;
+		final int n = populations.length;
+		final SpeciesFootprint[] footprints = new SpeciesFootprint[n];
+		final int[] wave = new int[n];
+		for (int i = 0; i < n; i++) {
+			footprints[i] = populations[i].getSpecies().getDescription().getFootprint();
+			for (int j = 0; j < i; j++) {
+				if (wave[j] >= wave[i] && footprints[i].conflictsWith(footprints[j])) { wave[i] = wave[j] + 1; }
+			}
+			while (waves.size() <= wave[i]) { waves.add(new ArrayList<>()); }
+			waves.get(wave[i]).add(populations[i]);
+		}
+	}
+
+	/**
+	 * Steps the populations, wave after wave.
+	 *
+	 * @param scope
+	 *            the scope of the simulation
+	 * @return true if all the populations have been stepped successfully
+	 */
+	boolean step(final IScope scope) {
+		for (final List<IPopulation<? extends IAgent>> wave : waves) {
+			if (wave.size() == 1) {
+				if (!scope.step(wave.get(0)).passed()) return false;
+				continue;
+			}
+			final List<ForkJoinTask<Boolean>> tasks = new ArrayList<>(wave.size());
+			for (final IPopulation<? extends IAgent> pop : wave) {
+				tasks.add(ForkJoinTask.adapt(() -> {
+					try (IScope copy = scope.copy(" - species - ")) {
+						return copy.step(pop).passed();
+					}
+				}));
+			}
+			GamaExecutorService.AGENT_PARALLEL_EXECUTOR.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+			for (final ForkJoinTask<Boolean> task : tasks) { if (!task.join()) return false; }
+			if (scope.interrupted()) return false;
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < waves.size(); i++) {
+			if (i > 0) { sb.append(" then "); }
+			sb.append('[');
+			final List<IPopulation<? extends IAgent>> wave = waves.get(i);
+			for (int j = 0; j < wave.size(); j++) {
+				if (j > 0) { sb.append(", "); }
+				sb.append(wave.get(j).getSpecies().getName());
+			}
+			sb.append(']');
+		}
+		return sb.toString();
+	}
+
+}
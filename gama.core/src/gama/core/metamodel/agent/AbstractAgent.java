@@ -23,17 +23,21 @@ import gama.core.common.interfaces.IKeyword;
 import gama.core.kernel.model.IModel;
 import gama.core.kernel.simulation.SimulationAgent;
 import gama.core.metamodel.population.IPopulation;
+import gama.core.metamodel.population.PopulationColumns;
 import gama.core.metamodel.shape.GamaPoint;
 import gama.core.metamodel.shape.IShape;
 import gama.core.metamodel.topology.ITopology;
 import gama.core.runtime.GAMA;
 import gama.core.runtime.IScope;
 import gama.core.runtime.exceptions.GamaRuntimeException;
+import gama.core.util.BiConsumerWithPruning;
 import gama.core.util.GamaListFactory;
 import gama.core.util.GamaMapFactory;
 import gama.core.util.IList;
 import gama.core.util.IMap;
 import gama.gaml.descriptions.ModelDescription;
+import gama.gaml.descriptions.SpeciesDescription;
+import gama.gaml.interfaces.IAttributed;
 import gama.gaml.operators.Cast;
 import gama.gaml.species.ISpecies;
 import gama.gaml.types.IType;
@@ -77,9 +81,24 @@ public abstract class AbstractAgent implements IAgent {
 	/** The dying. */
 	protected volatile boolean dying = false;
 
-	/** The attributes. */
+	/** The attributes that have no slot in the layout of the species (or all of them once the map has been requested) */
 	protected IMap<String, Object> attributes;
 
+	/** The values of the attributes declared in the species, indexed by their slot in the layout. Null until set */
+	protected Object[] slots;
+
+	/** The layout of the slots. Null until resolved, {@link AttributeLayout#EMPTY} once the map is used instead */
+	protected AttributeLayout layout;
+
+	/** The row of the agent in the columns of its population, if it is columnar. -1 until a value is stored */
+	private volatile int row = -1;
+
+	/** The cycle in which the random stream of the agent has last been entered from outside of any other stream */
+	private long streamCycle = -1;
+
+	/** The number of times the random stream of the agent has been entered in this cycle */
+	private int streamEntries;
+
 	/**
 	 * Instantiates a new abstract agent.
 	 *
@@ -129,6 +148,8 @@ public abstract class AbstractAgent implements IAgent {
 			attributes.clear();
 			attributes = null;
 		}
+		slots = null;
+		if (p != null && layout != null && layout.isColumnar()) { releaseRow(p.getColumns()); }
 		GAMA.getBufferingController().flushSaveFilesOfAgent(this);
 		GAMA.getBufferingController().flushWriteOfAgent(this);
 	}
@@ -197,10 +218,214 @@ public abstract class AbstractAgent implements IAgent {
 	 */
 	@Override
 	public IMap<String, Object> getAttributes(final boolean createIfNeeded) {
-		if (attributes == null && createIfNeeded) { attributes = GamaMapFactory.create(Types.STRING, Types.NO_TYPE); }
+		// The map is expected to contain all the attributes and to be modifiable directly: the values of the slots are
+		// moved to it and the agent only uses the map from now on. Callers that only read the attributes use
+		// copyOfAttributes() or forEachAttribute() instead
+		final AttributeLayout l = layout;
+		if (l != AttributeLayout.EMPTY) {
+			if (l != null && (slots != null || l.isColumnar())) {
+				final IMap<String, Object> map = newAttributes();
+				for (int i = 0; i < l.size(); i++) { if (isSet(l, i)) { map.put(l.nameOf(i), read(l, i)); } }
+				if (attributes != null) { map.putAll(attributes); }
+				attributes = map;
+				slots = null;
+				if (l.isColumnar()) { releaseRow(getPopulation().getColumns()); }
+			}
+			layout = AttributeLayout.EMPTY;
+		}
+		if (attributes == null && createIfNeeded) { attributes = newAttributes(); }
 		return attributes;
 	}
 
+	/**
+	 * Creates a map of attributes.
+	 *
+	 * @return the map
+	 */
+	@SuppressWarnings ("unchecked")
+	private static IMap<String, Object> newAttributes() {
+		return GamaMapFactory.create(Types.STRING, Types.NO_TYPE);
+	}
+
+	/**
+	 * Returns the layout of the slots, resolving it from the species if needed.
+	 *
+	 * @return the attribute layout
+	 */
+	protected AttributeLayout getLayout() {
+		AttributeLayout l = layout;
+		if (l == null) {
+			final IPopulation<? extends IAgent> p = getPopulation();
+			final ISpecies s = p == null ? null : p.getSpecies();
+			final SpeciesDescription d = s == null ? null : s.getDescription();
+			l = d == null ? AttributeLayout.EMPTY : d.getAttributeLayout();
+			layout = l;
+		}
+		return l;
+	}
+
+	/**
+	 * Reads the value of a slot of the layout, either in the slots of the agent or in the columns of the population.
+	 */
+	private Object read(final AttributeLayout l, final int slot) {
+		if (l.isColumnar()) {
+			final int column = l.columnOf(slot);
+			if (column >= 0) return getPopulation().getColumns().get(column, row);
+		}
+		final Object[] values = slots;
+		if (values == null) return null;
+		final Object value = values[slot];
+		return value == AttributeLayout.UNSET ? null : value;
+	}
+
+	/**
+	 * Writes the value of a slot of the layout.
+	 */
+	private void write(final AttributeLayout l, final int slot, final Object value) {
+		if (l.isColumnar()) {
+			final int column = l.columnOf(slot);
+			if (column >= 0) {
+				final PopulationColumns columns = getPopulation().getColumns();
+				columns.set(column, rowIn(columns), value);
+				return;
+			}
+		}
+		if (slots == null) { slots = l.newValues(); }
+		slots[slot] = value;
+	}
+
+	/**
+	 * Returns the row of the agent in the columns, attributing one if it has none yet.
+	 */
+	private int rowIn(final PopulationColumns columns) {
+		int r = row;
+		if (r < 0) {
+			synchronized (this) {
+				r = row;
+				if (r < 0) {
+					r = columns.allocate();
+					row = r;
+				}
+			}
+		}
+		return r;
+	}
+
+	/**
+	 * Gives the row of the agent back to the columns, so that another agent can use it.
+	 */
+	private void releaseRow(final PopulationColumns columns) {
+		final int r = row;
+		row = -1;
+		columns.release(r);
+	}
+
+	@Override
+	public int getColumnsRow() { return row; }
+
+	@Override
+	public synchronized int nextStreamEntry(final long cycle) {
+		if (cycle != streamCycle) {
+			streamCycle = cycle;
+			streamEntries = 0;
+		}
+		return streamEntries++;
+	}
+
+	/**
+	 * Whether a slot of the layout has been set.
+	 */
+	private boolean isSet(final AttributeLayout l, final int slot) {
+		if (l.isColumnar()) {
+			final int column = l.columnOf(slot);
+			if (column >= 0) return getPopulation().getColumns().has(column, row);
+		}
+		return slots != null && slots[slot] != AttributeLayout.UNSET;
+	}
+
+	@Override
+	public Object getAttribute(final String key) {
+		final AttributeLayout l = getLayout();
+		final int slot = l.indexOf(key);
+		if (slot < 0) return attributes == null ? null : attributes.get(key);
+		return read(l, slot);
+	}
+
+	@Override
+	public Object getAttribute(final AttributeLayout l, final int slot, final String key) {
+		final AttributeLayout own = getLayout();
+		if (!own.holds(slot, key)) return getAttribute(key);
+		return read(own, slot);
+	}
+
+	@Override
+	public void setAttribute(final String key, final Object value) {
+		final AttributeLayout l = getLayout();
+		final int slot = l.indexOf(key);
+		if (slot < 0) {
+			if (attributes == null) { attributes = newAttributes(); }
+			attributes.put(key, value);
+		} else {
+			write(l, slot, value);
+		}
+	}
+
+	@Override
+	public void setAttribute(final AttributeLayout l, final int slot, final String key, final Object value) {
+		final AttributeLayout own = getLayout();
+		if (!own.holds(slot, key)) {
+			setAttribute(key, value);
+		} else {
+			write(own, slot, value);
+		}
+	}
+
+	@Override
+	public boolean hasAttribute(final String key) {
+		final AttributeLayout l = getLayout();
+		final int slot = l.indexOf(key);
+		if (slot < 0) return attributes != null && attributes.containsKey(key);
+		return isSet(l, slot);
+	}
+
+	@Override
+	public boolean hasAttribute(final AttributeLayout l, final int slot, final String key) {
+		final AttributeLayout own = getLayout();
+		if (!own.holds(slot, key)) return hasAttribute(key);
+		return isSet(own, slot);
+	}
+
+	@Override
+	public void forEachAttribute(final BiConsumerWithPruning<String, Object> visitor) {
+		if (visitor == null) return;
+		final AttributeLayout l = getLayout();
+		if (slots != null || l.isColumnar()) {
+			for (int i = 0; i < l.size(); i++) {
+				if (isSet(l, i) && !visitor.process(l.nameOf(i), read(l, i))) return;
+			}
+		}
+		if (attributes == null) return;
+		for (final Map.Entry<String, Object> entry : attributes.entrySet()) {
+			if (!visitor.process(entry.getKey(), entry.getValue())) return;
+		}
+	}
+
+	@Override
+	public void setAttributes(final Map<String, Object> attr) {
+		if (attr == null) return;
+		attr.forEach(this::setAttribute);
+	}
+
+	@Override
+	public void copyAttributesOf(final IAttributed source) {
+		if (source == null) return;
+		// Does not ask for the map of the source, which would make it give up its slots
+		source.forEachAttribute((k, v) -> {
+			setAttribute(k, v);
+			return true;
+		});
+	}
+
 	/**
 	 * Compare to.
 	 *
@@ -0,0 +1,202 @@
+/*******************************************************************************************************
+ *
+ * AttributeLayout.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform
+ * .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.metamodel.agent;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The layout of the attributes declared in a species: assigns to each of them a fixed slot in the array where the
+ * agents of the species store their values (see {@link AbstractAgent}). Computed once by the species description. The
+ * attributes inherited keep the slot they have in the parent species, so that the layout of a species always begins
+ * with the one of its parent.
+ *
+ * In columnar species, the values of some slots (the int, float and bool attributes declared in the species) are not
+ * stored by the agents but in the columns of their population.
+ */
+public final class AttributeLayout {
+
+	/** The value of the slots that have never been set. */
+	static final Object UNSET = new Object() {
+
+		@Override
+		public String toString() {
+			return "unset";
+		}
+	};
+
+	/** The layout without any slot, in which all the attributes are stored in the map of the agents. */
+	public static final AttributeLayout EMPTY = new AttributeLayout(null, Set.of(), Map.of());
+
+	/** The names of the attributes, by slot. */
+	private final String[] names;
+
+	/** The slots of the attributes. */
+	private final Map<String, Integer> slots;
+
+	/** The column of each slot (or -1) if the values are stored in the columns of the population. Null otherwise */
+	private final int[] columns;
+
+	/** The type (IType id) of each column. */
+	private final int[] columnTypes;
+
+	/**
+	 * Instantiates a new layout.
+	 *
+	 * @param parent
+	 *            the layout of the parent species (can be null)
+	 * @param attributes
+	 *            the names of the attributes stored by the agents of the species
+	 * @param columnar
+	 *            the attributes (among the previous ones) whose values are stored in the columns of the population,
+	 *            with their type (int, float or bool). Empty if the species is not columnar
+	 * @see gama.core.metamodel.population.PopulationColumns
+	 */
+	public AttributeLayout(final AttributeLayout parent, final Iterable<String> attributes,
+			final Map<String, Integer> columnar) {
+		final Set<String> all = new LinkedHashSet<>();
+		if (parent != null) { all.addAll(Arrays.asList(parent.names)); }
+		for (final String name : attributes) { all.add(name); }
+		names = all.toArray(new String[all.size()]);
+		slots = new HashMap<>(names.length * 2);
+		for (int i = 0; i < names.length; i++) { slots.put(names[i], i); }
+		if (columnar.isEmpty()) {
+			columns = null;
+			columnTypes = null;
+		} else {
+			columns = new int[names.length];
+			Arrays.fill(columns, -1);
+			columnTypes = new int[columnar.size()];
+			int c = 0;
+			for (final Map.Entry<String, Integer> entry : columnar.entrySet()) {
+				final Integer slot = slots.get(entry.getKey());
+				if (slot == null) { continue; }
+				columns[slot] = c;
+				columnTypes[c++] = entry.getValue();
+			}
+		}
+	}
+
+	/**
+	 * Returns the slot of the attribute, or -1 if it has none.
+	 *
+	 * @param name
+	 *            the name
+	 * @return the slot
+	 */
+	public int indexOf(final String name) {
+		final Integer slot = slots.get(name);
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * Whether the attribute is stored in the slot in this layout. As the layout of a species begins with the one of its
+	 * parent, a slot obtained from the layout of a parent species is valid in the layouts of all its descendants.
+	 *
+	 * @param slot
+	 *            the slot
+	 * @param name
+	 *            the name of the attribute
+	 * @return true if the slot holds the attribute
+	 */
+	public boolean holds(final int slot, final String name) {
+		if (slot < 0 || slot >= names.length) return false;
+		final String n = names[slot];
+		return n == name || n.equals(name);
+	}
+
+	/**
+	 * Returns the name of the attribute stored in the slot.
+	 *
+	 * @param slot
+	 *            the slot
+	 * @return the name
+	 */
+	public String nameOf(final int slot) {
+		return names[slot];
+	}
+
+	/**
+	 * The number of slots.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return names.length;
+	}
+
+	/**
+	 * Whether some attributes are stored in the columns of the population.
+	 *
+	 * @return true if the species is columnar
+	 */
+	public boolean isColumnar() {
+		return columns != null;
+	}
+
+	/**
+	 * Returns the column in which the values of the slot are stored, or -1 if they are stored by the agents.
+	 *
+	 * @param slot
+	 *            the slot
+	 * @return the column
+	 */
+	public int columnOf(final int slot) {
+		return columns == null ? -1 : columns[slot];
+	}
+
+	/**
+	 * Returns the column in which the values of the attribute are stored, or -1.
+	 *
+	 * @param name
+	 *            the name of the attribute
+	 * @return the column
+	 */
+	public int columnOf(final String name) {
+		final Integer slot = columns == null ? null : slots.get(name);
+		return slot == null ? -1 : columns[slot];
+	}
+
+	/**
+	 * The number of columns.
+	 *
+	 * @return the number of columns
+	 */
+	public int columnCount() {
+		return columnTypes == null ? 0 : columnTypes.length;
+	}
+
+	/**
+	 * The type (IType id) of the values stored in the column.
+	 *
+	 * @param column
+	 *            the column
+	 * @return the type id
+	 */
+	public int columnType(final int column) {
+		return columnTypes[column];
+	}
+
+	/**
+	 * Creates the array of values of an agent, where no slot is set.
+	 *
+	 * @return the values
+	 */
+	Object[] newValues() {
+		final Object[] values = new Object[names.length];
+		Arrays.fill(values, UNSET);
+		return values;
+	}
+
+}
@@ -36,14 +36,17 @@ import gama.core.metamodel.topology.ITopology;
 import gama.core.runtime.IScope;
 import gama.core.runtime.exceptions.GamaRuntimeException;
 import gama.core.util.GamaListFactory;
+import gama.core.util.GamaMapFactory;
 import gama.core.util.IContainer;
 import gama.core.util.IList;
+import gama.core.util.IMap;
 import gama.core.util.file.json.Json;
 import gama.core.util.file.json.JsonValue;
 import gama.gaml.interfaces.IAttributed;
 import gama.gaml.interfaces.INamed;
 import gama.gaml.species.ISpecies;
 import gama.gaml.types.IType;
+import gama.gaml.types.Types;
 import gama.gaml.variables.IVariable;
 
 /**
@@ -328,6 +331,93 @@ public interface IAgent extends IShape, INamed, IAttributed, Comparable<IAgent>,
 	 */
 	void setDirectVarValue(IScope scope, String s, Object v) throws GamaRuntimeException;
 
+	/**
+	 * Gets the value of an attribute using its slot in the layout of a species. If the layout of the agent does not begin
+	 * with this one, the value is looked up by name.
+	 *
+	 * @param layout
+	 *            the layout of the species that declares the attribute
+	 * @param slot
+	 *            the slot of the attribute in this layout (or -1)
+	 * @param name
+	 *            the name of the attribute
+	 * @return the value
+	 */
+	default Object getAttribute(final AttributeLayout layout, final int slot, final String name) {
+		return getAttribute(name);
+	}
+
+	/**
+	 * Sets the value of an attribute using its slot in the layout of a species. If the layout of the agent does not begin
+	 * with this one, the value is stored by name.
+	 *
+	 * @param layout
+	 *            the layout of the species that declares the attribute
+	 * @param slot
+	 *            the slot of the attribute in this layout (or -1)
+	 * @param name
+	 *            the name of the attribute
+	 * @param value
+	 *            the value
+	 */
+	default void setAttribute(final AttributeLayout layout, final int slot, final String name, final Object value) {
+		setAttribute(name, value);
+	}
+
+	/**
+	 * Whether the attribute has a value, using its slot in the layout of a species. If the layout of the agent does not
+	 * begin with this one, the attribute is looked up by name.
+	 *
+	 * @param layout
+	 *            the layout of the species that declares the attribute
+	 * @param slot
+	 *            the slot of the attribute in this layout (or -1)
+	 * @param name
+	 *            the name of the attribute
+	 * @return true, if the attribute has a value
+	 */
+	default boolean hasAttribute(final AttributeLayout layout, final int slot, final String name) {
+		return hasAttribute(name);
+	}
+
+	/**
+	 * Returns a copy of the attributes of the agent. Contrary to {@link #getAttributes(boolean)}, which gives access to
+	 * the map where the agent keeps them (and makes it give up its slots), it can be used to read all the attributes.
+	 *
+	 * @return a new map of the attributes
+	 */
+	@SuppressWarnings ("unchecked")
+	default IMap<String, Object> copyOfAttributes() {
+		final IMap<String, Object> map = GamaMapFactory.create(Types.STRING, Types.NO_TYPE);
+		forEachAttribute((k, v) -> {
+			map.put(k, v);
+			return true;
+		});
+		return map;
+	}
+
+	/**
+	 * Returns the row of the agent in the columns of its population, if the population is columnar and a value of the
+	 * agent has been stored in them, -1 otherwise.
+	 *
+	 * @return the row or -1
+	 * @see gama.core.metamodel.population.PopulationColumns
+	 */
+	default int getColumnsRow() { return -1; }
+
+	/**
+	 * Counts an entry in the random stream of the agent (see {@link gama.core.util.random.SplitMixRNG}) from outside of
+	 * the stream of any other agent, so that its step and the statements it is asked to execute in the same cycle do
+	 * not draw the same values.
+	 *
+	 * @param cycle
+	 *            the current cycle
+	 * @return the number of times the stream had already been entered in this cycle
+	 */
+	default int nextStreamEntry(final long cycle) {
+		return 0;
+	}
+
 	/**
 	 * A utility method to notify any variable listener of a value change
 	 *
@@ -69,10 +69,12 @@ public record SerialisedAgent(int index, String species, Map<String, Object> att
 	public static SerialisedAgent of(final IAgent target, final boolean serializePopulations) {
 		int index = target.getIndex();
 		String species = target.getSpeciesName();
-		Map<String, Object> attributes = filterAttributes(target, target instanceof IGridAgent,
-				target.getAttributes(true), serializePopulations);
-		Map<String, ISerialisedPopulation> populations = filterPopulations(target, target instanceof IGridAgent,
-				target.getAttributes(true), serializePopulations);
+		// A copy, so that the agent keeps its attributes in slots
+		Map<String, Object> all = target.copyOfAttributes();
+		Map<String, Object> attributes =
+				filterAttributes(target, target instanceof IGridAgent, all, serializePopulations);
+		Map<String, ISerialisedPopulation> populations =
+				filterPopulations(target, target instanceof IGridAgent, all, serializePopulations);
 		SerialisedAgent result = new SerialisedAgent(index, species, attributes, populations);
 		if (target instanceof SimulationAgent sa && !shouldSerializeHistory(sa)) {
 			result.attributes().remove(HISTORY_KEY);
@@ -39,11 +39,13 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 
 import gama.core.common.interfaces.IKeyword;
+import gama.core.metamodel.agent.AttributeLayout;
 import gama.core.metamodel.agent.IAgent;
 import gama.core.metamodel.agent.IMacroAgent;
 import gama.core.metamodel.shape.GamaPoint;
 import gama.core.metamodel.shape.GamaShapeFactory;
 import gama.core.metamodel.shape.IShape;
+import gama.core.metamodel.topology.ISpatialIndex;
 import gama.core.metamodel.topology.ITopology;
 import gama.core.metamodel.topology.continuous.ContinuousTopology;
 import gama.core.metamodel.topology.filter.IAgentFilter;
@@ -126,6 +128,9 @@ public class GamaPopulation<T extends IAgent> extends GamaList<T> implements IPo
 	/** The ordered var names. */
 	public final LinkedHashSet<String> orderedVarNames = new LinkedHashSet<>();
 
+	/** The columns of the attributes, if the species is columnar. Null otherwise */
+	private final PopulationColumns columns;
+
 	/** The Constant isLiving. */
 	public final static IPopulation.IsLiving isLiving = new IPopulation.IsLiving();
 
@@ -278,6 +283,8 @@ public class GamaPopulation<T extends IAgent> extends GamaList<T> implements IPo
 		final TypeDescription ecd = species.getDescription();
 		orderedVars = orderAttributes(this, ecd, Predicates.alwaysTrue(), INIT_DEPENDENCIES_FACETS);
 		for (IVariable v : orderedVars) { orderedVarNames.add(v.getName()); }
+		final AttributeLayout layout = species.getDescription().getAttributeLayout();
+		columns = layout.isColumnar() ? new PopulationColumns(layout) : null;
 		updatableVars = orderAttributes(this, ecd, VariableDescription::isUpdatable, UPDATE_DEPENDENCIES_FACETS);
 		if (species.isMirror() && host != null) {
 			mirrorManagement = new MirrorPopulationManagement(species.getFacet(MIRRORS));
@@ -331,8 +338,14 @@ public class GamaPopulation<T extends IAgent> extends GamaList<T> implements IPo
 			if (frequency == 0 || step % frequency != 0) return true;
 		}
 		if (mirrorManagement != null) { mirrorManagement.executeOn(scope); }
-		getSpecies().getArchitecture().preStep(scope, this);
-		return stepAgents(scope);
+		final ISpatialIndex index = topology == null ? null : topology.getSpatialIndex();
+		final ISpatialIndex.Compound compound = index instanceof ISpatialIndex.Compound c && c.beginPhase() ? c : null;
+		try {
+			getSpecies().getArchitecture().preStep(scope, this);
+			return stepAgents(scope);
+		} finally {
+			if (compound != null) { compound.endPhase(); }
+		}
 
 	}
 
@@ -650,6 +663,9 @@ public class GamaPopulation<T extends IAgent> extends GamaList<T> implements IPo
 	@Override
 	public Collection<String> getAspectNames() { return species.getAspectNames(); }
 
+	@Override
+	public PopulationColumns getColumns() { return columns; }
+
 	@Override
 	public IVariable getVar(final String s) {
 		return species.getVar(s);
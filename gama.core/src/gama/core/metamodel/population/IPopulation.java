@@ -158,6 +158,13 @@ public interface IPopulation<T extends IAgent>
 	 */
 	boolean hasVar(final String n);
 
+	/**
+	 * Returns the columns in which the agents store some of their attributes if the species is columnar, or null.
+	 *
+	 * @return the columns
+	 */
+	default PopulationColumns getColumns() { return null; }
+
 	/**
 	 * Gets the population.
 	 *
@@ -0,0 +1,401 @@
+/*******************************************************************************************************
+ *
+ * PopulationColumns.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform
+ * .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.metamodel.population;
+
+import java.util.Arrays;
+
+import gama.core.metamodel.agent.AttributeLayout;
+import gama.core.metamodel.agent.IAgent;
+import gama.core.runtime.IScope;
+import gama.core.util.IContainer;
+import gama.gaml.expressions.IExpression;
+import gama.gaml.expressions.operators.BinaryOperator.BinaryVarOperator;
+import gama.gaml.expressions.variables.EachExpression;
+import gama.gaml.operators.Cast;
+import gama.gaml.species.ISpecies;
+import gama.gaml.types.IType;
+
+/**
+ * The values of the int, float and bool attributes of the agents of a columnar population (i.e. of a species declared
+ * with 'columnar: true'), stored in columns of doubles instead of being stored by each agent. Each agent is given a row
+ * when its first value is written, which is reused by another agent once it dies, so that the size of the columns
+ * follows the number of agents alive rather than the number of agents ever created. The columns are divided in chunks
+ * of fixed size that are never reallocated, so that growing the columns when agents are created does not lose the
+ * values written concurrently by other agents.
+ *
+ * Besides saving the memory of the boxed values, the columns allow reductions over a whole population (sum_of, mean_of,
+ * with_max_of...) to read the values directly, without evaluating an expression for each agent.
+ */
+public final class PopulationColumns {
+
+	/** The number of agents in a chunk, as a power of 2. */
+	private static final int SHIFT = 10;
+
+	/** The size of a chunk. */
+	private static final int CHUNK = 1 << SHIFT;
+
+	/** The mask to obtain the position in a chunk. */
+	private static final int MASK = CHUNK - 1;
+
+	/** The state of a value that has not been set. */
+	private static final byte UNSET = 0;
+
+	/** The state of a value stored in the column. */
+	private static final byte VALUE = 1;
+
+	/** The state of a value set to nil (which a double cannot represent). */
+	private static final byte NIL = 2;
+
+	/**
+	 * A chunk of values, by column.
+	 */
+	private static final class Chunk {
+
+		/** The values. */
+		final double[][] values;
+
+		/** The states of the values (UNSET, VALUE or NIL). */
+		final byte[][] states;
+
+		/**
+		 * Instantiates a new chunk.
+		 */
+		Chunk(final int columns) {
+			values = new double[columns][CHUNK];
+			states = new byte[columns][CHUNK];
+		}
+	}
+
+	/** The layout. */
+	private final AttributeLayout layout;
+
+	/** The chunks. */
+	private volatile Chunk[] chunks = new Chunk[0];
+
+	/** The number of rows ever attributed. */
+	private int rows;
+
+	/** The rows released by the agents that died, available for new agents. */
+	private int[] free = new int[16];
+
+	/** The number of free rows. */
+	private int freeCount;
+
+	/**
+	 * Instantiates new columns for the layout.
+	 *
+	 * @param layout
+	 *            the layout of the species
+	 */
+	public PopulationColumns(final AttributeLayout layout) {
+		this.layout = layout;
+	}
+
+	/**
+	 * Gets the layout.
+	 *
+	 * @return the layout
+	 */
+	public AttributeLayout getLayout() { return layout; }
+
+	/**
+	 * Attributes a row to an agent: one released by a dead agent if any, a new one otherwise.
+	 *
+	 * @return the row
+	 */
+	public synchronized int allocate() {
+		if (freeCount > 0) return free[--freeCount];
+		final int row = rows++;
+		chunk(row);
+		return row;
+	}
+
+	/**
+	 * Forgets the values of the row and makes it available for another agent (when its agent dies or stops using the
+	 * columns).
+	 *
+	 * @param row
+	 *            the row
+	 */
+	public synchronized void release(final int row) {
+		if (row < 0) return;
+		final Chunk[] current = chunks;
+		final int c = row >>> SHIFT;
+		if (c < current.length) {
+			final int i = row & MASK;
+			for (final byte[] states : current[c].states) { states[i] = UNSET; }
+		}
+		if (freeCount == free.length) { free = Arrays.copyOf(free, freeCount * 2); }
+		free[freeCount++] = row;
+	}
+
+	/**
+	 * Returns the chunk of the row, creating it (and the previous ones) if needed.
+	 */
+	private Chunk chunk(final int row) {
+		final int c = row >>> SHIFT;
+		Chunk[] current = chunks;
+		if (c >= current.length) {
+			synchronized (this) {
+				current = chunks;
+				if (c >= current.length) {
+					final Chunk[] grown = Arrays.copyOf(current, Math.max(c + 1, current.length * 3 / 2));
+					for (int i = current.length; i < grown.length; i++) { grown[i] = new Chunk(layout.columnCount()); }
+					chunks = grown;
+					current = grown;
+				}
+			}
+		}
+		return current[c];
+	}
+
+	/**
+	 * Returns the state of the value of the row in the column.
+	 */
+	private byte state(final int column, final int row) {
+		if (row < 0) return UNSET;
+		final Chunk[] current = chunks;
+		final int c = row >>> SHIFT;
+		return c < current.length ? current[c].states[column][row & MASK] : UNSET;
+	}
+
+	/**
+	 * Whether the value of the row has been set in the column (possibly to nil).
+	 *
+	 * @param column
+	 *            the column
+	 * @param row
+	 *            the row of the agent (or -1)
+	 * @return true if set
+	 */
+	public boolean has(final int column, final int row) {
+		return state(column, row) != UNSET;
+	}
+
+	/**
+	 * Whether the row holds a value in the column that can be read with {@link #getDouble(int, int)}, i.e. a value
+	 * that has been set and is not nil.
+	 *
+	 * @param column
+	 *            the column
+	 * @param row
+	 *            the row of the agent (or -1)
+	 * @return true if the value can be read as a double
+	 */
+	public boolean hasDouble(final int column, final int row) {
+		return state(column, row) == VALUE;
+	}
+
+	/**
+	 * Returns the value of the row in the column, as a double.
+	 *
+	 * @param column
+	 *            the column
+	 * @param row
+	 *            the row of the agent
+	 * @return the value (0 if it has not been set or is nil)
+	 */
+	public double getDouble(final int column, final int row) {
+		final Chunk[] current = chunks;
+		final int c = row >>> SHIFT;
+		return c < current.length ? current[c].values[column][row & MASK] : 0d;
+	}
+
+	/**
+	 * Returns the value of the row in the column, with the type of the attribute, or null if it has not been set.
+	 *
+	 * @param column
+	 *            the column
+	 * @param row
+	 *            the row of the agent (or -1)
+	 * @return the value
+	 */
+	public Object get(final int column, final int row) {
+		if (!hasDouble(column, row)) return null;
+		final double v = getDouble(column, row);
+		return switch (layout.columnType(column)) {
+			case IType.INT -> (int) v;
+			case IType.BOOL -> v != 0d;
+			default -> v;
+		};
+	}
+
+	/**
+	 * Sets the value of the row in the column. Null values are marked as nil, and read back as null.
+	 *
+	 * @param column
+	 *            the column
+	 * @param row
+	 *            the row of the agent, attributed by {@link #allocate()}
+	 * @param value
+	 *            the value
+	 */
+	public void set(final int column, final int row, final Object value) {
+		final Chunk chunk = chunk(row);
+		final int i = row & MASK;
+		if (value == null) {
+			chunk.values[column][i] = 0d;
+			chunk.states[column][i] = NIL;
+			return;
+		}
+		final double v;
+		if (value instanceof Number n) {
+			v = n.doubleValue();
+		} else if (value instanceof Boolean b) {
+			v = b ? 1d : 0d;
+		} else {
+			v = 0d;
+		}
+		chunk.values[column][i] = v;
+		chunk.states[column][i] = VALUE;
+	}
+
+	/**
+	 * Returns the column read by the expression over the elements of the container, if the container is a columnar
+	 * population (or a species whose population is columnar) and the expression is the direct access to one of its
+	 * columns (i.e. 'each.attribute'). Returns null otherwise, in which case the expression has to be evaluated on each
+	 * element.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @param container
+	 *            the container
+	 * @param filter
+	 *            the expression evaluated on each element
+	 * @return the column or null
+	 */
+	public static Column columnOf(final IScope scope, final IContainer<?, ?> container, final IExpression filter) {
+		if (!(filter instanceof BinaryVarOperator op) || !(op.arg(0) instanceof EachExpression)) return null;
+		final IPopulation<? extends IAgent> pop;
+		if (container instanceof IPopulation<?> p) {
+			pop = p;
+		} else if (container instanceof ISpecies s) {
+			pop = s.getPopulation(scope);
+		} else
+			return null;
+		if (pop == null) return null;
+		final PopulationColumns columns = pop.getColumns();
+		if (columns == null) return null;
+		final int column = columns.layout.columnOf(op.getVar().getName());
+		if (column < 0) return null;
+		return new Column(pop, columns, column, filter);
+	}
+
+	/**
+	 * A column of a population, read by a reduction. The agents whose value is not stored in the column (e.g. because
+	 * it has not been initialized yet) are evaluated with the expression, like in the regular reductions.
+	 */
+	public static final class Column {
+
+		/** The population. */
+		final IPopulation<? extends IAgent> population;
+
+		/** The columns. */
+		final PopulationColumns columns;
+
+		/** The column. */
+		final int column;
+
+		/** The expression. */
+		final IExpression filter;
+
+		/**
+		 * Instantiates a new column.
+		 */
+		Column(final IPopulation<? extends IAgent> population, final PopulationColumns columns, final int column,
+				final IExpression filter) {
+			this.population = population;
+			this.columns = columns;
+			this.column = column;
+			this.filter = filter;
+		}
+
+		/**
+		 * The type (IType id) of the values.
+		 *
+		 * @return the type id
+		 */
+		public int type() {
+			return columns.layout.columnType(column);
+		}
+
+		/**
+		 * Returns the value of the agent.
+		 */
+		private double valueOf(final IScope scope, final IAgent agent) {
+			final int row = agent.getColumnsRow();
+			if (columns.hasDouble(column, row)) return columns.getDouble(column, row);
+			scope.setEach(agent);
+			return Cast.asFloat(scope, filter.value(scope));
+		}
+
+		/**
+		 * The sum of the values of the agents, as a double.
+		 *
+		 * @param scope
+		 *            the scope
+		 * @return the sum
+		 */
+		public double sum(final IScope scope) {
+			double sum = 0d;
+			for (final IAgent agent : population.iterable(scope)) { sum += valueOf(scope, agent); }
+			return sum;
+		}
+
+		/**
+		 * The sum of the values of the agents, for int attributes. Overflows like the regular sum of integers.
+		 *
+		 * @param scope
+		 *            the scope
+		 * @return the sum
+		 */
+		public int intSum(final IScope scope) {
+			int sum = 0;
+			for (final IAgent agent : population.iterable(scope)) { sum += (int) valueOf(scope, agent); }
+			return sum;
+		}
+
+		/**
+		 * The mean of the values of the agents (0 if there are no agents).
+		 *
+		 * @param scope
+		 *            the scope
+		 * @return the mean
+		 */
+		public double mean(final IScope scope) {
+			final int size = population.length(scope);
+			return (type() == IType.INT ? intSum(scope) : sum(scope)) / Math.max(size, 1);
+		}
+
+		/**
+		 * The first agent with the highest (or lowest) value, or null if there are no agents.
+		 *
+		 * @param scope
+		 *            the scope
+		 * @param max
+		 *            true for the highest value, false for the lowest
+		 * @return the agent
+		 */
+		public IAgent extremum(final IScope scope, final boolean max) {
+			IAgent result = null;
+			double best = 0d;
+			for (final IAgent agent : population.iterable(scope)) {
+				final double v = valueOf(scope, agent);
+				if (result == null || (max ? v > best : v < best)) {
+					result = agent;
+					best = v;
+				}
+			}
+			return result;
+		}
+	}
+
+}
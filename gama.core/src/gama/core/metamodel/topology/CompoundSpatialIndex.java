@@ -15,6 +15,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.WeakHashMap;
 
 import org.locationtech.jts.geom.Envelope;
@@ -34,7 +35,9 @@ import gama.core.metamodel.topology.grid.GridPopulation;
 import gama.core.runtime.IScope;
 import gama.core.util.Collector;
 import gama.core.util.ICollector;
+import gama.gaml.expressions.IExpression;
 import gama.gaml.species.ISpecies;
+import gama.gaml.variables.IVariable;
 
 /**
  * The Class CompoundSpatialIndex.
@@ -44,9 +47,11 @@ public class CompoundSpatialIndex implements ISpatialIndex.Compound {
 	/** The disposed. */
 	boolean disposed = false;
 
-	/** The spatial indexes. */
-
-	private final WeakHashMap<ISpecies, ISpatialIndex> spatialIndexes = new WeakHashMap<>();
+	/**
+	 * The spatial indexes. Synchronized, as they are created lazily by the agents that query them, which may be
+	 * executed concurrently
+	 */
+	private final Map<ISpecies, ISpatialIndex> spatialIndexes = Collections.synchronizedMap(new WeakHashMap<>());
 
 	/** The bounds. */
 	private Envelope bounds;
@@ -57,11 +62,15 @@ public class CompoundSpatialIndex implements ISpatialIndex.Compound {
 	/** The steps. */
 	final protected double[] steps;
 
+	/** The moves deferred during the phases, in the "cycle-consistent" mode */
+	private final DeferredUpdates deferred = new DeferredUpdates();
+
 	/**
 	 * The cached species indices. Keeps a correspondance between species and the spatial indices to use to look for
 	 * agents. Used when passing a list of agents with a common species (and not a population)
 	 */
-	private final WeakHashMap<ISpecies, Iterable<ISpatialIndex>> cachedSpeciesIndices = new WeakHashMap<>();
+	private final Map<ISpecies, Iterable<ISpatialIndex>> cachedSpeciesIndices =
+			Collections.synchronizedMap(new WeakHashMap<>());
 
 	/**
 	 * Instantiates a new compound spatial index.
@@ -94,7 +103,16 @@ public class CompoundSpatialIndex implements ISpatialIndex.Compound {
 	public void remove(final Envelope3D previous, final IAgent agent) {
 		if (disposed || agent == null) return;
 		ISpatialIndex index = spatialIndexes.getOrDefault(agent.getSpecies(), null);
-		if (index != null) { index.remove(previous, agent); }
+		if (index != null) { index.remove(deferred.removed(previous, agent), agent); }
+	}
+
+	@Override
+	public void update(final Envelope3D previous, final IAgent agent) {
+		if (disposed || agent == null) return;
+		ISpatialIndex index = spatialIndexes.getOrDefault(agent.getSpecies(), null);
+		if (index == null) {
+			insert(agent);
+		} else if (!deferred.moved(previous, agent)) { index.update(previous, agent); }
 	}
 
 	@Override
@@ -193,7 +211,7 @@ public class CompoundSpatialIndex implements ISpatialIndex.Compound {
 		Iterable<ISpatialIndex> indices = add(scope, f);
 		try (final ICollector<IAgent> agents = Collector.getOrderedSet()) {
 			for (final ISpatialIndex si : indices) {
-				if (si != null) { agents.addAll(si.allAtDistance(scope, source, dist, f)); }
+				if (si != null) { si.allAtDistance(scope, source, dist, f, agents); }
 			}
 			agents.shuffleInPlaceWith(scope.getRandom());
 			return agents.items();
@@ -233,17 +251,53 @@ public class CompoundSpatialIndex implements ISpatialIndex.Compound {
 	private ISpatialIndex add(final IPopulation<? extends IAgent> pop, final boolean insertAgents) {
 		if (disposed || pop == null) return null;
 		ISpecies spec = pop.getSpecies();
-		ISpatialIndex index = spatialIndexes.getOrDefault(spec, null);
-		if (index == null) {
-			if (pop.isGrid()) {
-				index = ((GridPopulation) pop).getTopology().getPlaces();
-			} else {
-				index = GamaQuadTree.create(bounds, parallel);
+		synchronized (spatialIndexes) {
+			ISpatialIndex index = spatialIndexes.getOrDefault(spec, null);
+			if (index == null) {
+				if (pop.isGrid()) {
+					index = ((GridPopulation) pop).getTopology().getPlaces();
+				} else {
+					index = createSpatialIndex(spec);
+				}
+				spatialIndexes.put(spec, index);
+				if (insertAgents) { for (final IAgent ag : pop) { index.insert(ag); } }
 			}
-			spatialIndexes.put(spec, index);
-			if (insertAgents) { for (final IAgent ag : pop) { index.insert(ag); } }
+			return index;
 		}
-		return index;
+	}
+
+	/**
+	 * Creates the spatial index of a species that is not a grid, depending on its 'spatial_index' facet and, if it is
+	 * not defined, on the preferences
+	 *
+	 * @param species
+	 *            the species
+	 * @return the i spatial index
+	 */
+	private ISpatialIndex createSpatialIndex(final ISpecies species) {
+		final IExpression facet = species.getFacet(IKeyword.SPATIAL_INDEX);
+		final String kind = facet == null ? null : facet.literalValue();
+		if (CONCURRENT.equals(kind)
+				|| kind == null && parallel && GamaPreferences.Experimental.QUADTREE_CONCURRENT.getValue())
+			return new ConcurrentQuadTree(bounds);
+		if (STATIC.equals(kind)) return new StaticSpatialIndex(bounds, parallel);
+		if (HASH.equals(kind) || kind == null && GamaPreferences.Experimental.QUADTREE_HASH.getValue()
+				&& hasPointAgents(species))
+			return SpatialHashIndex.create(bounds, parallel);
+		return GamaQuadTree.create(bounds, parallel);
+	}
+
+	/**
+	 * Whether the agents of the species are likely to remain points, i.e. whether it keeps the built-in definition of
+	 * 'shape' (the agents being then points, unless their shape is explicitly changed)
+	 *
+	 * @param species
+	 *            the species
+	 * @return true, if successful
+	 */
+	private static boolean hasPointAgents(final ISpecies species) {
+		final IVariable shape = species.getVar(IKeyword.SHAPE);
+		return shape != null && shape.getDescription() != null && shape.getDescription().isBuiltIn();
 	}
 
 	/**
@@ -261,14 +315,15 @@ public class CompoundSpatialIndex implements ISpatialIndex.Compound {
 				(Collection<IPopulation<? extends IAgent>>) ((IPopulationSet) filter).getPopulations(scope),
 				each -> add(each, true));
 		ISpecies species = filter.getSpecies();
-		if (species == null || IKeyword.AGENT.equals(species.getName())) return spatialIndexes.values();
-		if (!cachedSpeciesIndices.containsKey(species)) {
-			cachedSpeciesIndices.put(species,
-					Lists.newArrayList(com.google.common.collect.Iterables.transform(com.google.common.collect.Iterables
-							.concat(java.util.Collections.singleton(species), species.getSubSpecies(scope)),
-							s -> add(scope, s, true))));
+		if (species == null || IKeyword.AGENT.equals(species.getName())) {
+			synchronized (spatialIndexes) {
+				return new ArrayList<>(spatialIndexes.values());
+			}
 		}
-		return cachedSpeciesIndices.get(species);
+		return cachedSpeciesIndices.computeIfAbsent(species,
+				sp -> Lists.newArrayList(com.google.common.collect.Iterables.transform(com.google.common.collect.Iterables
+						.concat(java.util.Collections.singleton(sp), sp.getSubSpecies(scope)),
+						s -> add(scope, s, true))));
 	}
 
 	/**
@@ -282,12 +337,38 @@ public class CompoundSpatialIndex implements ISpatialIndex.Compound {
 		spatialIndexes.remove(species);
 	}
 
+	@Override
+	public void useStaticIndexFor(final IPopulation<? extends IAgent> pop) {
+		if (disposed || pop == null || pop.isGrid()) return;
+		final ISpecies species = pop.getSpecies();
+		if (species == null || species.getFacet(IKeyword.SPATIAL_INDEX) != null) return;
+		synchronized (spatialIndexes) {
+			if (!spatialIndexes.containsKey(species)) {
+				spatialIndexes.put(species, new StaticSpatialIndex(bounds, parallel));
+			}
+		}
+	}
+
+	@Override
+	public boolean beginPhase() {
+		if (disposed || !GamaPreferences.Experimental.SPATIAL_INDEX_DEFERRED.getValue()) return false;
+		deferred.begin();
+		return true;
+	}
+
+	@Override
+	public void endPhase() {
+		deferred.end(this);
+	}
+
 	@Override
 	public void update(final IScope scope, final Envelope envelope, final boolean parallel) {
 		this.bounds = envelope;
 		this.parallel = parallel;
 		final WeakHashMap<ISpecies, ISpatialIndex> spatialIndexesTmp = new WeakHashMap<>();
-		spatialIndexesTmp.putAll(spatialIndexes);
+		synchronized (spatialIndexes) {
+			spatialIndexesTmp.putAll(spatialIndexes);
+		}
 		for (ISpecies species : spatialIndexesTmp.keySet()) {
 			remove(species);
 			add(scope, species, true);
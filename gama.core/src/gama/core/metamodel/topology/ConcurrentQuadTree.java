@@ -0,0 +1,306 @@
+/*******************************************************************************************************
+ *
+ * ConcurrentQuadTree.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform
+ * .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.metamodel.topology;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.locationtech.jts.geom.Envelope;
+
+import gama.core.common.geometry.Envelope3D;
+import gama.core.metamodel.agent.IAgent;
+import gama.core.metamodel.shape.GamaPoint;
+
+/**
+ * A quadtree that can be read concurrently without locking. Each leaf keeps its agents in an immutable array (in
+ * insertion order, to respect Issue 722), which is replaced as a whole -- under the lock of the leaf only -- every time
+ * an agent is added or removed. Readers therefore always see a consistent snapshot of each leaf and never block, while
+ * writers only contend when they modify the same leaf. Splitting a leaf builds and fills its four children before
+ * publishing them, so that a reader sees either the old leaf or the complete children.
+ *
+ * The bounds of the agents are copied in the entries (instead of keeping the pooled envelopes, like
+ * {@link GamaQuadTree} does) so that nothing a reader can access is ever disposed or mutated.
+ */
+public class ConcurrentQuadTree extends AbstractSpatialIndex {
+
+	/** The Constant maxCapacity. */
+	final static int maxCapacity = 100;
+
+	/** The Constant EMPTY. */
+	final static Entry[] EMPTY = {};
+
+	/** The root. */
+	final Node root;
+
+	/** The min size. */
+	final double minSize;
+
+	/**
+	 * Instantiates a new concurrent quad tree.
+	 *
+	 * @param bounds
+	 *            the bounds
+	 */
+	public ConcurrentQuadTree(final Envelope bounds) {
+		// As in GamaQuadTree, all computations are made in 2D (Issue 804)
+		minSize = bounds.getWidth() / 100d;
+		root = new Node(bounds.getMinX(), bounds.getMaxX(), bounds.getMinY(), bounds.getMaxY());
+	}
+
+	@Override
+	public void dispose() {
+		root.dispose();
+	}
+
+	@Override
+	public void insert(final IAgent agent) {
+		if (agent == null) return;
+		if (agent.isPoint()) {
+			final GamaPoint p = agent.getLocation();
+			root.add(new Entry(agent, p.x, p.x, p.y, p.y));
+		} else {
+			final Envelope3D e = agent.getEnvelope();
+			if (e == null) return;
+			root.add(new Entry(agent, e.getMinX(), e.getMaxX(), e.getMinY(), e.getMaxY()));
+			e.dispose();
+		}
+	}
+
+	@Override
+	public void remove(final Envelope3D previous, final IAgent agent) {
+		final Envelope3D current = previous == null ? agent.getEnvelope() : previous;
+		if (current == null) return;
+		root.remove(agent, current.getMinX(), current.getMaxX(), current.getMinY(), current.getMaxY());
+		current.dispose();
+	}
+
+	@Override
+	protected void findIntersects(final Envelope r, final Collection<IAgent> result) {
+		root.findIntersects(r.getMinX(), r.getMaxX(), r.getMinY(), r.getMaxY(), result);
+	}
+
+	/**
+	 * An immutable entry of the tree: an agent and a copy of its 2D bounds at the time of its insertion.
+	 */
+	static final class Entry {
+
+		/** The agent. */
+		final IAgent agent;
+
+		/** The bounds. */
+		final double minx, maxx, miny, maxy;
+
+		/**
+		 * Instantiates a new entry.
+		 */
+		Entry(final IAgent agent, final double minx, final double maxx, final double miny, final double maxy) {
+			this.agent = agent;
+			this.minx = minx;
+			this.maxx = maxx;
+			this.miny = miny;
+			this.maxy = maxy;
+		}
+
+		/**
+		 * Intersects.
+		 */
+		boolean intersects(final double x1, final double x2, final double y1, final double y2) {
+			return x1 <= maxx && x2 >= minx && y1 <= maxy && y2 >= miny;
+		}
+
+		/**
+		 * Checks if is point.
+		 */
+		boolean isPoint() { return minx == maxx && miny == maxy; }
+	}
+
+	/**
+	 * The Class Node. Writers lock the node they modify; readers never lock.
+	 */
+	private final class Node {
+
+		/** The bounds. */
+		final double minx, maxx, miny, maxy, halfx, halfy;
+
+		/** The can split. */
+		final boolean canSplit;
+
+		/** The entries, in insertion order. Never modified in place, only replaced */
+		volatile Entry[] entries = EMPTY;
+
+		/** The children (nw, ne, sw, se), or null if this node is a leaf. Published once filled */
+		volatile Node[] children;
+
+		/**
+		 * Instantiates a new node.
+		 */
+		Node(final double minx, final double maxx, final double miny, final double maxy) {
+			this.minx = minx;
+			this.maxx = maxx;
+			this.miny = miny;
+			this.maxy = maxy;
+			halfx = minx + (maxx - minx) / 2;
+			halfy = miny + (maxy - miny) / 2;
+			canSplit = maxx - minx > minSize && maxy - miny > minSize;
+		}
+
+		/**
+		 * Intersects.
+		 */
+		boolean intersects(final double x1, final double x2, final double y1, final double y2) {
+			return x1 <= maxx && x2 >= minx && y1 <= maxy && y2 >= miny;
+		}
+
+		/**
+		 * Adds the entry to this node or to its children
+		 *
+		 * @param e
+		 *            the e
+		 */
+		void add(final Entry e) {
+			Node[] c = children;
+			if (c == null) {
+				synchronized (this) {
+					c = children;
+					if (c == null) {
+						if (!canSplit || entries.length < maxCapacity) {
+							entries = put(entries, e);
+							return;
+						}
+						c = split();
+					}
+				}
+			}
+			if (e.isPoint()) {
+				c[quadrant(e.minx, e.miny)].add(e);
+			} else {
+				for (final Node n : c) { if (n.intersects(e.minx, e.maxx, e.miny, e.maxy)) { n.add(e); } }
+			}
+		}
+
+		/**
+		 * Removes the agent from this node or from its children
+		 */
+		void remove(final IAgent a, final double x1, final double x2, final double y1, final double y2) {
+			Node[] c = children;
+			if (c == null) {
+				synchronized (this) {
+					c = children;
+					if (c == null) {
+						entries = delete(entries, a);
+						return;
+					}
+				}
+			}
+			if (x1 == x2 && y1 == y2) {
+				c[quadrant(x1, y1)].remove(a, x1, x2, y1, y2);
+			} else {
+				for (final Node n : c) { if (n.intersects(x1, x2, y1, y2)) { n.remove(a, x1, x2, y1, y2); } }
+			}
+		}
+
+		/**
+		 * Quadrant.
+		 */
+		int quadrant(final double x, final double y) {
+			final boolean north = y >= miny && y < halfy;
+			final boolean west = x >= minx && x < halfx;
+			return north ? west ? 0 : 1 : west ? 2 : 3;
+		}
+
+		/**
+		 * Splits this node. Must be called while holding its lock. The children are filled (in the insertion order
+		 * of the entries) before being published, and the entries are only cleared afterwards.
+		 *
+		 * @return the children
+		 */
+		Node[] split() {
+			final Node[] c = { new Node(minx, halfx, miny, halfy), new Node(halfx, maxx, miny, halfy),
+					new Node(minx, halfx, halfy, maxy), new Node(halfx, maxx, halfy, maxy) };
+			for (final Entry e : entries) {
+				if (e.agent == null || e.agent.dead()) { continue; }
+				if (e.isPoint()) {
+					c[quadrant(e.minx, e.miny)].add(e);
+				} else {
+					for (final Node n : c) { if (n.intersects(e.minx, e.maxx, e.miny, e.maxy)) { n.add(e); } }
+				}
+			}
+			children = c;
+			entries = EMPTY;
+			return c;
+		}
+
+		/**
+		 * Find intersects. The entries are read *before* the children: if no children are visible afterwards, the
+		 * entries read were not yet cleared by a split.
+		 */
+		void findIntersects(final double x1, final double x2, final double y1, final double y2,
+				final Collection<IAgent> result) {
+			if (!intersects(x1, x2, y1, y2)) return;
+			final Entry[] es = entries;
+			final Node[] c = children;
+			if (c == null) {
+				for (final Entry e : es) { if (e.intersects(x1, x2, y1, y2)) { result.add(e.agent); } }
+			} else {
+				for (final Node n : c) { n.findIntersects(x1, x2, y1, y2, result); }
+			}
+		}
+
+		/**
+		 * Dispose.
+		 */
+		void dispose() {
+			synchronized (this) {
+				final Node[] c = children;
+				children = null;
+				entries = EMPTY;
+				if (c != null) { for (final Node n : c) { n.dispose(); } }
+			}
+		}
+
+	}
+
+	/**
+	 * Returns a copy of the entries where the entry is appended, or replaces the previous entry of the same agent (at
+	 * the same position)
+	 */
+	static Entry[] put(final Entry[] entries, final Entry e) {
+		final int n = entries.length;
+		for (int i = 0; i < n; i++) {
+			if (entries[i].agent == e.agent) {
+				final Entry[] result = entries.clone();
+				result[i] = e;
+				return result;
+			}
+		}
+		final Entry[] result = Arrays.copyOf(entries, n + 1);
+		result[n] = e;
+		return result;
+	}
+
+	/**
+	 * Returns a copy of the entries without the ones of this agent (or the same array if it is not present)
+	 */
+	static Entry[] delete(final Entry[] entries, final IAgent a) {
+		final int n = entries.length;
+		for (int i = 0; i < n; i++) {
+			if (entries[i].agent == a) {
+				if (n == 1) return EMPTY;
+				final Entry[] result = new Entry[n - 1];
+				System.arraycopy(entries, 0, result, 0, i);
+				System.arraycopy(entries, i + 1, result, i, n - i - 1);
+				return result;
+			}
+		}
+		return entries;
+	}
+
+}
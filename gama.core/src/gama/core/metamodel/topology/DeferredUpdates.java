@@ -0,0 +1,182 @@
+/*******************************************************************************************************
+ *
+ * DeferredUpdates.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform
+ * .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.metamodel.topology;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import gama.core.common.geometry.Envelope3D;
+import gama.core.metamodel.agent.IAgent;
+
+/**
+ * The updates of a spatial index deferred during a phase (i.e. the step of a species) in the "cycle-consistent" mode.
+ * The moves of the agents are recorded in buffers owned by the threads that run the agents (without any locking) and
+ * are applied to the index all at once at the end of the phase, in an order that does not depend on the threads. The
+ * queries made during the phase find the agents from the bounds they had in the index when it began, whatever the order
+ * in which the agents are run: the agents that are points are seen at their location at that time (the indexes keep a
+ * copy of it), while the distance to the other agents is computed on their current geometry. Insertions (including
+ * the first update of an agent whose species has no index yet) are not deferred, and removals are applied immediately
+ * as well (so that dead agents are not returned by the queries).
+ */
+final class DeferredUpdates {
+
+	/** The order in which the updates are applied. */
+	private static final Comparator<IAgent> ORDER =
+			Comparator.comparing(IAgent::getSpeciesName).thenComparingInt(IAgent::getIndex);
+
+	/** The buffers of all the threads that have recorded updates. */
+	private final Queue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+
+	/** The buffer of each thread. */
+	private final ThreadLocal<Buffer> local = ThreadLocal.withInitial(() -> {
+		final Buffer b = new Buffer();
+		buffers.add(b);
+		return b;
+	});
+
+	/** The number of phases in progress (they can be nested, or run in parallel). */
+	private int depth;
+
+	/** Whether the updates are deferred. */
+	private volatile boolean active;
+
+	/**
+	 * The buffer of a thread.
+	 */
+	private static final class Buffer {
+
+		/** The envelope of the agents in the index, i.e. before their first move in the phase. */
+		final Map<IAgent, Envelope3D> previous = new LinkedHashMap<>();
+
+		/** The agents removed. */
+		final Set<IAgent> removed = new HashSet<>();
+
+		/**
+		 * Records the move of the agent, keeping only its first previous envelope.
+		 */
+		void moved(final IAgent agent, final Envelope3D envelope) {
+			if (previous.containsKey(agent)) {
+				if (envelope != null) { envelope.dispose(); }
+			} else {
+				previous.put(agent, envelope);
+			}
+		}
+
+		/**
+		 * Clears the buffer.
+		 */
+		void clear() {
+			previous.clear();
+			removed.clear();
+		}
+	}
+
+	/**
+	 * Begins a phase.
+	 */
+	synchronized void begin() {
+		depth++;
+		active = true;
+	}
+
+	/**
+	 * Ends a phase. If it is the last one in progress, the updates are applied to the index.
+	 *
+	 * @param index
+	 *            the index
+	 */
+	synchronized void end(final ISpatialIndex index) {
+		if (depth == 0 || --depth > 0) return;
+		// Deactivated first, so that the updates applied go to the index instead of being recorded again
+		active = false;
+		apply(index);
+	}
+
+	/**
+	 * Records the move of an agent if a phase is in progress.
+	 *
+	 * @param previous
+	 *            the previous envelope of the agent
+	 * @param agent
+	 *            the agent
+	 * @return true if the move has been deferred, false if it must be applied immediately
+	 */
+	boolean moved(final Envelope3D previous, final IAgent agent) {
+		if (!active) return false;
+		local.get().moved(agent, previous);
+		return true;
+	}
+
+	/**
+	 * Records the removal of an agent if a phase is in progress, and returns the envelope to use to remove it
+	 * immediately from the index: the one it had before moving in this phase, if the move is known by this thread.
+	 *
+	 * @param previous
+	 *            the envelope of the agent
+	 * @param agent
+	 *            the agent
+	 * @return the envelope under which the agent is stored
+	 */
+	Envelope3D removed(final Envelope3D previous, final IAgent agent) {
+		if (!active) return previous;
+		final Buffer b = local.get();
+		b.removed.add(agent);
+		final Envelope3D first = b.previous.get(agent);
+		if (first == null) return previous;
+		if (previous != null) { previous.dispose(); }
+		return Envelope3D.of(first);
+	}
+
+	/**
+	 * Applies the updates recorded to the index and clears the buffers.
+	 *
+	 * @param index
+	 *            the index
+	 */
+	private void apply(final ISpatialIndex index) {
+		final Map<IAgent, Envelope3D> moves = new HashMap<>();
+		final Set<IAgent> removed = new HashSet<>();
+		for (final Buffer b : buffers) {
+			for (final Map.Entry<IAgent, Envelope3D> entry : b.previous.entrySet()) {
+				final IAgent agent = entry.getKey();
+				if (moves.containsKey(agent)) {
+					// Moved by several threads: it is not known which envelope is the one in the index, so the agent is
+					// removed with all of them
+					index.remove(entry.getValue(), agent);
+				} else {
+					moves.put(agent, entry.getValue());
+				}
+			}
+			removed.addAll(b.removed);
+			b.clear();
+		}
+		if (moves.isEmpty()) return;
+		final List<IAgent> agents = new ArrayList<>(moves.keySet());
+		agents.sort(ORDER);
+		for (final IAgent agent : agents) {
+			final Envelope3D previous = moves.get(agent);
+			if (removed.contains(agent) || agent.dead()) {
+				index.remove(previous, agent);
+			} else {
+				index.update(previous, agent);
+			}
+		}
+	}
+
+}
@@ -13,11 +13,10 @@ package gama.core.metamodel.topology;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 import org.locationtech.jts.geom.Envelope;
 
-import com.google.common.collect.Ordering;
-
 import gama.core.common.geometry.Envelope3D;
 import gama.core.common.geometry.IIntersectable;
 import gama.core.common.preferences.GamaPreferences;
@@ -31,7 +30,6 @@ import gama.core.util.GamaListFactory;
 import gama.core.util.GamaMapFactory;
 import gama.core.util.ICollector;
 import gama.dev.DEBUG;
-import gama.gaml.operators.Maths;
 
 /**
  * A QuadTree allows to quickly find an object on a two-dimensional space.
@@ -47,7 +45,7 @@ import gama.gaml.operators.Maths;
  * The Class GamaQuadTree.
  */
 @SuppressWarnings ({ "unchecked", "rawtypes" })
-public class GamaQuadTree implements ISpatialIndex {
+public class GamaQuadTree extends AbstractSpatialIndex {
 
 	static {
 		DEBUG.OFF();
@@ -109,6 +107,11 @@ public class GamaQuadTree implements ISpatialIndex {
 			quadtree.remove(previous, agent);
 		}
 
+		@Override
+		public synchronized void update(final Envelope3D previous, final IAgent agent) {
+			quadtree.update(previous, agent);
+		}
+
 		@Override
 		public synchronized IAgent firstAtDistance(final IScope scope, final IShape source, final double dist,
 				final IAgentFilter f) {
@@ -133,6 +136,12 @@ public class GamaQuadTree implements ISpatialIndex {
 			return quadtree.allAtDistance(scope, source, dist, f);
 		}
 
+		@Override
+		public synchronized void allAtDistance(final IScope scope, final IShape source, final double dist,
+				final IAgentFilter f, final Collection<IAgent> result) {
+			quadtree.allAtDistance(scope, source, dist, f, result);
+		}
+
 		@Override
 		public void dispose() {
 			quadtree.dispose();
@@ -167,7 +176,11 @@ public class GamaQuadTree implements ISpatialIndex {
 	public void insert(final IAgent agent) {
 		if (agent == null) return;
 		if (agent.isPoint()) {
-			root.add(agent.getLocation(), agent);
+			// In the cycle-consistent mode, a copy, so that the agent is found where it was inserted even if its location
+			// is modified in place while the moves are deferred. It cannot be limited to the phases, as the agents
+			// inserted between them (or at their end, when the moves are applied) are moved during the next ones
+			root.add(GamaPreferences.Experimental.SPATIAL_INDEX_DEFERRED.getValue()
+					? new GamaPoint(agent.getLocation()) : agent.getLocation(), agent);
 		} else {
 			root.add(agent.getEnvelope(), agent);
 		}
@@ -185,95 +198,173 @@ public class GamaQuadTree implements ISpatialIndex {
 		current.dispose();
 	}
 
-	/**
-	 * Find intersects.
-	 *
-	 * @param scope
-	 *            the scope
-	 * @param source
-	 *            the source
-	 * @param r
-	 *            the r
-	 * @param filter
-	 *            the filter
-	 * @return the collection
-	 */
-	protected Collection<IAgent> findIntersects(final IScope scope, final IShape source, final Envelope r,
-			final IAgentFilter filter) {
+	@Override
+	protected void findIntersects(final Envelope r, final Collection<IAgent> result) {
+		root.findIntersects(r, result);
+	}
+
+	@Override
+	public Collection<IAgent> allAtDistance(final IScope scope, final IShape source, final double dist,
+			final IAgentFilter f) {
 		// Adresses Issue 722 by explicitly shuffling the results with GAMA
 		// random procedures and removing duplicates
 		try (final ICollector<IAgent> list = Collector.getOrderedSet()) {
-			root.findIntersects(r, list);
+			allAtDistance(scope, source, dist, f, list);
 			if (list.isEmpty()) return GamaListFactory.create();
-			filter.filter(scope, source, list);
-			// DEBUG.OUT(list.size(), false);
 			list.shuffleInPlaceWith(scope.getRandom());
 			return list.items();
 		}
 	}
 
 	@Override
-	public Collection<IAgent> allAtDistance(final IScope scope, final IShape source, final double dist,
-			final IAgentFilter f) {
-		// TODO filter result by topology's bounds
-		final double exp = dist * Maths.SQRT2;
-		final Envelope3D env = Envelope3D.of(source.getEnvelope());
-		env.expandBy(exp);
+	public void allAtDistance(final IScope scope, final IShape source, final double dist, final IAgentFilter f,
+			final Collection<IAgent> result) {
+		final Search s = Search.start(source, dist, false);
 		try {
-			final Collection<IAgent> result = findIntersects(scope, source, env, f);
-			if (result.isEmpty()) return GamaListFactory.create();
-			result.removeIf(each -> source.euclidianDistanceTo(each) > dist);
-			return result;
+			s.collect(root);
+			if (s.batch.isEmpty()) return;
+			f.filter(scope, source, s.batch);
+			result.addAll(s.batch);
 		} finally {
-			env.dispose();
+			s.end();
 		}
 	}
 
 	@Override
-	public Collection<IAgent> firstAtDistance(final IScope scope, final IShape source, final double dist,
-			final IAgentFilter f, final int number, final Collection<IAgent> alreadyChosen) {
-		final double exp = dist * Maths.SQRT2;
-		final Envelope3D env = Envelope3D.of(source.getEnvelope());
-		env.expandBy(exp);
+	public IAgent firstAtDistance(final IScope scope, final IShape source, final double dist, final IAgentFilter f) {
+		final Search s = Search.start(source, dist, true);
 		try {
-			final Collection<IAgent> in_square = findIntersects(scope, source, env, f);
-			in_square.removeAll(alreadyChosen);
-			if (in_square.isEmpty()) return GamaListFactory.create();
-
-			if (in_square.size() <= number) return in_square;
-			final Ordering<IShape> ordering = Ordering.natural().onResultOf(input -> source.euclidianDistanceTo(input));
-			return ordering.leastOf(in_square, number);
+			s.push(s.distanceTo(root.bounds), root, true);
+			return s.first(scope, f);
 		} finally {
-			env.dispose();
+			s.end();
 		}
 	}
 
 	@Override
-	public IAgent firstAtDistance(final IScope scope, final IShape source, final double dist, final IAgentFilter f) {
-		final Envelope3D env = Envelope3D.of(source.getEnvelope());
-		env.expandBy(dist * Maths.SQRT2);
+	public Collection<IAgent> firstAtDistance(final IScope scope, final IShape source, final double dist,
+			final IAgentFilter f, final int number, final Collection<IAgent> alreadyChosen) {
+		final Search s = Search.start(source, dist, true);
 		try {
-			final Collection<IAgent> in_square = findIntersects(scope, source, env, f);
-			if (in_square.isEmpty()) return null;
-			double min_distance = dist;
-			IAgent min_agent = null;
-			for (final IAgent a : in_square) {
-				final Double dd = source.euclidianDistanceTo(a);
-				if (dd < min_distance) {
-					min_distance = dd;
-					min_agent = a;
-				}
-			}
-			return min_agent;
+			s.push(s.distanceTo(root.bounds), root, true);
+			return s.first(scope, f, number, alreadyChosen);
 		} finally {
-			env.dispose();
+			s.end();
 		}
 	}
 
-	@Override
-	public Collection<IAgent> allInEnvelope(final IScope scope, final IShape source, final Envelope envelope,
-			final IAgentFilter f, final boolean contained) {
-		return findIntersects(scope, source, envelope, f);
+	/**
+	 * The workspace of the distance queries of the quadtree. It serves both as a radius query, which collects in the
+	 * batch all the agents at distance (pruning the nodes that are too far), and as a best-first traversal of the tree,
+	 * whose heap contains the nodes and the agents (with the distance to their envelope until it is refined).
+	 */
+	private static final class Search extends NearestSearch implements BiConsumer<IAgent, IIntersectable> {
+
+		/** The workspaces of the threads */
+		private static final ThreadLocal<Search> SEARCHES = ThreadLocal.withInitial(Search::new);
+
+		/** Whether the leaves push their agents in the heap (best-first) or collect them in the batch (radius). */
+		boolean bestFirst;
+
+		/**
+		 * Returns the workspace of the current thread (or a new one if it is already in use) initialized for the
+		 * source and the distance.
+		 */
+		static Search start(final IShape source, final double dist, final boolean bestFirst) {
+			Search s = SEARCHES.get();
+			if (s.busy) { s = new Search(); }
+			s.start(source, dist);
+			s.bestFirst = bestFirst;
+			return s;
+		}
+
+		/**
+		 * Squared 2D distance between the bounds of the source and the bounds stored for an agent.
+		 */
+		double distanceTo(final IIntersectable e) {
+			if (e instanceof Envelope env) return distanceTo(env);
+			final GamaPoint p = (GamaPoint) e;
+			return distanceTo(p.x, p.x, p.y, p.y);
+		}
+
+		/**
+		 * Collects in the batch the agents at distance of the source, descending only in the nodes that are close
+		 * enough
+		 */
+		void collect(final QuadNode n) {
+			if (n == null || distanceTo(n.bounds) > limit) return;
+			final QuadNode nw = n.nw;
+			if (nw == null) {
+				n.objects.forEach(this);
+			} else {
+				collect(nw);
+				collect(n.ne);
+				collect(n.sw);
+				collect(n.se);
+			}
+		}
+
+		@Override
+		public void accept(final IAgent a, final IIntersectable e) {
+			if (a == null || e == null) return;
+			if (point && e instanceof GamaPoint p) {
+				// The location stored, which is the previous one while the updates of the index are deferred
+				final double d = pointDistanceTo(p.x, p.y, p.z);
+				if (d > limit) return;
+				if (bestFirst) {
+					push(d, a, true);
+				} else {
+					batch.add(a);
+				}
+				return;
+			}
+			final double bound = distanceTo(e);
+			if (bound > limit) return;
+			if (bestFirst) {
+				push(bound, a, false);
+			} else if (seen.add(a) && source.euclidianDistanceTo(a) <= dist) { batch.add(a); }
+		}
+
+		@Override
+		IAgent next() {
+			while (size > 0 && keys[0] <= limit) {
+				final double k = keys[0];
+				final Object item = items[0];
+				final boolean isExact = exact[0];
+				pop();
+				if (item instanceof QuadNode n) {
+					final QuadNode nw = n.nw;
+					if (nw == null) {
+						n.objects.forEach(this);
+					} else {
+						push(nw);
+						push(n.ne);
+						push(n.sw);
+						push(n.se);
+					}
+				} else {
+					final IAgent a = (IAgent) item;
+					if (isExact) {
+						key = k;
+						return a;
+					}
+					if (!seen.add(a)) { continue; }
+					final double d = source.euclidianDistanceTo(a);
+					push(d * d, a, true);
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Pushes the node in the heap if it is close enough.
+		 */
+		void push(final QuadNode n) {
+			if (n == null) return;
+			final double d = distanceTo(n.bounds);
+			if (d <= limit) { push(d, n, true); }
+		}
+
 	}
 
 	/**
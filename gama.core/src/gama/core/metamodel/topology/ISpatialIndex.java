@@ -16,6 +16,7 @@ import org.locationtech.jts.geom.Envelope;
 
 import gama.core.common.geometry.Envelope3D;
 import gama.core.metamodel.agent.IAgent;
+import gama.core.metamodel.population.IPopulation;
 import gama.core.metamodel.shape.IShape;
 import gama.core.metamodel.topology.filter.IAgentFilter;
 import gama.core.runtime.IScope;
@@ -29,6 +30,18 @@ import gama.gaml.species.ISpecies;
  */
 public interface ISpatialIndex {
 
+	/** The regular quadtree (synchronized or not depending on the preferences). See {@link GamaQuadTree} */
+	String QUADTREE = "quadtree";
+
+	/** The quadtree that supports lock-free concurrent queries. See {@link ConcurrentQuadTree} */
+	String CONCURRENT = "concurrent";
+
+	/** The packed R-tree, bulk-loaded, for agents that do not move. See {@link StaticSpatialIndex} */
+	String STATIC = "static";
+
+	/** The spatial hash, for populations of point agents that move a lot. See {@link SpatialHashIndex} */
+	String HASH = "hash";
+
 	/**
 	 * Insert.
 	 *
@@ -47,6 +60,20 @@ public interface ISpatialIndex {
 	 */
 	void remove(final Envelope3D previous, final IAgent agent);
 
+	/**
+	 * Updates the position of an agent whose shape or location has changed. By default, removes it (if its previous
+	 * envelope is known) and inserts it again. Indexes that can move an agent in place are free to do so.
+	 *
+	 * @param previous
+	 *            the previous envelope of the agent (can be null)
+	 * @param agent
+	 *            the agent
+	 */
+	default void update(final Envelope3D previous, final IAgent agent) {
+		if (previous != null && !previous.isNull()) { remove(previous, agent); }
+		insert(agent);
+	}
+
 	/**
 	 * First at distance.
 	 *
@@ -115,6 +142,27 @@ public interface ISpatialIndex {
 	 */
 	Collection<IAgent> allAtDistance(IScope scope, IShape source, double dist, IAgentFilter f);
 
+	/**
+	 * All at distance. Adds the agents accepted by the filter to a buffer provided by the caller, which is neither
+	 * cleared nor shuffled: it is up to the caller to remove duplicates (e.g. with an ordered set) and to shuffle the
+	 * result once all the indexes have been queried.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @param source
+	 *            the source
+	 * @param dist
+	 *            the dist
+	 * @param f
+	 *            the f
+	 * @param result
+	 *            the buffer
+	 */
+	default void allAtDistance(final IScope scope, final IShape source, final double dist, final IAgentFilter f,
+			final Collection<IAgent> result) {
+		result.addAll(allAtDistance(scope, source, dist, f));
+	}
+
 	/**
 	 * Dispose.
 	 */
@@ -153,6 +201,30 @@ public interface ISpatialIndex {
 		 */
 		void mergeWith(Compound spatialIndex);
 
+		/**
+		 * Indicates that the agents of this population are about to be created from geometries that are not likely to
+		 * move (e.g. from a shapefile), so that they can be bulk-loaded in a static index. Has no effect if the species
+		 * already has an index or explicitly specifies which one to use.
+		 *
+		 * @param pop
+		 *            the population
+		 */
+		void useStaticIndexFor(IPopulation<? extends IAgent> pop);
+
+		/**
+		 * Begins a phase (e.g. the step of a species) during which, if the "cycle-consistent" mode is enabled in the
+		 * preferences, the moves of the agents are not applied to the index but recorded, so that the queries see the
+		 * agents where they were when the phase began. Phases can be nested or run in parallel.
+		 *
+		 * @return true if the moves are deferred, in which case {@link #endPhase()} must be called
+		 */
+		boolean beginPhase();
+
+		/**
+		 * Ends a phase. The moves recorded are applied to the index once all the phases in progress have ended.
+		 */
+		void endPhase();
+
 	}
 
 }
\ No newline at end of file
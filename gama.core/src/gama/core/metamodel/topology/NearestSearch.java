@@ -0,0 +1,283 @@
+/*******************************************************************************************************
+ *
+ * NearestSearch.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform
+ * .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.metamodel.topology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.locationtech.jts.geom.Envelope;
+
+import gama.core.common.geometry.Envelope3D;
+import gama.core.metamodel.agent.IAgent;
+import gama.core.metamodel.shape.GamaPoint;
+import gama.core.metamodel.shape.IShape;
+import gama.core.metamodel.topology.filter.IAgentFilter;
+import gama.core.runtime.IScope;
+import gama.core.util.GamaListFactory;
+import gama.core.util.IList;
+import gama.gaml.types.Types;
+
+/**
+ * The workspace of the distance queries of the spatial indexes, meant to be reused by each thread so that the queries
+ * do not allocate anything once it has grown to the size of the largest one. It holds the source and the distance of
+ * the query, the agents collected by the radius queries and a binary heap (in primitive arrays) of squared distances,
+ * which the indexes fill so that {@link #next()} returns the agents by increasing distance. The items of the heap can
+ * be anything the index needs to traverse (nodes, cells...) and their keys can be lower bounds of the distance, as long
+ * as the keys of the agents returned are exact.
+ *
+ * Distances between two points are computed on their coordinates, like {@link GamaPoint#euclidianDistanceTo(GamaPoint)}
+ * does; others rely on {@link IShape#euclidianDistanceTo(IShape)}.
+ */
+abstract class NearestSearch {
+
+	/** The keys of the heap (squared distances). */
+	double[] keys = new double[64];
+
+	/** The items of the heap. */
+	Object[] items = new Object[64];
+
+	/** Whether the keys of the heap are exact distances or only lower bounds. */
+	boolean[] exact = new boolean[64];
+
+	/** The size of the heap. */
+	int size;
+
+	/** The agents collected by the radius queries. */
+	final List<IAgent> batch = new ArrayList<>();
+
+	/** The agents with a geometry already met, if they can be stored several times in the index. */
+	final Set<IAgent> seen = new HashSet<>();
+
+	/** The list used to filter agents one by one. */
+	final List<IAgent> one = new ArrayList<>(1);
+
+	/** Whether this workspace is in use. */
+	boolean busy;
+
+	/** The source. */
+	IShape source;
+
+	/** Whether the source is a point. */
+	boolean point;
+
+	/** The coordinates of the location of the source. */
+	double x, y, z;
+
+	/** The 2D bounds of the source. */
+	double minx, maxx, miny, maxy;
+
+	/** The distance and its square. */
+	double dist, limit;
+
+	/** The squared distance of the last agent returned by {@link #next()}. */
+	double key;
+
+	/**
+	 * Initializes the workspace for the source and the distance.
+	 */
+	void start(final IShape source, final double dist) {
+		busy = true;
+		this.source = source;
+		this.dist = dist;
+		limit = dist * dist;
+		point = source.isPoint();
+		final GamaPoint p = source.getLocation();
+		x = p.x;
+		y = p.y;
+		z = p.z;
+		if (point) {
+			minx = maxx = p.x;
+			miny = maxy = p.y;
+		} else {
+			final Envelope3D e = source.getEnvelope();
+			minx = e.getMinX();
+			maxx = e.getMaxX();
+			miny = e.getMinY();
+			maxy = e.getMaxY();
+			e.dispose();
+		}
+	}
+
+	/**
+	 * Releases the workspace and the references it holds.
+	 */
+	void end() {
+		for (int i = 0; i < size; i++) { items[i] = null; }
+		size = 0;
+		batch.clear();
+		seen.clear();
+		source = null;
+		busy = false;
+	}
+
+	/**
+	 * Returns the next agent by increasing distance (stored in {@link #key}) or null if there are no more agents at
+	 * distance.
+	 */
+	abstract IAgent next();
+
+	/**
+	 * Squared 2D distance between the bounds of the source and the rectangle. A lower bound of the distance to
+	 * anything it contains.
+	 */
+	double distanceTo(final double x1, final double x2, final double y1, final double y2) {
+		final double dx = Math.max(0, Math.max(x1 - maxx, minx - x2));
+		final double dy = Math.max(0, Math.max(y1 - maxy, miny - y2));
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Squared 2D distance between the bounds of the source and the envelope.
+	 */
+	double distanceTo(final Envelope e) {
+		return distanceTo(e.getMinX(), e.getMaxX(), e.getMinY(), e.getMaxY());
+	}
+
+	/**
+	 * Squared distance between the location of the source and the point, when the source is a point.
+	 */
+	double pointDistanceTo(final double px, final double py, final double pz) {
+		final double dx = px - x;
+		final double dy = py - y;
+		final double dz = pz - z;
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	/**
+	 * Pushes an item in the heap.
+	 */
+	void push(final double k, final Object item, final boolean isExact) {
+		if (size == keys.length) {
+			final int capacity = size * 2;
+			keys = Arrays.copyOf(keys, capacity);
+			items = Arrays.copyOf(items, capacity);
+			exact = Arrays.copyOf(exact, capacity);
+		}
+		int i = size++;
+		while (i > 0) {
+			final int parent = i - 1 >>> 1;
+			if (keys[parent] <= k) { break; }
+			set(i, parent);
+			i = parent;
+		}
+		keys[i] = k;
+		items[i] = item;
+		exact[i] = isExact;
+	}
+
+	/**
+	 * Removes the first item of the heap.
+	 */
+	void pop() {
+		final int last = --size;
+		final double k = keys[last];
+		final Object item = items[last];
+		final boolean isExact = exact[last];
+		items[last] = null;
+		if (last == 0) return;
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= last) { break; }
+			if (child + 1 < last && keys[child + 1] < keys[child]) { child++; }
+			if (k <= keys[child]) { break; }
+			set(i, child);
+			i = child;
+		}
+		keys[i] = k;
+		items[i] = item;
+		exact[i] = isExact;
+	}
+
+	/**
+	 * Copies the item at index from to index to.
+	 */
+	private void set(final int to, final int from) {
+		keys[to] = keys[from];
+		items[to] = items[from];
+		exact[to] = exact[from];
+	}
+
+	/**
+	 * Whether the filter accepts the agent.
+	 */
+	boolean accepts(final IScope scope, final IAgentFilter f, final IAgent a) {
+		one.add(a);
+		f.filter(scope, source, one);
+		final boolean result = !one.isEmpty();
+		one.clear();
+		return result;
+	}
+
+	/**
+	 * Returns the agent accepted by the filter that is the closest to the source (strictly under the distance), or
+	 * null. Agents at the same distance are randomly chosen (Issue 722).
+	 */
+	IAgent first(final IScope scope, final IAgentFilter f) {
+		IAgent result = null;
+		double min = 0;
+		int ties = 0;
+		for (IAgent a = next(); a != null; a = next()) {
+			final double k = key;
+			if (k >= limit || result != null && k > min) { break; }
+			if (!accepts(scope, f, a)) { continue; }
+			if (result == null) {
+				result = a;
+				min = k;
+				ties = 1;
+			} else if (scope.getRandom().between(1, ++ties) == 1) { result = a; }
+		}
+		return result;
+	}
+
+	/**
+	 * Returns, by increasing distance, the number agents accepted by the filter that are the closest to the source
+	 * (within the distance) and not already chosen. Agents at the same distance are randomly chosen (Issue 722).
+	 */
+	IList<IAgent> first(final IScope scope, final IAgentFilter f, final int number,
+			final Collection<IAgent> alreadyChosen) {
+		final IList<IAgent> result = GamaListFactory.create(Types.AGENT);
+		if (number <= 0) return result;
+		double last = 0;
+		// The number of agents in the result at the same distance as the last one
+		int atLast = 0;
+		List<IAgent> ties = null;
+		for (IAgent a = next(); a != null; a = next()) {
+			final double k = key;
+			if (result.size() == number && k > last) { break; }
+			if (alreadyChosen.contains(a) || !accepts(scope, f, a)) { continue; }
+			if (result.size() < number) {
+				if (k > last) {
+					last = k;
+					atLast = 0;
+				}
+				atLast++;
+				result.add(a);
+			} else {
+				if (ties == null) { ties = new ArrayList<>(); }
+				ties.add(a);
+			}
+		}
+		if (ties != null) {
+			final List<IAgent> tail = result.subList(result.size() - atLast, result.size());
+			ties.addAll(tail);
+			tail.clear();
+			scope.getRandom().shuffleInPlace(ties);
+			result.addAll(ties.subList(0, atLast));
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,634 @@
+/*******************************************************************************************************
+ *
+ * SpatialHashIndex.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform
+ * .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.metamodel.topology;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.locationtech.jts.geom.Envelope;
+
+import com.google.common.collect.Ordering;
+
+import gama.core.common.geometry.Envelope3D;
+import gama.core.common.preferences.GamaPreferences;
+import gama.core.metamodel.agent.IAgent;
+import gama.core.metamodel.shape.GamaPoint;
+import gama.core.metamodel.shape.IShape;
+import gama.core.metamodel.topology.filter.IAgentFilter;
+import gama.core.runtime.IScope;
+import gama.core.util.Collector;
+import gama.core.util.GamaListFactory;
+import gama.core.util.ICollector;
+import gama.core.util.IList;
+
+/**
+ * A spatial hash (or cell list) for populations of point agents that move a lot (pedestrians, particles,
+ * vehicles...). The environment is divided in square cells, each cell keeping a linked list of the agents it
+ * contains. Everything is stored in primitive arrays indexed by a slot attributed to each agent: its coordinates, its
+ * cell and its neighbours in the list of the cell. Moving an agent only updates its coordinates, and relinks it only if
+ * it changes of cell.
+ *
+ * The size of the cells follows the distance of the queries: it starts at 1/100th of the environment and, every
+ * {@link #QUERIES_BEFORE_RESIZE} queries, the cells are rebuilt if the average distance queried is less than half or
+ * more than twice their size, so that a query usually only visits the 3x3 cells around the agent.
+ *
+ * The agents that are not points (if any) are kept in a regular quadtree.
+ *
+ * The arrays, the table of the slots and the statistics of the queries are shared by all the threads: the index is
+ * wrapped in a synchronizer when the model uses parallelism.
+ */
+public class SpatialHashIndex extends AbstractSpatialIndex {
+
+	/** The number of queries after which the size of the cells is reconsidered. */
+	final static int QUERIES_BEFORE_RESIZE = 256;
+
+	/** The maximum number of cells. */
+	final static int MAX_CELLS = 1 << 22;
+
+	/** The minimum number of cells. */
+	final static int MIN_CELLS = 1 << 10;
+
+	/** The bounds. */
+	final Envelope bounds;
+
+	/** The parallel. */
+	final boolean parallel;
+
+	/** The origin of the cells. */
+	final double originX, originY;
+
+	/** The size of the cells. */
+	double cellSize;
+
+	/** The number of columns and rows of cells. */
+	int columns, rows;
+
+	/** The first slot of each cell, or -1. */
+	int[] heads;
+
+	/** The agent of each slot. */
+	IAgent[] agents = new IAgent[64];
+
+	/** The coordinates of the agent of each slot. */
+	double[] xs = new double[64], ys = new double[64], zs = new double[64];
+
+	/** The cell of each slot, and the next and previous slots in the same cell (or -1) */
+	int[] cells = new int[64], next = new int[64], prev = new int[64];
+
+	/** The number of slots ever used. */
+	int slots;
+
+	/** The first free slot (the others are linked through {@link #next}), or -1. */
+	int free = -1;
+
+	/** The number of agents in the cells. */
+	int size;
+
+	/** The agents of the table that gives the slot of each agent (open addressing, linear probing). */
+	IAgent[] keys = new IAgent[128];
+
+	/** The slots of the table. */
+	int[] values = new int[128];
+
+	/** The index of the agents that are not points. Null until one is inserted */
+	ISpatialIndex others;
+
+	/** The sum of the distances queried since the last resize. */
+	double distances;
+
+	/** The number of queries since the last resize. */
+	int queries;
+
+	/**
+	 * Creates the spatial hash. Returns a synchronized one if necessary (cf. #3576), or if the agents can be run in
+	 * parallel, as neither its structure nor the statistics updated by the queries can be accessed concurrently.
+	 *
+	 * @param envelope
+	 *            the envelope
+	 * @param parallel
+	 *            the parallel
+	 * @return the spatial index
+	 */
+	public static ISpatialIndex create(final Envelope envelope, final boolean parallel) {
+		ISpatialIndex index = new SpatialHashIndex(envelope, parallel);
+		if (parallel || GamaPreferences.Experimental.QUADTREE_SYNCHRONIZATION.getValue())
+			return new GamaQuadTree.QuadTreeSynchronizer(index);
+		return index;
+	}
+
+	/**
+	 * Instantiates a new spatial hash index.
+	 *
+	 * @param bounds
+	 *            the bounds
+	 * @param parallel
+	 *            the parallel
+	 */
+	private SpatialHashIndex(final Envelope bounds, final boolean parallel) {
+		// As in GamaQuadTree, all computations are made in 2D (Issue 804)
+		this.bounds = new Envelope(bounds);
+		this.parallel = parallel;
+		originX = bounds.getMinX();
+		originY = bounds.getMinY();
+		resize(Math.max(bounds.getWidth(), bounds.getHeight()) / 100d);
+	}
+
+	/**
+	 * Builds the cells for this size (bounded so that their number stays reasonable) and relinks all the agents.
+	 *
+	 * @param size
+	 *            the size
+	 */
+	private void resize(final double size) {
+		final double w = Math.max(bounds.getWidth(), Double.MIN_NORMAL);
+		final double h = Math.max(bounds.getHeight(), Double.MIN_NORMAL);
+		final double max = Math.max(1, Math.min(MAX_CELLS, Math.max(MIN_CELLS, 4L * this.size)));
+		double cs = Math.max(size, Math.sqrt(w * h / max));
+		if (!(cs > 0)) { cs = Math.max(w, h); }
+		if (heads != null && cs == cellSize) return;
+		cellSize = cs;
+		columns = (int) Math.min(Math.ceil(w / cs), MAX_CELLS);
+		rows = (int) Math.min(Math.ceil(h / cs), MAX_CELLS / Math.max(1, columns));
+		columns = Math.max(1, columns);
+		rows = Math.max(1, rows);
+		heads = new int[columns * rows];
+		Arrays.fill(heads, -1);
+		for (int slot = 0; slot < slots; slot++) { if (agents[slot] != null) { link(slot, cell(xs[slot], ys[slot])); } }
+	}
+
+	/**
+	 * Resizes the cells if the distances queried since the last resize do not correspond to their size.
+	 */
+	private void adapt() {
+		final double mean = distances / queries;
+		distances = 0;
+		queries = 0;
+		if (mean > 0 && (mean < cellSize / 2 || mean > cellSize * 2)) { resize(mean); }
+	}
+
+	/**
+	 * The column of the coordinate (the agents outside of the bounds are in the cells of the border).
+	 */
+	int column(final double x) {
+		final int c = (int) Math.floor((x - originX) / cellSize);
+		return c < 0 ? 0 : c >= columns ? columns - 1 : c;
+	}
+
+	/**
+	 * The row of the coordinate (the agents outside of the bounds are in the cells of the border).
+	 */
+	int row(final double y) {
+		final int r = (int) Math.floor((y - originY) / cellSize);
+		return r < 0 ? 0 : r >= rows ? rows - 1 : r;
+	}
+
+	/**
+	 * The cell of the point.
+	 */
+	int cell(final double x, final double y) {
+		return row(y) * columns + column(x);
+	}
+
+	@Override
+	public void insert(final IAgent agent) {
+		if (agent == null) return;
+		if (queries >= QUERIES_BEFORE_RESIZE) { adapt(); }
+		if (!agent.isPoint()) {
+			final int slot = find(agent);
+			if (slot >= 0) { release(slot); }
+			others().insert(agent);
+			return;
+		}
+		final GamaPoint p = agent.getLocation();
+		final int c = cell(p.x, p.y);
+		int slot = find(agent);
+		if (slot < 0) {
+			slot = allocate(agent);
+			link(slot, c);
+		} else if (cells[slot] != c) {
+			unlink(slot);
+			link(slot, c);
+		}
+		xs[slot] = p.x;
+		ys[slot] = p.y;
+		zs[slot] = p.z;
+	}
+
+	@Override
+	public void remove(final Envelope3D previous, final IAgent agent) {
+		final int slot = find(agent);
+		if (slot >= 0) {
+			release(slot);
+		} else if (others != null) {
+			others.remove(previous, agent);
+			return;
+		}
+		if (previous != null) { previous.dispose(); }
+	}
+
+	@Override
+	public void update(final Envelope3D previous, final IAgent agent) {
+		if (agent != null && agent.isPoint() && find(agent) >= 0) {
+			// The agent stays in the cells: its slot is simply updated
+			if (previous != null) { previous.dispose(); }
+			insert(agent);
+			return;
+		}
+		super.update(previous, agent);
+	}
+
+	/**
+	 * Returns the index of the agents that are not points, creating it if necessary
+	 */
+	private ISpatialIndex others() {
+		if (others == null) { others = GamaQuadTree.create(bounds, parallel); }
+		return others;
+	}
+
+	/**
+	 * Attributes a slot to the agent.
+	 */
+	private int allocate(final IAgent agent) {
+		int slot = free;
+		if (slot >= 0) {
+			free = next[slot];
+		} else {
+			if (slots == agents.length) {
+				final int capacity = slots * 2;
+				agents = Arrays.copyOf(agents, capacity);
+				xs = Arrays.copyOf(xs, capacity);
+				ys = Arrays.copyOf(ys, capacity);
+				zs = Arrays.copyOf(zs, capacity);
+				cells = Arrays.copyOf(cells, capacity);
+				next = Arrays.copyOf(next, capacity);
+				prev = Arrays.copyOf(prev, capacity);
+			}
+			slot = slots++;
+		}
+		agents[slot] = agent;
+		put(agent, slot);
+		size++;
+		return slot;
+	}
+
+	/**
+	 * Frees the slot.
+	 */
+	private void release(final int slot) {
+		unlink(slot);
+		delete(agents[slot]);
+		agents[slot] = null;
+		next[slot] = free;
+		free = slot;
+		size--;
+	}
+
+	/**
+	 * Links the slot at the head of the cell.
+	 */
+	private void link(final int slot, final int cell) {
+		final int head = heads[cell];
+		next[slot] = head;
+		prev[slot] = -1;
+		if (head >= 0) { prev[head] = slot; }
+		heads[cell] = slot;
+		cells[slot] = cell;
+	}
+
+	/**
+	 * Unlinks the slot from its cell.
+	 */
+	private void unlink(final int slot) {
+		final int n = next[slot];
+		final int p = prev[slot];
+		if (p >= 0) {
+			next[p] = n;
+		} else {
+			heads[cells[slot]] = n;
+		}
+		if (n >= 0) { prev[n] = p; }
+	}
+
+	/**
+	 * The position of the agent in the table.
+	 */
+	private int hash(final IAgent agent) {
+		final int h = agent.hashCode() * 0x9E3779B9;
+		return (h ^ h >>> 16) & keys.length - 1;
+	}
+
+	/**
+	 * Returns the slot of the agent, or -1.
+	 */
+	private int find(final IAgent agent) {
+		if (size == 0 || agent == null) return -1;
+		final int mask = keys.length - 1;
+		for (int i = hash(agent);; i = i + 1 & mask) {
+			final IAgent k = keys[i];
+			if (k == null) return -1;
+			if (k == agent) return values[i];
+		}
+	}
+
+	/**
+	 * Puts the slot of the agent in the table.
+	 */
+	private void put(final IAgent agent, final int slot) {
+		if (size * 2 >= keys.length) {
+			final IAgent[] oldKeys = keys;
+			final int[] oldValues = values;
+			keys = new IAgent[oldKeys.length * 2];
+			values = new int[oldKeys.length * 2];
+			for (int i = 0; i < oldKeys.length; i++) { if (oldKeys[i] != null) { place(oldKeys[i], oldValues[i]); } }
+		}
+		place(agent, slot);
+	}
+
+	/**
+	 * Places the agent in the first free position of the table.
+	 */
+	private void place(final IAgent agent, final int slot) {
+		final int mask = keys.length - 1;
+		int i = hash(agent);
+		while (keys[i] != null) { i = i + 1 & mask; }
+		keys[i] = agent;
+		values[i] = slot;
+	}
+
+	/**
+	 * Removes the agent from the table, shifting back the following entries.
+	 */
+	private void delete(final IAgent agent) {
+		final int mask = keys.length - 1;
+		int i = hash(agent);
+		while (keys[i] != agent) {
+			if (keys[i] == null) return;
+			i = i + 1 & mask;
+		}
+		for (int j = i + 1 & mask; keys[j] != null; j = j + 1 & mask) {
+			final int h = hash(keys[j]);
+			// The entry stays where it is if its position is cyclically in ]i, j]
+			if (i <= j ? i < h && h <= j : i < h || h <= j) { continue; }
+			keys[i] = keys[j];
+			values[i] = values[j];
+			i = j;
+		}
+		keys[i] = null;
+	}
+
+	@Override
+	protected void findIntersects(final Envelope r, final Collection<IAgent> result) {
+		if (size == 0) return;
+		final double x1 = r.getMinX(), x2 = r.getMaxX(), y1 = r.getMinY(), y2 = r.getMaxY();
+		final int c1 = column(x2), r1 = row(y2);
+		for (int row = row(y1); row <= r1; row++) {
+			for (int c = column(x1); c <= c1; c++) {
+				for (int slot = heads[row * columns + c]; slot >= 0; slot = next[slot]) {
+					final double x = xs[slot], y = ys[slot];
+					if (x >= x1 && x <= x2 && y >= y1 && y <= y2) { result.add(agents[slot]); }
+				}
+			}
+		}
+	}
+
+	@Override
+	protected Collection<IAgent> findIntersects(final IScope scope, final IShape source, final Envelope r,
+			final IAgentFilter filter) {
+		if (others == null) return super.findIntersects(scope, source, r, filter);
+		try (final ICollector<IAgent> list = Collector.getOrderedSet()) {
+			findIntersects(r, list);
+			if (!list.isEmpty()) { filter.filter(scope, source, list); }
+			// Already filtered by the other index
+			list.addAll(others.allInEnvelope(scope, source, r, filter, false));
+			if (list.isEmpty()) return GamaListFactory.create();
+			list.shuffleInPlaceWith(scope.getRandom());
+			return list.items();
+		}
+	}
+
+	@Override
+	public Collection<IAgent> allAtDistance(final IScope scope, final IShape source, final double dist,
+			final IAgentFilter f) {
+		// Adresses Issue 722 by explicitly shuffling the results with GAMA
+		// random procedures and removing duplicates
+		try (final ICollector<IAgent> list = Collector.getOrderedSet()) {
+			allAtDistance(scope, source, dist, f, list);
+			if (list.isEmpty()) return GamaListFactory.create();
+			list.shuffleInPlaceWith(scope.getRandom());
+			return list.items();
+		}
+	}
+
+	@Override
+	public void allAtDistance(final IScope scope, final IShape source, final double dist, final IAgentFilter f,
+			final Collection<IAgent> result) {
+		queries++;
+		distances += dist;
+		if (size > 0) {
+			final Search s = Search.start(this, source, dist);
+			try {
+				s.collect();
+				if (!s.batch.isEmpty()) {
+					f.filter(scope, source, s.batch);
+					result.addAll(s.batch);
+				}
+			} finally {
+				s.end();
+			}
+		}
+		if (others != null) { others.allAtDistance(scope, source, dist, f, result); }
+	}
+
+	@Override
+	public IAgent firstAtDistance(final IScope scope, final IShape source, final double dist, final IAgentFilter f) {
+		IAgent result = null;
+		if (size > 0) {
+			final Search s = Search.start(this, source, dist);
+			try {
+				result = s.first(scope, f);
+			} finally {
+				s.end();
+			}
+		}
+		if (others == null) return result;
+		final IAgent other = others.firstAtDistance(scope, source, dist, f);
+		if (other == null) return result;
+		if (result == null || source.euclidianDistanceTo(other) < source.euclidianDistanceTo(result)) return other;
+		return result;
+	}
+
+	@Override
+	public Collection<IAgent> firstAtDistance(final IScope scope, final IShape source, final double dist,
+			final IAgentFilter f, final int number, final Collection<IAgent> alreadyChosen) {
+		IList<IAgent> result;
+		if (size > 0) {
+			final Search s = Search.start(this, source, dist);
+			try {
+				result = s.first(scope, f, number, alreadyChosen);
+			} finally {
+				s.end();
+			}
+		} else {
+			result = GamaListFactory.create();
+		}
+		if (others == null) return result;
+		result.addAll(others.firstAtDistance(scope, source, dist, f, number, alreadyChosen));
+		if (result.size() <= number) return result;
+		final Ordering<IShape> ordering = Ordering.natural().onResultOf(input -> source.euclidianDistanceTo(input));
+		return ordering.leastOf(result, number);
+	}
+
+	@Override
+	public void dispose() {
+		if (others != null) {
+			others.dispose();
+			others = null;
+		}
+		Arrays.fill(agents, 0, slots, null);
+		Arrays.fill(keys, null);
+		Arrays.fill(heads, -1);
+		slots = 0;
+		free = -1;
+		size = 0;
+	}
+
+	/**
+	 * The workspace of the distance queries of the spatial hash. The radius queries collect in the batch the agents
+	 * of the cells around the source; the nearest-first traversal visits the cells by rings of increasing distance
+	 * around the ones covered by the source, and returns the agents of the heap that are closer than any cell not yet
+	 * visited.
+	 */
+	private static final class Search extends NearestSearch {
+
+		/** The workspaces of the threads */
+		private static final ThreadLocal<Search> SEARCHES = ThreadLocal.withInitial(Search::new);
+
+		/** The index. */
+		SpatialHashIndex index;
+
+		/** The cells covered by the source. */
+		int c0, c1, r0, r1;
+
+		/** The last ring visited. */
+		int ring;
+
+		/**
+		 * Returns the workspace of the current thread (or a new one if it is already in use) initialized for the
+		 * index, the source and the distance.
+		 */
+		static Search start(final SpatialHashIndex index, final IShape source, final double dist) {
+			Search s = SEARCHES.get();
+			if (s.busy) { s = new Search(); }
+			s.start(source, dist);
+			s.index = index;
+			s.c0 = index.column(s.minx);
+			s.c1 = index.column(s.maxx);
+			s.r0 = index.row(s.miny);
+			s.r1 = index.row(s.maxy);
+			s.ring = -1;
+			return s;
+		}
+
+		@Override
+		void end() {
+			super.end();
+			index = null;
+		}
+
+		/**
+		 * Collects in the batch the agents at distance of the source.
+		 */
+		void collect() {
+			final SpatialHashIndex si = index;
+			final int cmax = si.column(maxx + dist), rmax = si.row(maxy + dist);
+			for (int r = si.row(miny - dist); r <= rmax; r++) {
+				for (int c = si.column(minx - dist); c <= cmax; c++) { collect(r * si.columns + c, false); }
+			}
+		}
+
+		/**
+		 * Collects the agents at distance of the cell in the batch, or pushes them in the heap
+		 */
+		void collect(final int cell, final boolean inHeap) {
+			final SpatialHashIndex si = index;
+			final double[] xs = si.xs, ys = si.ys, zs = si.zs;
+			final int[] next = si.next;
+			for (int slot = si.heads[cell]; slot >= 0; slot = next[slot]) {
+				final double k;
+				if (point) {
+					k = pointDistanceTo(xs[slot], ys[slot], zs[slot]);
+				} else {
+					if (distanceTo(xs[slot], xs[slot], ys[slot], ys[slot]) > limit) { continue; }
+					final double d = source.euclidianDistanceTo(si.agents[slot]);
+					k = d * d;
+				}
+				if (k > limit) { continue; }
+				if (inHeap) {
+					push(k, si.agents[slot], true);
+				} else {
+					batch.add(si.agents[slot]);
+				}
+			}
+		}
+
+		/**
+		 * The squared lower bound of the distance between the source and the cells of the ring.
+		 */
+		double bound(final int k) {
+			if (k <= 1) return 0;
+			final double d = (k - 1) * index.cellSize;
+			return d * d;
+		}
+
+		/**
+		 * Whether the ring covers all the cells.
+		 */
+		boolean covers(final int k) {
+			return c0 - k <= 0 && r0 - k <= 0 && c1 + k >= index.columns - 1 && r1 + k >= index.rows - 1;
+		}
+
+		/**
+		 * Pushes in the heap the agents of the cells of the ring.
+		 */
+		void visit(final int k) {
+			final SpatialHashIndex si = index;
+			final int left = c0 - k, right = c1 + k, top = r0 - k, bottom = r1 + k;
+			final int cmin = Math.max(0, left), cmax = Math.min(si.columns - 1, right);
+			for (int r = Math.max(0, top); r <= Math.min(si.rows - 1, bottom); r++) {
+				final int offset = r * si.columns;
+				if (k == 0 || r == top || r == bottom) {
+					for (int c = cmin; c <= cmax; c++) { collect(offset + c, true); }
+				} else {
+					if (left >= 0) { collect(offset + left, true); }
+					if (right < si.columns) { collect(offset + right, true); }
+				}
+			}
+		}
+
+		@Override
+		IAgent next() {
+			while (true) {
+				final double bound = bound(ring + 1);
+				final boolean done = ring >= 0 && covers(ring) || bound > limit;
+				if (size > 0 && keys[0] <= limit && (done || keys[0] <= bound)) {
+					key = keys[0];
+					final IAgent a = (IAgent) items[0];
+					pop();
+					return a;
+				}
+				if (done) return null;
+				visit(++ring);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,212 @@
+/*******************************************************************************************************
+ *
+ * StaticSpatialIndex.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform
+ * .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.metamodel.topology;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import gama.core.common.geometry.Envelope3D;
+import gama.core.metamodel.agent.IAgent;
+import gama.core.metamodel.shape.IShape;
+import gama.core.metamodel.topology.filter.IAgentFilter;
+import gama.core.runtime.IScope;
+import gama.core.util.Collector;
+import gama.core.util.GamaListFactory;
+import gama.core.util.ICollector;
+
+/**
+ * A spatial index for populations of agents that do not move once created (buildings, parcels, obstacles...). The
+ * agents inserted are buffered (in insertion order) until the first query, when they are bulk-loaded, at once, in a
+ * packed STR R-tree (each agent being stored only once, whatever its size). Agents removed afterwards (e.g. because
+ * they die) are simply ignored by the queries.
+ *
+ * If an agent is inserted once the tree has been built (i.e. if an agent moves or is created later), the index falls
+ * back to a regular quadtree, in which all the remaining agents are inserted, and which is used from then on.
+ */
+public class StaticSpatialIndex extends AbstractSpatialIndex {
+
+	/** The Constant NODE_CAPACITY. */
+	final static int NODE_CAPACITY = 16;
+
+	/** The bounds. */
+	final Envelope bounds;
+
+	/** The parallel. */
+	final boolean parallel;
+
+	/** The agents waiting to be bulk-loaded, in insertion order. Null once the tree is built */
+	private Map<IAgent, Envelope> pending = new LinkedHashMap<>();
+
+	/** The packed tree. Null until the first query */
+	private volatile STRtree tree;
+
+	/** The agents, in insertion order, that have been loaded in the tree */
+	private IAgent[] loaded;
+
+	/** The agents removed since the tree has been built */
+	private final Set<IAgent> removed = ConcurrentHashMap.newKeySet();
+
+	/** The dynamic index used once an agent has been inserted after the tree has been built */
+	private volatile ISpatialIndex fallback;
+
+	/**
+	 * Instantiates a new static spatial index.
+	 *
+	 * @param bounds
+	 *            the bounds
+	 * @param parallel
+	 *            the parallel
+	 */
+	public StaticSpatialIndex(final Envelope bounds, final boolean parallel) {
+		this.bounds = bounds;
+		this.parallel = parallel;
+	}
+
+	@Override
+	public void insert(final IAgent agent) {
+		if (agent == null) return;
+		ISpatialIndex index = fallback;
+		if (index == null) {
+			synchronized (this) {
+				index = fallback;
+				if (index == null) {
+					if (tree == null) {
+						final Envelope3D e = agent.getEnvelope();
+						if (e == null) return;
+						pending.put(agent, new Envelope(e));
+						e.dispose();
+						return;
+					}
+					index = switchToDynamicIndex();
+				}
+			}
+		}
+		index.insert(agent);
+	}
+
+	@Override
+	public void remove(final Envelope3D previous, final IAgent agent) {
+		ISpatialIndex index = fallback;
+		if (index == null) {
+			synchronized (this) {
+				index = fallback;
+				if (index == null) {
+					if (tree == null) {
+						pending.remove(agent);
+					} else {
+						removed.add(agent);
+					}
+					if (previous != null) { previous.dispose(); }
+					return;
+				}
+			}
+		}
+		index.remove(previous, agent);
+	}
+
+	/**
+	 * Bulk-loads the pending agents in the packed tree if it has not been done yet.
+	 *
+	 * @return the tree, or null if the index has already switched to the dynamic index
+	 */
+	private STRtree build() {
+		STRtree result = tree;
+		if (result == null) {
+			synchronized (this) {
+				result = tree;
+				if (result == null && pending != null) {
+					result = new STRtree(NODE_CAPACITY);
+					loaded = pending.keySet().toArray(new IAgent[pending.size()]);
+					for (final Map.Entry<IAgent, Envelope> entry : pending.entrySet()) {
+						result.insert(entry.getValue(), entry.getKey());
+					}
+					result.build();
+					pending = null;
+					tree = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a regular quadtree and inserts all the agents present in the packed tree. Must be called while holding
+	 * the lock of this index. The fallback is published before the tree is released, so that queries that read the
+	 * tree first, and then the fallback, always find one of them.
+	 *
+	 * @return the dynamic index
+	 */
+	private ISpatialIndex switchToDynamicIndex() {
+		final ISpatialIndex index = GamaQuadTree.create(bounds, parallel);
+		for (final IAgent a : loaded) { if (a != null && !a.dead() && !removed.contains(a)) { index.insert(a); } }
+		fallback = index;
+		tree = null;
+		loaded = null;
+		return index;
+	}
+
+	@Override
+	protected void findIntersects(final Envelope r, final Collection<IAgent> result) {
+		final STRtree t = build();
+		if (t != null) { findIntersects(t, r, result); }
+	}
+
+	/**
+	 * Adds to the result the agents of the tree whose bounds intersect the envelope and that have not been removed
+	 */
+	private void findIntersects(final STRtree t, final Envelope r, final Collection<IAgent> result) {
+		t.query(r, item -> {
+			final IAgent a = (IAgent) item;
+			if (!removed.contains(a)) { result.add(a); }
+		});
+	}
+
+	@Override
+	protected Collection<IAgent> findIntersects(final IScope scope, final IShape source, final Envelope r,
+			final IAgentFilter filter) {
+		final STRtree t = tree;
+		ISpatialIndex index = fallback;
+		if (index != null) return index.allInEnvelope(scope, source, r, filter, false);
+		final STRtree built = t == null ? build() : t;
+		if (built == null) {
+			index = fallback;
+			return index.allInEnvelope(scope, source, r, filter, false);
+		}
+		// Adresses Issue 722 by explicitly shuffling the results with GAMA
+		// random procedures and removing duplicates
+		try (final ICollector<IAgent> list = Collector.getOrderedSet()) {
+			findIntersects(built, r, list);
+			if (list.isEmpty()) return GamaListFactory.create();
+			filter.filter(scope, source, list);
+			list.shuffleInPlaceWith(scope.getRandom());
+			return list.items();
+		}
+	}
+
+	@Override
+	public synchronized void dispose() {
+		if (fallback != null) {
+			fallback.dispose();
+			fallback = null;
+		}
+		tree = null;
+		loaded = null;
+		pending = new LinkedHashMap<>();
+		removed.clear();
+	}
+
+}
@@ -16,15 +16,10 @@ import static java.lang.Math.min;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Set;
 
 import org.locationtech.jts.geom.Coordinate;
@@ -134,6 +129,9 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 	/** The neighborhood. */
 	public INeighborhood neighborhood;
 
+	/** The path finder. */
+	private volatile GridPathFinder pathFinder;
+
 	/** The actual number of cells. */
 	int actualNumberOfCells;
 
@@ -155,6 +153,9 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 	public void dispose() {
 		if (neighborhood != null) { neighborhood.clear(); }
 		neighborhood = null;
+		final GridPathFinder finder = pathFinder;
+		if (finder != null) { finder.dispose(); }
+		pathFinder = null;
 		gridValue = null;
 		_clear();
 		matrix = null;
@@ -1051,19 +1052,6 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 		return neighs;
 	}
 
-	/**
-	 * Heuristic.
-	 *
-	 * @param next
-	 *            the next
-	 * @param goal
-	 *            the goal
-	 * @return the double
-	 */
-	double heuristic(final IAgent next, final IAgent goal) {
-		return next.getLocation().euclidianDistanceTo(goal.getLocation());
-	}
-
 	/**
 	 * Compute shortest path between BF.
 	 *
@@ -1083,32 +1071,11 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 	 */
 	public GamaSpatialPath computeShortestPathBetweenBF(final IScope scope, final IShape source, final IShape target,
 			final ITopology topo, final IList<IAgent> on) throws GamaRuntimeException {
-		final int currentplace = getPlaceIndexAt(source.getLocation());
-		final int targetplace = getPlaceIndexAt(target.getLocation());
-		final IAgent startAg = matrix[currentplace].getAgent();
-		final IAgent endAg = matrix[targetplace].getAgent();
-		if (startAg == endAg) return simplePath(scope, source, target, topo, startAg, endAg);
-		final boolean[] open = new boolean[this.getAgents().size()];
-		initOpen(open, on);
-
-		final List<IAgent> frontier = new ArrayList<>();
-		final Map<IAgent, IAgent> cameFrom = new Hashtable<>();
-
-		frontier.add(startAg);
-		while (!frontier.isEmpty()) {
-			final IAgent current = frontier.remove(0);
-			if (current == endAg) return finalPath(scope, source, target, topo, startAg, current, cameFrom);
-			final Collection<IAgent> neigh = getNeighborhood().getNeighborsIn(scope, current.getIndex(), 1);
-
-			for (final IAgent next : neigh) {
-				if (!open[next.getIndex()]) { continue; }
-				frontier.add(next);
-				cameFrom.put(next, current);
-				open[next.getIndex()] = false;
-			}
-		}
-		return null;
-
+		final int start = getPlaceIndexAt(source.getLocation());
+		final int end = getPlaceIndexAt(target.getLocation());
+		if (start == -1 || end == -1) return null;
+		if (start == end) return simplePath(scope, source, target, topo);
+		return finalPath(scope, source, target, topo, getPathFinder().breadthFirst(start, end, on), null);
 	}
 
 	/**
@@ -1133,62 +1100,12 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 	public GamaSpatialPath computeShortestPathBetweenDijkstra(final IScope scope, final IShape source,
 			final IShape target, final ITopology topo, final IList<IAgent> on, final Map<IAgent, Object> onWithWeight)
 			throws GamaRuntimeException {
-		final int currentplace = getPlaceIndexAt(source.getLocation());
-		final int targetplace = getPlaceIndexAt(target.getLocation());
-		final IAgent startAg = matrix[currentplace].getAgent();
-		final IAgent endAg = matrix[targetplace].getAgent();
-		if (startAg == endAg) return simplePath(scope, source, target, topo, startAg, endAg);
-		final Double maxDim = onWithWeight != null ? Math.max(this.cellHeight, this.cellWidth) : 0.0;
-
-		final boolean[] open = new boolean[this.getAgents().size()];
-		initOpen(open, onWithWeight != null ? onWithWeight.keySet() : on);
-
-		final Map<IAgent, IAgent> cameFrom = new HashMap<>();
-
-		final PriorityQueue frontier = newPriorityQueue();
-
-		final Map<IAgent, Double> costSoFar = new HashMap<>();
-		costSoFar.put(startAg, 0.0);
-
-		frontier.add(new ArrayList() {
-			{
-				add(startAg);
-				add(0.0);
-			}
-		});
-		while (!frontier.isEmpty()) {
-			final IAgent current = (IAgent) ((List) frontier.remove()).get(0);
-			if (current == endAg) {
-				if (onWithWeight != null)
-					return finalPath(scope, source, target, topo, startAg, current, cameFrom, onWithWeight);
-				return finalPath(scope, source, target, topo, startAg, current, cameFrom);
-			}
-			Collection<IAgent> neigh;
-			neigh = getNeighborhood().getNeighborsIn(scope, current.getIndex(), 1);
-			final Double cost = costSoFar.get(current);
-
-			for (final IAgent next : neigh) {
-				if (!open[next.getIndex()]) { continue; }
-				final double dist = current.getLocation().euclidianDistanceTo(next.getLocation());
-				final double nextCost = cost + (onWithWeight == null ? dist
-						: Cast.asFloat(scope, onWithWeight.get(next)) + (dist > maxDim ? Double.MIN_VALUE : 0.0));
-
-				frontier.add(new ArrayList() {
-					{
-						add(next);
-						add(nextCost);
-					}
-				});
-				open[next.getIndex()] = false;
-				Double nextCostSoFar = costSoFar.get(next);
-				if (nextCostSoFar == null || nextCost < nextCostSoFar) {
-					costSoFar.put(next, nextCost);
-					cameFrom.put(next, current);
-				}
-			}
-		}
-		return null;
-
+		final int start = getPlaceIndexAt(source.getLocation());
+		final int end = getPlaceIndexAt(target.getLocation());
+		if (start == -1 || end == -1) return null;
+		if (start == end) return simplePath(scope, source, target, topo);
+		return finalPath(scope, source, target, topo,
+				getPathFinder().shortest(scope, start, end, on, onWithWeight, false), onWithWeight);
 	}
 
 	/**
@@ -1210,64 +1127,20 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 	 * @throws GamaRuntimeException
 	 *             the gama runtime exception
 	 */
-	@SuppressWarnings ("null")
 	public GamaSpatialPath computeShortestPathBetweenAStar(final IScope scope, final IShape source, final IShape target,
 			final ITopology topo, final IList<IAgent> on, final Map<IAgent, Object> onWithWeight)
 			throws GamaRuntimeException {
-		final int currentplace = getPlaceIndexAt(source.getLocation());
-		final int targetplace = getPlaceIndexAt(target.getLocation());
-		final IAgent startAg = matrix[currentplace].getAgent();
-		final IAgent endAg = matrix[targetplace].getAgent();
-		final boolean weighted = onWithWeight != null;
-		if (startAg == endAg) return simplePath(scope, source, target, topo, startAg, endAg);
-		final Double maxDim = weighted ? Math.max(this.cellHeight, this.cellWidth) : 0.0;
-
-		final boolean[] open = new boolean[this.getAgents().size()];
-		initOpen(open, weighted ? onWithWeight.keySet() : on);
-		final PriorityQueue frontier = newPriorityQueue();
-		final Map<IAgent, IAgent> cameFrom = new HashMap<>();
-		final Map<IAgent, Double> costSoFar = new HashMap<>();
-
-		frontier.add(new ArrayList() {
-			{
-				add(startAg);
-				add(weighted ? Cast.asFloat(scope, onWithWeight.get(startAg)) : 0.0);
-			}
-		});
-		costSoFar.put(startAg, 0.0);
-		while (!frontier.isEmpty()) {
-			final IAgent current = (IAgent) ((List) frontier.remove()).get(0);
-			if (current == endAg) {
-				if (weighted) return finalPath(scope, source, target, topo, startAg, current, cameFrom, onWithWeight);
-				return finalPath(scope, source, target, topo, startAg, current, cameFrom);
-			}
-			final Double cost = costSoFar.get(current);
-			final Set<IAgent> neigh = getNeighborhood().getNeighborsIn(scope, current.getIndex(), 1);
-			for (final IAgent next : neigh) {
-				if (!open[next.getIndex()]) { continue; }
-				final double dist = current.getLocation().euclidianDistanceTo(next.getLocation());
-				final double nextCost = cost + (!weighted ? dist
-						: Cast.asFloat(scope, onWithWeight.get(next)) + (dist > maxDim ? Double.MIN_VALUE : 0.0));
-				Double nextCostSoFar = costSoFar.get(next);
-				if (nextCostSoFar == null || nextCost < nextCostSoFar) {
-					costSoFar.put(next, nextCost);
-					frontier.add(new ArrayList() {
-						{
-							add(next);
-							add(nextCost + heuristic(next, endAg));
-						}
-					});
-					cameFrom.put(next, current);
-
-				}
-			}
-		}
-		return null;
-
+		final int start = getPlaceIndexAt(source.getLocation());
+		final int end = getPlaceIndexAt(target.getLocation());
+		if (start == -1 || end == -1) return null;
+		if (start == end) return simplePath(scope, source, target, topo);
+		return finalPath(scope, source, target, topo,
+				getPathFinder().shortest(scope, start, end, on, onWithWeight, true), onWithWeight);
 	}
 
 	/**
-	 * Compute shortest path between JPS.
+	 * Compute shortest path between JPS. Only available in the square grids with the Moore neighborhood that are not
+	 * tori: A* is used otherwise.
 	 *
 	 * @param scope
 	 *            the scope
@@ -1285,214 +1158,32 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 	 */
 	public GamaSpatialPath computeShortestPathBetweenJPS(final IScope scope, final IShape source, final IShape target,
 			final ITopology topo, final IList<IAgent> on) throws GamaRuntimeException {
-
-		final int currentplace = getPlaceIndexAt(source.getLocation());
-		final int targetplace = getPlaceIndexAt(target.getLocation());
-		final IAgent startAg = matrix[currentplace].getAgent();
-		final IAgent endAg = matrix[targetplace].getAgent();
-
-		if (startAg == endAg) return simplePath(scope, source, target, topo, startAg, endAg);
-		final boolean[] open = new boolean[this.getAgents().size()];
-		initOpen(open, on);
-		final PriorityQueue frontier = newPriorityQueue();
-		final Map<IAgent, IAgent> cameFrom = new HashMap<>();
-		final Map<IAgent, Double> costSoFar = new HashMap<>();
-
-		frontier.add(new ArrayList() {
-			{
-				add(startAg);
-				add(0.0);
-			}
-		});
-		costSoFar.put(startAg, 0.0);
-		while (!frontier.isEmpty()) {
-			final IAgent current = (IAgent) ((List) frontier.remove()).get(0);
-			if (current == endAg) return finalPath(scope, source, target, topo, startAg, current, cameFrom);
-			final Double cost = costSoFar.get(current);
-			final Set<IAgent> neigh = getNeighborsPrune(scope, current, cameFrom.get(current), open);
-
-			for (final IAgent next : neigh) {
-				if (!open[next.getIndex()]) { continue; }
-				final IAgent jumpt = jump(scope, next, current, open, endAg);
-				final IAgent ne = jumpt == null ? next : jumpt;
-				final double nextCost = cost + current.getLocation().euclidianDistanceTo(ne.getLocation());
-				Double neCostSoFar = costSoFar.get(ne);
-				if (neCostSoFar == null || nextCost < neCostSoFar) {
-					costSoFar.put(ne, nextCost);
-					frontier.add(new ArrayList() {
-						{
-							add(ne);
-							add(nextCost + heuristic(ne, endAg));
-						}
-					});
-					cameFrom.put(ne, current);
-				}
-			}
-		}
-		return null;
+		if (usesVN || isHexagon || isTorus) return computeShortestPathBetweenAStar(scope, source, target, topo, on, null);
+		final int start = getPlaceIndexAt(source.getLocation());
+		final int end = getPlaceIndexAt(target.getLocation());
+		if (start == -1 || end == -1) return null;
+		if (start == end) return simplePath(scope, source, target, topo);
+		return finalPath(scope, source, target, topo, getPathFinder().jumpPoint(start, end, on), null);
 	}
 
 	/**
-	 * Walkable.
+	 * Gets the path finder, created on demand.
 	 *
-	 * @param scope
-	 *            the scope
-	 * @param x
-	 *            the x
-	 * @param y
-	 *            the y
-	 * @param open
-	 *            the open
-	 * @return true, if successful
-	 */
-	public boolean walkable(final IScope scope, final int x, final int y, final boolean[] open) {
-		final IAgent n = (IAgent) this.get(scope, x, y);
-		return n != null && open[n.getIndex()];
-	}
-
-	/**
-	 * Notwalkable.
-	 *
-	 * @param scope
-	 *            the scope
-	 * @param x
-	 *            the x
-	 * @param y
-	 *            the y
-	 * @param open
-	 *            the open
-	 * @return true, if successful
+	 * @return the path finder
 	 */
-	public boolean notwalkable(final IScope scope, final int x, final int y, final boolean[] open) {
-		final IAgent n = (IAgent) this.get(scope, x, y);
-		return n == null || !open[n.getIndex()];
-	}
-
-	/**
-	 * Jump.
-	 *
-	 * @param scope
-	 *            the scope
-	 * @param node
-	 *            the node
-	 * @param parent
-	 *            the parent
-	 * @param open
-	 *            the open
-	 * @param endAg
-	 *            the end ag
-	 * @return the i agent
-	 */
-	public IAgent jump(final IScope scope, final IAgent node, final IAgent parent, final boolean[] open,
-			final IAgent endAg) {
-		if (node == null || !open[node.getIndex()]) return null;
-		if (node == endAg) return node;
-		final int x = ((IGridAgent) node).getX();
-		final int y = ((IGridAgent) node).getY();
-		open[node.getIndex()] = true;
-		int px, py, dx, dy;
-
-		px = ((IGridAgent) parent).getX();
-		py = ((IGridAgent) parent).getY();
-		dx = (x - px) / Math.max(Math.abs(x - px), 1);
-		dy = (y - py) / Math.max(Math.abs(y - py), 1);
-		final IAgent next = (IAgent) this.get(scope, x + dx, y + dy);
-
-		if (dx != 0 && dy != 0) {
-			if (walkable(scope, x - dx, y + dy, open) && notwalkable(scope, x - dx, y, open)
-					|| walkable(scope, x + dx, y - dy, open) && notwalkable(scope, x, y - dy, open))
-				return node;
-		} else if (dx != 0) {
-			if (walkable(scope, x + dx, y + 1, open) && notwalkable(scope, x, y + 1, open)
-					|| walkable(scope, x + dx, y - 1, open) && notwalkable(scope, x, y - 1, open))
-				return node;
-		} else if (walkable(scope, x + 1, y + dy, open) && notwalkable(scope, x + 1, y, open)
-				|| walkable(scope, x - 1, y + dy, open) && notwalkable(scope, x - 1, y, open))
-			return node;
-
-		if (dx != 0 && dy != 0) {
-			final IAgent jx = jump(scope, (IAgent) get(scope, x + dx, y), node, open, endAg);
-			final IAgent jy = jump(scope, (IAgent) get(scope, x, y + dy), node, open, endAg);
-			if (jx != null || jy != null) return node;
-		}
-		return jump(scope, next, node, open, endAg);
-	}
-
-	/**
-	 * Gets the neighbors prune.
-	 *
-	 * @param scope
-	 *            the scope
-	 * @param node
-	 *            the node
-	 * @param parent
-	 *            the parent
-	 * @param open
-	 *            the open
-	 * @return the neighbors prune
-	 */
-	public Set<IAgent> getNeighborsPrune(final IScope scope, final IAgent node, final IAgent parent,
-			final boolean[] open) {
-		if (parent == null) return getNeighborhood().getNeighborsIn(scope, node.getIndex(), 1);
-		try (Collector.AsOrderedSet<IAgent> neighbors = Collector.getOrderedSet()) {
-			final int x = ((IGridAgent) node).getX();
-			final int y = ((IGridAgent) node).getY();
-
-			int px, py, dx, dy;
-
-			px = ((IGridAgent) parent).getX();
-			py = ((IGridAgent) parent).getY();
-
-			dx = (x - px) / Math.max(Math.abs(x - px), 1);
-			dy = (y - py) / Math.max(Math.abs(y - py), 1);
-
-			if (dx != 0 && dy != 0) {
-				final IAgent nei1 = (IAgent) this.get(scope, x, y + dy);
-				if (nei1 != null && open[nei1.getIndex()]) { neighbors.add(nei1); }
-				final IAgent nei2 = (IAgent) this.get(scope, x + dx, y);
-				if (nei2 != null && open[nei2.getIndex()]) { neighbors.add(nei2); }
-				final IAgent nei3 = (IAgent) this.get(scope, x + dx, y + dy);
-				if (nei3 != null && open[nei3.getIndex()]) { neighbors.add(nei3); }
-				final IAgent neidx = (IAgent) this.get(scope, x - dx, y);
-				if (neidx != null && !open[neidx.getIndex()]) {
-					final IAgent neidiag = (IAgent) this.get(scope, x - dx, y + dy);
-					if (neidiag != null && open[neidiag.getIndex()]) { neighbors.add(neidiag); }
-				}
-				final IAgent neidy = (IAgent) this.get(scope, x, y - dy);
-				if (neidy != null && !open[neidy.getIndex()]) {
-					final IAgent neidiag = (IAgent) this.get(scope, x + dx, y - dy);
-					if (neidiag != null && open[neidiag.getIndex()]) { neighbors.add(neidiag); }
-				}
-
-			} else if (dy == 0) {
-				final IAgent nei = (IAgent) this.get(scope, x + dx, y);
-				if (nei != null && open[nei.getIndex()]) { neighbors.add(nei); }
-				final IAgent neiup = (IAgent) this.get(scope, x, y + 1);
-				if (neiup != null && !open[neiup.getIndex()]) {
-					final IAgent neidiag = (IAgent) this.get(scope, x + dx, y + 1);
-					if (neidiag != null && open[neidiag.getIndex()]) { neighbors.add(neidiag); }
-				}
-				final IAgent neidown = (IAgent) this.get(scope, x, y - 1);
-				if (neidown != null && !open[neidown.getIndex()]) {
-					final IAgent neidiag = (IAgent) this.get(scope, x + dx, y - 1);
-					if (neidiag != null && open[neidiag.getIndex()]) { neighbors.add(neidiag); }
-				}
-			} else {
-				final IAgent nei = (IAgent) this.get(scope, x, y + dy);
-				if (nei != null && open[nei.getIndex()]) { neighbors.add(nei); }
-				final IAgent neiright = (IAgent) this.get(scope, x + 1, y);
-				if (neiright != null && !open[neiright.getIndex()]) {
-					final IAgent neidiag = (IAgent) this.get(scope, x + 1, y + dy);
-					if (neidiag != null && open[neidiag.getIndex()]) { neighbors.add(neidiag); }
-				}
-				final IAgent neileft = (IAgent) this.get(scope, x - 1, y);
-				if (neileft != null && !open[neileft.getIndex()]) {
-					final IAgent neidiag = (IAgent) this.get(scope, x - 1, y + dy);
-					if (neidiag != null && open[neidiag.getIndex()]) { neighbors.add(neidiag); }
+	GridPathFinder getPathFinder() {
+		GridPathFinder result = pathFinder;
+		if (result == null) {
+			// The paths can be computed by agents stepped in parallel
+			synchronized (this) {
+				result = pathFinder;
+				if (result == null) {
+					result = new GridPathFinder(this);
+					pathFinder = result;
 				}
 			}
-			return neighbors.items();
 		}
+		return result;
 	}
 
 	@Override
@@ -1500,8 +1191,7 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 			final ITopology topo, final IList<IAgent> on) throws GamaRuntimeException {
 		if ("Dijkstra".equals(optimizer))
 			return computeShortestPathBetweenDijkstra(scope, source, target, topo, on, null);
-		if (!neighborhood.isVN() && "JPS".equals(optimizer))
-			return computeShortestPathBetweenJPS(scope, source, target, topo, on);
+		if ("JPS".equals(optimizer)) return computeShortestPathBetweenJPS(scope, source, target, topo, on);
 		if ("BF".equals(optimizer)) return computeShortestPathBetweenBF(scope, source, target, topo, on);
 		return computeShortestPathBetweenAStar(scope, source, target, topo, on, null);
 	}
@@ -1524,14 +1214,10 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 	 *            the target
 	 * @param topo
 	 *            the topo
-	 * @param startAg
-	 *            the start ag
-	 * @param endAg
-	 *            the end ag
 	 * @return the gama spatial path
 	 */
 	private GamaSpatialPath simplePath(final IScope scope, final IShape source, final IShape target,
-			final ITopology topo, final IAgent startAg, final IAgent endAg) {
+			final ITopology topo) {
 		final IList<IShape> nodesPt = GamaListFactory.create(Types.GEOMETRY);
 		nodesPt.add(source.getLocation());
 		nodesPt.add(target.getLocation());
@@ -1549,96 +1235,27 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 	 *            the target
 	 * @param topo
 	 *            the topo
-	 * @param startAg
-	 *            the start ag
-	 * @param agent
-	 *            the agent
-	 * @param cameFrom
-	 *            the came from
+	 * @param cells
+	 *            the indexes of the cells of the path, from the one of the source to the one of the target
 	 * @param on
-	 *            the on
-	 * @return the gama spatial path
+	 *            the weights of the cells, or null to count them
+	 * @return the gama spatial path, or null if there is no path
 	 */
 	private GamaSpatialPath finalPath(final IScope scope, final IShape source, final IShape target,
-			final ITopology topo, final IAgent startAg, final IAgent agent, final Map<IAgent, IAgent> cameFrom,
-			final Map<IAgent, Object> on) {
-		IAgent current = agent;
+			final ITopology topo, final int[] cells, final Map<IAgent, Object> on) {
+		if (cells == null) return null;
 		final IList<IShape> nodesPt = GamaListFactory.create(Types.GEOMETRY);
-		double weight = Cast.asFloat(scope, on.get(current));
-		nodesPt.add(target.getLocation());
-		while (current != startAg) {
-			current = cameFrom.get(current);
-			weight += Cast.asFloat(scope, on.get(current));
-			if (current != startAg) { nodesPt.add(current.getLocation()); }
-		}
+		double weight = on == null ? cells.length : 0.0;
 		nodesPt.add(source.getLocation());
-		Collections.reverse(nodesPt);
-		return PathFactory.newInstance(scope, topo, nodesPt, weight);
-	}
-
-	/**
-	 * Final path.
-	 *
-	 * @param scope
-	 *            the scope
-	 * @param source
-	 *            the source
-	 * @param target
-	 *            the target
-	 * @param topo
-	 *            the topo
-	 * @param startAg
-	 *            the start ag
-	 * @param agent
-	 *            the agent
-	 * @param cameFrom
-	 *            the came from
-	 * @return the gama spatial path
-	 */
-	private GamaSpatialPath finalPath(final IScope scope, final IShape source, final IShape target,
-			final ITopology topo, final IAgent startAg, final IAgent agent, final Map<IAgent, IAgent> cameFrom) {
-		IAgent current = agent;
-		final IList<IShape> nodesPt = GamaListFactory.create(Types.GEOMETRY);
-		double weight = 1;
-		nodesPt.add(target.getLocation());
-		while (current != startAg) {
-			current = cameFrom.get(current);
-			weight += 1;
-			if (current != startAg) { nodesPt.add(current.getLocation()); }
+		for (int i = 0; i < cells.length; i++) {
+			final IAgent cell = matrix[cells[i]].getAgent();
+			if (on != null) { weight += Cast.asFloat(scope, on.get(cell)); }
+			if (i > 0 && i < cells.length - 1) { nodesPt.add(cell.getLocation()); }
 		}
-		nodesPt.add(source.getLocation());
-		Collections.reverse(nodesPt);
+		nodesPt.add(target.getLocation());
 		return PathFactory.newInstance(scope, topo, nodesPt, weight);
 	}
 
-	/**
-	 * Inits the open.
-	 *
-	 * @param open
-	 *            the open
-	 * @param on
-	 *            the on
-	 */
-	private void initOpen(final boolean[] open, final Collection<IAgent> on) {
-		if (on == null) {
-			Arrays.fill(open, true);
-		} else {
-			Arrays.fill(open, false);
-			for (final IAgent ag : on) { open[ag.getIndex()] = true; }
-		}
-	}
-
-	/**
-	 * New priority queue.
-	 *
-	 * @return the priority queue
-	 */
-	private PriorityQueue newPriorityQueue() {
-		final Comparator<List> comparator = (o1, o2) -> ((Double) o1.get(1)).compareTo((Double) o2.get(1));
-
-		return new PriorityQueue(comparator);
-	}
-
 	@Override
 	public final IAgent getAgentAt(final GamaPoint c) {
 		final IShape g = getPlaceAt(c);
@@ -0,0 +1,594 @@
+/*******************************************************************************************************
+ *
+ * GridPathFinder.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.metamodel.topology.grid;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+
+import gama.core.metamodel.agent.IAgent;
+import gama.core.runtime.IScope;
+import gama.gaml.operators.Cast;
+
+/**
+ * The searches of the shortest paths between the cells of a grid (see the facet 'optimizer' of grids). The cells are
+ * designated by their index, and their neighbours are found by adding offsets to their coordinates, so that the
+ * searches neither go through the agents of the cells nor through the neighbourhood of the grid. The work arrays of
+ * the searches, as large as the grid, are taken from a small pool and given back to it after each search, so that
+ * they are reused from one search to the other without being kept by each thread that has computed a path.
+ */
+final class GridPathFinder {
+
+	/** The offsets of the von Neumann neighbours. */
+	private static final int[][] VON_NEUMANN = { { 0, -1 }, { 0, 1 }, { -1, 0 }, { 1, 0 } };
+
+	/** The offsets of the Moore neighbours, the diagonal ones last. */
+	private static final int[][] MOORE =
+			{ { 0, -1 }, { 0, 1 }, { -1, 0 }, { 1, 0 }, { -1, -1 }, { 1, -1 }, { -1, 1 }, { 1, 1 } };
+
+	/** The grid. */
+	private final GamaSpatialMatrix grid;
+
+	/** The number of columns and rows. */
+	private final int cols, rows;
+
+	/** Whether the grid is a torus or made of hexagons. */
+	private final boolean torus, hexagon;
+
+	/** Whether the hexagons are in vertical orientation (their neighbours depend then on the parity of the row). */
+	private final boolean vertical;
+
+	/** The offsets of the neighbours of the cells, by parity of their column (or row) for the hexagons. */
+	private final int[][][] offsets;
+
+	/** Whether the move towards each neighbour is diagonal. */
+	private final boolean[] diagonal;
+
+	/** The size of the cells and the length of a diagonal move. */
+	private final double width, height, diagonalLength;
+
+	/** The maximum number of work arrays kept in the pool. */
+	private static final int POOL_SIZE = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+	/** The number of cells. */
+	private final int n;
+
+	/** The work arrays not used by a search. */
+	private final Deque<Workspace> pool = new ArrayDeque<>();
+
+	/**
+	 * Instantiates the path finder of a grid.
+	 *
+	 * @param grid
+	 *            the grid
+	 */
+	GridPathFinder(final GamaSpatialMatrix grid) {
+		this.grid = grid;
+		cols = grid.numCols;
+		rows = grid.numRows;
+		torus = grid.isTorus;
+		hexagon = grid.isHexagon;
+		vertical = hexagon && grid.isHorizontalOrientation != null && !grid.isHorizontalOrientation;
+		width = grid.cellWidth;
+		height = grid.cellHeight;
+		diagonalLength = Math.hypot(width, height);
+		if (hexagon) {
+			// See GridHexagonalNeighborhoodHorizontal and GridHexagonalNeighborhoodVertical
+			final int[][] even = vertical ? new int[][] { { -1, -1 }, { -1, 1 } } : new int[][] { { 1, -1 }, { -1, -1 } };
+			final int[][] odd = vertical ? new int[][] { { 1, -1 }, { 1, 1 } } : new int[][] { { 1, 1 }, { -1, 1 } };
+			offsets = new int[][][] { concat(VON_NEUMANN, even), concat(VON_NEUMANN, odd) };
+		} else {
+			final int[][] square = grid.usesVN ? VON_NEUMANN : MOORE;
+			offsets = new int[][][] { square, square };
+		}
+		diagonal = new boolean[offsets[0].length];
+		for (int k = 0; k < diagonal.length; k++) {
+			diagonal[k] = !hexagon && offsets[0][k][0] != 0 && offsets[0][k][1] != 0;
+		}
+		n = cols * rows;
+	}
+
+	/**
+	 * Empties the pool of work arrays.
+	 */
+	void dispose() {
+		synchronized (pool) {
+			pool.clear();
+		}
+	}
+
+	/**
+	 * Concatenates two arrays of offsets.
+	 */
+	private static int[][] concat(final int[][] first, final int[][] second) {
+		final int[][] result = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, result, first.length, second.length);
+		return result;
+	}
+
+	/**
+	 * Returns the index of the cell at an offset from the coordinates of another.
+	 *
+	 * @return the index of the cell, or -1 if there is none
+	 */
+	private int neighbour(final int x, final int y, final int dx, final int dy) {
+		int nx = x + dx, ny = y + dy;
+		if (nx < 0 || ny < 0 || nx >= cols || ny >= rows) {
+			if (!torus) return -1;
+			nx = Math.floorMod(nx, cols);
+			ny = Math.floorMod(ny, rows);
+		}
+		final int i = ny * cols + nx;
+		return grid.matrix[i] == null ? -1 : i;
+	}
+
+	/**
+	 * The length of the move between two neighbours.
+	 */
+	private double length(final int u, final int v, final int k) {
+		if (hexagon) return grid.matrix[u].getLocation().euclidianDistanceTo(grid.matrix[v].getLocation());
+		if (diagonal[k]) return diagonalLength;
+		return offsets[0][k][0] == 0 ? height : width;
+	}
+
+	/**
+	 * Estimates the length of the path between two cells. If exact, the estimate is the length of the shortest path
+	 * without obstacles in the neighbourhood of the grid (and not only the euclidean distance), which the searches
+	 * can use to expand fewer cells.
+	 */
+	private double estimate(final int v, final int t, final boolean exact) {
+		if (hexagon) return grid.matrix[v].getLocation().euclidianDistanceTo(grid.matrix[t].getLocation());
+		int dx = Math.abs(v % cols - t % cols), dy = Math.abs(v / cols - t / cols);
+		if (torus) {
+			dx = Math.min(dx, cols - dx);
+			dy = Math.min(dy, rows - dy);
+		}
+		final double a = dx * width, b = dy * height;
+		if (!exact) return Math.hypot(a, b);
+		if (diagonal.length == 4) return a + b;
+		return a + b - Math.min(dx, dy) * (width + height - diagonalLength);
+	}
+
+	/**
+	 * Takes a workspace from the pool (or creates one) and prepares it for a new search. It must be given back with
+	 * {@link #release(Workspace)}.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @param on
+	 *            the cells that can be crossed, or null if all can
+	 * @param weights
+	 *            the cells that can be crossed and their weights, or null
+	 * @return the workspace
+	 */
+	private Workspace prepare(final IScope scope, final Collection<IAgent> on, final Map<IAgent, Object> weights) {
+		Workspace ws;
+		synchronized (pool) {
+			ws = pool.poll();
+		}
+		if (ws == null) { ws = new Workspace(n); }
+		ws.begin(on != null || weights != null);
+		if (on != null) { for (final IAgent cell : on) { ws.allow(cell.getIndex()); } }
+		if (weights != null) {
+			if (ws.weight == null) { ws.weight = new double[ws.cost.length]; }
+			for (final Map.Entry<IAgent, Object> entry : weights.entrySet()) {
+				final int i = entry.getKey().getIndex();
+				ws.allow(i);
+				ws.weight[i] = Cast.asFloat(scope, entry.getValue());
+			}
+		}
+		return ws;
+	}
+
+	/**
+	 * Gives a workspace back to the pool, unless it is full.
+	 *
+	 * @param ws
+	 *            the workspace
+	 */
+	private void release(final Workspace ws) {
+		synchronized (pool) {
+			if (pool.size() < POOL_SIZE) { pool.push(ws); }
+		}
+	}
+
+	/**
+	 * Finds the path with the fewest cells between two cells, by a breadth-first search.
+	 *
+	 * @param s
+	 *            the index of the source
+	 * @param t
+	 *            the index of the target
+	 * @param on
+	 *            the cells that can be crossed, or null if all can
+	 * @return the indexes of the cells of the path, or null if there is none
+	 */
+	int[] breadthFirst(final int s, final int t, final Collection<IAgent> on) {
+		final Workspace ws = prepare(null, on, null);
+		try {
+			ws.reach(s, 0d, -1);
+			ws.push(s, 0d);
+			for (int head = 0; head < ws.size; head++) {
+				final int u = ws.heap[head];
+				if (u == t) return ws.path(s, t);
+				final int x = u % cols, y = u / cols;
+				for (final int[] offset : offsets[parity(x, y)]) {
+					final int v = neighbour(x, y, offset[0], offset[1]);
+					if (v < 0 || ws.isReached(v) || !ws.isAllowed(v)) { continue; }
+					ws.reach(v, 0d, u);
+					// The heap is only used as a queue here
+					ws.push(v, 0d);
+				}
+			}
+			return null;
+		} finally {
+			release(ws);
+		}
+	}
+
+	/**
+	 * Finds the shortest path between two cells with Dijkstra's algorithm or, if guided, with A*. The length of a path
+	 * is the distance travelled between the centers of its cells or, if the cells are weighted, the sum of the weights
+	 * of the cells entered.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @param s
+	 *            the index of the source
+	 * @param t
+	 *            the index of the target
+	 * @param on
+	 *            the cells that can be crossed, or null
+	 * @param weights
+	 *            the cells that can be crossed and their weights, or null
+	 * @param guided
+	 *            whether to use A*
+	 * @return the indexes of the cells of the path, or null if there is none
+	 */
+	int[] shortest(final IScope scope, final int s, final int t, final Collection<IAgent> on,
+			final Map<IAgent, Object> weights, final boolean guided) {
+		final Workspace ws = prepare(scope, on, weights);
+		try {
+			final boolean weighted = weights != null;
+			ws.reach(s, 0d, -1);
+			ws.push(s, 0d);
+			while (ws.size > 0) {
+				final int u = ws.pop();
+				if (ws.isClosed(u)) { continue; }
+				if (u == t) return ws.path(s, t);
+				ws.close(u);
+				final double g = ws.cost[u];
+				final int x = u % cols, y = u / cols;
+				final int[][] around = offsets[parity(x, y)];
+				for (int k = 0; k < around.length; k++) {
+					final int v = neighbour(x, y, around[k][0], around[k][1]);
+					if (v < 0 || ws.isClosed(v) || !ws.isAllowed(v)) { continue; }
+					// As before, diagonal moves are slightly penalized when the cells are weighted
+					final double c =
+							g + (weighted ? ws.weight[v] + (diagonal[k] ? Double.MIN_VALUE : 0d) : length(u, v, k));
+					if (ws.isReached(v) && c >= ws.cost[v]) { continue; }
+					ws.reach(v, c, u);
+					ws.push(v, guided ? c + estimate(v, t, !weighted) : c);
+				}
+			}
+			return null;
+		} finally {
+			release(ws);
+		}
+	}
+
+	/**
+	 * Finds the shortest path between two cells of a square grid with the Moore neighbourhood, which is not a torus,
+	 * with the Jump Point Search algorithm: only the cells where the path may turn are kept in the heap, the others
+	 * being skipped by moving along straight lines.
+	 *
+	 * @param s
+	 *            the index of the source
+	 * @param t
+	 *            the index of the target
+	 * @param on
+	 *            the cells that can be crossed, or null
+	 * @return the indexes of the jump points of the path, or null if there is none
+	 */
+	int[] jumpPoint(final int s, final int t, final Collection<IAgent> on) {
+		final Workspace ws = prepare(null, on, null);
+		try {
+			if (ws.direction == null) { ws.direction = new byte[ws.cost.length]; }
+			ws.reach(s, 0d, -1);
+			ws.push(s, 0d);
+			while (ws.size > 0) {
+				final int u = ws.pop();
+				if (ws.isClosed(u)) { continue; }
+				if (u == t) return ws.path(s, t);
+				ws.close(u);
+				final double g = ws.cost[u];
+				final int x = u % cols, y = u / cols;
+				final int candidates = successors(ws, u, x, y);
+				for (int c = 0; c < candidates; c++) {
+					final int dx = ws.candidates[c][0], dy = ws.candidates[c][1];
+					final int j = jump(ws, x, y, dx, dy, t);
+					if (j < 0 || ws.isClosed(j)) { continue; }
+					final double cost =
+							g + ws.steps * (dx != 0 && dy != 0 ? diagonalLength : dx != 0 ? width : height);
+					if (ws.isReached(j) && cost >= ws.cost[j]) { continue; }
+					ws.reach(j, cost, u);
+					ws.direction[j] = (byte) ((dx + 1) * 3 + dy + 1);
+					ws.push(j, cost + estimate(j, t, true));
+				}
+			}
+			return null;
+		} finally {
+			release(ws);
+		}
+	}
+
+	/**
+	 * Lists the directions to explore from a jump point: all of them from the source, otherwise the direction of
+	 * arrival and the ones of the neighbours forced by the obstacles.
+	 *
+	 * @return the number of directions, stored in the candidates of the workspace
+	 */
+	private int successors(final Workspace ws, final int u, final int x, final int y) {
+		final int[][] result = ws.candidates;
+		if (ws.from[u] < 0) {
+			for (int k = 0; k < MOORE.length; k++) { set(result[k], MOORE[k][0], MOORE[k][1]); }
+			return MOORE.length;
+		}
+		final int dx = ws.direction[u] / 3 - 1, dy = ws.direction[u] % 3 - 1;
+		int n = 0;
+		if (dx != 0 && dy != 0) {
+			set(result[n++], 0, dy);
+			set(result[n++], dx, 0);
+			set(result[n++], dx, dy);
+			if (!isOpen(ws, x, y, -dx, 0)) { set(result[n++], -dx, dy); }
+			if (!isOpen(ws, x, y, 0, -dy)) { set(result[n++], dx, -dy); }
+		} else if (dx != 0) {
+			set(result[n++], dx, 0);
+			if (!isOpen(ws, x, y, 0, 1)) { set(result[n++], dx, 1); }
+			if (!isOpen(ws, x, y, 0, -1)) { set(result[n++], dx, -1); }
+		} else {
+			set(result[n++], 0, dy);
+			if (!isOpen(ws, x, y, 1, 0)) { set(result[n++], 1, dy); }
+			if (!isOpen(ws, x, y, -1, 0)) { set(result[n++], -1, dy); }
+		}
+		return n;
+	}
+
+	/**
+	 * Sets a direction.
+	 */
+	private static void set(final int[] direction, final int dx, final int dy) {
+		direction[0] = dx;
+		direction[1] = dy;
+	}
+
+	/**
+	 * Moves from a cell in a direction until the target, a cell with a forced neighbour or, for the diagonal moves, a
+	 * cell from which a jump point can be reached horizontally or vertically.
+	 *
+	 * @return the index of the jump point, whose distance in steps is stored in the workspace, or -1 if an obstacle
+	 *         or the border of the grid is met first
+	 */
+	private int jump(final Workspace ws, final int fromX, final int fromY, final int dx, final int dy, final int t) {
+		int x = fromX, y = fromY;
+		for (int steps = 1;; steps++) {
+			final int n = neighbour(x, y, dx, dy);
+			if (n < 0 || !ws.isAllowed(n)) return -1;
+			x += dx;
+			y += dy;
+			if (n == t || isForced(ws, x, y, dx, dy)
+					|| dx != 0 && dy != 0 && (jump(ws, x, y, dx, 0, t) >= 0 || jump(ws, x, y, 0, dy, t) >= 0)) {
+				ws.steps = steps;
+				return n;
+			}
+		}
+	}
+
+	/**
+	 * Whether a cell reached by moving in a direction has a neighbour that can only be reached optimally through it.
+	 */
+	private boolean isForced(final Workspace ws, final int x, final int y, final int dx, final int dy) {
+		if (dx != 0 && dy != 0) return isOpen(ws, x, y, -dx, dy) && !isOpen(ws, x, y, -dx, 0)
+				|| isOpen(ws, x, y, dx, -dy) && !isOpen(ws, x, y, 0, -dy);
+		if (dx != 0) return isOpen(ws, x, y, dx, 1) && !isOpen(ws, x, y, 0, 1)
+				|| isOpen(ws, x, y, dx, -1) && !isOpen(ws, x, y, 0, -1);
+		return isOpen(ws, x, y, 1, dy) && !isOpen(ws, x, y, 1, 0) || isOpen(ws, x, y, -1, dy) && !isOpen(ws, x, y, -1, 0);
+	}
+
+	/**
+	 * Whether the cell at an offset from some coordinates exists and can be crossed.
+	 */
+	private boolean isOpen(final Workspace ws, final int x, final int y, final int dx, final int dy) {
+		final int n = neighbour(x, y, dx, dy);
+		return n >= 0 && ws.isAllowed(n);
+	}
+
+	/**
+	 * The parity of the column (or row) of a cell, which determines its neighbours in the hexagonal grids.
+	 */
+	private int parity(final int x, final int y) {
+		if (!hexagon) return 0;
+		return vertical ? y & 1 : x & 1;
+	}
+
+	/**
+	 * The work arrays of a search: the cost and the predecessor of the cells reached, the cells that
+	 * can be crossed, and a binary heap in which the cells are added again when their cost decreases (the outdated
+	 * entries being skipped once the cell has been expanded). The arrays are reused from one search to the other: a
+	 * cell is only considered as reached, closed or allowed if it has been so during the current search.
+	 */
+	private static final class Workspace {
+
+		/** The state of each cell: reached if equal to the current visit, closed if equal to the next value. */
+		final int[] stamp;
+
+		/** The current visit (always even) and search. */
+		int visit, search;
+
+		/** The cost of each reached cell. */
+		final double[] cost;
+
+		/** The cell from which each reached cell has been reached. */
+		final int[] from;
+
+		/** The search during which each cell has been allowed, if the cells that can be crossed are restricted. */
+		int[] allowed;
+
+		/** Whether the cells that can be crossed are restricted. */
+		boolean restricted;
+
+		/** The weight of the cells (only for the weighted searches). */
+		double[] weight;
+
+		/** The direction in which each jump point has been reached (only for the jump point searches). */
+		byte[] direction;
+
+		/** The directions to explore from a jump point. */
+		final int[][] candidates = new int[8][2];
+
+		/** The number of steps of the last jump. */
+		int steps;
+
+		/** The cells of the heap and their keys. */
+		int[] heap = new int[64];
+
+		/** The keys. */
+		double[] keys = new double[64];
+
+		/** The size of the heap. */
+		int size;
+
+		/**
+		 * Instantiates the work arrays for a grid.
+		 *
+		 * @param n
+		 *            the number of cells
+		 */
+		Workspace(final int n) {
+			stamp = new int[n];
+			cost = new double[n];
+			from = new int[n];
+		}
+
+		/**
+		 * Prepares a new search.
+		 *
+		 * @param restrict
+		 *            whether only the cells allowed afterwards can be crossed
+		 */
+		void begin(final boolean restrict) {
+			size = 0;
+			visit += 2;
+			if (visit < 0) {
+				Arrays.fill(stamp, 0);
+				visit = 2;
+			}
+			restricted = restrict;
+			if (restrict) {
+				if (allowed == null) { allowed = new int[stamp.length]; }
+				if (++search < 0) {
+					Arrays.fill(allowed, 0);
+					search = 1;
+				}
+			}
+		}
+
+		/** Allows a cell to be crossed. */
+		void allow(final int v) {
+			allowed[v] = search;
+		}
+
+		/** Whether a cell can be crossed. */
+		boolean isAllowed(final int v) {
+			return !restricted || allowed[v] == search;
+		}
+
+		/** Whether a cell has been reached. */
+		boolean isReached(final int v) {
+			return stamp[v] == visit || stamp[v] == visit + 1;
+		}
+
+		/** Whether a cell has been expanded. */
+		boolean isClosed(final int v) {
+			return stamp[v] == visit + 1;
+		}
+
+		/** Reaches a cell. */
+		void reach(final int v, final double c, final int u) {
+			stamp[v] = visit;
+			cost[v] = c;
+			from[v] = u;
+		}
+
+		/** Marks a cell as expanded. */
+		void close(final int v) {
+			stamp[v] = visit + 1;
+		}
+
+		/**
+		 * Rebuilds the path to a cell.
+		 *
+		 * @return the indexes of the cells from the source to the target
+		 */
+		int[] path(final int s, final int t) {
+			int length = 1;
+			for (int v = t; v != s; v = from[v]) { length++; }
+			final int[] result = new int[length];
+			for (int v = t; length > 0; v = from[v]) { result[--length] = v; }
+			return result;
+		}
+
+		/**
+		 * Adds a cell to the heap.
+		 */
+		void push(final int v, final double key) {
+			if (size == heap.length) {
+				heap = Arrays.copyOf(heap, size * 2);
+				keys = Arrays.copyOf(keys, size * 2);
+			}
+			int at = size++;
+			while (at > 0) {
+				final int parent = at - 1 >> 1;
+				if (keys[parent] <= key) { break; }
+				heap[at] = heap[parent];
+				keys[at] = keys[parent];
+				at = parent;
+			}
+			heap[at] = v;
+			keys[at] = key;
+		}
+
+		/**
+		 * Removes the cell with the smallest key from the heap.
+		 */
+		int pop() {
+			final int result = heap[0];
+			final int v = heap[--size];
+			final double key = keys[size];
+			int at = 0;
+			while (true) {
+				int child = 2 * at + 1;
+				if (child >= size) { break; }
+				if (child + 1 < size && keys[child + 1] < keys[child]) { child++; }
+				if (key <= keys[child]) { break; }
+				heap[at] = heap[child];
+				keys[at] = keys[child];
+				at = child;
+			}
+			heap[at] = v;
+			keys[at] = key;
+			return result;
+		}
+
+	}
+
+}
@@ -113,7 +113,7 @@ public class LayerData extends AttributeHolder implements ILayerData {
 				? Integer.MAX_VALUE : Cast.asInt(scope, exp.value(scope)), INT, 0);
 		selectable = create(SELECTABLE, BOOL, true);
 		transparency = create(TRANSPARENCY,
-				(scope, exp) -> Math.min(Math.max(Cast.asFloat(scope, exp.value(scope)), 0d), 1d), FLOAT, 0d);
+				(scope, exp) -> Math.min(Math.max(exp.valueAsDouble(scope), 0d), 1d), FLOAT, 0d);
 		rotation = create(ROTATE, FLOAT, 0d);
 
 	}
@@ -156,7 +156,7 @@ public class LayerData extends AttributeHolder implements ILayerData {
 
 	@Override
 	public final Double getTransparency(final IScope scope) {
-		return Cast.asFloat(scope, transparency.value(scope));
+		return transparency.valueAsDouble(scope);
 	}
 
 	@Override
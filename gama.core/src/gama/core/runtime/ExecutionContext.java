@@ -10,14 +10,18 @@
  ********************************************************************************************************/
 package gama.core.runtime;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import gama.gaml.compilation.ISymbol;
 
 /**
- * The Class ExecutionContext.
+ * The Class ExecutionContext. The local variables are stored in a small frame of parallel arrays (names and values),
+ * which is not synchronized: a context is only modified by the thread that runs its scope (the scopes used by the
+ * parallel executions have their own copies). Contexts popped from their scope are reused as the next child of their
+ * outer context, so that the blocks executed repeatedly (loops, actions) do not allocate new contexts and frames.
  */
 public class ExecutionContext implements IExecutionContext {
 
@@ -62,8 +66,14 @@ public class ExecutionContext implements IExecutionContext {
 		return result;
 	}
 
-	/** The local. */
-	Map<String, Object> local;
+	/** The names of the local variables. Null until one is defined */
+	String[] names;
+
+	/** The values of the local variables, at the same positions as their names. */
+	Object[] values;
+
+	/** The number of local variables. */
+	int size;
 
 	/** The outer. */
 	IExecutionContext outer;
@@ -74,13 +84,27 @@ public class ExecutionContext implements IExecutionContext {
 	/** The command. */
 	ISymbol command;
 
+	/** A child context released by {@link #release()}, reused by the next call to createChildContext(). */
+	ExecutionContext free;
+
 	@Override
 	public void dispose() {
-		local = null;
+		clearLocalVars();
 		outer = null;
 		scope = null;
 	}
 
+	/**
+	 * Disposes of this context once it has been popped from its scope, and gives it back to its outer context, which
+	 * will reuse it (and its frame) as its next child instead of allocating a new one. Must only be called by the
+	 * thread that runs the scope, when the context is not referenced anymore.
+	 */
+	void release() {
+		final IExecutionContext o = outer;
+		dispose();
+		if (o instanceof ExecutionContext e && e.free == null) { e.free = this; }
+	}
+
 	@Override
 	public IScope getScope() { return scope; }
 
@@ -94,19 +118,38 @@ public class ExecutionContext implements IExecutionContext {
 	@Override
 	public final IExecutionContext getOuterContext() { return outer; }
 
+	/**
+	 * Returns the position of the variable in the frame, or -1. The names are most of the time the same instances as
+	 * the ones used to define the variables, so they are compared by identity first.
+	 *
+	 * @param name
+	 *            the name
+	 * @return the index
+	 */
+	private int indexOf(final String name) {
+		final String[] n = names;
+		if (n == null) return -1;
+		final int s = Math.min(size, n.length);
+		for (int i = 0; i < s; i++) { if (n[i] == name) return i; }
+		for (int i = 0; i < s; i++) { if (name.equals(n[i])) return i; }
+		return -1;
+	}
+
 	@Override
 	public void setTempVar(final String name, final Object value) {
-		if (local == null || !local.containsKey(name)) {
+		final int i = indexOf(name);
+		if (i < 0) {
 			if (outer != null) { outer.setTempVar(name, value); }
 		} else {
-			local.put(name, value);
+			values[i] = value;
 		}
 	}
 
 	@Override
 	public Object getTempVar(final String name) {
-		if (local == null || !local.containsKey(name)) return outer == null ? null : outer.getTempVar(name);
-		return local.get(name);
+		final int i = indexOf(name);
+		if (i < 0) return outer == null ? null : outer.getTempVar(name);
+		return values[i];
 	}
 
 	/**
@@ -118,13 +161,13 @@ public class ExecutionContext implements IExecutionContext {
 	 * @return the execution context
 	 * @date 3 août 2023
 	 */
-	@SuppressWarnings ("unchecked")
 	@Override
 	public ExecutionContext createCopy(final ISymbol command) {
 		final ExecutionContext r = create(scope, outer, command);
-		if (local != null) {
-			r.local = Collections.synchronizedMap(new HashMap<>());
-			if (local != null) { r.local.putAll(local); }
+		if (names != null) {
+			r.names = names.clone();
+			r.values = values.clone();
+			r.size = size;
 		}
 		return r;
 	}
@@ -140,46 +183,73 @@ public class ExecutionContext implements IExecutionContext {
 	 */
 	@Override
 	public ExecutionContext createChildContext(final ISymbol command) {
-		return create(this, command);
+		final ExecutionContext child = free;
+		if (child == null) return create(this, command);
+		free = null;
+		child.scope = scope;
+		child.outer = this;
+		child.command = command;
+		return child;
 	}
 
 	@Override
 	public Map<? extends String, ? extends Object> getLocalVars() {
-		return local == null ? Collections.EMPTY_MAP : local;
+		if (size == 0) return Collections.EMPTY_MAP;
+		final Map<String, Object> result = new LinkedHashMap<>();
+		for (int i = 0; i < size; i++) { result.put(names[i], values[i]); }
+		return result;
 	}
 
 	@Override
 	public void clearLocalVars() {
-		local = null;
+		if (values != null) { Arrays.fill(values, 0, size, null); }
+		size = 0;
 	}
 
 	@Override
 	public void putLocalVar(final String varName, final Object val) {
-		if (local == null) { local = Collections.synchronizedMap(new HashMap<>()); }
-		local.put(varName, val);
+		final int i = indexOf(varName);
+		if (i >= 0) {
+			values[i] = val;
+			return;
+		}
+		if (names == null) {
+			names = new String[4];
+			values = new Object[4];
+		} else if (size == names.length) {
+			names = Arrays.copyOf(names, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+		}
+		names[size] = varName;
+		values[size] = val;
+		size++;
 	}
 
 	@Override
 	public Object getLocalVar(final String string) {
-		if (local == null) return null;
-		return local.get(string);
+		final int i = indexOf(string);
+		return i < 0 ? null : values[i];
 	}
 
 	@Override
 	public boolean hasLocalVar(final String name) {
-		if (local == null) return false;
-		return local.containsKey(name);
+		return indexOf(name) >= 0;
 	}
 
 	@Override
 	public void removeLocalVar(final String name) {
-		if (local == null) return;
-		local.remove(name);
+		final int i = indexOf(name);
+		if (i < 0) return;
+		size--;
+		System.arraycopy(names, i + 1, names, i, size - i);
+		System.arraycopy(values, i + 1, values, i, size - i);
+		names[size] = null;
+		values[size] = null;
 	}
 
 	@Override
 	public String toString() {
-		return "execution context " + local;
+		return "execution context " + getLocalVars();
 	}
 
 	@Override
@@ -25,6 +25,7 @@ import gama.core.kernel.experiment.IExperimentController;
 import gama.core.kernel.experiment.IExperimentPlan;
 import gama.core.kernel.experiment.ITopLevelAgent;
 import gama.core.kernel.model.IModel;
+import gama.core.kernel.root.PlatformAgent;
 import gama.core.kernel.simulation.SimulationAgent;
 import gama.core.kernel.simulation.SimulationClock;
 import gama.core.metamodel.agent.IAgent;
@@ -467,7 +468,11 @@ public class ExecutionScope implements IScope {
 		if (executionContext != null) {
 			final IExecutionContext previous = executionContext;
 			setExecutionContext(executionContext.getOuterContext());
-			previous.dispose();
+			if (previous instanceof ExecutionContext context) {
+				context.release();
+			} else {
+				previous.dispose();
+			}
 		}
 	}
 
@@ -488,6 +493,7 @@ public class ExecutionScope implements IScope {
 		final IAgent caller = this.getAgent();
 		// We then try to push the agent on the stack
 		final boolean pushed = push(target);
+		final RandomUtils random = streamsOf(target);
 		try (StopWatch w = GAMA.benchmark(this, statement)) {
 			// Otherwise we compute the result of the statement, pushing the
 			// arguments if the statement expects them
@@ -514,6 +520,7 @@ public class ExecutionScope implements IScope {
 			// We clean the caller that may have been set previously so as to keep the
 			// arguments clean
 			if (args != null) { args.setCaller(null); }
+			if (random != null) { random.exitStream(); }
 			// Whatever the outcome, we pop the agent from the stack if it has
 			// been previously pushed
 			if (pushed) { pop(target); }
@@ -575,6 +582,7 @@ public class ExecutionScope implements IScope {
 	public ExecutionResult step(final IAgent agent) {
 		if (agent == null || agent.dead() || interrupted()) return FAILED;
 		final boolean pushed = push(agent);
+		final RandomUtils random = streamsOf(agent);
 		try {
 			try (StopWatch w = GAMA.benchmark(this, agent)) {
 				return withValue(agent.step(this));
@@ -588,10 +596,27 @@ public class ExecutionScope implements IScope {
 				return FAILED;
 			}
 		} finally {
+			if (random != null) { random.exitStream(); }
 			if (pushed) { pop(agent); }
 		}
 	}
 
+	/**
+	 * Makes the current thread draw the random numbers from the stream of the agent, if the random generator of the
+	 * simulation provides one stream per agent (see {@link RandomUtils#enterStream(IScope, IAgent)}).
+	 *
+	 * @param agent
+	 *            the agent
+	 * @return the random generator, whose stream must be exited after the execution of the agent, or null
+	 */
+	private RandomUtils streamsOf(final IAgent agent) {
+		final ITopLevelAgent root = getRoot();
+		// The platform creates a new generator each time it is asked for one
+		if (root == null || root == agent || root instanceof PlatformAgent) return null;
+		final RandomUtils random = root.getRandomGenerator();
+		return random != null && random.enterStream(this, agent) ? random : null;
+	}
+
 	@Override
 	public ExecutionResult init(final IAgent agent) {
 		if (agent == null || agent.dead() || interrupted()) return FAILED;
@@ -0,0 +1,91 @@
+/*******************************************************************************************************
+ *
+ * AgentCosts.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.runtime.concurrent;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The time taken to execute the agents of a species (or the agents asked by a statement), measured during the previous
+ * parallel executions, and used to choose the size of the chunks of agents given to each task: cheap agents are run in
+ * a few large chunks (so that the cost of the tasks does not exceed the one of the agents), and small chunks are only
+ * used when the costs of the agents are skewed (so that the threads that run the cheap chunks can take over the others).
+ */
+final class AgentCosts {
+
+	/** The costs, by species or statement. */
+	private static final Map<Object, AgentCosts> COSTS = Collections.synchronizedMap(new WeakHashMap<>());
+
+	/** The minimal duration of a task (in ns), under which forking it costs more than it saves. */
+	private static final double MIN_TASK_NANOS = 50_000d;
+
+	/** The ratio between the cost of an agent in the slowest chunk and the mean cost above which costs are skewed. */
+	private static final double SKEW = 2d;
+
+	/** The weight of the last measure in the mean cost. */
+	private static final double WEIGHT = 0.3d;
+
+	/**
+	 * Returns the costs of the agents of a species or statement.
+	 *
+	 * @param key
+	 *            the species or statement
+	 * @return the costs
+	 */
+	static AgentCosts of(final Object key) {
+		return COSTS.computeIfAbsent(key, k -> new AgentCosts());
+	}
+
+	/** The mean time taken by an agent (in ns), or -1 if it has never been measured. */
+	private volatile double nanosPerAgent = -1d;
+
+	/** Whether the costs of the agents were skewed during the last execution. */
+	private volatile boolean skewed;
+
+	/**
+	 * Returns the number of agents to put in each chunk.
+	 *
+	 * @param size
+	 *            the number of agents
+	 * @param threshold
+	 *            the threshold under which agents are run sequentially, used as the minimal size
+	 * @param threads
+	 *            the number of threads available
+	 * @return the size of the chunks (if greater than or equal to the number of agents, they are run sequentially)
+	 */
+	int chunkSize(final int size, final int threshold, final int threads) {
+		final double cost = nanosPerAgent;
+		// Nothing is known yet: a few chunks per thread
+		if (cost < 0d) return Math.max(threshold, size / (threads * 4));
+		final int parts = threads * (skewed ? 16 : 2);
+		final int worthForking = (int) Math.min(size, Math.ceil(MIN_TASK_NANOS / Math.max(cost, 1d)));
+		return Math.max(Math.max(threshold, worthForking), (size + parts - 1) / parts);
+	}
+
+	/**
+	 * Records the measures of an execution.
+	 *
+	 * @param agents
+	 *            the number of agents executed
+	 * @param nanos
+	 *            the total time taken by the chunks
+	 * @param maxNanosPerAgent
+	 *            the time taken by an agent in the slowest chunk (or a negative value if not known)
+	 */
+	void record(final long agents, final long nanos, final double maxNanosPerAgent) {
+		if (agents <= 0) return;
+		final double mean = (double) nanos / agents;
+		final double previous = nanosPerAgent;
+		nanosPerAgent = previous < 0d ? mean : previous + WEIGHT * (mean - previous);
+		if (maxNanosPerAgent >= 0d) { skewed = maxNanosPerAgent > SKEW * mean; }
+	}
+
+}
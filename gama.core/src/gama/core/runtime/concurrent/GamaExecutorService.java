@@ -16,6 +16,10 @@ import java.lang.Thread.UncaughtExceptionHandler;
 import java.util.List;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import gama.core.common.preferences.GamaPreferences;
 import gama.core.common.preferences.Pref;
@@ -85,25 +89,45 @@ public abstract class GamaExecutorService {
 	/** The agent parallel executor. */
 	public static volatile ForkJoinPool AGENT_PARALLEL_EXECUTOR;
 
+	/** The executor shared by the computations of paths, created lazily. */
+	private static volatile ThreadPoolExecutor ROUTING_EXECUTOR;
+
 	/** The Constant CONCURRENCY_SIMULATIONS. */
 	public static final Pref<Boolean> CONCURRENCY_SIMULATIONS =
 			create("pref_parallel_simulations", "Make experiments run simulations in parallel", true, IType.BOOL, true)
 					.in(GamaPreferences.Runtime.NAME, GamaPreferences.Runtime.CONCURRENCY);
 
+	/** The Constant SIMULATION_RUNNER. */
+	public static final Pref<String> SIMULATION_RUNNER = create("pref_simulation_runner",
+			"How simulations are run in parallel: one thread each ('threads'), multiplexed on a work-stealing pool bounded by the max. number of threads ('pool') or on virtual threads ('virtual')",
+			SimulationRunner.THREADS, IType.STRING, true)
+					.among(SimulationRunner.THREADS, SimulationRunner.POOL, SimulationRunner.VIRTUAL)
+					.in(GamaPreferences.Runtime.NAME, GamaPreferences.Runtime.CONCURRENCY);
+
 	/** The Constant CONCURRENCY_SIMULATIONS_ALL. */
 	public static final Pref<Boolean> CONCURRENCY_SIMULATIONS_ALL = create("pref_parallel_simulations_all",
 			"In batch, allows to run simulations with all available processors"
 					+ "[WARNING: disables reflexes and permanent displays of batch experiments]",
 			false, IType.BOOL, true).in(GamaPreferences.Runtime.NAME, GamaPreferences.Runtime.CONCURRENCY);
 
+	/** The Constant BATCH_WORKERS. */
+	public static final Pref<Integer> BATCH_WORKERS = create("pref_batch_workers",
+			"In batch, number of local worker processes (headless instances of GAMA, each with its own memory) to which the simulations are dispatched (0 to run them in this process)",
+			0, IType.INT, true).between(0, null).in(GamaPreferences.Runtime.NAME, GamaPreferences.Runtime.CONCURRENCY);
+
+	/** The Constant BATCH_WORKER_COMMAND. */
+	public static final Pref<String> BATCH_WORKER_COMMAND = create("pref_batch_worker_command",
+			"Command that launches the headless instances used as batch workers (by default, the 'gama-headless' script of this installation)",
+			"", IType.STRING, true).in(GamaPreferences.Runtime.NAME, GamaPreferences.Runtime.CONCURRENCY);
+
 	/** The Constant CONCURRENCY_GRID. */
 	public static final Pref<Boolean> CONCURRENCY_GRID = create("pref_parallel_grids",
-			"Make grids schedule their agents in parallel (beware that setting this to true no longer allows GAMA to ensure the reproducibility of simulations)",
+			"Make grids schedule their agents in parallel (beware that setting this to true no longer allows GAMA to ensure the reproducibility of simulations; the 'splitmix' random number generator keeps at least the random draws reproducible)",
 			false, IType.BOOL, true).in(GamaPreferences.Runtime.NAME, GamaPreferences.Runtime.CONCURRENCY);
 
 	/** The Constant CONCURRENCY_SPECIES. */
 	public static final Pref<Boolean> CONCURRENCY_SPECIES = create("pref_parallel_species",
-			"Make species schedule their agents in parallel (beware that setting this to true no longer allows GAMA to ensure the reproducibility of simulations)",
+			"Make species schedule their agents in parallel (beware that setting this to true no longer allows GAMA to ensure the reproducibility of simulations; the 'splitmix' random number generator keeps at least the random draws reproducible)",
 			false, IType.BOOL, true).in(GamaPreferences.Runtime.NAME, GamaPreferences.Runtime.CONCURRENCY);
 
 	/** The Constant CONCURRENCY_THRESHOLD. */
@@ -111,6 +135,11 @@ public abstract class GamaExecutorService {
 			create("pref_parallel_threshold", "Number under which agents are executed sequentially", 20, IType.INT,
 					true).between(1, null).in(GamaPreferences.Runtime.NAME, GamaPreferences.Runtime.CONCURRENCY);
 
+	/** The Constant CONCURRENCY_ADAPTIVE. */
+	public static final Pref<Boolean> CONCURRENCY_ADAPTIVE = create("pref_parallel_adaptive",
+			"Adapt the number of agents executed by each parallel task to the time they take, using one scope per thread (the threshold becomes the minimal number)",
+			false, IType.BOOL, true).in(GamaPreferences.Runtime.NAME, GamaPreferences.Runtime.CONCURRENCY);
+
 	/** The Constant THREADS_NUMBER. */
 	public static final Pref<Integer> THREADS_NUMBER =
 			create("pref_parallel_threads",
@@ -144,7 +173,41 @@ public abstract class GamaExecutorService {
 			@Override
 			public UncaughtExceptionHandler getUncaughtExceptionHandler() { return EXCEPTION_HANDLER; }
 		};
+		synchronized (GamaExecutorService.class) {
+			// The next graphs use a new executor. The current one is not shut down, as the graphs that hold it (and the
+			// algorithms of JGraphT they have built on it, or that are running) may still submit tasks: its threads
+			// stop after a minute of inactivity, and it is collected with these graphs
+			ROUTING_EXECUTOR = null;
+		}
+	}
 
+	/**
+	 * Returns the executor shared by the computations of paths (the preprocessing of the shortest path algorithms and
+	 * the batches of queries), whose size is the max. number of threads. Each graph keeps the executor that was current
+	 * when it was created. Its threads are daemons, and stop after a minute of inactivity.
+	 *
+	 * @return the routing executor
+	 */
+	public static ThreadPoolExecutor getRoutingExecutor() {
+		ThreadPoolExecutor executor = ROUTING_EXECUTOR;
+		if (executor == null) {
+			synchronized (GamaExecutorService.class) {
+				executor = ROUTING_EXECUTOR;
+				if (executor == null) {
+					final int nb = THREADS_NUMBER.getValue();
+					final AtomicInteger count = new AtomicInteger();
+					executor = new ThreadPoolExecutor(nb, nb, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), r -> {
+						final Thread t = new Thread(r, "Routing " + count.incrementAndGet());
+						t.setDaemon(true);
+						t.setUncaughtExceptionHandler(EXCEPTION_HANDLER);
+						return t;
+					});
+					executor.allowCoreThreadTimeOut(true);
+					ROUTING_EXECUTOR = executor;
+				}
+			}
+		}
+		return executor;
 	}
 
 	/**
@@ -302,7 +365,11 @@ public abstract class GamaExecutorService {
 					for (final A agent : array) { executeThreaded(() -> scope.step((IAgent) agent)); }
 					break;
 				default:
-					ParallelAgentRunner.step(scope, array, threshold);
+					if (CONCURRENCY_ADAPTIVE.getValue()) {
+						ParallelAgentRunner.stepAdaptively(scope, array, threshold, species);
+					} else {
+						ParallelAgentRunner.step(scope, array, threshold);
+					}
 			}
 		}
 		return true;
@@ -340,7 +407,11 @@ public abstract class GamaExecutorService {
 				for (final A agent : array) { executeThreaded(() -> scope.execute(executable, (IAgent) agent, null)); }
 				return;
 			default:
-				ParallelAgentRunner.execute(scope, executable, array, threshold);
+				if (CONCURRENCY_ADAPTIVE.getValue()) {
+					ParallelAgentRunner.executeAdaptively(scope, executable, array, threshold);
+				} else {
+					ParallelAgentRunner.execute(scope, executable, array, threshold);
+				}
 		}
 	}
 
@@ -37,6 +37,18 @@ public class ParallelAgentExecuter extends ParallelAgentRunner<Object> {
 		this.executable = executable;
 	}
 
+	/**
+	 * Instantiates a new parallel agent executer that uses the scopes of the workers.
+	 *
+	 * @param workers the workers
+	 * @param executable the executable
+	 * @param agents the agents
+	 */
+	ParallelAgentExecuter(final Workers workers, final IExecutable executable, final Spliterator<IAgent> agents) {
+		super(workers, agents);
+		this.executable = executable;
+	}
+
 	@Override
 	public Object executeOn(final IScope scope) throws GamaRuntimeException {
 		final Boolean[] mutableBoolean = { Boolean.TRUE };
@@ -54,6 +66,7 @@ public class ParallelAgentExecuter extends ParallelAgentRunner<Object> {
 
 	@Override
 	ParallelAgentExecuter subTask(final Spliterator<IAgent> sub) {
+		if (workers != null) return new ParallelAgentExecuter(workers, executable, sub);
 		return new ParallelAgentExecuter(originalScope, executable, sub);
 	}
 
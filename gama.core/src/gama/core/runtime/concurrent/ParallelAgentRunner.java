@@ -10,9 +10,12 @@
  ********************************************************************************************************/
 package gama.core.runtime.concurrent;
 
+import java.util.Map;
 import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
 
 import gama.core.metamodel.agent.IAgent;
 import gama.core.metamodel.shape.IShape;
@@ -27,12 +30,141 @@ import gama.gaml.statements.IExecutable;
  */
 public abstract class ParallelAgentRunner<T> extends RecursiveTask<T> implements IExecutable {
 
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
 	/** The agents. */
 	final Spliterator<IAgent> agents;
 	
 	/** The original scope. */
 	final IScope originalScope;
 
+	/** The workers shared by all the tasks of an adaptive execution. Null otherwise */
+	final Workers workers;
+
+	/**
+	 * The scopes of the worker threads of an adaptive execution, and the time taken by the chunks they run. Instead of
+	 * copying the scope for each task, the copies are reused by the threads that run them. A copy is taken out of the
+	 * idle ones while a chunk runs with it, so that a chunk run by the same thread while it joins a nested parallel
+	 * execution gets a copy of its own.
+	 */
+	static final class Workers {
+
+		/** The scope of the caller. */
+		final IScope scope;
+
+		/**
+		 * A copy of the scope of the caller, used by a thread to run its chunks.
+		 */
+		static final class Worker {
+
+			/** The copy of the scope. */
+			final IScope scope;
+
+			/**
+			 * Instantiates a new worker.
+			 *
+			 * @param caller
+			 *            the scope of the caller
+			 */
+			Worker(final IScope caller) {
+				scope = caller.copy(" - worker - ");
+			}
+		}
+
+		/** The idle worker of each thread. */
+		final Map<Thread, Worker> idle = new ConcurrentHashMap<>();
+
+		/** The number of agents executed. */
+		final LongAdder agents = new LongAdder();
+
+		/** The total time taken by the chunks. */
+		final LongAdder nanos = new LongAdder();
+
+		/** The time taken by an agent in the slowest chunk. */
+		volatile double maxNanosPerAgent;
+
+		/**
+		 * Instantiates new workers.
+		 *
+		 * @param scope
+		 *            the scope of the caller
+		 */
+		Workers(final IScope scope) {
+			this.scope = scope;
+		}
+
+		/**
+		 * Runs the chunk of agents of the task with the scope of the current thread, and measures the time it takes.
+		 *
+		 * @param task
+		 *            the task
+		 * @return the result of the task
+		 */
+		<T> T run(final ParallelAgentRunner<T> task) {
+			final Thread thread = Thread.currentThread();
+			Worker worker = idle.remove(thread);
+			if (worker == null) { worker = new Worker(scope); }
+			try {
+				return measure(task, worker.scope);
+			} finally {
+				// Another chunk run by this thread may have made its own copy in the meantime
+				if (idle.putIfAbsent(thread, worker) != null) { worker.scope.close(); }
+			}
+		}
+
+		/**
+		 * Runs all the agents of the task in the current thread, with the scope of the caller, and measures the time it
+		 * takes.
+		 *
+		 * @param task
+		 *            the task
+		 * @return the result of the task
+		 */
+		<T> T runSequentially(final ParallelAgentRunner<T> task) {
+			return measure(task, scope);
+		}
+
+		/**
+		 * Runs the chunk of agents of the task with the scope, and measures the time it takes.
+		 *
+		 * @param task
+		 *            the task
+		 * @param s
+		 *            the scope
+		 * @return the result of the task
+		 */
+		<T> T measure(final ParallelAgentRunner<T> task, final IScope s) {
+			final long size = task.agents.estimateSize();
+			final long start = System.nanoTime();
+			try {
+				return task.executeOn(s);
+			} finally {
+				final long time = System.nanoTime() - start;
+				agents.add(size);
+				nanos.add(time);
+				if (size > 0) {
+					final double perAgent = (double) time / size;
+					synchronized (this) {
+						if (perAgent > maxNanosPerAgent) { maxNanosPerAgent = perAgent; }
+					}
+				}
+			}
+		}
+
+		/**
+		 * Records the measures in the costs and closes the copies of the scope.
+		 *
+		 * @param costs
+		 *            the costs
+		 */
+		void recordIn(final AgentCosts costs) {
+			costs.record(agents.sum(), nanos.sum(), maxNanosPerAgent);
+			idle.values().forEach(w -> w.scope.close());
+			idle.clear();
+		}
+	}
+
 	/**
 	 * Execute.
 	 *
@@ -59,7 +191,7 @@ public abstract class ParallelAgentRunner<T> extends RecursiveTask<T> implements
 	public static <A extends IShape> Boolean step(final IScope scope, final A[] array, final int threshold)
 			throws GamaRuntimeException {
 		final ParallelAgentStepper runner = from(scope, array, threshold);
-		if (array.length <= threshold) { return runner.executeOn(scope); }
+		if (array.length <= threshold) { return runner.executeSequentially(scope); }
 		return execute(runner);
 	}
 
@@ -77,12 +209,69 @@ public abstract class ParallelAgentRunner<T> extends RecursiveTask<T> implements
 			final int threshold) throws GamaRuntimeException {
 		final ParallelAgentRunner<?> runner = from(scope, executable, array, threshold);
 		if (array.length <= threshold) {
-			runner.executeOn(scope);
+			runner.executeSequentially(scope);
 		} else {
 			execute(runner);
 		}
 	}
 
+	/**
+	 * Steps the agents in chunks whose size is adapted to the time they took to step in the previous cycles (see
+	 * {@link AgentCosts}), with one scope per worker thread.
+	 *
+	 * @param <A> the generic type
+	 * @param scope the scope
+	 * @param array the array
+	 * @param threshold the threshold, used as the minimal size of the chunks
+	 * @param key the species of the agents, to which the costs are attached
+	 * @return the boolean
+	 * @throws GamaRuntimeException the gama runtime exception
+	 */
+	public static <A extends IShape> Boolean stepAdaptively(final IScope scope, final A[] array, final int threshold,
+			final Object key) throws GamaRuntimeException {
+		final AgentCosts costs = AgentCosts.of(key);
+		final int chunk =
+				costs.chunkSize(array.length, threshold, GamaExecutorService.AGENT_PARALLEL_EXECUTOR.getParallelism());
+		final Workers workers = new Workers(scope);
+		final ParallelAgentStepper runner = new ParallelAgentStepper(workers, AgentSpliterator.of(array, chunk));
+		try {
+			if (array.length <= chunk) return workers.runSequentially(runner);
+			return execute(runner);
+		} finally {
+			workers.recordIn(costs);
+		}
+	}
+
+	/**
+	 * Executes the executable on the agents in chunks whose size is adapted to the time it took in the previous
+	 * executions (see {@link AgentCosts}), with one scope per worker thread.
+	 *
+	 * @param <A> the generic type
+	 * @param scope the scope
+	 * @param executable the executable, to which the costs are attached
+	 * @param array the array
+	 * @param threshold the threshold, used as the minimal size of the chunks
+	 * @throws GamaRuntimeException the gama runtime exception
+	 */
+	public static <A extends IShape> void executeAdaptively(final IScope scope, final IExecutable executable,
+			final A[] array, final int threshold) throws GamaRuntimeException {
+		final AgentCosts costs = AgentCosts.of(executable);
+		final int chunk =
+				costs.chunkSize(array.length, threshold, GamaExecutorService.AGENT_PARALLEL_EXECUTOR.getParallelism());
+		final Workers workers = new Workers(scope);
+		final ParallelAgentExecuter runner =
+				new ParallelAgentExecuter(workers, executable, AgentSpliterator.of(array, chunk));
+		try {
+			if (array.length <= chunk) {
+				workers.runSequentially(runner);
+			} else {
+				execute(runner);
+			}
+		} finally {
+			workers.recordIn(costs);
+		}
+	}
+
 	/**
 	 * From.
 	 *
@@ -122,6 +311,19 @@ public abstract class ParallelAgentRunner<T> extends RecursiveTask<T> implements
 	protected <A extends IShape> ParallelAgentRunner(final IScope scope, final Spliterator<IAgent> agents) {
 		this.agents = agents;
 		this.originalScope = scope.copy(" - forked - ");
+		this.workers = null;
+	}
+
+	/**
+	 * Instantiates a new parallel agent runner that runs its agents with the scopes of the workers.
+	 *
+	 * @param workers the workers
+	 * @param agents the agents
+	 */
+	protected ParallelAgentRunner(final Workers workers, final Spliterator<IAgent> agents) {
+		this.agents = agents;
+		this.originalScope = workers.scope;
+		this.workers = workers;
 	}
 
 	/**
@@ -137,7 +339,7 @@ public abstract class ParallelAgentRunner<T> extends RecursiveTask<T> implements
 		final Spliterator<IAgent> sub = agents.trySplit();
 		T result;
 		if (sub == null) {
-			result = executeOn(originalScope);
+			result = workers == null ? executeSequentially(originalScope) : workers.run(this);
 		} else {
 			final ParallelAgentRunner<T> left = subTask(sub);
 			left.fork();
@@ -147,6 +349,22 @@ public abstract class ParallelAgentRunner<T> extends RecursiveTask<T> implements
 		return result;
 	}
 
+	/**
+	 * Runs the remaining agents in the calling thread with the scope, and closes the copy made for the task, which is
+	 * not used anymore: its subtasks, if any, have already made their own.
+	 *
+	 * @param scope the scope
+	 * @return the result
+	 * @throws GamaRuntimeException the gama runtime exception
+	 */
+	T executeSequentially(final IScope scope) throws GamaRuntimeException {
+		try {
+			return executeOn(scope);
+		} finally {
+			if (workers == null) { originalScope.close(); }
+		}
+	}
+
 	// Called for each subtask or can be called directly if no parallelism is
 	// allowed
 	@Override
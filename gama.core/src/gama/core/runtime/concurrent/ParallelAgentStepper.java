@@ -31,6 +31,16 @@ public class ParallelAgentStepper extends ParallelAgentRunner<Boolean> {
 		super(scope, agents);
 	}
 
+	/**
+	 * Instantiates a new parallel agent stepper that uses the scopes of the workers.
+	 *
+	 * @param workers the workers
+	 * @param agents the agents
+	 */
+	ParallelAgentStepper(final Workers workers, final Spliterator<IAgent> agents) {
+		super(workers, agents);
+	}
+
 	@Override
 	public Boolean executeOn(final IScope scope) throws GamaRuntimeException {
 		final Boolean[] mutableBoolean = { Boolean.TRUE };
@@ -44,6 +54,7 @@ public class ParallelAgentStepper extends ParallelAgentRunner<Boolean> {
 
 	@Override
 	ParallelAgentRunner<Boolean> subTask(final Spliterator<IAgent> sub) {
+		if (workers != null) return new ParallelAgentStepper(workers, sub);
 		return new ParallelAgentStepper(originalScope, sub);
 	}
 
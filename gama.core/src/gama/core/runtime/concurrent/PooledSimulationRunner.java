@@ -0,0 +1,150 @@
+/*******************************************************************************************************
+ *
+ * PooledSimulationRunner.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform
+ * .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.runtime.concurrent;
+
+import static gama.core.runtime.concurrent.GamaExecutorService.EXCEPTION_HANDLER;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import gama.core.kernel.simulation.SimulationAgent;
+import gama.dev.DEBUG;
+
+/**
+ * A runner that, instead of dedicating a thread to each simulation, multiplexes the steps of the simulations on a
+ * work-stealing pool whose size is bounded by the concurrency of the experiment (so that an idle thread picks up the
+ * next simulation to step), or on virtual threads (in which case the concurrency is bounded by a semaphore, and the JVM
+ * schedules the virtual threads on its own work-stealing pool of carriers). The step of the
+ * experiment returns when all the simulations have been stepped, as with {@link SimulationRunner}.
+ */
+public class PooledSimulationRunner implements ISimulationRunner {
+
+	static {
+		DEBUG.OFF();
+	}
+
+	/** The simulations. */
+	final Set<SimulationAgent> simulations = new LinkedHashSet<>();
+
+	/** The concurrency. */
+	final int concurrency;
+
+	/** Whether to use virtual threads. */
+	final boolean virtual;
+
+	/** The permits of the virtual threads, or null if a pool is used. */
+	final Semaphore permits;
+
+	/** The executor, created lazily. */
+	volatile ExecutorService executor;
+
+	/** The class loader given to the threads of the pool. */
+	final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+
+	/**
+	 * Instantiates a new pooled simulation runner.
+	 *
+	 * @param concurrency
+	 *            the max. number of simulations stepped at the same time
+	 * @param virtual
+	 *            whether to use virtual threads
+	 */
+	PooledSimulationRunner(final int concurrency, final boolean virtual) {
+		this.concurrency = Math.max(1, concurrency);
+		this.virtual = virtual;
+		this.permits = virtual ? new Semaphore(this.concurrency) : null;
+	}
+
+	/**
+	 * Creates the executor, if it has not been created yet.
+	 */
+	synchronized void createExecutor() {
+		if (executor != null) return;
+		if (virtual) {
+			executor = Executors.newVirtualThreadPerTaskExecutor();
+		} else {
+			executor = new ForkJoinPool(concurrency, pool -> {
+				final ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+				t.setName("Simulation runner " + t.getPoolIndex());
+				t.setContextClassLoader(loader);
+				return t;
+			}, EXCEPTION_HANDLER, false);
+		}
+	}
+
+	@Override
+	public void remove(final SimulationAgent agent) {
+		simulations.remove(agent);
+	}
+
+	@Override
+	public void add(final SimulationAgent agent) {
+		simulations.add(agent);
+	}
+
+	@Override
+	public void step() {
+		final List<Callable<Boolean>> tasks = new ArrayList<>(simulations.size());
+		for (final SimulationAgent agent : simulations) {
+			if (agent.dead()) { continue; }
+			tasks.add(permits == null ? agent::step : () -> {
+				permits.acquire();
+				try {
+					return agent.step();
+				} finally {
+					permits.release();
+				}
+			});
+		}
+		if (tasks.isEmpty()) return;
+		if (executor == null) { createExecutor(); }
+		try {
+			for (final Future<Boolean> future : executor.invokeAll(tasks)) {
+				try {
+					future.get();
+				} catch (final ExecutionException e) {
+					EXCEPTION_HANDLER.uncaughtException(Thread.currentThread(), e.getCause());
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public synchronized void dispose() {
+		simulations.clear();
+		if (executor != null) { executor.shutdownNow(); }
+		executor = null;
+	}
+
+	@Override
+	public Set<SimulationAgent> getStepable() { return simulations; }
+
+	@Override
+	public int getActiveThreads() { return Math.min(concurrency, simulations.size()); }
+
+	@Override
+	public boolean hasSimulations() {
+		return !simulations.isEmpty();
+	}
+
+}
@@ -33,6 +33,9 @@ public class SimulationRunner implements ISimulationRunner {
 		DEBUG.OFF();
 	}
 
+	/** The names of the implementations, see {@link GamaExecutorService#SIMULATION_RUNNER}. */
+	public static final String THREADS = "threads", POOL = "pool", VIRTUAL = "virtual";
+
 	/** The runnables. */
 	final Map<SimulationAgent, Thread> runnables;
 
@@ -51,13 +54,13 @@ public class SimulationRunner implements ISimulationRunner {
 	volatile boolean shutdown = false;
 
 	/**
-	 * Of.
+	 * Returns the runner of the simulations of a population, as chosen in the preferences.
 	 *
 	 * @param pop
 	 *            the pop
 	 * @return the simulation runner
 	 */
-	public static SimulationRunner of(final SimulationPopulation pop) {
+	public static ISimulationRunner of(final SimulationPopulation pop) {
 		int concurrency = 0;
 		final IExperimentPlan plan = pop.getHost().getSpecies();
 		if (plan.isHeadless() && !plan.isBatch()) {
@@ -65,7 +68,12 @@ public class SimulationRunner implements ISimulationRunner {
 		} else {
 			concurrency = getParallelism(pop.getHost().getScope(), plan.getConcurrency(), Caller.SIMULATION);
 		}
-		return new SimulationRunner(concurrency < 0 ? 1 : concurrency);
+		concurrency = concurrency < 0 ? 1 : concurrency;
+		return switch (GamaExecutorService.SIMULATION_RUNNER.getValue()) {
+			case POOL -> new PooledSimulationRunner(concurrency, false);
+			case VIRTUAL -> new PooledSimulationRunner(concurrency, true);
+			default -> new SimulationRunner(concurrency);
+		};
 	}
 
 	/**
@@ -39,6 +39,21 @@ public final class Json implements IJsonConstants {
 	 */
 	public static Json getNew() { return new Json(); }
 
+	/**
+	 * Gets a new stateful instance of Json that writes the floats with all their digits, instead of rounding them to 8
+	 * decimals, so that they are read back exactly (e.g. when exchanging parameters and results between processes).
+	 *
+	 * @return the new
+	 */
+	public static Json getLossless() {
+		final Json json = new Json();
+		json.lossless = true;
+		return json;
+	}
+
+	/** Whether the floats are written with all their digits. */
+	boolean lossless;
+
 	/** The initial. */
 	boolean firstPass = true;
 
@@ -146,7 +161,7 @@ public final class Json implements IJsonConstants {
 	 */
 	public JsonValue valueOf(final float value) {
 		if (Float.isInfinite(value) || Float.isNaN(value)) return NULL;
-		return new JsonFloat(value);
+		return lossless ? new JsonFloat(Float.toString(value)) : new JsonFloat(value);
 	}
 
 	/**
@@ -158,7 +173,7 @@ public final class Json implements IJsonConstants {
 	 */
 	public JsonValue valueOf(final double value) {
 		if (Double.isInfinite(value) || Double.isNaN(value)) return NULL;
-		return new JsonFloat(value);
+		return lossless ? new JsonFloat(Double.toString(value)) : new JsonFloat(value);
 	}
 
 	/**
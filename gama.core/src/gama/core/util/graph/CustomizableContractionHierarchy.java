@@ -0,0 +1,544 @@
+/*******************************************************************************************************
+ *
+ * CustomizableContractionHierarchy.java, in gama.core, is part of the source code of the GAMA modeling and simulation
+ * platform .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.util.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A customizable contraction hierarchy, used by the 'CHBidirectionalDijkstra' algorithm. Unlike the contraction
+ * hierarchy of JGraphT, whose shortcuts depend on the weights of the edges, it is built in two phases:
+ * <ul>
+ * <li>the preprocessing, which only depends on the structure of the graph: the vertices are ordered by nested
+ * dissection (see {@link #order(int, int[], int[])}), and each of them is contracted by linking all its neighbours of
+ * higher rank (its "upward" neighbours) with arcs, whether they are shortcuts or not. It is done once, and again only when vertices or edges are
+ * added or removed;</li>
+ * <li>the customization, which computes the weights of the arcs in both directions from the weights of the edges, by
+ * relaxing the triangles of arcs from the lowest vertex to the highest. It is done again, lazily, each time weights are
+ * modified (see {@link PathComputer#weightsChanged()}), and costs much less than a new preprocessing.</li>
+ * </ul>
+ * A query follows the upward arcs from the source and the target along their branches of the elimination tree (the
+ * tree where the parent of a vertex is its lowest upward neighbour), which contain all the vertices they can reach
+ * with upward arcs, and the path is found at the vertex of the common branch where the sum of the distances is the
+ * smallest. The shortcuts of the path are then unpacked into edges of the graph.
+ *
+ * @param <V>
+ *            the type of the vertices
+ * @param <E>
+ *            the type of the edges
+ */
+final class CustomizableContractionHierarchy<V, E> {
+
+	/** The rank of the vertices, which is also their id. */
+	private final Map<V, Integer> ranks;
+
+	/** The first upward arc of each vertex (the arcs of vertex i range from firstUp[i] to firstUp[i + 1]). */
+	private final int[] firstUp;
+
+	/** The lower and the upper vertex of each arc. The arcs of a vertex are sorted by upper vertex. */
+	private final int[] lower, upper;
+
+	/** The parent of each vertex in the elimination tree, or -1. */
+	private final int[] parent;
+
+	/** The edges of the graph. */
+	private final Object[] edges;
+
+	/** The wrappers of the edges, which hold their weights. */
+	private final _Edge<V, E>[] wrappers;
+
+	/** The direction of the arc of each edge (see {@link Metric}), from its source to its target. */
+	private final int[] directions;
+
+	/** Whether the edges can also be followed from their target to their source. */
+	private final boolean undirected;
+
+	/** The current weights of the arcs, or null if they must be computed again. */
+	private volatile Metric metric;
+
+	/** The work arrays of the queries, per thread. */
+	private final ThreadLocal<Query> queries;
+
+	/**
+	 * The weights of the arcs, in both directions: 2 * a is the direction of arc a from its lower to its upper vertex,
+	 * and 2 * a + 1 the reverse direction. A direction is either an edge of the graph, or a shortcut made of two other
+	 * directions (going down to a lower vertex, then up again).
+	 */
+	private static final class Metric {
+
+		/** The weight of each direction. */
+		final double[] weight;
+
+		/** The edge of each direction, or -1 if it is a shortcut. */
+		final int[] edge;
+
+		/** The two halves of each shortcut. */
+		final int[] first, second;
+
+		/** Whether some weights are negative. */
+		boolean hasNegativeWeights;
+
+		/**
+		 * Instantiates the metric of a number of arcs.
+		 */
+		Metric(final int arcs) {
+			weight = new double[2 * arcs];
+			edge = new int[2 * arcs];
+			first = new int[2 * arcs];
+			second = new int[2 * arcs];
+			Arrays.fill(weight, Double.POSITIVE_INFINITY);
+			Arrays.fill(edge, -1);
+		}
+	}
+
+	/**
+	 * Runs the preprocessing of a graph.
+	 *
+	 * @param graph
+	 *            the graph
+	 */
+	@SuppressWarnings ("unchecked")
+	CustomizableContractionHierarchy(final GamaGraph<V, E> graph) {
+		final int n = graph.vertexMap.size();
+		final List<V> vertices = new ArrayList<>(graph.vertexMap.keySet());
+		final Map<V, Integer> ids = new HashMap<>(n * 4 / 3 + 1);
+		for (int i = 0; i < n; i++) { ids.put(vertices.get(i), i); }
+		final int m = graph.edgeMap.size();
+		final Object[] allEdges = new Object[m];
+		final _Edge<V, E>[] allWrappers = new _Edge[m];
+		final int[] sources = new int[m], targets = new int[m];
+		int count = 0;
+		for (final Map.Entry<E, _Edge<V, E>> entry : graph.edgeMap.entrySet()) {
+			final Integer s = ids.get(entry.getValue().getSource()), t = ids.get(entry.getValue().getTarget());
+			// Self-loops never belong to a shortest path
+			if (s == null || t == null || s.equals(t)) { continue; }
+			allEdges[count] = entry.getKey();
+			allWrappers[count] = entry.getValue();
+			sources[count] = s;
+			targets[count] = t;
+			count++;
+		}
+		edges = Arrays.copyOf(allEdges, count);
+		wrappers = Arrays.copyOf(allWrappers, count);
+		undirected = !graph.isDirected();
+
+		// Neighbours of each vertex in the underlying undirected graph
+		final int[] first = new int[n + 1];
+		for (int e = 0; e < count; e++) {
+			first[sources[e] + 1]++;
+			first[targets[e] + 1]++;
+		}
+		for (int v = 0; v < n; v++) { first[v + 1] += first[v]; }
+		final int[] neighbours = new int[first[n]], next = Arrays.copyOf(first, n);
+		for (int e = 0; e < count; e++) {
+			neighbours[next[sources[e]]++] = targets[e];
+			neighbours[next[targets[e]]++] = sources[e];
+		}
+		final int[] rank = order(n, first, neighbours);
+
+		// Contraction by increasing rank: the upward neighbours of a vertex, except the lowest one (its parent), become
+		// upward neighbours of its parent, which is enough to link all of them with arcs
+		final int[][] up = new int[n][];
+		final int[][] inherited = new int[n][];
+		final int[] sizes = new int[n];
+		final int[] byRank = new int[n];
+		for (int v = 0; v < n; v++) { byRank[rank[v]] = v; }
+		for (int r = 0; r < n; r++) {
+			final int v = byRank[r];
+			int[] heads = new int[first[v + 1] - first[v] + sizes[r]];
+			int size = 0;
+			for (int i = first[v]; i < first[v + 1]; i++) {
+				if (rank[neighbours[i]] > r) { heads[size++] = rank[neighbours[i]]; }
+			}
+			if (inherited[r] != null) { System.arraycopy(inherited[r], 0, heads, size, sizes[r]); }
+			size += sizes[r];
+			inherited[r] = null;
+			Arrays.sort(heads, 0, size);
+			int distinct = 0;
+			for (int i = 0; i < size; i++) {
+				if (distinct == 0 || heads[i] != heads[distinct - 1]) { heads[distinct++] = heads[i]; }
+			}
+			heads = Arrays.copyOf(heads, distinct);
+			up[r] = heads;
+			if (distinct > 1) {
+				final int p = heads[0];
+				if (inherited[p] == null) { inherited[p] = new int[Math.max(4, distinct - 1)]; }
+				if (sizes[p] + distinct - 1 > inherited[p].length) {
+					inherited[p] = Arrays.copyOf(inherited[p], Math.max(2 * inherited[p].length, sizes[p] + distinct - 1));
+				}
+				System.arraycopy(heads, 1, inherited[p], sizes[p], distinct - 1);
+				sizes[p] += distinct - 1;
+			}
+		}
+
+		// Upward arcs stored by lower vertex
+		ranks = new HashMap<>(n * 4 / 3 + 1);
+		for (int v = 0; v < n; v++) { ranks.put(vertices.get(v), rank[v]); }
+		firstUp = new int[n + 1];
+		for (int r = 0; r < n; r++) { firstUp[r + 1] = firstUp[r] + up[r].length; }
+		lower = new int[firstUp[n]];
+		upper = new int[firstUp[n]];
+		parent = new int[n];
+		for (int r = 0; r < n; r++) {
+			final int[] heads = up[r];
+			System.arraycopy(heads, 0, upper, firstUp[r], heads.length);
+			Arrays.fill(lower, firstUp[r], firstUp[r + 1], r);
+			parent[r] = heads.length == 0 ? -1 : heads[0];
+		}
+		directions = new int[count];
+		for (int e = 0; e < count; e++) {
+			final int s = rank[sources[e]], t = rank[targets[e]];
+			final int arc = arc(Math.min(s, t), Math.max(s, t));
+			directions[e] = s < t ? 2 * arc : 2 * arc + 1;
+		}
+		queries = ThreadLocal.withInitial(() -> new Query(n));
+	}
+
+	/**
+	 * Orders the vertices by nested dissection: the vertices of a part of the graph are split by a separator, made of
+	 * the vertices of a level of a breadth-first search from a peripheral vertex that are linked to the next level. The
+	 * separator gets the highest ranks of the part, and the parts it separates are ordered in the same way. This keeps
+	 * the number of arcs added by the contraction low in sparse graphs, such as road networks.
+	 *
+	 * @param n
+	 *            the number of vertices
+	 * @param first
+	 *            the first neighbour of each vertex
+	 * @param neighbours
+	 *            the neighbours of the vertices
+	 * @return the rank of each vertex
+	 */
+	private static int[] order(final int n, final int[] first, final int[] neighbours) {
+		final int[] rank = new int[n], part = new int[n], level = new int[n], queue = new int[n];
+		final List<int[]> parts = new ArrayList<>();
+		final List<Integer> tops = new ArrayList<>();
+		final int[] all = new int[n];
+		for (int v = 0; v < n; v++) { all[v] = v; }
+		parts.add(all);
+		tops.add(n - 1);
+		int ids = 1;
+		while (!parts.isEmpty()) {
+			final int[] members = parts.remove(parts.size() - 1);
+			int top = tops.remove(tops.size() - 1);
+			if (members.length <= 8) {
+				for (final int v : members) {
+					rank[v] = top--;
+					part[v] = -1;
+				}
+				continue;
+			}
+			// The connected components are ordered separately
+			final int id = part[members[0]];
+			final List<int[]> components = new ArrayList<>();
+			for (final int start : members) {
+				if (part[start] != id) { continue; }
+				final int component = ids++;
+				final int size = bfs(start, id, component, first, neighbours, part, level, queue);
+				components.add(Arrays.copyOf(queue, size));
+			}
+			if (components.size() > 1) {
+				for (final int[] component : components) {
+					parts.add(component);
+					tops.add(top);
+					top -= component.length;
+				}
+				continue;
+			}
+			final int component = part[members[0]];
+			// The level structure is rooted at the last vertex reached from an arbitrary one
+			int size = bfs(members[0], component, ids, first, neighbours, part, level, queue);
+			size = bfs(queue[size - 1], ids, ids + 1, first, neighbours, part, level, queue);
+			ids += 2;
+			// The separator is taken in the smallest level between the first and the last third of the vertices
+			final int depth = level[queue[size - 1]];
+			final int[] widths = new int[depth + 1];
+			for (int i = 0; i < size; i++) { widths[level[queue[i]]]++; }
+			int middle = Math.min(level[queue[size / 3]], depth - 1);
+			for (int l = middle + 1; l <= Math.min(level[queue[2 * size / 3]], depth - 1); l++) {
+				if (widths[l] < widths[middle]) { middle = l; }
+			}
+			final int[] rest = new int[size];
+			int kept = 0;
+			for (int i = 0; i < size; i++) {
+				final int v = queue[i];
+				if (level[v] == middle && reaches(v, ids - 1, middle + 1, first, neighbours, part, level)) {
+					rank[v] = top--;
+					part[v] = -1;
+				} else {
+					rest[kept++] = v;
+				}
+			}
+			parts.add(Arrays.copyOf(rest, kept));
+			tops.add(top);
+		}
+		return rank;
+	}
+
+	/**
+	 * Runs a breadth-first search from a vertex in a part of the graph, and moves the vertices reached to another part.
+	 *
+	 * @return the number of vertices reached, stored in the queue in the order of their levels
+	 */
+	private static int bfs(final int start, final int from, final int to, final int[] first, final int[] neighbours,
+			final int[] part, final int[] level, final int[] queue) {
+		int head = 0, tail = 0;
+		queue[tail++] = start;
+		part[start] = to;
+		level[start] = 0;
+		while (head < tail) {
+			final int v = queue[head++];
+			for (int i = first[v]; i < first[v + 1]; i++) {
+				final int u = neighbours[i];
+				if (part[u] != from) { continue; }
+				part[u] = to;
+				level[u] = level[v] + 1;
+				queue[tail++] = u;
+			}
+		}
+		return tail;
+	}
+
+	/**
+	 * Whether a vertex is linked to a vertex of a given level in a part of the graph.
+	 */
+	private static boolean reaches(final int v, final int in, final int target, final int[] first,
+			final int[] neighbours, final int[] part, final int[] level) {
+		for (int i = first[v]; i < first[v + 1]; i++) {
+			if (part[neighbours[i]] == in && level[neighbours[i]] == target) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the arc between two vertices.
+	 *
+	 * @param low
+	 *            the lower vertex
+	 * @param high
+	 *            the upper vertex
+	 * @return the arc
+	 */
+	private int arc(final int low, final int high) {
+		return Arrays.binarySearch(upper, firstUp[low], firstUp[low + 1], high);
+	}
+
+	/**
+	 * Drops the weights of the arcs, which will be computed again by the next query.
+	 */
+	void weightsChanged() {
+		metric = null;
+	}
+
+	/**
+	 * Returns the weights of the arcs, computing them if the weights of the edges have changed.
+	 *
+	 * @return the metric
+	 */
+	private Metric getMetric() {
+		Metric result = metric;
+		if (result == null) {
+			synchronized (this) {
+				result = metric;
+				if (result == null) {
+					result = customize();
+					metric = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the weights of the arcs from the current weights of the edges.
+	 *
+	 * @return the metric
+	 */
+	private Metric customize() {
+		final Metric m = new Metric(upper.length);
+		final double[] weight = m.weight;
+		for (int e = 0; e < edges.length; e++) {
+			final double w = wrappers[e].getWeight();
+			m.hasNegativeWeights |= w < 0;
+			final int d = directions[e];
+			if (w < weight[d]) {
+				weight[d] = w;
+				m.edge[d] = e;
+			}
+			if (undirected && w < weight[d ^ 1]) {
+				weight[d ^ 1] = w;
+				m.edge[d ^ 1] = e;
+			}
+		}
+		// The triangles are relaxed by increasing lower vertex, so that the arcs below them are final
+		final int n = parent.length;
+		final int[] arcTo = new int[n];
+		Arrays.fill(arcTo, -1);
+		for (int v = 0; v < n; v++) {
+			for (int a1 = firstUp[v]; a1 < firstUp[v + 1]; a1++) {
+				final int u = upper[a1];
+				for (int a = firstUp[u]; a < firstUp[u + 1]; a++) { arcTo[upper[a]] = a; }
+				for (int a2 = a1 + 1; a2 < firstUp[v + 1]; a2++) {
+					final int a3 = arcTo[upper[a2]];
+					relax(m, 2 * a3, 2 * a1 + 1, 2 * a2);
+					relax(m, 2 * a3 + 1, 2 * a2 + 1, 2 * a1);
+				}
+				for (int a = firstUp[u]; a < firstUp[u + 1]; a++) { arcTo[upper[a]] = -1; }
+			}
+		}
+		return m;
+	}
+
+	/**
+	 * Replaces the weight of a direction by the one of a path made of two other directions, if it is smaller.
+	 */
+	private static void relax(final Metric m, final int d, final int first, final int second) {
+		final double w = m.weight[first] + m.weight[second];
+		if (w < m.weight[d]) {
+			m.weight[d] = w;
+			m.edge[d] = -1;
+			m.first[d] = first;
+			m.second[d] = second;
+		}
+	}
+
+	/**
+	 * Whether the hierarchy can be used to compute a path between two vertices.
+	 *
+	 * @param source
+	 *            the source
+	 * @param target
+	 *            the target
+	 * @return true, if both vertices belong to the hierarchy and no weight is negative
+	 */
+	boolean accepts(final V source, final V target) {
+		return ranks.containsKey(source) && ranks.containsKey(target) && !getMetric().hasNegativeWeights;
+	}
+
+	/**
+	 * Computes the shortest path between two vertices.
+	 *
+	 * @param source
+	 *            the source
+	 * @param target
+	 *            the target
+	 * @return the edges of the path, empty if the target cannot be reached
+	 */
+	List<E> shortestPath(final V source, final V target) {
+		final Metric m = getMetric();
+		final int s = ranks.get(source), t = ranks.get(target);
+		final Query q = queries.get();
+		search(m, s, q.forward, q.forwardVia, 0);
+		search(m, t, q.backward, q.backwardVia, 1);
+		double best = Double.POSITIVE_INFINITY;
+		int meeting = -1;
+		for (int v = t; v >= 0; v = parent[v]) {
+			final double d = q.forward[v] + q.backward[v];
+			if (d < best) {
+				best = d;
+				meeting = v;
+			}
+		}
+		final List<E> result = new ArrayList<>();
+		if (meeting >= 0) {
+			final List<Integer> up = new ArrayList<>();
+			for (int v = meeting; v != s; v = lower[q.forwardVia[v] / 2]) { up.add(q.forwardVia[v]); }
+			Collections.reverse(up);
+			for (final int d : up) { unpack(m, d, result); }
+			for (int v = meeting; v != t; v = lower[q.backwardVia[v] / 2]) { unpack(m, q.backwardVia[v], result); }
+		}
+		for (int v = s; v >= 0; v = parent[v]) { q.forward[v] = Double.POSITIVE_INFINITY; }
+		for (int v = t; v >= 0; v = parent[v]) { q.backward[v] = Double.POSITIVE_INFINITY; }
+		return result;
+	}
+
+	/**
+	 * Follows the upward arcs from a vertex along its branch of the elimination tree.
+	 *
+	 * @param m
+	 *            the metric
+	 * @param from
+	 *            the vertex
+	 * @param dist
+	 *            the distances from (or to) the vertex
+	 * @param via
+	 *            the direction by which each vertex is reached
+	 * @param reverse
+	 *            0 to follow the arcs upwards, 1 to follow them downwards (for the backward search)
+	 */
+	private void search(final Metric m, final int from, final double[] dist, final int[] via, final int reverse) {
+		dist[from] = 0d;
+		for (int v = from; v >= 0; v = parent[v]) {
+			final double d = dist[v];
+			if (d == Double.POSITIVE_INFINITY) { continue; }
+			for (int a = firstUp[v]; a < firstUp[v + 1]; a++) {
+				final int direction = 2 * a + reverse;
+				final double w = d + m.weight[direction];
+				if (w < dist[upper[a]]) {
+					dist[upper[a]] = w;
+					via[upper[a]] = direction;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the edges of a direction, unpacking its shortcuts, to a path.
+	 */
+	@SuppressWarnings ("unchecked")
+	private void unpack(final Metric m, final int direction, final List<E> path) {
+		int[] s = new int[64];
+		int size = 0;
+		s[size++] = direction;
+		while (size > 0) {
+			final int d = s[--size];
+			if (m.edge[d] >= 0) {
+				path.add((E) edges[m.edge[d]]);
+			} else {
+				if (size + 2 > s.length) { s = Arrays.copyOf(s, 2 * s.length); }
+				s[size++] = m.second[d];
+				s[size++] = m.first[d];
+			}
+		}
+	}
+
+	/**
+	 * The work arrays of the queries: the distances from the source and to the target, which are infinite outside of
+	 * the branches searched, and the directions by which the vertices have been reached.
+	 */
+	private static final class Query {
+
+		/** The distances. */
+		final double[] forward, backward;
+
+		/** The directions. */
+		final int[] forwardVia, backwardVia;
+
+		/**
+		 * Instantiates the work arrays of the queries in a hierarchy.
+		 *
+		 * @param n
+		 *            the number of vertices
+		 */
+		Query(final int n) {
+			forward = new double[n];
+			backward = new double[n];
+			Arrays.fill(forward, Double.POSITIVE_INFINITY);
+			Arrays.fill(backward, Double.POSITIVE_INFINITY);
+			forwardVia = new int[n];
+			backwardVia = new int[n];
+		}
+	}
+
+}
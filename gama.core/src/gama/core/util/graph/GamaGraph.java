@@ -1038,7 +1038,7 @@ public class GamaGraph<V, E> implements IGraph<V, E> {
 	@Override
 	public void setEdgeWeight(final Object e, final double weight) {
 		if (!containsEdge(e)) return;
-		getPathComputer().incVersion();
+		getPathComputer().weightsChanged();
 		getEdge(e).setWeight(weight);
 	}
 
@@ -1051,7 +1051,6 @@ public class GamaGraph<V, E> implements IGraph<V, E> {
 
 	@Override
 	public Set vertexSet() {
-		getPathComputer().incVersion();
 		return vertexMap.keySet();
 	}
 
@@ -9,11 +9,14 @@
  ********************************************************************************************************/
 package gama.core.util.graph;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import org.jgrapht.GraphPath;
@@ -27,7 +30,6 @@ import org.jgrapht.alg.shortestpath.DeltaSteppingShortestPath;
 import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
 import org.jgrapht.alg.shortestpath.TransitNodeRoutingShortestPath;
 import org.jgrapht.alg.shortestpath.YenKShortestPath;
-import org.jgrapht.alg.util.Pair;
 import org.jgrapht.graph.AbstractBaseGraph;
 import org.jgrapht.graph.DefaultDirectedGraph;
 import org.jgrapht.graph.DefaultUndirectedGraph;
@@ -81,6 +83,8 @@ public class PathComputer<V, E> {
 	 */
 	PathComputer(final GamaGraph<V, E> gamaGraph) {
 		graph = gamaGraph;
+		shortestPathCache = new ShortestPathCache<>(gamaGraph);
+		executor = GamaExecutorService.getRoutingExecutor();
 	}
 
 	/**
@@ -133,8 +137,14 @@ public class PathComputer<V, E> {
 	/** The version. */
 	protected int version = 1;
 
-	/** The shortest path computed. */
-	protected Map<Pair<V, V>, IList<IList<E>>> shortestPathComputed = new ConcurrentHashMap<>();
+	/** The cache of the shortest paths computed. */
+	protected final ShortestPathCache<V, E> shortestPathCache;
+
+	/**
+	 * The executor of the preprocessing of the shortest path algorithms and of the batches of queries: the one that was
+	 * current when the graph was created, which the algorithms built on it keep using.
+	 */
+	private final ThreadPoolExecutor executor;
 
 	/** The shortest path matrix. */
 	protected GamaIntMatrix shortestPathMatrix = null;
@@ -164,12 +174,18 @@ public class PathComputer<V, E> {
 	/** The from linked gto edges. */
 	protected Map<Object, Object> fromLinkedGtoEdges;
 
+	/** The snapshot of the graph searched by Dijkstra, A* and the bidirectional Dijkstra, built lazily. */
+	private volatile RoutingGraph<V, E> routingGraph;
+
+	/** The customizable contraction hierarchy, built lazily and kept when only the weights change. */
+	private volatile CustomizableContractionHierarchy<V, E> customizableCH;
+
 	/**
-	 * Gets the shortest path computed.
+	 * Gets the cache of the shortest paths computed.
 	 *
-	 * @return the shortest path computed
+	 * @return the cache
 	 */
-	public Map<Pair<V, V>, IList<IList<E>>> getShortestPathComputed() { return shortestPathComputed; }
+	public ShortestPathCache<V, E> getShortestPathCache() { return shortestPathCache; }
 
 	/**
 	 * Gets the shortest path.
@@ -181,10 +197,9 @@ public class PathComputer<V, E> {
 	 * @return the shortest path
 	 */
 	public IList<E> getShortestPath(final V s, final V t) {
-		final Pair<V, V> vp = new Pair<>(s, t);
-		final IList<IList<E>> ppc = shortestPathComputed.get(vp);
-		if (ppc == null || ppc.isEmpty()) return null;
-		return ppc.get(0);
+		final List<E> path = shortestPathCache.get(s, t);
+		if (path == null) return null;
+		return GamaListFactory.createWithoutCasting(graph.getGamlType().getContentType(), path);
 	}
 
 	/**
@@ -229,7 +244,7 @@ public class PathComputer<V, E> {
 				for (int j = 0; j < graph.vertexMap.size(); j++) {
 					if (i == j || matrix.get(scope, j, i) != i) { continue; }
 					final V v2 = vertices.get(j);
-					final List edges = computeBestRouteBetween(scope, v1, v2);
+					final List<E> edges = computeBestRouteBetween(scope, v1, v2);
 					// DEBUG.LOG("edges : " + edges);
 					if (edges == null) { continue; }
 					V source = v1;
@@ -324,12 +339,7 @@ public class PathComputer<V, E> {
 				next = M[next];
 				vc = vn;
 			} while (previous != i);
-			final Pair vv = new Pair<>(v1, vt);
-			if (!shortestPathComputed.containsKey(vv)) {
-				final IList<IList<E>> ssp = GamaListFactory.create(Types.LIST.of(graph.getGamlType().getContentType()));
-				ssp.add(edges);
-				shortestPathComputed.put(vv, ssp);
-			}
+			shortestPathCache.put(edges, (V) v1, vt);
 			if (j == t) { edgesVertices = edges; }
 		}
 		return edgesVertices;
@@ -443,6 +453,28 @@ public class PathComputer<V, E> {
 		return graph.pathFromEdges(scope, source, target, computeBestRouteBetween(scope, source, target));
 	}
 
+	/**
+	 * Computes the shortest paths between pairs of vertices in a batch (see
+	 * {@link #computeBestRoutesBetween(IScope, List, List)}).
+	 *
+	 * @param scope
+	 *            the scope
+	 * @param sources
+	 *            the sources
+	 * @param targets
+	 *            the targets, as many as the sources
+	 * @return the path between each source and the target at the same index
+	 */
+	public IList<IPath<V, E, IGraph<V, E>>> computeShortestPathsBetween(final IScope scope, final List<V> sources,
+			final List<V> targets) {
+		final IList<IList<E>> routes = computeBestRoutesBetween(scope, sources, targets);
+		final IList<IPath<V, E, IGraph<V, E>>> result = GamaListFactory.create(Types.PATH);
+		for (int i = 0; i < routes.size(); i++) {
+			result.add(graph.pathFromEdges(scope, sources.get(i), targets.get(i), routes.get(i)));
+		}
+		return result;
+	}
+
 	/**
 	 * Gets the shortest path.
 	 *
@@ -482,7 +514,7 @@ public class PathComputer<V, E> {
 		if (source.equals(target)) return GamaListFactory.create(graph.getGamlType().getContentType());
 		if (shortestPathMatrix != null) {
 			final IList<E> edges = getShortestPathFromMatrix(source, target);
-			if (saveComputedShortestPaths) { saveShortestPaths(edges, source, target); }
+			if (saveComputedShortestPaths) { shortestPathCache.put(edges, source, target); }
 			return edges;
 		}
 		if (pathFindingAlgo == ShortestPathAlgorithmEnum.FloydWarshall) {
@@ -491,11 +523,27 @@ public class PathComputer<V, E> {
 			if (path == null) return GamaListFactory.create(graph.getGamlType().getContentType());
 			return GamaListFactory.create(scope, graph.getGamlType().getContentType(), path.getEdgeList());
 		}
-		IList<IList<E>> sp = null;
-		if (saveComputedShortestPaths) { sp = shortestPathComputed.get(new Pair<>(source, target)); }
+		List<E> sp = null;
+		if (saveComputedShortestPaths) { sp = shortestPathCache.get(source, target); }
 		IList<E> spl = null;
-		if (sp == null || sp.isEmpty() || sp.get(0).isEmpty()) {
-			if (pathFindingAlgo == ShortestPathAlgorithmEnum.NBAStar) {
+		if (sp == null) {
+			final RoutingGraph<V, E> routing = switch (pathFindingAlgo) {
+				case Dijkstra, AStar, BidirectionalDijkstra -> getRoutingGraph(source, target);
+				default -> null;
+			};
+			final CustomizableContractionHierarchy<V, E> hierarchy =
+					pathFindingAlgo == ShortestPathAlgorithmEnum.CHBidirectionalDijkstra
+							? getContractionHierarchy(source, target) : null;
+			if (routing != null) {
+				spl = GamaListFactory.create(scope, graph.getGamlType().getContentType(), switch (pathFindingAlgo) {
+					case Dijkstra -> routing.dijkstra(source, target);
+					case AStar -> routing.aStar(source, target);
+					default -> routing.bidirectionalDijkstra(source, target);
+				});
+			} else if (hierarchy != null) {
+				spl = GamaListFactory.create(scope, graph.getGamlType().getContentType(),
+						hierarchy.shortestPath(source, target));
+			} else if (pathFindingAlgo == ShortestPathAlgorithmEnum.NBAStar) {
 				final NBAStarPathfinder<V, E> p = new NBAStarPathfinder<>(graph, false);
 				spl = p.search(source, target);
 			} else if (pathFindingAlgo == ShortestPathAlgorithmEnum.NBAStarApprox) {
@@ -509,20 +557,14 @@ public class PathComputer<V, E> {
 			} else if (pathFindingAlgo == ShortestPathAlgorithmEnum.BellmannFord) {
 				spl = getShortestPath(scope, new BellmanFordShortestPath<>(graph), source, target);
 			} else if (pathFindingAlgo == ShortestPathAlgorithmEnum.DeltaStepping) {
-				ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors
-						.newFixedThreadPool(GamaExecutorService.THREADS_NUMBER.getValue());
 				spl = getShortestPath(scope, new DeltaSteppingShortestPath<>(graph, executor), source, target);
 			} else if (pathFindingAlgo == ShortestPathAlgorithmEnum.TransitNodeRouting) {
 				if (transitNodeRouting == null) {
-					ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors
-							.newFixedThreadPool(GamaExecutorService.THREADS_NUMBER.getValue());
 					transitNodeRouting = new TransitNodeRoutingShortestPath<>(graph, executor);
 				}
 				spl = getShortestPath(scope, transitNodeRouting, source, target);
 			} else if (pathFindingAlgo == ShortestPathAlgorithmEnum.CHBidirectionalDijkstra) {
 				if (contractionHierarchyBD == null) {
-					ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors
-							.newFixedThreadPool(GamaExecutorService.THREADS_NUMBER.getValue());
 					contractionHierarchyBD = new ContractionHierarchyBidirectionalDijkstra<>(graph, executor);
 				}
 				spl = getShortestPath(scope, contractionHierarchyBD, source, target);
@@ -530,45 +572,156 @@ public class PathComputer<V, E> {
 				spl = getShortestPath(scope, new BidirectionalDijkstraShortestPath<>(graph), source, target);
 			}
 
-			if (saveComputedShortestPaths) { saveShortestPaths(spl, source, target); }
+			if (saveComputedShortestPaths) { shortestPathCache.put(spl, source, target); }
 
 		} else {
-			spl = GamaListFactory.create(scope, graph.getGamlType().getContentType(), sp.get(0));
+			spl = GamaListFactory.create(scope, graph.getGamlType().getContentType(), sp);
 		}
 		return spl;
 	}
 
 	/**
-	 * Save shortest paths.
+	 * Computes the shortest paths between pairs of vertices. The pairs that share a source (or a target, if there are
+	 * fewer distinct targets than sources) share a single search, stopped once all their targets (or sources) are
+	 * reached, and the searches are run in parallel by the routing executor (see
+	 * {@link GamaExecutorService#getRoutingExecutor()}). These searches use Dijkstra's algorithm, whatever the
+	 * algorithm chosen for the graph, unless the paths are given by a matrix or by Floyd-Warshall, or some weights are
+	 * negative: the pairs are then computed one by one with {@link #computeBestRouteBetween(IScope, Object, Object)},
+	 * as are the pairs whose vertices do not belong to the graph.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @param sources
+	 *            the sources
+	 * @param targets
+	 *            the targets, as many as the sources
+	 * @return the list of the edges of the path between each source and the target at the same index
+	 */
+	@SuppressWarnings ("unchecked")
+	public IList<IList<E>> computeBestRoutesBetween(final IScope scope, final List<V> sources, final List<V> targets) {
+		final int n = sources.size();
+		final List<E>[] routes = new List[n];
+		final RoutingGraph<V, E> routing =
+				shortestPathMatrix == null && pathFindingAlgo != ShortestPathAlgorithmEnum.FloydWarshall
+						? getRoutingGraph() : null;
+		final Map<V, List<Integer>> bySource = new LinkedHashMap<>(), byTarget = new LinkedHashMap<>();
+		for (int i = 0; i < n; i++) {
+			final V source = sources.get(i), target = targets.get(i);
+			if (saveComputedShortestPaths && !source.equals(target)) {
+				routes[i] = shortestPathCache.get(source, target);
+			}
+			if (routes[i] != null || routing == null || !routing.contains(source) || !routing.contains(target)) {
+				continue;
+			}
+			bySource.computeIfAbsent(source, v -> new ArrayList<>()).add(i);
+			byTarget.computeIfAbsent(target, v -> new ArrayList<>()).add(i);
+		}
+		final boolean forward = bySource.size() <= byTarget.size();
+		final List<Callable<Void>> searches = new ArrayList<>();
+		for (final Map.Entry<V, List<Integer>> group : (forward ? bySource : byTarget).entrySet()) {
+			searches.add(() -> {
+				final List<Integer> indices = group.getValue();
+				final List<V> others = new ArrayList<>(indices.size());
+				for (final int i : indices) { others.add(forward ? targets.get(i) : sources.get(i)); }
+				final List<List<E>> paths = forward ? routing.oneToMany(group.getKey(), others)
+						: routing.manyToOne(others, group.getKey());
+				for (int j = 0; j < indices.size(); j++) {
+					final int i = indices.get(j);
+					routes[i] = paths.get(j);
+					if (saveComputedShortestPaths) { shortestPathCache.put(routes[i], sources.get(i), targets.get(i)); }
+				}
+				return null;
+			});
+		}
+		try {
+			if (searches.size() == 1) {
+				searches.get(0).call();
+			} else if (!searches.isEmpty()) {
+				for (final Future<Void> future : executor.invokeAll(searches)) {
+					future.get();
+				}
+			}
+		} catch (final GamaRuntimeException e) {
+			throw e;
+		} catch (final ExecutionException e) {
+			throw GamaRuntimeException.create(e.getCause(), scope);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw GamaRuntimeException.error("The computation of the paths has been interrupted", scope);
+		} catch (final Exception e) {
+			throw GamaRuntimeException.create(e, scope);
+		}
+		final IList<IList<E>> result = GamaListFactory.create(Types.LIST.of(graph.getGamlType().getContentType()));
+		for (int i = 0; i < n; i++) {
+			result.add(routes[i] == null ? computeBestRouteBetween(scope, sources.get(i), targets.get(i))
+					: GamaListFactory.create(scope, graph.getGamlType().getContentType(), routes[i]));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the snapshot of the graph, built again if the graph has been modified since the last one, provided it can
+	 * be used to compute a path between two vertices: no weight must be negative and both vertices must belong to the
+	 * graph (otherwise, the algorithms of JGraphT are used, and report the error).
 	 *
-	 * @param edges
-	 *            the edges
 	 * @param source
 	 *            the source
 	 * @param target
 	 *            the target
+	 * @return the snapshot, or null if it cannot be used
 	 */
-	private void saveShortestPaths(final List<E> edges, final V source, final V target) {
-		V s = source;
-		final IList<IList<E>> spl = GamaListFactory.create(Types.LIST.of(graph.getGamlType().getContentType()));
-		spl.add(GamaListFactory.createWithoutCasting(graph.getGamlType().getContentType(), edges));
-		shortestPathComputed.put(new Pair<>(source, target), spl);
-		final List<E> edges2 = GamaListFactory.create(graph.graphScope, graph.getGamlType().getContentType(), edges);
-		for (int i = 0; i < edges.size(); i++) {
-			final E edge = edges2.remove(0);
-			if (edges2.isEmpty()) { break; }
-			// DEBUG.LOG("s : " + s + " j : " + j + " i: " + i);
-			V nwS = (V) graph.getEdgeTarget(edge);
-			if (!graph.directed && nwS.equals(s)) { nwS = (V) graph.getEdgeSource(edge); }
-			final Pair<V, V> pp = new Pair<>(nwS, target);
-			if (!shortestPathComputed.containsKey(pp)) {
-				final IList<IList<E>> spl2 = GamaListFactory.create(graph.getGamlType().getContentType());
-				spl2.add(GamaListFactory.createWithoutCasting(graph.getGamlType().getContentType(), edges2));
-				shortestPathComputed.put(pp, spl2);
+	private RoutingGraph<V, E> getRoutingGraph(final V source, final V target) {
+		final RoutingGraph<V, E> result = getRoutingGraph();
+		if (result == null || !result.contains(source) || !result.contains(target)) return null;
+		return result;
+	}
+
+	/**
+	 * Returns the snapshot of the graph, built again if the graph has been modified since the last one, provided its
+	 * weights are not negative.
+	 *
+	 * @return the snapshot, or null if it cannot be used
+	 */
+	private RoutingGraph<V, E> getRoutingGraph() {
+		RoutingGraph<V, E> result = routingGraph;
+		if (result == null) {
+			synchronized (this) {
+				result = routingGraph;
+				if (result == null) {
+					final int v = version;
+					result = new RoutingGraph<>(graph);
+					// Not kept if the graph has been modified in the meantime
+					if (v == version) { routingGraph = result; }
+				}
 			}
-			s = nwS;
+		}
+		return result.hasNegativeWeights ? null : result;
+	}
 
+	/**
+	 * Returns the customizable contraction hierarchy of the graph, preprocessed again if vertices or edges have been
+	 * added or removed since the last one, provided it can be used to compute a path between two vertices: no weight
+	 * must be negative and both vertices must belong to the graph (otherwise, the contraction hierarchy of JGraphT is
+	 * used, and reports the error).
+	 *
+	 * @param source
+	 *            the source
+	 * @param target
+	 *            the target
+	 * @return the hierarchy, or null if it cannot be used
+	 */
+	private CustomizableContractionHierarchy<V, E> getContractionHierarchy(final V source, final V target) {
+		CustomizableContractionHierarchy<V, E> result = customizableCH;
+		if (result == null) {
+			synchronized (this) {
+				result = customizableCH;
+				if (result == null) {
+					result = new CustomizableContractionHierarchy<>(graph);
+					customizableCH = result;
+				}
+			}
 		}
+		return result.accepts(source, target) ? result : null;
 	}
 
 	/**
@@ -638,7 +791,7 @@ public class PathComputer<V, E> {
 			paths.add(path);
 			if (saveComputedShortestPaths) { el.add(path); }
 		}
-		if (saveComputedShortestPaths) { shortestPathComputed.put(new Pair<>(source, target), el); }
+		if (saveComputedShortestPaths) { shortestPathCache.putAll(el, source, target); }
 		return paths;
 	}
 
@@ -658,11 +811,10 @@ public class PathComputer<V, E> {
 	 * @date 30 oct. 2023
 	 */
 	public IList<IList<E>> computeKBestRoutesBetween(final IScope scope, final V source, final V target, final int k) {
-		final Pair<V, V> pp = new Pair<>(source, target);
-		final IList<IList<E>> sps = shortestPathComputed.get(pp);
+		final List<List<E>> sps = saveComputedShortestPaths ? shortestPathCache.getAll(source, target) : null;
 		if (sps != null && sps.size() >= k) {
 			IList<IList<E>> paths = GamaListFactory.create(Types.LIST.of(graph.getGamlType().getContentType()));
-			for (final IList<E> sp : sps) {
+			for (final List<E> sp : sps) {
 				paths.add(GamaListFactory.create(scope, graph.getGamlType().getContentType(), sp));
 			}
 			return paths;
@@ -742,7 +894,8 @@ public class PathComputer<V, E> {
 	 */
 	public void setVersion(final int version) {
 		this.version = version;
-		shortestPathComputed.clear();
+		shortestPathCache.clear();
+		routingGraph = null;
 	}
 
 	/**
@@ -752,10 +905,22 @@ public class PathComputer<V, E> {
 	 * @date 30 oct. 2023
 	 */
 	public void incVersion() {
+		weightsChanged();
+		customizableCH = null;
+	}
+
+	/**
+	 * Inc version after a modification of the weights of the graph only, which keeps the preprocessing of the
+	 * customizable contraction hierarchy (its arcs are weighed again by the next query).
+	 */
+	public void weightsChanged() {
 		version++;
-		shortestPathComputed.clear();
+		shortestPathCache.clear();
 		contractionHierarchyBD = null;
 		transitNodeRouting = null;
+		routingGraph = null;
+		final CustomizableContractionHierarchy<V, E> ch = customizableCH;
+		if (ch != null) { ch.weightsChanged(); }
 		linkedJGraph = null;
 		fromLinkedGtoEdges = null;
 	}
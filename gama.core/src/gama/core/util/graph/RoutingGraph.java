@@ -0,0 +1,548 @@
+/*******************************************************************************************************
+ *
+ * RoutingGraph.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.util.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import gama.core.metamodel.shape.GamaPoint;
+import gama.core.metamodel.shape.IShape;
+import gama.core.metamodel.topology.graph.GamaSpatialGraph;
+
+/**
+ * A snapshot of a graph in compressed sparse row arrays, on which the shortest paths are computed without going through
+ * the maps and the wrappers of {@link GamaGraph}: the vertices are numbered, the arcs leaving (and, for directed
+ * graphs, entering) a vertex are stored contiguously with their weights, and the searches use primitive heaps. An
+ * undirected edge gives an arc in both directions. The snapshot is built by the {@link PathComputer} of the graph and
+ * dropped each time the graph is modified (see {@link PathComputer#incVersion()}). As it is not modified once built,
+ * it can be searched by several threads at the same time, each of them using its own work arrays.
+ *
+ * @param <V>
+ *            the type of the vertices
+ * @param <E>
+ *            the type of the edges
+ */
+final class RoutingGraph<V, E> {
+
+	/** The ids of the vertices. */
+	private final Map<V, Integer> ids;
+
+	/** The edges, by id. */
+	private final Object[] edges;
+
+	/** The first outgoing arc of each vertex (the arcs of vertex i range from firstOut[i] to firstOut[i + 1]). */
+	private final int[] firstOut;
+
+	/** The vertex reached by each outgoing arc. */
+	private final int[] outHead;
+
+	/** The weight of each outgoing arc. */
+	private final double[] outWeight;
+
+	/** The edge of each outgoing arc. */
+	private final int[] outEdge;
+
+	/** The same arrays for the incoming arcs, or the ones of the outgoing arcs if the graph is undirected. */
+	private final int[] firstIn, inHead, inEdge;
+
+	/** The weight of each incoming arc. */
+	private final double[] inWeight;
+
+	/** The coordinates of the vertices, used by A*, or null if the graph is not spatial. */
+	private final double[] x, y;
+
+	/** Whether some weights are negative, in which case the searches of this class do not apply. */
+	final boolean hasNegativeWeights;
+
+	/** The work arrays of the forward searches, per thread. */
+	private final ThreadLocal<Search> forward;
+
+	/** The work arrays of the backward searches, per thread. */
+	private final ThreadLocal<Search> backward;
+
+	/**
+	 * Builds the snapshot of a graph.
+	 *
+	 * @param graph
+	 *            the graph
+	 */
+	RoutingGraph(final GamaGraph<V, E> graph) {
+		final int n = graph.vertexMap.size();
+		ids = new HashMap<>(n * 4 / 3 + 1);
+		final boolean spatial = graph instanceof GamaSpatialGraph;
+		x = spatial ? new double[n] : null;
+		y = spatial ? new double[n] : null;
+		for (final V v : graph.vertexMap.keySet()) {
+			final int id = ids.size();
+			ids.put(v, id);
+			if (spatial) {
+				final GamaPoint p = ((IShape) v).getLocation();
+				x[id] = p.x;
+				y[id] = p.y;
+			}
+		}
+		final int m = graph.edgeMap.size();
+		edges = new Object[m];
+		final int[] sources = new int[m], targets = new int[m];
+		final double[] weights = new double[m];
+		boolean negative = false;
+		int e = 0;
+		for (final Map.Entry<E, _Edge<V, E>> entry : graph.edgeMap.entrySet()) {
+			final _Edge<V, E> edge = entry.getValue();
+			final Integer s = ids.get(edge.getSource()), t = ids.get(edge.getTarget());
+			// Self-loops never belong to a shortest path
+			if (s == null || t == null || s.equals(t)) { continue; }
+			edges[e] = entry.getKey();
+			sources[e] = s;
+			targets[e] = t;
+			weights[e] = edge.getWeight();
+			negative |= weights[e] < 0;
+			e++;
+		}
+		hasNegativeWeights = negative;
+		final boolean directed = graph.isDirected();
+		final int arcs = directed ? e : 2 * e;
+		firstOut = new int[n + 1];
+		outHead = new int[arcs];
+		outWeight = new double[arcs];
+		outEdge = new int[arcs];
+		fill(e, sources, targets, weights, !directed, firstOut, outHead, outWeight, outEdge);
+		if (directed) {
+			firstIn = new int[n + 1];
+			inHead = new int[arcs];
+			inWeight = new double[arcs];
+			inEdge = new int[arcs];
+			fill(e, targets, sources, weights, false, firstIn, inHead, inWeight, inEdge);
+		} else {
+			firstIn = firstOut;
+			inHead = outHead;
+			inWeight = outWeight;
+			inEdge = outEdge;
+		}
+		forward = ThreadLocal.withInitial(() -> new Search(n));
+		backward = ThreadLocal.withInitial(() -> new Search(n));
+	}
+
+	/**
+	 * Fills the arrays of arcs with a counting sort of the edges on their first extremity.
+	 *
+	 * @param m
+	 *            the number of edges
+	 * @param from
+	 *            the first extremity of each edge
+	 * @param to
+	 *            the second extremity of each edge
+	 * @param weights
+	 *            the weight of each edge
+	 * @param both
+	 *            whether to add the arcs in both directions
+	 * @param first
+	 *            the first arc of each vertex
+	 * @param head
+	 *            the vertex reached by each arc
+	 * @param weight
+	 *            the weight of each arc
+	 * @param edge
+	 *            the edge of each arc
+	 */
+	private static void fill(final int m, final int[] from, final int[] to, final double[] weights, final boolean both,
+			final int[] first, final int[] head, final double[] weight, final int[] edge) {
+		for (int e = 0; e < m; e++) {
+			first[from[e] + 1]++;
+			if (both) { first[to[e] + 1]++; }
+		}
+		for (int i = 1; i < first.length; i++) { first[i] += first[i - 1]; }
+		final int[] next = Arrays.copyOf(first, first.length - 1);
+		for (int e = 0; e < m; e++) {
+			int a = next[from[e]]++;
+			head[a] = to[e];
+			weight[a] = weights[e];
+			edge[a] = e;
+			if (both) {
+				a = next[to[e]]++;
+				head[a] = from[e];
+				weight[a] = weights[e];
+				edge[a] = e;
+			}
+		}
+	}
+
+	/**
+	 * Whether the snapshot contains a vertex.
+	 *
+	 * @param v
+	 *            the vertex
+	 * @return true, if it contains it
+	 */
+	boolean contains(final V v) {
+		return ids.containsKey(v);
+	}
+
+	/**
+	 * Computes the shortest path between two vertices with Dijkstra's algorithm.
+	 *
+	 * @param source
+	 *            the source
+	 * @param target
+	 *            the target
+	 * @return the edges of the path, empty if the target cannot be reached
+	 */
+	List<E> dijkstra(final V source, final V target) {
+		return unidirectional(ids.get(source), ids.get(target), false);
+	}
+
+	/**
+	 * Computes the shortest path between two vertices with A*, guided by the euclidean distance to the target if the
+	 * graph is spatial (like {@link gama.core.metamodel.topology.graph.AStar}).
+	 *
+	 * @param source
+	 *            the source
+	 * @param target
+	 *            the target
+	 * @return the edges of the path, empty if the target cannot be reached
+	 */
+	List<E> aStar(final V source, final V target) {
+		return unidirectional(ids.get(source), ids.get(target), x != null);
+	}
+
+	/**
+	 * Searches from the source until the target is settled.
+	 *
+	 * @param s
+	 *            the id of the source
+	 * @param t
+	 *            the id of the target
+	 * @param guided
+	 *            whether to add the euclidean distance to the target to the keys of the vertices
+	 * @return the edges of the path
+	 */
+	private List<E> unidirectional(final int s, final int t, final boolean guided) {
+		final Search search = forward.get();
+		search.reset();
+		search.relax(s, 0d, -1, -1, 0d);
+		while (!search.isEmpty()) {
+			final int u = search.pop();
+			if (u == t) return path(search, s, t, null, t);
+			final double d = search.dist[u];
+			for (int a = firstOut[u]; a < firstOut[u + 1]; a++) {
+				final int v = outHead[a];
+				final double g = d + outWeight[a];
+				search.relax(v, g, u, a, guided ? g + Math.hypot(x[v] - x[t], y[v] - y[t]) : g);
+			}
+		}
+		return new ArrayList<>();
+	}
+
+	/**
+	 * Computes the shortest path between two vertices with a bidirectional Dijkstra's algorithm, which expands the
+	 * smallest frontier first and stops when no shorter path than the best one met so far can be found.
+	 *
+	 * @param source
+	 *            the source
+	 * @param target
+	 *            the target
+	 * @return the edges of the path, empty if the target cannot be reached
+	 */
+	List<E> bidirectionalDijkstra(final V source, final V target) {
+		final int s = ids.get(source), t = ids.get(target);
+		final Search fw = forward.get(), bw = backward.get();
+		fw.reset();
+		bw.reset();
+		fw.relax(s, 0d, -1, -1, 0d);
+		bw.relax(t, 0d, -1, -1, 0d);
+		double best = Double.POSITIVE_INFINITY;
+		int meeting = -1;
+		while (!fw.isEmpty() && !bw.isEmpty() && fw.minKey() + bw.minKey() < best) {
+			final boolean isForward = fw.size <= bw.size;
+			final Search search = isForward ? fw : bw, other = isForward ? bw : fw;
+			final int[] first = isForward ? firstOut : firstIn, head = isForward ? outHead : inHead;
+			final double[] weight = isForward ? outWeight : inWeight;
+			final int u = search.pop();
+			final double d = search.dist[u];
+			for (int a = first[u]; a < first[u + 1]; a++) {
+				final int v = head[a];
+				final double g = d + weight[a];
+				search.relax(v, g, u, a, g);
+				if (other.reached(v)) {
+					final double total = search.dist[v] + other.dist[v];
+					if (total < best) {
+						best = total;
+						meeting = v;
+					}
+				}
+			}
+		}
+		if (meeting < 0) return new ArrayList<>();
+		return path(fw, s, meeting, bw, t);
+	}
+
+	/**
+	 * Computes the shortest paths from a source to several targets with a single Dijkstra's search, stopped once all
+	 * the targets are settled.
+	 *
+	 * @param source
+	 *            the source
+	 * @param targets
+	 *            the targets
+	 * @return the edges of the path to each target, empty if it cannot be reached
+	 */
+	List<List<E>> oneToMany(final V source, final List<V> targets) {
+		final int s = ids.get(source);
+		final Search search = tree(s, targets, true);
+		final List<List<E>> result = new ArrayList<>(targets.size());
+		for (final V target : targets) {
+			final int t = ids.get(target);
+			result.add(search.reached(t) ? path(search, s, t, null, t) : new ArrayList<>());
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the shortest paths from several sources to a target with a single Dijkstra's search, that follows the
+	 * arcs backwards from the target and stops once all the sources are settled.
+	 *
+	 * @param sources
+	 *            the sources
+	 * @param target
+	 *            the target
+	 * @return the edges of the path from each source, empty if the target cannot be reached
+	 */
+	List<List<E>> manyToOne(final List<V> sources, final V target) {
+		final int t = ids.get(target);
+		final Search search = tree(t, sources, false);
+		final List<List<E>> result = new ArrayList<>(sources.size());
+		for (final V source : sources) {
+			final int s = ids.get(source);
+			result.add(search.reached(s) ? path(null, s, s, search, t) : new ArrayList<>());
+		}
+		return result;
+	}
+
+	/**
+	 * Grows the tree of the shortest paths from (or to) a vertex until a set of vertices are settled.
+	 *
+	 * @param root
+	 *            the id of the root
+	 * @param others
+	 *            the vertices to settle
+	 * @param isForward
+	 *            whether to follow the arcs forwards, from the root, or backwards, to the root
+	 * @return the search, whose arrays describe the tree
+	 */
+	private Search tree(final int root, final List<V> others, final boolean isForward) {
+		final Search search = isForward ? forward.get() : backward.get();
+		final int[] first = isForward ? firstOut : firstIn, head = isForward ? outHead : inHead;
+		final double[] weight = isForward ? outWeight : inWeight;
+		final BitSet pending = new BitSet(first.length - 1);
+		for (final V v : others) { pending.set(ids.get(v)); }
+		int remaining = pending.cardinality();
+		search.reset();
+		search.relax(root, 0d, -1, -1, 0d);
+		while (remaining > 0 && !search.isEmpty()) {
+			final int u = search.pop();
+			if (pending.get(u)) { remaining--; }
+			final double d = search.dist[u];
+			for (int a = first[u]; a < first[u + 1]; a++) {
+				final double g = d + weight[a];
+				search.relax(head[a], g, u, a, g);
+			}
+		}
+		return search;
+	}
+
+	/**
+	 * Rebuilds a path from the arcs that have been followed to reach a vertex, by the forward and, possibly, the
+	 * backward search.
+	 *
+	 * @param fw
+	 *            the forward search, or null
+	 * @param s
+	 *            the source
+	 * @param meeting
+	 *            the vertex where the searches have met
+	 * @param bw
+	 *            the backward search, or null
+	 * @param t
+	 *            the target
+	 * @return the edges of the path
+	 */
+	@SuppressWarnings ("unchecked")
+	private List<E> path(final Search fw, final int s, final int meeting, final Search bw, final int t) {
+		final List<E> result = new ArrayList<>();
+		if (fw != null) {
+			for (int v = meeting; v != s; v = fw.from[v]) { result.add((E) edges[outEdge[fw.via[v]]]); }
+			Collections.reverse(result);
+		}
+		if (bw != null) { for (int v = meeting; v != t; v = bw.from[v]) { result.add((E) edges[inEdge[bw.via[v]]]); } }
+		return result;
+	}
+
+	/**
+	 * The work arrays of a search: the tentative distances, the arcs followed to reach the vertices and an indexed
+	 * binary heap of the vertices to expand. The arrays are reused from one search to the other: a vertex is only
+	 * considered as reached if it has been so during the current search.
+	 */
+	private static final class Search {
+
+		/** The distance of each reached vertex. */
+		final double[] dist;
+
+		/** The vertex and the arc from which each reached vertex has been reached. */
+		final int[] from, via;
+
+		/** The position of each reached vertex in the heap, -1 once it has been expanded. */
+		final int[] position;
+
+		/** The search during which each vertex has been reached. */
+		final int[] stamp;
+
+		/** The current search. */
+		int current;
+
+		/** The vertices of the heap. */
+		final int[] heap;
+
+		/** The keys of the vertices of the heap, by position. */
+		final double[] keys;
+
+		/** The size of the heap. */
+		int size;
+
+		/**
+		 * Instantiates the work arrays of a search in a graph.
+		 *
+		 * @param n
+		 *            the number of vertices
+		 */
+		Search(final int n) {
+			dist = new double[n];
+			from = new int[n];
+			via = new int[n];
+			position = new int[n];
+			stamp = new int[n];
+			heap = new int[n];
+			keys = new double[n];
+		}
+
+		/**
+		 * Prepares a new search.
+		 */
+		void reset() {
+			size = 0;
+			if (++current == 0) {
+				Arrays.fill(stamp, 0);
+				current = 1;
+			}
+		}
+
+		/**
+		 * Whether a vertex has been reached during the current search.
+		 */
+		boolean reached(final int v) {
+			return stamp[v] == current;
+		}
+
+		/**
+		 * Whether there is no more vertex to expand.
+		 */
+		boolean isEmpty() { return size == 0; }
+
+		/**
+		 * The smallest key of the vertices to expand.
+		 */
+		double minKey() {
+			return keys[0];
+		}
+
+		/**
+		 * Reaches a vertex, if it has not been reached yet or if the distance is shorter than its current one (and it
+		 * has not been expanded yet).
+		 *
+		 * @param v
+		 *            the vertex
+		 * @param d
+		 *            the distance
+		 * @param u
+		 *            the vertex from which it is reached
+		 * @param arc
+		 *            the arc from which it is reached
+		 * @param key
+		 *            its key in the heap
+		 */
+		void relax(final int v, final double d, final int u, final int arc, final double key) {
+			if (stamp[v] != current) {
+				stamp[v] = current;
+				position[v] = size++;
+			} else if (position[v] < 0 || d >= dist[v]) return;
+			dist[v] = d;
+			from[v] = u;
+			via[v] = arc;
+			up(v, position[v], key);
+		}
+
+		/**
+		 * Removes the vertex with the smallest key from the heap.
+		 *
+		 * @return the vertex
+		 */
+		int pop() {
+			final int v = heap[0];
+			position[v] = -1;
+			if (--size > 0) { down(heap[size], keys[size]); }
+			return v;
+		}
+
+		/**
+		 * Moves a vertex up in the heap from a position, until its parent has a smaller key.
+		 */
+		private void up(final int v, final int at, final double key) {
+			int i = at;
+			while (i > 0) {
+				final int parent = i - 1 >>> 1;
+				if (keys[parent] <= key) { break; }
+				place(heap[parent], i, keys[parent]);
+				i = parent;
+			}
+			place(v, i, key);
+		}
+
+		/**
+		 * Moves a vertex down in the heap from the top, until its children have larger keys.
+		 */
+		private void down(final int v, final double key) {
+			int i = 0;
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= size) { break; }
+				if (child + 1 < size && keys[child + 1] < keys[child]) { child++; }
+				if (keys[child] >= key) { break; }
+				place(heap[child], i, keys[child]);
+				i = child;
+			}
+			place(v, i, key);
+		}
+
+		/**
+		 * Puts a vertex at a position of the heap.
+		 */
+		private void place(final int v, final int at, final double key) {
+			heap[at] = v;
+			keys[at] = key;
+			position[v] = at;
+		}
+
+	}
+
+}
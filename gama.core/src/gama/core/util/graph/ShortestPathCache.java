@@ -0,0 +1,226 @@
+/*******************************************************************************************************
+ *
+ * ShortestPathCache.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.util.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import gama.core.common.preferences.GamaPreferences;
+
+/**
+ * The cache of the shortest paths computed in a graph (see the operator 'use_cache'). Instead of a copy of each path
+ * and of each of its suffixes, the cache keeps, for each target, a tree of the vertices from which a path to the
+ * target is known, associated with the first edge of this path: as any suffix of a shortest path is itself a shortest
+ * path, a path is rebuilt by following these edges from its source, and storing a path only costs one entry per edge.
+ * The k shortest paths between two vertices are kept as lists. The cache is bounded by the number of entries and
+ * edges it contains (see the preference 'pref_shortest_paths_cache_size'), and evicts the trees and lists that have
+ * been used the least recently. It is emptied each time the graph is modified (see {@link PathComputer#incVersion()}).
+ *
+ * @param <V>
+ *            the type of the vertices
+ * @param <E>
+ *            the type of the edges
+ */
+public final class ShortestPathCache<V, E> {
+
+	/**
+	 * The key of a tree (without source) or of a list of k shortest paths.
+	 */
+	private record Key(Object source, Object target) {}
+
+	/**
+	 * A tree of paths to a target: the first edge of the path of each vertex. A new tree is put in the cache, around the
+	 * same map, each time paths are added to it, so that the cache weighs it again.
+	 */
+	private record Tree<V, E>(Map<V, E> firsts) {}
+
+	/** The graph. */
+	private final GamaGraph<V, E> graph;
+
+	/** The trees (maps from the vertices to the first edge of their path to the target) and the lists of paths. */
+	private final Cache<Key, Object> cache;
+
+	/** The number of paths found and not found in the cache. */
+	private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+	/**
+	 * Instantiates a new cache for the paths of a graph, bounded by the current value of the preference.
+	 *
+	 * @param graph
+	 *            the graph
+	 */
+	ShortestPathCache(final GamaGraph<V, E> graph) {
+		this.graph = graph;
+		final int size = GamaPreferences.External.SHORTEST_PATHS_CACHE_SIZE.getValue();
+		final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+		cache = size <= 0 ? builder.build() : builder.maximumWeight(size).weigher(ShortestPathCache::weigh).build();
+	}
+
+	/**
+	 * The weight of a tree or of a list of paths: its number of entries or of edges.
+	 */
+	private static int weigh(final Object key, final Object value) {
+		if (value instanceof Tree<?, ?> tree) return tree.firsts().size() + 1;
+		int weight = 1;
+		for (final Object path : (List<?>) value) { weight += ((List<?>) path).size(); }
+		return weight;
+	}
+
+	/**
+	 * Returns the vertex reached by following an edge from one of its extremities.
+	 */
+	@SuppressWarnings ("unchecked")
+	private V follow(final E edge, final V from) {
+		final V to = (V) graph.getEdgeTarget(edge);
+		return !graph.isDirected() && to.equals(from) ? (V) graph.getEdgeSource(edge) : to;
+	}
+
+	/**
+	 * Returns the shortest path between two vertices, if it is known.
+	 *
+	 * @param source
+	 *            the source
+	 * @param target
+	 *            the target
+	 * @return the edges of the path, or null if it is not known
+	 */
+	@SuppressWarnings ("unchecked")
+	public List<E> get(final V source, final V target) {
+		final Tree<V, E> found = (Tree<V, E>) cache.getIfPresent(new Key(null, target));
+		if (found != null) {
+			final Map<V, E> tree = found.firsts();
+			final List<E> path = new ArrayList<>();
+			V v = source;
+			// The number of steps is bounded in case the paths stored contain cycles (e.g. of edges weighing 0)
+			while (!v.equals(target) && path.size() < tree.size()) {
+				final E edge = tree.get(v);
+				if (edge == null) { break; }
+				path.add(edge);
+				v = follow(edge, v);
+			}
+			if (v.equals(target)) {
+				hits.increment();
+				return path;
+			}
+		}
+		misses.increment();
+		return null;
+	}
+
+	/**
+	 * Stores a shortest path, and with it all its suffixes. The vertices of the path from which another path to the
+	 * target was known now follow this one: as its suffixes are stored too, the paths rebuilt from the other vertices of
+	 * the tree remain consistent.
+	 *
+	 * @param edges
+	 *            the edges of the path
+	 * @param source
+	 *            the source
+	 * @param target
+	 *            the target
+	 */
+	@SuppressWarnings ("unchecked")
+	public void put(final List<E> edges, final V source, final V target) {
+		if (edges == null || edges.isEmpty()) return;
+		cache.asMap().compute(new Key(null, target), (key, previous) -> {
+			final Map<V, E> tree = previous == null ? new ConcurrentHashMap<>() : ((Tree<V, E>) previous).firsts();
+			V v = source;
+			for (final E edge : edges) {
+				tree.put(v, edge);
+				v = follow(edge, v);
+			}
+			return new Tree<>(tree);
+		});
+	}
+
+	/**
+	 * Returns the k shortest paths computed between two vertices, if they are known.
+	 *
+	 * @param source
+	 *            the source
+	 * @param target
+	 *            the target
+	 * @return the paths, or null if they are not known
+	 */
+	@SuppressWarnings ("unchecked")
+	public List<List<E>> getAll(final V source, final V target) {
+		final List<List<E>> paths = (List<List<E>>) cache.getIfPresent(new Key(source, target));
+		if (paths == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return paths;
+	}
+
+	/**
+	 * Stores the k shortest paths computed between two vertices. The first one is also stored as the shortest path.
+	 *
+	 * @param paths
+	 *            the paths
+	 * @param source
+	 *            the source
+	 * @param target
+	 *            the target
+	 */
+	public void putAll(final List<? extends List<E>> paths, final V source, final V target) {
+		if (paths.isEmpty()) return;
+		cache.put(new Key(source, target), paths);
+		put(paths.get(0), source, target);
+	}
+
+	/**
+	 * Empties the cache.
+	 */
+	public void clear() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * The number of paths found in the cache.
+	 *
+	 * @return the number of hits
+	 */
+	public long getHitCount() { return hits.sum(); }
+
+	/**
+	 * The number of paths not found in the cache.
+	 *
+	 * @return the number of misses
+	 */
+	public long getMissCount() { return misses.sum(); }
+
+	/**
+	 * The number of trees and lists of paths evicted from the cache because of its bound.
+	 *
+	 * @return the number of evictions
+	 */
+	public long getEvictionCount() { return cache.stats().evictionCount(); }
+
+	/**
+	 * The number of entries and edges contained in the cache.
+	 *
+	 * @return the size of the cache
+	 */
+	public long getSize() {
+		long size = 0;
+		for (final Map.Entry<Key, Object> entry : cache.asMap().entrySet()) {
+			size += weigh(entry.getKey(), entry.getValue());
+		}
+		return size;
+	}
+
+}
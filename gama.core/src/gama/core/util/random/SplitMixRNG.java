@@ -0,0 +1,185 @@
+/*******************************************************************************************************
+ *
+ * SplitMixRNG.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform
+ * .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.core.util.random;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import gama.core.common.util.RandomUtils;
+
+/**
+ * A counter-based random number generator, in the style of SplitMix64: each number is a hash of the key of a stream and
+ * of the number of values already drawn from it, so that streams do not share any state. Each time an agent is stepped
+ * (or asked to execute a statement), it draws from its own stream, whose key is derived from the seed, the cycle, the
+ * identity of the agent and the number of times it has already been entered in this cycle (or, when it is asked by
+ * another agent, from the stream of the latter). The values drawn by
+ * an agent therefore do not depend on the order in which the agents are executed, nor on the threads that execute
+ * them, and a simulation gives the same results whatever the number of threads used to run its agents in parallel
+ * (provided that agents do not otherwise depend on each other in the same step). The values drawn outside of the
+ * agents (e.g. by the scheduler) come from a main stream.
+ *
+ * See Steele, Lea and Flood, "Fast splittable pseudorandom number generators" (OOPSLA 2014).
+ */
+public class SplitMixRNG implements IGamaRNG {
+
+	/** The increment of the counters (the golden ratio). */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	/**
+	 * The stream of an agent.
+	 */
+	private static final class Stream {
+
+		/** The key. */
+		final long key;
+
+		/** The number of values drawn. */
+		long counter;
+
+		/** The stream of the agent that was executed before this one in the same thread. */
+		final Stream outer;
+
+		/**
+		 * Instantiates a new stream.
+		 */
+		Stream(final long key, final Stream outer) {
+			this.key = key;
+			this.outer = outer;
+		}
+	}
+
+	/** The seed. */
+	private final long seed;
+
+	/** The number of values drawn from the main stream. */
+	private final AtomicLong usage = new AtomicLong();
+
+	/** The stream of the agent executed by each thread. */
+	private final ThreadLocal<Stream> current = new ThreadLocal<>();
+
+	/** The view of this generator as a {@link Random}. */
+	private final Random random = new Random() {
+
+		/** The Constant serialVersionUID. */
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected int next(final int bits) {
+			return (int) (nextLong() >>> 64 - bits);
+		}
+
+		@Override
+		public double nextGaussian() {
+			return SplitMixRNG.this.nextGaussian();
+		}
+	};
+
+	/**
+	 * Instantiates a new generator.
+	 *
+	 * @param seedGenerator
+	 *            the seed generator
+	 */
+	public SplitMixRNG(final RandomUtils seedGenerator) {
+		long value = 0;
+		for (final byte b : seedGenerator.generateSeed(8)) { value = value << 8 | b & 0xff; }
+		seed = mix(value);
+	}
+
+	/**
+	 * The finalizer of SplitMix64 (variant 13 of the MurmurHash3 mixer).
+	 *
+	 * @param z
+	 *            the value
+	 * @return the mixed value
+	 */
+	private static long mix(long z) {
+		z = (z ^ z >>> 30) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ z >>> 27) * 0x94d049bb133111ebL;
+		return z ^ z >>> 31;
+	}
+
+	/**
+	 * Enters the stream of an agent in the current thread: the values drawn until {@link #exit()} is called come from
+	 * this stream. If the thread is already in the stream of another agent (which asks this one), the new stream is
+	 * derived from it; otherwise it is derived from the seed, the cycle and the number of times the agent has already
+	 * been entered in this cycle, so that its step and the statements it is asked to execute do not draw the same
+	 * values. This number is kept by the agent itself (see
+	 * {@link gama.core.metamodel.agent.IAgent#nextStreamEntry(long)}): like the rest of its state, it only depends on
+	 * the order in which the agent is entered if two threads enter it at the same time.
+	 *
+	 * @param agentKey
+	 *            the identity of the agent
+	 * @param cycle
+	 *            the current cycle
+	 * @param entry
+	 *            the number of times the agent has already been entered in this cycle from outside of any stream
+	 */
+	public void enter(final long agentKey, final long cycle, final int entry) {
+		final Stream outer = current.get();
+		final long key;
+		if (outer == null) {
+			key = mix(mix(mix(seed + cycle * GOLDEN_GAMMA) ^ agentKey) + entry * GOLDEN_GAMMA);
+		} else {
+			key = mix(mix(outer.key + ++outer.counter * GOLDEN_GAMMA) ^ agentKey);
+		}
+		current.set(new Stream(key, outer));
+	}
+
+	/**
+	 * Leaves the stream of the agent entered last in the current thread.
+	 */
+	public void exit() {
+		final Stream s = current.get();
+		if (s != null) { current.set(s.outer); }
+	}
+
+	/**
+	 * Draws the next 64 bits of the current stream.
+	 *
+	 * @return the long
+	 */
+	public long nextLong() {
+		final Stream s = current.get();
+		if (s == null) return mix(seed + usage.incrementAndGet() * GOLDEN_GAMMA);
+		return mix(s.key + ++s.counter * GOLDEN_GAMMA);
+	}
+
+	@Override
+	public int getUsage() { return (int) usage.get(); }
+
+	@Override
+	public void setUsage(final int usage) {
+		this.usage.set(usage);
+	}
+
+	@Override
+	public int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	@Override
+	public double nextGaussian() {
+		// Box-Muller transform, without caching the second value (which would depend on the order of the draws)
+		final double u = 1d - nextDouble();
+		final double v = nextDouble();
+		return Math.sqrt(-2d * Math.log(u)) * Math.cos(2d * Math.PI * v);
+	}
+
+	@Override
+	public Random getRandomGenerator() { return random; }
+
+}
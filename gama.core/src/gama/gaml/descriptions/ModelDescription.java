@@ -90,6 +90,9 @@ public class ModelDescription extends SpeciesDescription {
 	/** The imported model names. */
 	private Collection<String> importedModelNames;
 
+	/** Whether the model asks for the compilation of its expressions (with the '@jit' pragma). */
+	private boolean compileExpressions;
+
 	/**
 	 * Gets the alternate paths.
 	 *
@@ -111,6 +114,23 @@ public class ModelDescription extends SpeciesDescription {
 		return microModels.get(name);
 	}
 
+	/**
+	 * Sets whether the expressions of the model can be compiled, whatever the preferences.
+	 *
+	 * @param compile
+	 *            true to compile them
+	 */
+	public void setCompileExpressions(final boolean compile) { compileExpressions = compile; }
+
+	/**
+	 * Whether the expressions of the model can be compiled, whatever the preferences.
+	 *
+	 * @return true, if they can be compiled
+	 */
+	public boolean compilesExpressions() {
+		return compileExpressions;
+	}
+
 	/**
 	 * Sets the alias.
 	 *
@@ -12,10 +12,13 @@ package gama.gaml.descriptions;
 
 import static com.google.common.collect.Iterables.transform;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.emf.ecore.EObject;
@@ -25,6 +28,7 @@ import com.google.common.collect.Iterables;
 import gama.annotations.precompiler.GamlProperties;
 import gama.annotations.precompiler.ITypeProvider;
 import gama.core.common.interfaces.ISkill;
+import gama.core.metamodel.agent.AttributeLayout;
 import gama.core.metamodel.agent.GamlAgent;
 import gama.core.metamodel.agent.IAgent;
 import gama.core.metamodel.agent.IMacroAgent;
@@ -87,6 +91,12 @@ public class SpeciesDescription extends TypeDescription {
 	/** The java base. */
 	protected Class javaBase;
 
+	/** The layout of the attributes of the agents. Computed once and kept after dispose, as agents use it */
+	private AttributeLayout attributeLayout;
+
+	/** The footprint of the behaviors of the species. Computed once */
+	private SpeciesFootprint footprint;
+
 	/**
 	 * Instantiates a new species description.
 	 *
@@ -191,6 +201,65 @@ public class SpeciesDescription extends TypeDescription {
 
 	}
 
+	/**
+	 * Gets the layout of the attributes stored by the agents of this species: all its attributes except the ones
+	 * defined as functions, which are never stored. Begins with the layout of the parent species. If the species is
+	 * columnar, the int, float and bool attributes it declares are stored in the columns of its populations.
+	 *
+	 * @return the attribute layout
+	 */
+	public synchronized AttributeLayout getAttributeLayout() {
+		if (attributeLayout == null) {
+			final AttributeLayout parentLayout =
+					parent instanceof SpeciesDescription sd && parent != this ? sd.getAttributeLayout() : null;
+			final List<String> names = new ArrayList<>();
+			final Map<String, Integer> columns = new LinkedHashMap<>();
+			final boolean columnar = isColumnar();
+			for (final String name : getAttributeNames()) {
+				final VariableDescription var = getAttribute(name);
+				if (var == null || var.isFunction()) { continue; }
+				names.add(name);
+				if (columnar && isColumn(var)) { columns.put(name, var.getGamlType().id()); }
+			}
+			attributeLayout = new AttributeLayout(parentLayout, names, columns);
+		}
+		return attributeLayout;
+	}
+
+	/**
+	 * Gets what the behaviors of this species may read or modify outside of its own agents (see
+	 * {@link SpeciesFootprint}).
+	 *
+	 * @return the footprint
+	 */
+	public synchronized SpeciesFootprint getFootprint() {
+		if (footprint == null) { footprint = new SpeciesFootprint(this); }
+		return footprint;
+	}
+
+	/**
+	 * Whether the species has been declared as columnar (only the regular species can be).
+	 *
+	 * @return true, if is columnar
+	 */
+	public boolean isColumnar() {
+		return SPECIES.equals(getKeyword()) && TRUE.equals(getLitteral(COLUMNAR));
+	}
+
+	/**
+	 * Whether the values of the attribute can be stored in a column: it must be declared in the model (not by a
+	 * skill), have no getter nor setter, and be an int, a float or a bool.
+	 *
+	 * @param var
+	 *            the attribute
+	 * @return true, if it can be stored in a column
+	 */
+	public static boolean isColumn(final VariableDescription var) {
+		if (var.isBuiltIn() || var.getGetter() != null || var.getSetter() != null) return false;
+		final int id = var.getGamlType().id();
+		return id == IType.INT || id == IType.FLOAT || id == IType.BOOL;
+	}
+
 	/**
 	 * Sets the skills.
 	 *
@@ -0,0 +1,185 @@
+/*******************************************************************************************************
+ *
+ * SpeciesFootprint.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform
+ * .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.gaml.descriptions;
+
+import static gama.core.common.interfaces.IKeyword.ADD;
+import static gama.core.common.interfaces.IKeyword.CAPTURE;
+import static gama.core.common.interfaces.IKeyword.FROM;
+import static gama.core.common.interfaces.IKeyword.IN;
+import static gama.core.common.interfaces.IKeyword.MIGRATE;
+import static gama.core.common.interfaces.IKeyword.NAME;
+import static gama.core.common.interfaces.IKeyword.PUT;
+import static gama.core.common.interfaces.IKeyword.RELEASE;
+import static gama.core.common.interfaces.IKeyword.REMOVE;
+import static gama.core.common.interfaces.IKeyword.SET;
+import static gama.core.common.interfaces.IKeyword.TO;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import gama.gaml.expressions.IExpression;
+import gama.gaml.expressions.variables.GlobalVariableExpression;
+import gama.gaml.types.IType;
+
+/**
+ * What the behaviors of a species (its reflexes, actions, aspects, the facets of its attributes and the ones of its
+ * micro-species) may read or modify outside of its own agents: the other species whose agents or populations they refer
+ * to, and the global attributes they read or write. The analysis is conservative: referring to agents whose species is
+ * not known (e.g. of type 'agent') or to the world makes the species depend on everything. Two species whose footprints
+ * do not conflict can be stepped concurrently, provided that the services they share (the random generator, the
+ * spatial index) are safe to use concurrently. Their results can still differ from the ones of a sequential step: the
+ * analysis does not cover the order in which the agents draw random numbers or are inserted in the spatial index, nor
+ * what the agents read through untyped containers or the topology.
+ */
+public final class SpeciesFootprint {
+
+	/** The species. */
+	private final SpeciesDescription species;
+
+	/** The other species referred to. */
+	private final Set<SpeciesDescription> others = new LinkedHashSet<>();
+
+	/** The global attributes read. */
+	private final Set<String> reads = new LinkedHashSet<>();
+
+	/** The global attributes written. */
+	private final Set<String> writes = new LinkedHashSet<>();
+
+	/** Whether the species may access any agent (or the world). */
+	private boolean global;
+
+	/**
+	 * Computes the footprint of a species.
+	 *
+	 * @param desc
+	 *            the species
+	 */
+	SpeciesFootprint(final SpeciesDescription desc) {
+		this.species = desc;
+		TypeDescription d = desc;
+		// The behaviors inherited are described in the parents
+		while (d instanceof SpeciesDescription sd && !sd.isBuiltIn()) {
+			collect(sd);
+			sd.visitOwnChildrenRecursively(child -> {
+				collect(child);
+				return true;
+			});
+			final TypeDescription parent = sd.getParent();
+			d = parent == sd ? null : parent;
+		}
+	}
+
+	/**
+	 * Collects the elements referred to by the facets of a description.
+	 */
+	private void collect(final IDescription desc) {
+		final String keyword = desc.getKeyword();
+		if (keyword == null) return;
+		if (CAPTURE.equals(keyword) || RELEASE.equals(keyword) || MIGRATE.equals(keyword)) { global = true; }
+		final String target = switch (keyword) {
+			case SET -> NAME;
+			case ADD -> TO;
+			case PUT -> IN;
+			case REMOVE -> FROM;
+			default -> null;
+		};
+		desc.visitFacets((name, exp) -> {
+			final IExpression expression = exp == null ? null : exp.getExpression();
+			if (expression == null) return true;
+			final boolean written = name.equals(target);
+			expression.findAny(e -> {
+				collect(e, written);
+				return false;
+			});
+			return true;
+		});
+	}
+
+	/**
+	 * Collects the elements referred to by an expression.
+	 */
+	private void collect(final IExpression e, final boolean written) {
+		if (e instanceof GlobalVariableExpression) {
+			reads.add(e.getName());
+			if (written) { writes.add(e.getName()); }
+		}
+		final IType<?> type = e.getGamlType();
+		collect(type);
+		if (type.isContainer()) {
+			collect(type.getContentType());
+			collect(type.getKeyType());
+		}
+	}
+
+	/**
+	 * Collects the species of a type.
+	 */
+	private void collect(final IType<?> type) {
+		if (type == null || !type.isAgentType()) return;
+		final SpeciesDescription sd = type.getSpecies();
+		if (sd == null || sd instanceof ModelDescription || sd instanceof ExperimentDescription || sd.isBuiltIn()) {
+			global = true;
+		} else if (!related(sd, species)) { others.add(sd); }
+	}
+
+	/**
+	 * Whether two species are the same or one inherits from the other.
+	 */
+	private static boolean related(final SpeciesDescription s1, final SpeciesDescription s2) {
+		return s1 == s2 || s1.hasParent(s2) || s2.hasParent(s1);
+	}
+
+	/**
+	 * Whether the species may access any agent, or the world.
+	 *
+	 * @return true, if global
+	 */
+	public boolean isGlobal() { return global; }
+
+	/**
+	 * The global attributes written by the species.
+	 *
+	 * @return the names of the attributes
+	 */
+	public Set<String> getWrites() { return Collections.unmodifiableSet(writes); }
+
+	/**
+	 * Whether the two species may interfere if they are stepped concurrently: one of them may access any agent, one
+	 * refers to the other (or to one of its parents or children), or one writes a global attribute that the other reads
+	 * or writes.
+	 *
+	 * @param other
+	 *            the footprint of the other species
+	 * @return true if they must be stepped one after the other
+	 */
+	public boolean conflictsWith(final SpeciesFootprint other) {
+		if (global || other.global || related(species, other.species)) return true;
+		for (final SpeciesDescription sd : others) { if (related(sd, other.species)) return true; }
+		for (final SpeciesDescription sd : other.others) { if (related(sd, species)) return true; }
+		for (final String w : writes) { if (other.reads.contains(w)) return true; }
+		for (final String w : other.writes) { if (reads.contains(w)) return true; }
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder(species.getName());
+		if (global) return sb.append(" (any agent)").toString();
+		if (!others.isEmpty()) {
+			sb.append(" refers to");
+			others.forEach(s -> sb.append(' ').append(s.getName()));
+		}
+		if (!writes.isEmpty()) { sb.append(" writes ").append(writes); }
+		return sb.toString();
+	}
+
+}
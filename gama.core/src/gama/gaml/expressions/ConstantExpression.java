@@ -12,6 +12,7 @@ package gama.gaml.expressions;
 
 import gama.core.common.util.StringUtils;
 import gama.core.runtime.IScope;
+import gama.gaml.operators.Cast;
 import gama.gaml.types.GamaType;
 import gama.gaml.types.IType;
 
@@ -69,6 +70,18 @@ public class ConstantExpression extends AbstractExpression {
 		return value;
 	}
 
+	@Override
+	public double valueAsDouble(final IScope scope) {
+		final Object v = _value(scope);
+		return v instanceof Double d ? d : Cast.asFloat(scope, v);
+	}
+
+	@Override
+	public int valueAsInt(final IScope scope) {
+		final Object v = _value(scope);
+		return v instanceof Integer i ? i : Cast.asInt(scope, v);
+	}
+
 	@Override
 	public boolean isConst() { return true; }
 
@@ -20,6 +20,7 @@ import gama.gaml.descriptions.IExpressionDescription;
 import gama.gaml.descriptions.IVarDescriptionUser;
 import gama.gaml.expressions.types.TypeExpression;
 import gama.gaml.interfaces.IGamlDescription;
+import gama.gaml.operators.Cast;
 import gama.gaml.types.IType;
 
 /**
@@ -60,6 +61,34 @@ public interface IExpression extends IGamlDescription, ITyped, IDisposable, IVar
 	 */
 	Object value(final IScope scope) throws GamaRuntimeException;
 
+	/**
+	 * Returns the result of the evaluation of the expression as a float, like {@link Cast#asFloat(IScope, Object)}
+	 * would. Expressions that can compute it without boxing it (constants, variables, compiled arithmetic) redefine it,
+	 * so that the statements that consume numbers avoid the allocation of a Double.
+	 *
+	 * @param scope
+	 *            the current GAMA scope
+	 * @return the value as a double
+	 * @throws GamaRuntimeException
+	 *             if an error occurs
+	 */
+	default double valueAsDouble(final IScope scope) throws GamaRuntimeException {
+		return Cast.asFloat(scope, value(scope));
+	}
+
+	/**
+	 * Returns the result of the evaluation of the expression as an int, like {@link Cast#asInt(IScope, Object)} would.
+	 *
+	 * @param scope
+	 *            the current GAMA scope
+	 * @return the value as an int
+	 * @throws GamaRuntimeException
+	 *             if an error occurs
+	 */
+	default int valueAsInt(final IScope scope) throws GamaRuntimeException {
+		return Cast.asInt(scope, value(scope));
+	}
+
 	/**
 	 * Whether the expression is considered as 'constant', meaning it does not need a scope to be evaluated and return a
 	 * value
@@ -26,6 +26,7 @@ import gama.gaml.expressions.IVarExpression;
 import gama.gaml.expressions.types.TypeExpression;
 import gama.gaml.expressions.variables.VariableExpression;
 import gama.gaml.operators.Cast;
+import gama.gaml.operators.Maths;
 import gama.gaml.types.IType;
 
 /**
@@ -33,6 +34,22 @@ import gama.gaml.types.IType;
  */
 public class BinaryOperator extends AbstractNAryOperator {
 
+	/**
+	 * The compiled version of this expression (see CompiledExpression): null until its first evaluation decides whether
+	 * it is compiled, then {@link CompiledExpression#PENDING} until it has been evaluated often enough, and finally the
+	 * compiled code or {@link CompiledExpression#NONE}.
+	 */
+	private volatile CompiledExpression compiled;
+
+	/** The number of evaluations left before the compilation. Not synchronized: a lost update only delays it. */
+	private int countdown;
+
+	/** The arithmetic operator of Maths applied to two numbers (see CompiledExpression#arithmetic), or 0. */
+	private final char arithmetic;
+
+	/** Whether both operands are ints. */
+	private final boolean intOperands;
+
 	/**
 	 * Creates the.
 	 *
@@ -110,6 +127,9 @@ public class BinaryOperator extends AbstractNAryOperator {
 	public BinaryOperator(final OperatorProto proto, final IDescription context, final IExpression... args) {
 		super(proto, args);
 		prototype.verifyExpectedTypes(context, exprs[1].getGamlType());
+		arithmetic = CompiledExpression.arithmetic(prototype, exprs);
+		intOperands = arithmetic != 0 && exprs[0].getGamlType().id() == IType.INT
+				&& exprs[1].getGamlType().id() == IType.INT;
 	}
 
 	@Override
@@ -143,6 +163,123 @@ public class BinaryOperator extends AbstractNAryOperator {
 
 	@Override
 	public Object _value(final IScope scope) throws GamaRuntimeException {
+		final CompiledExpression c = compiled(scope);
+		if (c.isCompiled()) {
+			final Object result = c.value(scope);
+			if (!CompiledExpression.failed(result)) return result;
+			if (c.isAbandoned()) { compiled = CompiledExpression.NONE; }
+		}
+		return interpret(scope);
+	}
+
+	@Override
+	public double valueAsDouble(final IScope scope) throws GamaRuntimeException {
+		final CompiledExpression c = compiled;
+		if (c != null && c.isNumeric()) {
+			try {
+				return c.doubleValue(scope);
+			} catch (final CompiledExpression.Bailout b) {
+				if (c.isAbandoned()) { compiled = CompiledExpression.NONE; }
+				return Cast.asFloat(scope, interpret(scope));
+			}
+		}
+		if (arithmetic != 0) return arithmeticAsDouble(scope);
+		return super.valueAsDouble(scope);
+	}
+
+	@Override
+	public int valueAsInt(final IScope scope) throws GamaRuntimeException {
+		final CompiledExpression c = compiled;
+		if (c != null && c.isInt()) {
+			try {
+				return c.intValue(scope);
+			} catch (final CompiledExpression.Bailout b) {
+				if (c.isAbandoned()) { compiled = CompiledExpression.NONE; }
+				return Cast.asInt(scope, interpret(scope));
+			}
+		}
+		if (intOperands && arithmetic != '/') return arithmeticAsInt(scope);
+		return super.valueAsInt(scope);
+	}
+
+	/**
+	 * Applies the arithmetic operator to the primitive values of the operands, like its helper would do on their boxed
+	 * values.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @return the value
+	 * @throws GamaRuntimeException
+	 *             if the operator fails
+	 */
+	private double arithmeticAsDouble(final IScope scope) throws GamaRuntimeException {
+		if (intOperands) {
+			if (arithmetic != '/') return arithmeticAsInt(scope);
+			final int a = exprs[0].valueAsInt(scope);
+			return Maths.divide(scope, a, exprs[1].valueAsInt(scope));
+		}
+		final double a = exprs[0].valueAsDouble(scope);
+		final IExpression r = exprs[1];
+		return switch (arithmetic) {
+			case '+' -> Maths.add(a, r.valueAsDouble(scope));
+			case '-' -> Maths.subtract(a, r.valueAsDouble(scope));
+			case '*' -> Maths.multiply(a, r.valueAsDouble(scope));
+			default -> r.getGamlType().id() == IType.INT ? Maths.divide(scope, a, r.valueAsInt(scope))
+					: Maths.divide(scope, a, r.valueAsDouble(scope));
+		};
+	}
+
+	/**
+	 * Applies the arithmetic operator (except the division) to the primitive values of two int operands.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @return the value
+	 * @throws GamaRuntimeException
+	 *             if the evaluation of an operand fails
+	 */
+	private int arithmeticAsInt(final IScope scope) throws GamaRuntimeException {
+		final int a = exprs[0].valueAsInt(scope), b = exprs[1].valueAsInt(scope);
+		return switch (arithmetic) {
+			case '+' -> Maths.add(a, b);
+			case '-' -> Maths.subtract(a, b);
+			default -> Maths.multiply(a, b);
+		};
+	}
+
+	/**
+	 * Returns the compiled version of this expression, compiling it once it has been evaluated often enough. Whether
+	 * the compilation is enabled is only decided at the first evaluation, so that the expressions of the models that do
+	 * not use it neither count their evaluations nor read the preferences.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @return the compiled expression, {@link CompiledExpression#PENDING} or {@link CompiledExpression#NONE}
+	 */
+	private CompiledExpression compiled(final IScope scope) {
+		CompiledExpression c = compiled;
+		if (c == null) {
+			c = CompiledExpression.isEnabled(scope) ? CompiledExpression.PENDING : CompiledExpression.NONE;
+			countdown = CompiledExpression.threshold();
+			compiled = c;
+		}
+		if (c == CompiledExpression.PENDING && --countdown <= 0) {
+			c = CompiledExpression.compile(scope, this);
+			compiled = c;
+		}
+		return c;
+	}
+
+	/**
+	 * Evaluates the operator by applying its prototype to the values of its arguments.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @return the value
+	 * @throws GamaRuntimeException
+	 *             if the operator fails
+	 */
+	private Object interpret(final IScope scope) throws GamaRuntimeException {
 		Object leftVal = null, rightVal = null;
 		try {
 			leftVal = prototype.getLazyness()[0] ? exprs[0] : exprs[0].value(scope);
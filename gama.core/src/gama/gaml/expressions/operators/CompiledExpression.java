@@ -0,0 +1,515 @@
+/*******************************************************************************************************
+ *
+ * CompiledExpression.java, in gama.core, is part of the source code of the GAMA modeling and simulation platform
+ * .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gama.gaml.expressions.operators;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import gama.core.common.preferences.GamaPreferences;
+import gama.core.kernel.model.IModel;
+import gama.core.runtime.IScope;
+import gama.gaml.descriptions.IDescription;
+import gama.gaml.descriptions.OperatorProto;
+import gama.gaml.descriptions.SpeciesDescription;
+import gama.gaml.descriptions.VariableDescription;
+import gama.gaml.expressions.ConstantExpression;
+import gama.gaml.expressions.IExpression;
+import gama.gaml.expressions.variables.AgentVariableExpression;
+import gama.gaml.expressions.variables.GlobalVariableExpression;
+import gama.gaml.expressions.variables.TempVariableExpression;
+import gama.gaml.expressions.variables.VariableExpression;
+import gama.gaml.operators.Comparison;
+import gama.gaml.operators.Logic;
+import gama.gaml.operators.Maths;
+import gama.gaml.types.IType;
+
+/**
+ * The compiled version of an arithmetic or logical expression tree, built once the expression has been evaluated often
+ * enough (see {@link GamaPreferences.Experimental#COMPILE_EXPRESSIONS}). The tree is turned into a tree of closures
+ * specialized on the types known at compile time, which compute with primitive int, double and boolean values: the
+ * intermediate results are not boxed, the helpers of the operators are not called through their generic interface and
+ * the nodes are not wrapped in the try/catch of the interpreter. Only the root boxes its result.
+ *
+ * The operators supported are the arithmetic (+, -, *, /, unary -, abs, sqrt, cos, sin, exp), comparison (<, >, <=, >=)
+ * and logical (and, or, not) operators on int, float and bool values defined in {@link Maths}, {@link Comparison} and
+ * {@link Logic}; the leaves are the constants and the variables (except the ones defined as functions). Anything else
+ * prevents the compilation and the expression remains interpreted.
+ *
+ * The compiled code never raises errors: when a leaf does not have the expected value (e.g. nil) or an operator would
+ * fail (e.g. division by zero), it gives up and the expression is evaluated again by the interpreter, which produces
+ * the same result and the same errors as if it had never been compiled. After too many failures, the compiled code is
+ * abandoned.
+ */
+final class CompiledExpression {
+
+	/** The number of failures after which the compiled code is abandoned. */
+	private static final int MAX_FAILURES = 16;
+
+	/**
+	 * Thrown by the compiled code when it cannot compute the value like the interpreter would.
+	 */
+	@SuppressWarnings ("serial")
+	static final class Bailout extends RuntimeException {
+
+		/**
+		 * Instantiates a new bailout.
+		 */
+		Bailout() {
+			super(null, null, false, false);
+		}
+	}
+
+	/** The unique instance. */
+	private static final Bailout BAILOUT = new Bailout();
+
+	/**
+	 * Marks the expressions that are not compiled: the compilation is disabled, they cannot be compiled or their
+	 * compiled code has been abandoned.
+	 */
+	static final CompiledExpression NONE = new CompiledExpression(null, null, null);
+
+	/** Marks the expressions that will be compiled once they have been evaluated often enough. */
+	static final CompiledExpression PENDING = new CompiledExpression(null, null, null);
+
+	/**
+	 * Compiled code producing a double.
+	 */
+	@FunctionalInterface
+	private interface DoubleCode {
+
+		/**
+		 * Computes the value.
+		 */
+		double eval(IScope scope);
+	}
+
+	/**
+	 * Compiled code producing an int.
+	 */
+	@FunctionalInterface
+	private interface IntCode {
+
+		/**
+		 * Computes the value.
+		 */
+		int eval(IScope scope);
+	}
+
+	/**
+	 * Compiled code producing a boolean.
+	 */
+	@FunctionalInterface
+	private interface BoolCode {
+
+		/**
+		 * Computes the value.
+		 */
+		boolean eval(IScope scope);
+	}
+
+	/** The code of the root, according to its type (only one is not null). */
+	private final DoubleCode doubleCode;
+
+	/** The int code. */
+	private final IntCode intCode;
+
+	/** The bool code. */
+	private final BoolCode boolCode;
+
+	/** The number of failures (the compiled code can be shared by the simulations run in parallel). */
+	private final AtomicInteger failures = new AtomicInteger();
+
+	/**
+	 * Instantiates a new compiled expression.
+	 */
+	private CompiledExpression(final DoubleCode d, final IntCode i, final BoolCode b) {
+		doubleCode = d;
+		intCode = i;
+		boolCode = b;
+	}
+
+	/**
+	 * Whether the compilation of expressions is enabled, by the preferences or by the model.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @return true, if enabled
+	 */
+	static boolean isEnabled(final IScope scope) {
+		if (GamaPreferences.Experimental.COMPILE_EXPRESSIONS.getValue()) return true;
+		final IModel model = scope == null ? null : scope.getModel();
+		return model != null && model.getDescription().compilesExpressions();
+	}
+
+	/**
+	 * The number of evaluations after which an expression is compiled.
+	 *
+	 * @return the threshold
+	 */
+	static int threshold() {
+		return GamaPreferences.Experimental.COMPILE_EXPRESSIONS_THRESHOLD.getValue();
+	}
+
+	/**
+	 * Compiles the expression.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @param expression
+	 *            the expression
+	 * @return the compiled expression, or {@link #NONE} if it cannot be compiled
+	 */
+	static CompiledExpression compile(final IScope scope, final IExpression expression) {
+		return switch (expression.getGamlType().id()) {
+			case IType.FLOAT -> {
+				final DoubleCode c = doubles(scope, expression);
+				yield c == null ? NONE : new CompiledExpression(c, null, null);
+			}
+			case IType.INT -> {
+				final IntCode c = ints(scope, expression);
+				yield c == null ? NONE : new CompiledExpression(null, c, null);
+			}
+			case IType.BOOL -> {
+				final BoolCode c = bools(scope, expression);
+				yield c == null ? NONE : new CompiledExpression(null, null, c);
+			}
+			default -> NONE;
+		};
+	}
+
+	/**
+	 * Whether this is compiled code, i.e. neither {@link #NONE} nor {@link #PENDING}.
+	 *
+	 * @return true, if compiled
+	 */
+	boolean isCompiled() { return doubleCode != null || intCode != null || boolCode != null; }
+
+	/**
+	 * Computes the value of the expression.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @return the value, or {@link #BAILOUT} if the expression must be evaluated by the interpreter
+	 */
+	Object value(final IScope scope) {
+		try {
+			if (doubleCode != null) return doubleCode.eval(scope);
+			if (intCode != null) return intCode.eval(scope);
+			return boolCode.eval(scope);
+		} catch (final Bailout b) {
+			failures.incrementAndGet();
+			return BAILOUT;
+		}
+	}
+
+	/**
+	 * Whether the compiled code computes a number (int or float), which {@link #doubleValue(IScope)} can return
+	 * without boxing it.
+	 *
+	 * @return true, if numeric
+	 */
+	boolean isNumeric() { return doubleCode != null || intCode != null; }
+
+	/**
+	 * Whether the compiled code computes an int, which {@link #intValue(IScope)} can return without boxing it.
+	 *
+	 * @return true, if int
+	 */
+	boolean isInt() { return intCode != null; }
+
+	/**
+	 * Computes the value of a numeric expression as a double.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @return the value
+	 * @throws Bailout
+	 *             if the expression must be evaluated by the interpreter
+	 */
+	double doubleValue(final IScope scope) throws Bailout {
+		try {
+			return doubleCode != null ? doubleCode.eval(scope) : intCode.eval(scope);
+		} catch (final Bailout b) {
+			failures.incrementAndGet();
+			throw b;
+		}
+	}
+
+	/**
+	 * Computes the value of an int expression.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @return the value
+	 * @throws Bailout
+	 *             if the expression must be evaluated by the interpreter
+	 */
+	int intValue(final IScope scope) throws Bailout {
+		try {
+			return intCode.eval(scope);
+		} catch (final Bailout b) {
+			failures.incrementAndGet();
+			throw b;
+		}
+	}
+
+	/**
+	 * Whether the result of {@link #value(IScope)} means that the expression must be evaluated by the interpreter.
+	 *
+	 * @param result
+	 *            the result
+	 * @return true, if the interpreter must be used
+	 */
+	static boolean failed(final Object result) {
+		return result == BAILOUT;
+	}
+
+	/**
+	 * Whether the compiled code has failed too often and should be abandoned.
+	 *
+	 * @return true, if abandoned
+	 */
+	boolean isAbandoned() { return failures.get() > MAX_FAILURES; }
+
+	/**
+	 * The type id of an expression.
+	 */
+	private static int type(final IExpression e) {
+		return e.getGamlType().id();
+	}
+
+	/**
+	 * Whether the expression is a numeric one.
+	 */
+	private static boolean isNumber(final IExpression e) {
+		final int t = type(e);
+		return t == IType.INT || t == IType.FLOAT;
+	}
+
+	/**
+	 * Returns the arithmetic operator of {@link Maths} applied by the prototype to the arguments, if they are numbers:
+	 * '+', '-', '*' or '/' for two arguments, '-' or 'a' (abs) for one. Such operators can be evaluated as an int or a
+	 * double by calling the primitive entry points of Maths (e.g. {@link Maths#add(double, double)}), without boxing,
+	 * even when they are not compiled. Returns 0 otherwise.
+	 *
+	 * @param proto
+	 *            the prototype of the operator
+	 * @param args
+	 *            the arguments
+	 * @return the operator or 0
+	 */
+	static char arithmetic(final OperatorProto proto, final IExpression... args) {
+		if (proto == null || args == null || !(proto.getJavaBase() instanceof Method m)
+				|| m.getDeclaringClass() != Maths.class)
+			return 0;
+		for (final IExpression arg : args) { if (arg == null || !isNumber(arg)) return 0; }
+		final String name = proto.getName();
+		if (args.length == 2) return switch (name) {
+			case "+", "-", "*", "/" -> name.charAt(0);
+			default -> 0;
+		};
+		if (args.length == 1) return switch (name) {
+			case "-" -> '-';
+			case "abs" -> 'a';
+			default -> 0;
+		};
+		return 0;
+	}
+
+	/**
+	 * Returns the operator implemented by a method of the classes of operators supported, with the arity, or null.
+	 */
+	private static IOperator operator(final IExpression e, final int arity) {
+		final IOperator op;
+		if (arity == 2 && e instanceof BinaryOperator b && b.numArg() == 2) {
+			op = b;
+		} else if (arity == 1 && e instanceof UnaryOperator u) {
+			op = u;
+		} else
+			return null;
+		if (op.getPrototype() == null) return null;
+		final AnnotatedElement method = op.getPrototype().getJavaBase();
+		if (!(method instanceof Method m)) return null;
+		final Class<?> c = m.getDeclaringClass();
+		if (c != Maths.class && c != Comparison.class && c != Logic.class) return null;
+		return op;
+	}
+
+	/**
+	 * Whether the expression is a constant whose value can be captured once. Some units (like #now or #zoom) are
+	 * constant expressions whose value changes, and are not.
+	 */
+	private static boolean isConstant(final IExpression e) {
+		return e instanceof ConstantExpression && e.isConst();
+	}
+
+	/**
+	 * Whether the expression is a variable that can be read as a leaf: its value does not depend on anything else than
+	 * the scope, and reading it does not have any side effect.
+	 */
+	private static boolean isPlainVariable(final IExpression e) {
+		if (e instanceof TempVariableExpression) return true;
+		if (!(e instanceof AgentVariableExpression) && !(e instanceof GlobalVariableExpression)) return false;
+		final IDescription def = ((VariableExpression) e).getDefinitionDescription();
+		final SpeciesDescription sd = def == null ? null : def.getSpeciesContext();
+		final VariableDescription var = sd == null ? null : sd.getAttribute(e.getName());
+		return var != null && !var.isFunction();
+	}
+
+	/**
+	 * Compiles an expression of type float (or int, converted to a double), or returns null.
+	 */
+	private static DoubleCode doubles(final IScope scope, final IExpression e) {
+		if (type(e) == IType.INT) {
+			final IntCode c = ints(scope, e);
+			return c == null ? null : s -> c.eval(s);
+		}
+		if (type(e) != IType.FLOAT) return null;
+		if (isConstant(e)) {
+			if (!(e.value(scope) instanceof Double d)) return null;
+			final double v = d;
+			return s -> v;
+		}
+		if (isPlainVariable(e)) return s -> {
+			if (e.value(s) instanceof Double d) return d;
+			throw BAILOUT;
+		};
+		IOperator op = operator(e, 2);
+		if (op != null) {
+			final IExpression l = op.arg(0), r = op.arg(1);
+			if (!isNumber(l) || !isNumber(r)) return null;
+			final DoubleCode a = doubles(scope, l), b = doubles(scope, r);
+			if (a == null || b == null) return null;
+			return switch (op.getName()) {
+				case "+" -> s -> a.eval(s) + b.eval(s);
+				case "-" -> s -> a.eval(s) - b.eval(s);
+				case "*" -> s -> a.eval(s) * b.eval(s);
+				case "/" -> {
+					final boolean intDivisor = type(r) == IType.INT;
+					yield s -> {
+						final double x = a.eval(s), y = b.eval(s);
+						// Same test as in Maths.opDivide: only 0 (not -0.0) is rejected when the divisor is a float
+						if (intDivisor ? y == 0d : Double.compare(y, 0d) == 0) throw BAILOUT;
+						return x / y;
+					};
+				}
+				default -> null;
+			};
+		}
+		op = operator(e, 1);
+		if (op == null || !isNumber(op.arg(0))) return null;
+		final DoubleCode a = doubles(scope, op.arg(0));
+		if (a == null) return null;
+		return switch (op.getName()) {
+			case "-" -> s -> -a.eval(s);
+			case "abs" -> s -> Math.abs(a.eval(s));
+			case "sqrt" -> s -> {
+				final double x = a.eval(s);
+				if (x < 0) throw BAILOUT;
+				return Math.sqrt(x);
+			};
+			case "cos" -> s -> Math.cos(a.eval(s) * Maths.toRad);
+			case "sin" -> s -> Math.sin(a.eval(s) * Maths.toRad);
+			case "exp" -> s -> Math.exp(a.eval(s));
+			default -> null;
+		};
+	}
+
+	/**
+	 * Compiles an expression of type int, or returns null.
+	 */
+	private static IntCode ints(final IScope scope, final IExpression e) {
+		if (type(e) != IType.INT) return null;
+		if (isConstant(e)) {
+			if (!(e.value(scope) instanceof Integer i)) return null;
+			final int v = i;
+			return s -> v;
+		}
+		if (isPlainVariable(e)) return s -> {
+			if (e.value(s) instanceof Integer i) return i;
+			throw BAILOUT;
+		};
+		IOperator op = operator(e, 2);
+		if (op != null) {
+			if (type(op.arg(0)) != IType.INT || type(op.arg(1)) != IType.INT) return null;
+			final IntCode a = ints(scope, op.arg(0)), b = ints(scope, op.arg(1));
+			if (a == null || b == null) return null;
+			return switch (op.getName()) {
+				case "+" -> s -> a.eval(s) + b.eval(s);
+				case "-" -> s -> a.eval(s) - b.eval(s);
+				case "*" -> s -> a.eval(s) * b.eval(s);
+				default -> null;
+			};
+		}
+		op = operator(e, 1);
+		if (op == null || type(op.arg(0)) != IType.INT) return null;
+		final IntCode a = ints(scope, op.arg(0));
+		if (a == null) return null;
+		return switch (op.getName()) {
+			case "-" -> s -> -a.eval(s);
+			case "abs" -> s -> Math.abs(a.eval(s));
+			default -> null;
+		};
+	}
+
+	/**
+	 * Compiles an expression of type bool, or returns null.
+	 */
+	private static BoolCode bools(final IScope scope, final IExpression e) {
+		if (type(e) != IType.BOOL) return null;
+		if (isConstant(e)) {
+			if (!(e.value(scope) instanceof Boolean b)) return null;
+			final boolean v = b;
+			return s -> v;
+		}
+		if (isPlainVariable(e)) return s -> {
+			if (e.value(s) instanceof Boolean b) return b;
+			throw BAILOUT;
+		};
+		IOperator op = operator(e, 2);
+		if (op != null) {
+			final IExpression l = op.arg(0), r = op.arg(1);
+			final String name = op.getName();
+			if ("and".equals(name) || "or".equals(name)) {
+				final BoolCode a = bools(scope, l), b = bools(scope, r);
+				if (a == null || b == null) return null;
+				return "and".equals(name) ? s -> a.eval(s) && b.eval(s) : s -> a.eval(s) || b.eval(s);
+			}
+			if (!isNumber(l) || !isNumber(r)) return null;
+			if (type(l) == IType.INT && type(r) == IType.INT) {
+				final IntCode a = ints(scope, l), b = ints(scope, r);
+				if (a == null || b == null) return null;
+				return switch (name) {
+					case "<" -> s -> a.eval(s) < b.eval(s);
+					case ">" -> s -> a.eval(s) > b.eval(s);
+					case "<=" -> s -> a.eval(s) <= b.eval(s);
+					case ">=" -> s -> a.eval(s) >= b.eval(s);
+					default -> null;
+				};
+			}
+			final DoubleCode a = doubles(scope, l), b = doubles(scope, r);
+			if (a == null || b == null) return null;
+			return switch (name) {
+				case "<" -> s -> a.eval(s) < b.eval(s);
+				case ">" -> s -> a.eval(s) > b.eval(s);
+				case "<=" -> s -> a.eval(s) <= b.eval(s);
+				case ">=" -> s -> a.eval(s) >= b.eval(s);
+				default -> null;
+			};
+		}
+		op = operator(e, 1);
+		if (op == null || !"!".equals(op.getName()) && !"not".equals(op.getName())) return null;
+		final BoolCode a = bools(scope, op.arg(0));
+		return a == null ? null : s -> !a.eval(s);
+	}
+
+}
@@ -34,6 +34,8 @@ import gama.gaml.expressions.AbstractExpression;
 import gama.gaml.expressions.IExpression;
 import gama.gaml.expressions.data.ListExpression;
 import gama.gaml.expressions.data.MapExpression;
+import gama.gaml.operators.Cast;
+import gama.gaml.operators.Maths;
 import gama.gaml.types.GamaType;
 import gama.gaml.types.IContainerType;
 import gama.gaml.types.IType;
@@ -51,6 +53,19 @@ public class UnaryOperator extends AbstractExpression implements IOperator {
 	/** The prototype. */
 	protected final OperatorProto prototype;
 
+	/**
+	 * The compiled version of this expression (see CompiledExpression): null until its first evaluation decides whether
+	 * it is compiled, then {@link CompiledExpression#PENDING} until it has been evaluated often enough, and finally the
+	 * compiled code or {@link CompiledExpression#NONE}.
+	 */
+	private volatile CompiledExpression compiled;
+
+	/** The number of evaluations left before the compilation. Not synchronized: a lost update only delays it. */
+	private int countdown;
+
+	/** The arithmetic operator of Maths applied to a number (see CompiledExpression#arithmetic), or 0. */
+	private final char arithmetic;
+
 	/**
 	 * Creates the.
 	 *
@@ -90,10 +105,102 @@ public class UnaryOperator extends AbstractExpression implements IOperator {
 			computeType();
 			proto.verifyExpectedTypes(context, child[0].getGamlType().getContentType());
 		}
+		arithmetic = CompiledExpression.arithmetic(proto, this.child);
 	}
 
 	@Override
 	public Object _value(final IScope scope) throws GamaRuntimeException {
+		final CompiledExpression c = compiled(scope);
+		if (c.isCompiled()) {
+			final Object result = c.value(scope);
+			if (!CompiledExpression.failed(result)) return result;
+			if (c.isAbandoned()) { compiled = CompiledExpression.NONE; }
+		}
+		return interpret(scope);
+	}
+
+	@Override
+	public double valueAsDouble(final IScope scope) throws GamaRuntimeException {
+		final CompiledExpression c = compiled;
+		if (c != null && c.isNumeric()) {
+			try {
+				return c.doubleValue(scope);
+			} catch (final CompiledExpression.Bailout b) {
+				if (c.isAbandoned()) { compiled = CompiledExpression.NONE; }
+				return Cast.asFloat(scope, interpret(scope));
+			}
+		}
+		if (arithmetic != 0) {
+			if (child.getGamlType().id() == IType.INT) return arithmeticAsInt(scope);
+			final double x = child.valueAsDouble(scope);
+			return arithmetic == '-' ? Maths.opposite(x) : Maths.absolute(x);
+		}
+		return super.valueAsDouble(scope);
+	}
+
+	@Override
+	public int valueAsInt(final IScope scope) throws GamaRuntimeException {
+		final CompiledExpression c = compiled;
+		if (c != null && c.isInt()) {
+			try {
+				return c.intValue(scope);
+			} catch (final CompiledExpression.Bailout b) {
+				if (c.isAbandoned()) { compiled = CompiledExpression.NONE; }
+				return Cast.asInt(scope, interpret(scope));
+			}
+		}
+		if (arithmetic != 0 && child.getGamlType().id() == IType.INT) return arithmeticAsInt(scope);
+		return super.valueAsInt(scope);
+	}
+
+	/**
+	 * Applies the arithmetic operator to the primitive value of an int operand, like its helper would do on its boxed
+	 * value.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @return the value
+	 * @throws GamaRuntimeException
+	 *             if the evaluation of the operand fails
+	 */
+	private int arithmeticAsInt(final IScope scope) throws GamaRuntimeException {
+		final int x = child.valueAsInt(scope);
+		return arithmetic == '-' ? Maths.opposite(x) : Maths.absolute(x);
+	}
+
+	/**
+	 * Returns the compiled version of this expression, compiling it once it has been evaluated often enough. Whether
+	 * the compilation is enabled is only decided at the first evaluation, so that the expressions of the models that do
+	 * not use it neither count their evaluations nor read the preferences.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @return the compiled expression, {@link CompiledExpression#PENDING} or {@link CompiledExpression#NONE}
+	 */
+	private CompiledExpression compiled(final IScope scope) {
+		CompiledExpression c = compiled;
+		if (c == null) {
+			c = CompiledExpression.isEnabled(scope) ? CompiledExpression.PENDING : CompiledExpression.NONE;
+			countdown = CompiledExpression.threshold();
+			compiled = c;
+		}
+		if (c == CompiledExpression.PENDING && --countdown <= 0) {
+			c = CompiledExpression.compile(scope, this);
+			compiled = c;
+		}
+		return c;
+	}
+
+	/**
+	 * Evaluates the operator by applying its prototype to the value of its argument.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @return the value
+	 * @throws GamaRuntimeException
+	 *             if the operator fails
+	 */
+	private Object interpret(final IScope scope) throws GamaRuntimeException {
 		final Object childValue = prototype.getLazyness()[0] ? child : child.value(scope);
 		try {
 			return prototype.getHelper().get(scope, childValue);
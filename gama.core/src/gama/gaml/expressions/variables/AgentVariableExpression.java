@@ -11,6 +11,9 @@
 package gama.gaml.expressions.variables;
 
 import gama.annotations.precompiler.GamlProperties;
+import gama.core.metamodel.agent.IAgent;
+import gama.core.metamodel.population.IPopulation;
+import gama.core.metamodel.population.PopulationColumns;
 import gama.core.runtime.IScope;
 import gama.core.runtime.exceptions.GamaRuntimeException;
 import gama.core.util.ICollector;
@@ -20,13 +23,45 @@ import gama.gaml.descriptions.SpeciesDescription;
 import gama.gaml.descriptions.VariableDescription;
 import gama.gaml.expressions.IExpression;
 import gama.gaml.expressions.IVarExpression;
+import gama.gaml.species.ISpecies;
 import gama.gaml.types.IType;
+import gama.gaml.variables.IVariable;
 
 /**
  * The Class AgentVariableExpression.
  */
 public class AgentVariableExpression extends VariableExpression implements IVarExpression.Agent {
 
+	/**
+	 * The variable found in the species of the last agent on which this expression has been evaluated. Most
+	 * expressions are only evaluated on the agents of one species, so the variable (and its slot) is looked up only
+	 * once, whatever the simulation or the host of the population of the agents.
+	 */
+	private static final class Cache {
+
+		/** The species. */
+		final ISpecies species;
+
+		/** The variable. */
+		final IVariable var;
+
+		/** The column of the variable in the columns of the populations of the species, or -1. */
+		final int column;
+
+		/**
+		 * Instantiates a new cache.
+		 */
+		Cache(final ISpecies species, final IPopulation<? extends IAgent> population, final String name) {
+			this.species = species;
+			var = population.getVar(name);
+			final PopulationColumns c = var == null ? null : population.getColumns();
+			column = c == null ? -1 : c.getLayout().columnOf(name);
+		}
+	}
+
+	/** The cache. */
+	private volatile Cache cache;
+
 	/**
 	 * Instantiates a new agent variable expression.
 	 *
@@ -50,14 +85,97 @@ public class AgentVariableExpression extends VariableExpression implements IVarE
 		return new SelfExpression(this.getDefinitionDescription().getSpeciesContext().getGamlType());
 	}
 
+	/**
+	 * Returns the variable of the population of the agent, or null if it does not declare it (in which case it can be
+	 * an attribute of its host).
+	 *
+	 * @param agent
+	 *            the agent
+	 * @return the variable
+	 */
+	private IVariable getVar(final IAgent agent) {
+		final Cache c = getCache(agent);
+		return c == null ? null : c.var;
+	}
+
+	/**
+	 * Returns the cache corresponding to the species of the agent, or null if it has no population.
+	 *
+	 * @param agent
+	 *            the agent
+	 * @return the cache
+	 */
+	private Cache getCache(final IAgent agent) {
+		final IPopulation<? extends IAgent> population = agent.getPopulation();
+		if (population == null) return null;
+		final ISpecies species = population.getSpecies();
+		Cache c = cache;
+		if (c == null || c.species != species) {
+			c = new Cache(species, population, getName());
+			cache = c;
+		}
+		return c;
+	}
+
+	/**
+	 * Returns the columns of the population of the agent if the value of the variable is stored in one of them (and is
+	 * not nil), null otherwise.
+	 *
+	 * @param c
+	 *            the cache
+	 * @param agent
+	 *            the agent
+	 * @return the columns
+	 */
+	private static PopulationColumns columnsOf(final Cache c, final IAgent agent) {
+		if (c == null || c.column < 0) return null;
+		final PopulationColumns columns = agent.getPopulation().getColumns();
+		return columns != null && columns.hasDouble(c.column, agent.getColumnsRow()) ? columns : null;
+	}
+
 	@Override
 	public Object _value(final IScope scope) throws GamaRuntimeException {
-		return scope.getAgentVarValue(scope.getAgent(), getName());
+		// The agent is already the one of the scope: no need to push it
+		final IAgent agent = scope.getAgent();
+		if (agent == null || agent.dead() || scope.interrupted()) return null;
+		final IVariable var = getVar(agent);
+		if (var == null) return scope.getAgentVarValue(agent, getName());
+		return var.value(scope, agent);
+	}
+
+	@Override
+	public double valueAsDouble(final IScope scope) throws GamaRuntimeException {
+		// Reads the column directly, if the value is stored in one, instead of boxing it
+		final IAgent agent = scope.getAgent();
+		if (agent != null && !agent.dead()) {
+			final Cache c = getCache(agent);
+			final PopulationColumns columns = columnsOf(c, agent);
+			if (columns != null) return columns.getDouble(c.column, agent.getColumnsRow());
+		}
+		return super.valueAsDouble(scope);
+	}
+
+	@Override
+	public int valueAsInt(final IScope scope) throws GamaRuntimeException {
+		final IAgent agent = scope.getAgent();
+		if (agent != null && !agent.dead()) {
+			final Cache c = getCache(agent);
+			final PopulationColumns columns = columnsOf(c, agent);
+			if (columns != null) return (int) columns.getDouble(c.column, agent.getColumnsRow());
+		}
+		return super.valueAsInt(scope);
 	}
 
 	@Override
 	public void setVal(final IScope scope, final Object v, final boolean create) throws GamaRuntimeException {
-		scope.setAgentVarValue(scope.getAgent(), getName(), v);
+		final IAgent agent = scope.getAgent();
+		if (agent == null || agent.dead() || scope.interrupted()) return;
+		final IVariable var = getVar(agent);
+		if (var == null) {
+			scope.setAgentVarValue(agent, getName(), v);
+		} else {
+			var.setVal(scope, agent, v);
+		}
 	}
 
 	@Override
@@ -322,6 +322,8 @@ public class ModelFactory extends SymbolFactory {
 		final Collection<String> allModelNames = Iterables.size(models) == 1 ? null : ImmutableSet
 				.copyOf(Iterables.transform(Iterables.skip(models, 1), each -> buildModelName(each.getName())));
 		model.setImportedModelNames(allModelNames);
+		final Map<String, List<String>> pragmas = source.getPragmas();
+		model.setCompileExpressions(pragmas != null && pragmas.containsKey(IKeyword.PRAGMA_JIT));
 		return model;
 	}
 
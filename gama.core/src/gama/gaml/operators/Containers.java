@@ -47,6 +47,7 @@ import gama.core.common.interfaces.IKeyword;
 import gama.core.metamodel.agent.IAgent;
 import gama.core.metamodel.population.IPopulationSet;
 import gama.core.metamodel.population.MetaPopulation;
+import gama.core.metamodel.population.PopulationColumns;
 import gama.core.metamodel.shape.GamaPoint;
 import gama.core.metamodel.shape.IShape;
 import gama.core.metamodel.topology.ITopology;
@@ -1974,6 +1975,9 @@ public class Containers {
 			see = { "min_of", "max_of", "product_of", "mean_of" })
 	@test ("[1,2] sum_of (each * 100 ) = 300")
 	public static Object sum_of(final IScope scope, final IContainer container, final IExpression filter) {
+		final PopulationColumns.Column column = PopulationColumns.columnOf(scope, container, filter);
+		if (column != null && column.type() != IType.BOOL)
+			return column.type() == IType.INT ? (Object) column.intSum(scope) : (Object) column.sum(scope);
 		Stream s = stream(scope, container);
 		IType t;
 		if (filter != null) {
@@ -2304,6 +2308,8 @@ public class Containers {
 	@test ("[1,2,3,4,5,6,7,8] with_max_of (each ) = 8")
 	@validator (ComparableValidator.class)
 	public static Object with_max_of(final IScope scope, final IContainer c, final IExpression filter) {
+		final PopulationColumns.Column column = PopulationColumns.columnOf(scope, c, filter);
+		if (column != null) return column.extremum(scope, true);
 		return stream(scope, c).maxBy(with(scope, filter)).orElse(null);
 	}
 
@@ -2350,6 +2356,8 @@ public class Containers {
 	@test ("[1,2,3,4,5,6,7,8] with_min_of (each )  = 1")
 	@validator (ComparableValidator.class)
 	public static Object with_min_of(final IScope scope, final IContainer c, final IExpression filter) {
+		final PopulationColumns.Column column = PopulationColumns.columnOf(scope, c, filter);
+		if (column != null) return column.extremum(scope, false);
 		return stream(scope, c).minBy(with(scope, filter)).orElse(null);
 	}
 
@@ -79,6 +79,7 @@ import gama.core.util.graph.GraphAlgorithmsHandmade;
 import gama.core.util.graph.GraphFromAgentContainerSynchronizer;
 import gama.core.util.graph.IGraph;
 import gama.core.util.graph.PathComputer;
+import gama.core.util.graph.ShortestPathCache;
 import gama.core.util.graph.layout.LayoutCircle;
 import gama.core.util.graph.layout.LayoutForceDirected;
 import gama.core.util.graph.layout.LayoutGrid;
@@ -1999,6 +2000,34 @@ public class Graphs {
 		return g;
 	}
 
+	/**
+	 * Statistics of the cache of shortest paths.
+	 *
+	 * @param g
+	 *            the g
+	 * @return the i map
+	 */
+	@operator (
+			value = "cache_statistics",
+			type = IType.MAP,
+			index_type = IType.STRING,
+			content_type = IType.INT,
+			category = { IOperatorCategory.GRAPH, IOperatorCategory.PATH },
+			concept = { IConcept.GRAPH, IConcept.SHORTEST_PATH })
+	@doc (
+			value = "returns the statistics of the cache of the shortest paths of the operand graph: the number of paths found ('hits') and not found ('misses') in the cache, the number of trees of paths evicted because of the size of the cache ('evictions', see the preference 'pref_shortest_paths_cache_size') and the current size of the cache, in steps of paths ('size').",
+			see = { "use_cache", "path_between" })
+	@no_test
+	public static IMap<String, Integer> cacheStatistics(final IGraph g) {
+		final ShortestPathCache<?, ?> cache = g.getPathComputer().getShortestPathCache();
+		final IMap<String, Integer> result = GamaMapFactory.create(Types.STRING, Types.INT);
+		result.put("hits", (int) Math.min(cache.getHitCount(), Integer.MAX_VALUE));
+		result.put("misses", (int) Math.min(cache.getMissCount(), Integer.MAX_VALUE));
+		result.put("evictions", (int) Math.min(cache.getEvictionCount(), Integer.MAX_VALUE));
+		result.put("size", (int) Math.min(cache.getSize(), Integer.MAX_VALUE));
+		return result;
+	}
+
 	/**
 	 * As directed graph.
 	 *
@@ -2074,7 +2103,7 @@ public class Graphs {
 	@no_test
 	public static IGraph withWeights(final IScope scope, final IGraph graph, final IMap weights) {
 		graph.setWeights(weights);
-		graph.getPathComputer().incVersion();
+		graph.getPathComputer().weightsChanged();
 		if (graph instanceof GamaSpatialGraph gsg) { gsg.getPathComputer().reInitPathFinder(); }
 		return graph;
 	}
@@ -2108,7 +2137,7 @@ public class Graphs {
 		final int n = edges.size();
 		if (n != weights.size()) return graph;
 		for (int i = 0; i < n; i++) { graph.setEdgeWeight(edges.get(i), Cast.asFloat(scope, weights.get(i))); }
-		graph.getPathComputer().incVersion();
+		graph.getPathComputer().weightsChanged();
 		if (graph instanceof GamaSpatialGraph gsg) { gsg.getPathComputer().reInitPathFinder(); }
 		return graph;
 	}
@@ -2346,6 +2375,70 @@ public class Graphs {
 		return graph.getPathComputer().computeShortestPathBetween(scope, source, target);
 	}
 
+	/**
+	 * Shortest paths between.
+	 *
+	 * @param scope
+	 *            the scope
+	 * @param graph
+	 *            the graph
+	 * @param sources
+	 *            the sources
+	 * @param targets
+	 *            the targets
+	 * @return the i list
+	 * @throws GamaRuntimeException
+	 *             the gama runtime exception
+	 */
+	@operator (
+			value = "shortest_paths_between",
+			type = IType.LIST,
+			content_type = IType.PATH,
+			category = { IOperatorCategory.GRAPH, IOperatorCategory.PATH },
+			concept = { IConcept.GRAPH, IConcept.SHORTEST_PATH })
+	@doc (
+			value = "The shortest paths in a graph between each object of the first list and the object at the same index "
+					+ "in the second list. If one of the lists contains a single object, it is paired with all the objects "
+					+ "of the other list (one-to-many or many-to-one). The paths that share a source (or a target) are "
+					+ "computed by a single search, and the searches are run in parallel.",
+			examples = { @example (
+					value = "shortest_paths_between(my_graph, people collect each.home, people collect each.work)",
+					equals = "the shortest path from the home to the work of each people",
+					isExecutable = false),
+					@example (
+							value = "shortest_paths_between(my_graph, [school], people collect each.home)",
+							equals = "the shortest paths from the school to the home of each people",
+							isExecutable = false) },
+			see = { "path_between", "use_cache" })
+	@test ("graph<geometry, geometry> g <- directed(as_edge_graph([edge({10,5}, {20,3}), edge({10,5}, {30,30}),edge({30,30}, {80,35}),edge({80,35}, {40,60}),edge({80,35}, {10,5})]));\r\n"
+			+ "list<path> paths <- shortest_paths_between(g, [{10,5}], [{40,60}, {80,35}, {20,3}]);\r\n"
+			+ "(paths collect each.edges) = [path_between(g, {10,5}, {40,60}).edges, path_between(g, {10,5}, {80,35}).edges, path_between(g, {10,5}, {20,3}).edges]")
+	public static IList<IPath> shortestPathsBetween(final IScope scope, final IGraph graph, final IList sources,
+			final IList targets) throws GamaRuntimeException {
+		final int n = sources.size() == 1 ? targets.size() : sources.size();
+		if (targets.size() != n && targets.size() != 1) throw GamaRuntimeException
+				.error("The lists of sources and targets must have the same size, or contain one object", scope);
+		final List<Object> from = new ArrayList<>(n), to = new ArrayList<>(n);
+		final boolean[] batched = new boolean[n];
+		final IList<IPath> result = GamaListFactory.create(Types.PATH);
+		for (int i = 0; i < n; i++) {
+			final Object source = sources.get(sources.size() == 1 ? 0 : i);
+			final Object target = targets.get(targets.size() == 1 ? 0 : i);
+			result.add(null);
+			// In spatial graphs, the locations that are not vertices are routed through the topology
+			if (graph instanceof GamaSpatialGraph && !(graph.containsVertex(source) && graph.containsVertex(target))) {
+				result.set(i, Cast.asTopology(scope, graph).pathBetween(scope, (IShape) source, (IShape) target));
+			} else {
+				batched[i] = true;
+				from.add(source);
+				to.add(target);
+			}
+		}
+		final IList<IPath> paths = graph.getPathComputer().computeShortestPathsBetween(scope, from, to);
+		for (int i = 0, j = 0; i < n; i++) { if (batched[i]) { result.set(i, paths.get(j++)); } }
+		return result;
+	}
+
 	/**
 	 * Kpaths between.
 	 *
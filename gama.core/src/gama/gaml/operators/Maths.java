@@ -944,6 +944,170 @@ public class Maths {
 		return -x;
 	}
 
+	/*
+	 * The primitive entry points of the arithmetic operators. They compute like the operators on Integer and Double
+	 * (and raise the same errors), but without boxing their operands nor their result, and are used by the operators
+	 * evaluated as an int or a double (see IExpression.valueAsInt() and IExpression.valueAsDouble()).
+	 */
+
+	/**
+	 * The sum of two ints (see {@link #opPlus(Integer, Integer)}).
+	 *
+	 * @param a
+	 *            the a
+	 * @param b
+	 *            the b
+	 * @return the int
+	 */
+	public static int add(final int a, final int b) {
+		return a + b;
+	}
+
+	/**
+	 * The sum of two numbers, one of them at least being a float (see {@link #opPlus(Double, Double)}).
+	 *
+	 * @param a
+	 *            the a
+	 * @param b
+	 *            the b
+	 * @return the double
+	 */
+	public static double add(final double a, final double b) {
+		return a + b;
+	}
+
+	/**
+	 * The difference of two ints (see {@link #opMinus(Integer, Integer)}).
+	 *
+	 * @param a
+	 *            the a
+	 * @param b
+	 *            the b
+	 * @return the int
+	 */
+	public static int subtract(final int a, final int b) {
+		return a - b;
+	}
+
+	/**
+	 * The difference of two numbers, one of them at least being a float (see {@link #opMinus(Double, Double)}).
+	 *
+	 * @param a
+	 *            the a
+	 * @param b
+	 *            the b
+	 * @return the double
+	 */
+	public static double subtract(final double a, final double b) {
+		return a - b;
+	}
+
+	/**
+	 * The product of two ints (see {@link #opTimes(Integer, Integer)}).
+	 *
+	 * @param a
+	 *            the a
+	 * @param b
+	 *            the b
+	 * @return the int
+	 */
+	public static int multiply(final int a, final int b) {
+		return a * b;
+	}
+
+	/**
+	 * The product of two numbers, one of them at least being a float (see {@link #opTimes(Double, Double)}).
+	 *
+	 * @param a
+	 *            the a
+	 * @param b
+	 *            the b
+	 * @return the double
+	 */
+	public static double multiply(final double a, final double b) {
+		return a * b;
+	}
+
+	/**
+	 * The division of a number by an int (see {@link #opDivide(IScope, Double, Integer)}).
+	 *
+	 * @param scope
+	 *            the scope
+	 * @param a
+	 *            the a
+	 * @param b
+	 *            the b
+	 * @return the double
+	 * @throws GamaRuntimeException
+	 *             if b is equal to 0
+	 */
+	public static double divide(final IScope scope, final double a, final int b) throws GamaRuntimeException {
+		if (b == 0) throw GamaRuntimeException.error("Division by zero", scope);
+		return a / b;
+	}
+
+	/**
+	 * The division of a number by a float (see {@link #opDivide(IScope, Double, Double)}).
+	 *
+	 * @param scope
+	 *            the scope
+	 * @param a
+	 *            the a
+	 * @param b
+	 *            the b
+	 * @return the double
+	 * @throws GamaRuntimeException
+	 *             if b is equal to 0.0 (but not to -0.0, like Double.equals())
+	 */
+	public static double divide(final IScope scope, final double a, final double b) throws GamaRuntimeException {
+		if (Double.compare(b, 0d) == 0) throw GamaRuntimeException.error("Division by zero", scope);
+		return a / b;
+	}
+
+	/**
+	 * The opposite of an int (see {@link #negate(Integer)}).
+	 *
+	 * @param x
+	 *            the x
+	 * @return the int
+	 */
+	public static int opposite(final int x) {
+		return -x;
+	}
+
+	/**
+	 * The opposite of a float (see {@link #negate(Double)}).
+	 *
+	 * @param x
+	 *            the x
+	 * @return the double
+	 */
+	public static double opposite(final double x) {
+		return -x;
+	}
+
+	/**
+	 * The absolute value of an int (see {@link #abs(Integer)}).
+	 *
+	 * @param x
+	 *            the x
+	 * @return the int
+	 */
+	public static int absolute(final int x) {
+		return Math.abs(x);
+	}
+
+	/**
+	 * The absolute value of a float (see {@link #abs(Double)}).
+	 *
+	 * @param x
+	 *            the x
+	 * @return the double
+	 */
+	public static double absolute(final double x) {
+		return Math.abs(x);
+	}
+
 	/**
 	 * Round.
 	 *
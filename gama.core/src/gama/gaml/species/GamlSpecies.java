@@ -25,6 +25,7 @@ import gama.core.common.interfaces.IKeyword;
 import gama.core.metamodel.agent.IAgent;
 import gama.core.metamodel.population.IPopulation;
 import gama.core.metamodel.shape.IShape;
+import gama.core.metamodel.topology.ISpatialIndex;
 import gama.core.runtime.IScope;
 import gama.core.util.GamaListFactory;
 import gama.core.util.IContainer;
@@ -62,6 +63,18 @@ import one.util.streamex.StreamEx;
 				type = { IType.BOOL, IType.INT },
 				optional = true,
 				doc = @doc ("(experimental) setting this facet to 'true' will allow this species to use concurrency when scheduling its agents; setting it to an integer will set the threshold under which they will be run sequentially (the default is initially 20, but can be fixed in the preferences). This facet has a default set in the preferences (Under Performances > Concurrency)")),
+				@facet (
+						name = IKeyword.SPATIAL_INDEX,
+						type = IType.LABEL,
+						optional = true,
+						values = { ISpatialIndex.QUADTREE, ISpatialIndex.CONCURRENT, ISpatialIndex.STATIC,
+								ISpatialIndex.HASH },
+						doc = @doc ("(experimental) the kind of spatial index used to store and query the agents of this species. 'quadtree' (the default) is the regular quadtree, synchronized or not depending on the preferences; 'concurrent' is a quadtree that can be queried by agents running in parallel without any locking; 'static' is a packed R-tree, built at once when the agents are first queried, suited for agents that do not move after their creation (it falls back to a quadtree if they do); 'hash' is a grid of cells, whose size follows the distance of the queries, suited for numerous point agents that move a lot. If not specified, the preferences (Under Experimental) decide. Has no effect on grids")),
+				@facet (
+						name = IKeyword.COLUMNAR,
+						type = IType.BOOL,
+						optional = true,
+						doc = @doc ("(experimental) if true, the int, float and bool attributes declared in this species are not stored by each agent but in columns shared by its population, which saves memory and speeds up the reductions over the whole species, like 'sum_of', 'mean_of' or 'with_max_of' applied to 'each.attribute'. Can only be used in regular species that do not redefine the geometry of their agents and whose own attributes are all of type int, float or bool (false by default)")),
 				@facet (
 						name = IKeyword.WIDTH,
 						type = IType.INT,
@@ -269,6 +282,7 @@ public class GamlSpecies extends AbstractSpecies {
 				}
 			}
 			verifyFiles(sd, width, height, cellWidth, cellHeight);
+			verifyColumnar(sd);
 			// Issue 1138
 			verifyFrequency(sd);
 			verifyTorus(sd);
@@ -282,6 +296,31 @@ public class GamlSpecies extends AbstractSpecies {
 
 		}
 
+		/**
+		 * Verifies that a columnar species only declares int, float or bool attributes, and does not redefine the
+		 * geometry of its agents.
+		 *
+		 * @param sd
+		 *            the species description
+		 */
+		private void verifyColumnar(final SpeciesDescription sd) {
+			if (!TRUE.equals(sd.getLitteral(COLUMNAR))) return;
+			if (!SPECIES.equals(sd.getKeyword())) {
+				sd.warning("'columnar' can only be used in regular species", IGamlIssue.CONFLICTING_FACETS, COLUMNAR);
+				return;
+			}
+			for (final VariableDescription var : sd.getOwnAttributes()) {
+				if (var.isBuiltIn()) { continue; }
+				final String name = var.getName();
+				if (SHAPE.equals(name) || GEOMETRY.equals(name) || LOCATION.equals(name)) {
+					var.error("A columnar species cannot redefine '" + name + "'", IGamlIssue.CONFLICTING_FACETS);
+				} else if (!var.isFunction() && !SpeciesDescription.isColumn(var)) {
+					var.error("The attributes of a columnar species must be of type int, float or bool",
+							IGamlIssue.WRONG_TYPE);
+				}
+			}
+		}
+
 		/**
 		 * Process neighbors.
 		 *
@@ -542,7 +542,7 @@ public class LoopStatement extends AbstractStatementSequence implements Breakabl
 		 * @return the from exp
 		 */
 		Number getFromExp(final IScope scope, final IExpression exp) {
-			return isInt ? Cast.asInt(scope, exp.value(scope)) : Cast.asFloat(scope, exp.value(scope));
+			return isInt ? exp.valueAsInt(scope) : exp.valueAsDouble(scope);
 		}
 
 		@Override
@@ -674,7 +674,7 @@ public class LoopStatement extends AbstractStatementSequence implements Breakabl
 		@Override
 		public Object runIn(final IScope scope) throws GamaRuntimeException {
 			final Object[] result = new Object[1];
-			final int max = constantTimes == null ? Cast.asInt(scope, timesExpression.value(scope)) : constantTimes;
+			final int max = constantTimes == null ? timesExpression.valueAsInt(scope) : constantTimes;
 			boolean shouldBreak = false;
 			for (int i = 0; i < max && !shouldBreak; i++) {
 				switch (loopBody(scope, null, result)) {
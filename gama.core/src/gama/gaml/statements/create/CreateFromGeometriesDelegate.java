@@ -15,14 +15,20 @@ import java.util.Map;
 
 import gama.core.common.interfaces.ICreateDelegate;
 import gama.core.common.interfaces.IKeyword;
+import gama.core.common.preferences.GamaPreferences;
+import gama.core.metamodel.agent.IAgent;
+import gama.core.metamodel.population.IPopulation;
 import gama.core.metamodel.shape.GamaPoint;
 import gama.core.metamodel.shape.IShape;
+import gama.core.metamodel.topology.ISpatialIndex;
+import gama.core.metamodel.topology.ITopology;
 import gama.core.runtime.IScope;
 import gama.core.util.IAddressableContainer;
 import gama.core.util.IList;
 import gama.core.util.file.GamaGeometryFile;
 import gama.gaml.statements.Arguments;
 import gama.gaml.statements.CreateStatement;
+import gama.gaml.statements.RemoteSequence;
 import gama.gaml.types.GamaGeometryType;
 import gama.gaml.types.IType;
 import gama.gaml.types.Types;
@@ -79,6 +85,31 @@ public class CreateFromGeometriesDelegate implements ICreateDelegate {
 		return true;
 	}
 
+	@Override
+	public boolean handlesCreation() {
+		return true;
+	}
+
+	/**
+	 * Method createAgents(). Lets the spatial index bulk-load the geometries, which are likely to be static, before
+	 * letting the statement create the agents.
+	 *
+	 * @see gama.core.common.interfaces.ICreateDelegate#createAgents(gama.core.runtime.IScope,
+	 *      gama.core.metamodel.population.IPopulation, java.util.List, gama.gaml.statements.CreateStatement,
+	 *      gama.gaml.statements.RemoteSequence)
+	 */
+	@Override
+	public IList<? extends IAgent> createAgents(final IScope scope, final IPopulation<? extends IAgent> population,
+			final List<Map<String, Object>> inits, final CreateStatement statement, final RemoteSequence sequence) {
+		if (GamaPreferences.Experimental.QUADTREE_STATIC.getValue()) {
+			final ITopology topology = population.getTopology();
+			if (topology != null && topology.getSpatialIndex() instanceof ISpatialIndex.Compound index) {
+				index.useStaticIndexFor(population);
+			}
+		}
+		return statement.createAgents(scope, population, inits);
+	}
+
 	/**
 	 * Method fromFacetType()
 	 *
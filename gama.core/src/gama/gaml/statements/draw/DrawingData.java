@@ -126,7 +126,7 @@ public class DrawingData extends AttributeHolder {
 	 */
 	private GamaPoint castSize(final IScope scope, final IExpression exp) throws GamaRuntimeException {
 		if (exp.getGamlType().isNumber()) {
-			final double val = Cast.asFloat(scope, exp.value(scope));
+			final double val = exp.valueAsDouble(scope);
 			// We do not consider the z ordinate -- see Issue #1539
 			return new GamaPoint(val, val, 0);
 		}
@@ -165,7 +165,7 @@ public class DrawingData extends AttributeHolder {
 			final GamaPair currentRotation = Cast.asPair(scope, exp.value(scope), true);
 			return new AxisAngle(Cast.asPoint(scope, currentRotation.value), Cast.asFloat(scope, currentRotation.key));
 		}
-		return new AxisAngle(Rotation3D.PLUS_K, Cast.asFloat(scope, exp.value(scope)));
+		return new AxisAngle(Rotation3D.PLUS_K, exp.valueAsDouble(scope));
 	}
 
 	/**
@@ -202,14 +202,14 @@ public class ShapeDrawer implements IDrawDelegate {
 		if (size < 2) return g1;
 		Geometry end = null, begin = null;
 		if (endArrow != null) {
-			final double width = Cast.asFloat(scope, endArrow.value(scope));
+			final double width = endArrow.valueAsDouble(scope);
 			if (width > 0) {
 				end = GamaGeometryType.buildArrow(points[size - 2], points[size - 1], width, width + width / 3, fill)
 						.getInnerGeometry();
 			}
 		}
 		if (beginArrow != null) {
-			final double width = Cast.asFloat(scope, beginArrow.value(scope));
+			final double width = beginArrow.valueAsDouble(scope);
 			if (width > 0) {
 				begin = GamaGeometryType.buildArrow(points[1], points[0], width, width + width / 3, fill)
 						.getInnerGeometry();
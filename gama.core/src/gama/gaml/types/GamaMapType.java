@@ -62,7 +62,7 @@ public class GamaMapType extends GamaContainerType<IMap> {
 	 */
 	public static IMap staticCast(final IScope scope, final Object obj, final IType keyType, final IType contentsType,
 			final boolean copy) {
-		if (obj instanceof IAgent ia) return ia.getOrCreateAttributes();
+		if (obj instanceof IAgent ia) return copy ? ia.copyOfAttributes() : ia.getOrCreateAttributes();
 		if (obj instanceof IContainer ic) return ic.mapValue(scope, keyType, contentsType, copy);
 		// TODO Should be removed to privilegiate from_json()
 		if (obj instanceof String s) {
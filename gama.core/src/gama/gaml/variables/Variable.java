@@ -31,6 +31,7 @@ import gama.core.common.interfaces.ISkill;
 import gama.core.common.interfaces.IVarAndActionSupport;
 import gama.core.common.util.JavaUtils;
 import gama.core.common.util.StringUtils;
+import gama.core.metamodel.agent.AttributeLayout;
 import gama.core.metamodel.agent.IAgent;
 import gama.core.runtime.GAMA;
 import gama.core.runtime.IScope;
@@ -508,6 +509,12 @@ public class Variable extends Symbol implements IVariable {
 
 	/** The must notify of changes. */
 	protected boolean mustNotifyOfChanges;
+
+	/** The layout of the species in which the variable is declared, and the slot of the variable in it (or -1). */
+	protected final AttributeLayout layout;
+
+	/** The slot. */
+	protected final int slot;
 	// private Object speciesWideValue;
 
 	/**
@@ -529,6 +536,9 @@ public class Variable extends Symbol implements IVariable {
 		onChangeExpression = getFacet(IKeyword.ON_CHANGE);
 		isNotModifiable = desc.isNotModifiable();
 		type = desc.getGamlType();
+		final SpeciesDescription species = desc.getSpeciesContext();
+		layout = species == null ? AttributeLayout.EMPTY : species.getAttributeLayout();
+		slot = layout.indexOf(name);
 	}
 
 	/**
@@ -781,7 +791,7 @@ public class Variable extends Symbol implements IVariable {
 		if (setter != null) {
 			setter.run(scope, agent, sSkill == null ? agent : sSkill, val);
 		} else {
-			agent.setAttribute(name, val);
+			agent.setAttribute(layout, slot, name, val);
 		}
 		// if (isSpeciesConst) {
 		// speciesWideValue = val;
@@ -822,10 +832,10 @@ public class Variable extends Symbol implements IVariable {
 		if (functionExpression != null) return scope.evaluate(functionExpression, agent).getValue();
 		// Var not yet initialized. May happen when asking for its value while initializing an editor
 		// See Issue #2781 + Issue #3920
-		if (!agent.hasAttribute(name) && (isNotModifiable || initExpression != null && initExpression.isConst())
+		if (!agent.hasAttribute(layout, slot, name) && (isNotModifiable || initExpression != null && initExpression.isConst())
 				&& !description.isBuiltIn())
 			return getInitialValue(scope);
-		return agent.getAttribute(name);
+		return agent.getAttribute(layout, slot, name);
 	}
 
 	@Override
@@ -51,6 +51,7 @@ import gama.core.common.util.StringUtils;
 import gama.core.kernel.batch.exploration.morris.Morris;
 import gama.core.kernel.batch.exploration.sobol.Sobol;
 import gama.core.kernel.batch.exploration.stochanalysis.Stochanalysis;
+import gama.core.metamodel.population.PopulationColumns;
 import gama.core.metamodel.shape.GamaPoint;
 import gama.core.runtime.IScope;
 import gama.core.runtime.exceptions.GamaRuntimeException;
@@ -3035,6 +3036,8 @@ public class Stats {
 	@test ("[1,2] mean_of (each * 10 ) = 15")
 	@test ("[1,2] mean_of (each * 10 ) = 15")
 	public static Object opMeanOf(final IScope scope, final IContainer container, final IExpression filter) {
+		final PopulationColumns.Column column = PopulationColumns.columnOf(scope, container, filter);
+		if (column != null && column.type() != IType.BOOL) return column.mean(scope);
 		return Containers.opMean(scope, collect(scope, container, filter));
 	}
 
@@ -266,7 +266,8 @@ public class ExperimentJob implements IExperimentJob {
 	public void load() throws IOException, GamaCompilationFailedException {
 		System.setProperty("user.dir", this.sourcePath);
 		final List<GamlCompilationError> errors = new ArrayList<>();
-		final IModel mdl = GamlModelBuilder.getDefaultInstance().compile(new File(this.sourcePath), errors, null);
+		// The jobs of the same model share its description, so that it is only parsed and validated once
+		final IModel mdl = GamlModelBuilder.getDefaultInstance().compileShared(new File(this.sourcePath), errors);
 		this.modelName = mdl.getName();
 		this.simulator = new RichExperiment(mdl);
 	}
@@ -38,6 +38,8 @@ import com.google.inject.Injector;
 
 import gama.core.common.GamlFileExtension;
 import gama.core.common.preferences.GamaPreferences;
+import gama.core.kernel.batch.BatchWorkers;
+import gama.core.kernel.experiment.BatchAgent;
 import gama.core.kernel.experiment.IExperimentPlan;
 import gama.core.kernel.model.IModel;
 import gama.core.runtime.GAMA;
@@ -64,6 +66,7 @@ import gama.headless.xml.Reader;
 import gama.headless.xml.XMLWriter;
 import gaml.compiler.GamlStandaloneSetup;
 import gaml.compiler.gaml.validation.GamlModelBuilder;
+import gaml.compiler.gaml.validation.ModelArtifact;
 
 /**
  * The Class Application.
@@ -164,9 +167,15 @@ public class HeadlessApplication implements IApplication {
 	// -> Code still exist, but not documented nor use
 	final public static String BATCH_PARAMETER = "-batch";
 
+	/** The Constant WORKER_PARAMETER. */
+	final public static String WORKER_PARAMETER = BatchWorkers.WORKER_OPTION;
+
 	/** The Constant GAML_PARAMETER. */
 	final public static String GAML_PARAMETER = "-gaml";
 
+	/** The Constant COMPILE_PARAMETER. */
+	final public static String COMPILE_PARAMETER = "-compile";
+
 	/** The Constant WRITE_XMI. */
 	final public static String WRITE_XMI = "-write-xmi";
 
@@ -227,7 +236,12 @@ public class HeadlessApplication implements IApplication {
 				+ "\n\t=== GAMA Headless Runner ===" + "\n\t\t" + SOCKET_PARAMETER
 				+ " [socketPort]          -- starts socket pipeline to interact with another framework" + "\n\t\t"
 				+ BATCH_PARAMETER + " [experimentName] [modelFile.gaml]"
-				+ "\n\t\t                              -- Run batch experiment in headless mode"
+				+ "\n\t\t                              -- Run batch experiment in headless mode" + "\n\t\t"
+				+ WORKER_PARAMETER + " [port] [experimentName] [modelFile.gaml]"
+				+ "\n\t\t                              -- Run the simulations sent by a batch experiment on a local port"
+				+ "\n\t\t" + COMPILE_PARAMETER + " [modelFile.gaml] [modelFile." + ModelArtifact.EXTENSION + "]"
+				+ "\n\t\t                              -- Save a parsed model in a file that can be used in place of it"
+				+ "\n\t\t                              -- without being parsed again (only by the same build of GAMA)"
 				// + "\n\t\t" + GAML_PARAMETER + " [experimentName] [modelFile.gaml]"
 				// + "\n\t\t -- Run single gaml experiment in headless mode"
 				+ "\n\t\t" + BUILD_XML_PARAMETER + " [experimentName] [modelFile.gaml] [xmlOutputFile.xml]"
@@ -304,10 +318,18 @@ public class HeadlessApplication implements IApplication {
 			size = size - 3;
 			mustContainOutFolder = false;
 		}
+		if (args.contains(WORKER_PARAMETER)) {
+			size = size - 4;
+			mustContainInFile = mustContainOutFolder = false;
+		}
 		if (args.contains(BUILD_XML_PARAMETER)) {
 			size = size - 4;
 			mustContainInFile = mustContainOutFolder = false;
 		}
+		if (args.contains(COMPILE_PARAMETER)) {
+			size = size - 3;
+			mustContainInFile = mustContainOutFolder = false;
+		}
 		
 		if (args.contains(GAML_PARAMETER)) {
 			size = size - 2;
@@ -409,12 +431,17 @@ public class HeadlessApplication implements IApplication {
 		if (args.contains(RUN_LIBRARY_PARAMETER)) return ModelLibraryRunner.getInstance().start();
 		if (args.contains(CHECK_MODEL_PARAMETER)) {
 			ModelLibraryGenerator.start(this, args);
+		} else if (args.contains(WORKER_PARAMETER)) {
+			runBatchWorker(Integer.parseInt(after(args, WORKER_PARAMETER)), args.get(args.size() - 2),
+					args.get(args.size() - 1));
 		} else if (args.contains(BATCH_PARAMETER)) {
 			runBatchSimulation(args.get(args.size() - 2), args.get(args.size() - 1));
 		} else if (args.contains(GAML_PARAMETER)) {
 			runGamlSimulation(args);
 		} else if (args.contains(BUILD_XML_PARAMETER)) {
 			buildXML(args);
+		} else if (args.contains(COMPILE_PARAMETER)) {
+			saveArtifact(args.get(args.size() - 2), args.get(args.size() - 1));
 		} else if (args.contains(SOCKET_PARAMETER)) {
 			GamaHeadlessWebSocketServer.startForHeadless(socket, processorQueue, ping_interval);
 		} else if (args.contains(SSOCKET_PARAMETER)) {
@@ -627,37 +654,117 @@ public class HeadlessApplication implements IApplication {
 	 * @param pathToModel
 	 */
 	public void runBatchSimulation(final String experimentName, final String pathToModel) {
+		final IModel mdl = compile(pathToModel);
+
+		GamaExecutorService.CONCURRENCY_SIMULATIONS.set(true);
+		GamaExecutorService.THREADS_NUMBER.set(processorQueue.getCorePoolSize());
+
+		final IExperimentPlan expPlan = mdl.getExperiment(experimentName);
+		assertIsExperiment(experimentName, expPlan);
+		expPlan.setHeadless(true);
+		expPlan.open();
+		GAMA.getControllers().add(expPlan.getController());
+		expPlan.getController().processStart(false);
+
+		System.exit(0);
+	}
+
+	/**
+	 * Runs, in this process, the simulations sent by a batch experiment that dispatches them to local workers (see
+	 * {@link BatchWorkers}). The model is compiled and the experiment opened once. The process exits when the batch
+	 * experiment closes the connection, or with an error if it runs out of memory, so that it can be restarted.
+	 *
+	 * @param port
+	 *            the local port of the batch experiment
+	 * @param experimentName
+	 *            the experiment name
+	 * @param pathToModel
+	 *            the path to model
+	 */
+	public void runBatchWorker(final int port, final String experimentName, final String pathToModel) {
+		final IModel mdl = compile(pathToModel);
+		// The simulations are run one after the other: the parallelism comes from the number of workers
+		GamaExecutorService.CONCURRENCY_SIMULATIONS.set(false);
+		GamaExecutorService.BATCH_WORKERS.set(0);
+
+		final IExperimentPlan expPlan = mdl.getExperiment(experimentName);
+		assertIsExperiment(experimentName, expPlan);
+		expPlan.setHeadless(true);
+		expPlan.open();
+		int status = 0;
+		try {
+			BatchWorkers.serve((BatchAgent) expPlan.getAgent(), port);
+		} catch (final Throwable e) {
+			DEBUG.ERR("Batch worker stopped: " + e);
+			status = 1;
+		}
+		System.exit(status);
+	}
+
+	/**
+	 * Saves a model in an artifact that can be used in place of its file (see {@link ModelArtifact}), and exits.
+	 *
+	 * @param pathToModel
+	 *            the path to model
+	 * @param pathToArtifact
+	 *            the path to the artifact
+	 */
+	public void saveArtifact(final String pathToModel, final String pathToArtifact) {
 		assertIsAModelFile(pathToModel);
+		final File artifact = new File(pathToArtifact);
+		if (!ModelArtifact.isArtifact(artifact)) {
+			DEBUG.LOG("The name of the file " + pathToArtifact + " must end with ." + ModelArtifact.EXTENSION);
+			System.exit(-1);
+		}
+		final List<GamlCompilationError> errors = new ArrayList<>();
+		try {
+			new GamlModelBuilder(getInjector()).saveArtifact(new File(pathToModel), artifact, errors);
+		} catch (final IOException | GamaCompilationFailedException e) {
+			DEBUG.LOG("GAMA couldn't compile " + pathToModel + (e instanceof IOException ? ": " + e.getMessage() : ""));
+			for (final GamlCompilationError error : errors) { if (error.isError()) { DEBUG.LOG(error.toString()); } }
+			System.exit(1);
+		}
+		DEBUG.LOG("Compiled model saved at: " + artifact.getAbsolutePath());
+		System.exit(0);
+	}
+
+	/**
+	 * Compiles a model file (or an artifact produced by {@link #saveArtifact(String, String)}), or exits if it cannot
+	 * be compiled. The time taken to load the artifact, and then to build, validate and compile the model (which
+	 * includes parsing it when it is not an artifact), are logged, so that both can be compared.
+	 *
+	 * @param pathToModel
+	 *            the path to model
+	 * @return the model
+	 */
+	private IModel compile(final String pathToModel) {
+		final boolean isArtifact = ModelArtifact.isArtifact(new File(pathToModel));
+		if (!isArtifact) { assertIsAModelFile(pathToModel); }
 		final Injector injector = getInjector();
 		final GamlModelBuilder builder = new GamlModelBuilder(injector);
 
 		final List<GamlCompilationError> errors = new ArrayList<>();
 		URI uri;
+		final long start = System.currentTimeMillis();
 		try {
-			uri = URI.createFileURI(pathToModel);
+			uri = isArtifact ? builder.loadArtifact(new File(pathToModel)) : URI.createFileURI(pathToModel);
+			if (isArtifact) { DEBUG.BANNER("GAMA", "Artifact loaded", "in", System.currentTimeMillis() - start + "ms"); }
+		} catch (final IOException e) {
+			DEBUG.LOG(e.getMessage());
+			System.exit(1);
+			return null;
 		} catch (Exception e) {
 			uri = URI.createURI(pathToModel);
 		}
-		final IModel mdl = builder.compile(uri, errors);
+		final URI source = uri;
+		final IModel mdl = DEBUG.TIMER("GAMA", "Model compiled", "in", () -> builder.compile(source, errors));
 
 		if (mdl == null) {
 			DEBUG.LOG(
 					"GAMA couldn't compile your input file. Please verify that the input file path is correct and ensure that there are no errors in the GAML model.");
 			System.exit(1);
-			return;
 		}
-
-		GamaExecutorService.CONCURRENCY_SIMULATIONS.set(true);
-		GamaExecutorService.THREADS_NUMBER.set(processorQueue.getCorePoolSize());
-
-		final IExperimentPlan expPlan = mdl.getExperiment(experimentName);
-		assertIsExperiment(experimentName, expPlan);
-		expPlan.setHeadless(true);
-		expPlan.open();
-		GAMA.getControllers().add(expPlan.getController());
-		expPlan.getController().processStart(false);
-
-		System.exit(0);
+		return mdl;
 	}
 
 	/**
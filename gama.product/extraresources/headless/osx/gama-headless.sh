@@ -37,7 +37,7 @@ fi
 
 workspaceCreate=0
 case "$@" in 
-  *-help*|*-version*|*-validate*|*-test*|*-xml*|*-batch*|*-write-xmi*|*-socket*)
+  *-help*|*-version*|*-validate*|*-test*|*-xml*|*-batch*|*-write-xmi*|*-socket*|*-worker*|*-compile*)
     workspaceCreate=1
     ;;
 esac
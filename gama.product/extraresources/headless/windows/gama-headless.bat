@@ -4,6 +4,9 @@ setLocal EnableDelayedExpansion
 set inputFile=""
 set outputFile="" 
 
+REM the paths are relative to the directory of this script, so that it can be run from any directory
+set "headless_path=%~dp0"
+
 REM memory is defined in the ../Gama.ini file
 set "memory=-1m"
 
@@ -35,7 +38,7 @@ echo * http://gama-platform.org                                       *
 echo * (c) 2007-2024 UMI 209 UMMISCO IRD/SU and Partners              *
 echo ******************************************************************
 
-set FILENAME="..\plugins\"
+set FILENAME="%headless_path%..\plugins\"
 FOR /F %%e in ('dir /b %FILENAME%') do ( 
  	SET result=%%e
 	if "!result:~0,29!" == "org.eclipse.equinox.launcher_" (  
@@ -45,7 +48,7 @@ FOR /F %%e in ('dir /b %FILENAME%') do (
 :END
 @echo !result!
 
-set "result=..\plugins\%result%"
+set "result=%headless_path%..\plugins\%result%"
 
 echo %result%
 echo %JAVA_HOME%
@@ -57,7 +60,7 @@ set "ini_arguments="
 set "skip_until_line=-server"
 set "skipping=true"
 
-for /f "usebackq delims=" %%a in (..\GAMA.ini) do (
+for /f "usebackq delims=" %%a in ("%headless_path%..\GAMA.ini") do (
 	set "line=%%a"
 
 	if !skipping!==true (
@@ -80,10 +83,10 @@ for /f "usebackq delims=" %%a in (..\GAMA.ini) do (
 @echo workDir = %workDir% 
 @echo memory = %memory% 
 
-if exist ..\jdk\ (
+if exist "%headless_path%..\jdk\" (
 	echo "JDK"
-	call ..\jdk\bin\java -cp !result! -Xms512m -Xmx%memory% !ini_arguments! -Djava.awt.headless=true org.eclipse.equinox.launcher.Main -configuration ./configuration -application gama.headless.product -data "%workDir%" !param! 
+	call "%headless_path%..\jdk\bin\java" -cp "!result!" -Xms512m -Xmx%memory% !ini_arguments! -Djava.awt.headless=true org.eclipse.equinox.launcher.Main -configuration "%headless_path%configuration" -application gama.headless.product -data "%workDir%" !param! 
 ) else (
 	echo "JAVA_HOME"
-  	call "%JAVA_HOME%\bin\java.exe" -cp !result! -Xms512m -Xmx%memory% !ini_arguments! -Djava.awt.headless=true org.eclipse.equinox.launcher.Main -configuration ./configuration -application gama.headless.product -data "%workDir%" !param! 
+  	call "%JAVA_HOME%\bin\java.exe" -cp "!result!" -Xms512m -Xmx%memory% !ini_arguments! -Djava.awt.headless=true org.eclipse.equinox.launcher.Main -configuration "%headless_path%configuration" -application gama.headless.product -data "%workDir%" !param! 
 )
\ No newline at end of file
@@ -28,12 +28,13 @@ import org.eclipse.emf.ecore.EObject;
 import org.eclipse.xtext.diagnostics.IDiagnosticConsumer;
 import org.eclipse.xtext.diagnostics.Severity;
 import org.eclipse.xtext.linking.impl.XtextLinkingDiagnostic;
-import org.eclipse.xtext.linking.lazy.LazyLinkingResource;
 import org.eclipse.xtext.parser.IParseResult;
+import org.eclipse.xtext.resource.persistence.StorageAwareResource;
 import org.eclipse.xtext.util.OnChangeEvictingCache;
 import org.eclipse.xtext.util.concurrent.IUnitOfWork;
 
 import com.google.common.base.Function;
+import com.google.inject.Inject;
 
 import gama.core.runtime.IExecutionContext;
 import gama.dev.DEBUG;
@@ -56,13 +57,23 @@ import gaml.compiler.gaml.indexer.GamlResourceIndexer;
  *
  * @since 24 avr. 2012
  */
-public class GamlResource extends LazyLinkingResource implements IDiagnosticConsumer {
-	/* To allow resources to strore bin files : extends StorageAwareResource */
+public class GamlResource extends StorageAwareResource implements IDiagnosticConsumer {
+	/* Extends StorageAwareResource so that its contents can be saved in compiled models (see ModelArtifact) */
 
 	static {
 		DEBUG.OFF();
 	}
 
+	/**
+	 * Removes the storage facade injected by Xtext, which would otherwise let the builders save the contents of the
+	 * resources in binary files and load them from there. The resources are then parsed and saved exactly as when
+	 * GamlResource extended LazyLinkingResource: only the compiled models read and write their contents explicitly.
+	 */
+	@Inject
+	void disableStorage() {
+		setResourceStorageFacade(null);
+	}
+
 	/** The element. */
 	ISyntacticElement element;
 
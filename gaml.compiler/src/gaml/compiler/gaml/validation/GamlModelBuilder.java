@@ -14,9 +14,20 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.xtext.resource.SynchronizedXtextResourceSet;
 
@@ -32,6 +43,7 @@ import gama.gaml.compilation.GamlCompilationError.GamlCompilationErrorType;
 import gama.gaml.compilation.IGamlModelBuilder;
 import gama.gaml.descriptions.ModelDescription;
 import gama.gaml.interfaces.IGamlIssue;
+import gaml.compiler.gaml.indexer.GamlResourceIndexer;
 import gaml.compiler.gaml.resource.GamlResource;
 import one.util.streamex.StreamEx;
 
@@ -57,6 +69,47 @@ public class GamlModelBuilder implements IGamlModelBuilder {
 	/** The build resource set. */
 	private final ResourceSet buildResourceSet;
 
+	/** The maximum number of descriptions shared by the compilations of the models (see compileShared()). */
+	private static final int MAX_SHARED_DESCRIPTIONS = 8;
+
+	/**
+	 * The descriptions shared by the compilations of the models, by path of their file (see compileShared()). Only the
+	 * ones used last are kept, so that a long-running process (like the server of the headless mode) that runs many
+	 * models does not keep all of them.
+	 */
+	private final Map<String, SharedDescription> sharedDescriptions =
+			new LinkedHashMap<>(MAX_SHARED_DESCRIPTIONS + 1, 1f, true) {
+
+				/** The Constant serialVersionUID. */
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(final Map.Entry<String, SharedDescription> eldest) {
+					// The models already compiled from this description keep it as long as they are used
+					return size() > MAX_SHARED_DESCRIPTIONS;
+				}
+			};
+
+	/**
+	 * The description of a model, shared by its compilations, along with the hash of the contents of the files it has
+	 * been built from (the file of the model and the files it imports) and the issues found while validating it.
+	 */
+	private record SharedDescription(ModelDescription description, Map<String, byte[]> hashes,
+			List<GamlCompilationError> issues) {
+
+		/**
+		 * Whether none of the files the description has been built from has changed since.
+		 *
+		 * @return true, if up to date
+		 */
+		boolean isUpToDate() {
+			for (final Map.Entry<String, byte[]> entry : hashes.entrySet()) {
+				if (!Arrays.equals(entry.getValue(), hash(entry.getKey()))) return false;
+			}
+			return true;
+		}
+	}
+
 	/**
 	 * A constructor that builds the resource set based on an existing injecto
 	 *
@@ -120,7 +173,9 @@ public class GamlModelBuilder implements IGamlModelBuilder {
 		if (!myFile.exists()) throw new IOException("Model file does not exist: " + fileName);
 		DEBUG.LOG(fileName + " model is being compiled...");
 
-		final IModel model = GamlModelBuilder.getDefaultInstance().compile(URI.createFileURI(fileName), errors);
+		final URI uri = ModelArtifact.isArtifact(myFile) ? getDefaultInstance().loadArtifact(myFile)
+				: URI.createFileURI(fileName);
+		final IModel model = GamlModelBuilder.getDefaultInstance().compile(uri, errors);
 		if (model == null) {
 			DEBUG.LOG("Model didn't compile because of the following compilation errors: \n"
 					+ (errors == null ? "" : StreamEx.of(errors).joining("\n")));
@@ -130,6 +185,137 @@ public class GamlModelBuilder implements IGamlModelBuilder {
 		return model;
 	}
 
+	/**
+	 * Compiles a file to a GAMA model like {@link #compile(File, List, GamlProperties)}, but shares the description of
+	 * the model between the calls: the file is only parsed and validated again if its contents, or the contents of the
+	 * files it imports, have changed since the previous call. Each call still returns a new model, compiled from the
+	 * shared description, so that the experiments of the models returned can be run independently (as the jobs of the
+	 * headless mode, which often run the same model many times, do). Only the descriptions of the last models compiled
+	 * are kept: the others are parsed and validated again when they are compiled anew.
+	 *
+	 * @param myFile
+	 *            the file of the model
+	 * @param errors
+	 *            a list that will be filled with compilation errors / warnings (can be null)
+	 * @return the compiled model
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws GamaCompilationFailedException
+	 *             Signals that errors occured
+	 */
+	public IModel compileShared(final File myFile, final List<GamlCompilationError> errors)
+			throws IOException, GamaCompilationFailedException {
+		if (myFile == null) throw new IOException("Model file is null");
+		final String fileName = myFile.getAbsolutePath();
+		if (!myFile.exists()) throw new IOException("Model file does not exist: " + fileName);
+		SharedDescription shared;
+		synchronized (this) {
+			shared = sharedDescriptions.get(fileName);
+			if (shared == null || !shared.isUpToDate()) {
+				DEBUG.LOG(fileName + " model is being compiled...");
+				final List<GamlCompilationError> issues = new ArrayList<>();
+				final Set<String> files = new LinkedHashSet<>();
+				final ModelDescription model;
+				if (ModelArtifact.isArtifact(myFile)) {
+					model = buildModelDescription(loadArtifact(myFile), issues, null);
+					files.add(fileName);
+				} else {
+					model = buildModelDescription(URI.createFileURI(fileName), issues, files);
+				}
+				if (model == null) {
+					sharedDescriptions.remove(fileName);
+					if (errors != null) { errors.addAll(issues); }
+					DEBUG.LOG("Model didn't compile because of the following compilation errors: \n"
+							+ StreamEx.of(issues).joining("\n"));
+					throw new GamaCompilationFailedException(issues);
+				}
+				final Map<String, byte[]> hashes = new HashMap<>();
+				for (final String file : files) { hashes.put(file, hash(file)); }
+				shared = new SharedDescription(model, hashes, issues);
+				sharedDescriptions.put(fileName, shared);
+			}
+		}
+		if (errors != null) { errors.addAll(shared.issues()); }
+		// Compiling the description creates new symbols, but it is not done concurrently as the description is shared
+		synchronized (shared) {
+			final IModel model = (IModel) shared.description().compile();
+			if (model == null) throw new GamaCompilationFailedException(shared.issues());
+			return model;
+		}
+	}
+
+	/**
+	 * Validates a model and saves it, with the files it imports, in an artifact that can be compiled later without
+	 * parsing and linking these files again (see {@link ModelArtifact}). Artifacts are accepted wherever a model file
+	 * is, and recognized by their extension.
+	 *
+	 * @param myFile
+	 *            the file of the model
+	 * @param artifact
+	 *            the file of the artifact
+	 * @param errors
+	 *            a list that will be filled with compilation errors / warnings (can be null)
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws GamaCompilationFailedException
+	 *             Signals that errors occured
+	 */
+	public synchronized void saveArtifact(final File myFile, final File artifact,
+			final List<GamlCompilationError> errors) throws IOException, GamaCompilationFailedException {
+		if (myFile == null || !myFile.exists()) throw new IOException("Model file does not exist: " + myFile);
+		final URI uri = URI.createFileURI(myFile.getAbsolutePath());
+		final List<GamlCompilationError> issues = errors == null ? new ArrayList<>() : errors;
+		final ModelDescription model = buildModelDescription(uri, issues, null);
+		if (model == null) throw new GamaCompilationFailedException(issues);
+		model.dispose();
+		// The files are parsed again, as the validation has resolved their links to the descriptions
+		try {
+			final GamlResource main = (GamlResource) buildResourceSet.getResource(uri, true);
+			GamlResourceIndexer.validateImportsOf(main);
+			final List<GamlResource> resources = new ArrayList<>();
+			resources.add(main);
+			for (final Resource r : buildResourceSet.getResources()) {
+				if (r != main && r instanceof GamlResource gr && r.getURI().isFile()) { resources.add(gr); }
+			}
+			ModelArtifact.write(artifact, resources);
+		} finally {
+			clearResourceSet();
+		}
+	}
+
+	/**
+	 * Loads the resources stored in an artifact, in order to compile them right after.
+	 *
+	 * @param artifact
+	 *            the artifact
+	 * @return the URI of the model
+	 * @throws IOException
+	 *             if the artifact cannot be read, or has been produced by another version of GAMA
+	 */
+	public synchronized URI loadArtifact(final File artifact) throws IOException {
+		try {
+			return ModelArtifact.load(artifact, buildResourceSet);
+		} catch (final IOException | RuntimeException e) {
+			clearResourceSet();
+			throw e;
+		}
+	}
+
+	/**
+	 * The SHA-256 hash of the contents of a file.
+	 *
+	 * @param path
+	 *            the path of the file
+	 * @return the hash, or an empty array if the file cannot be read
+	 */
+	static byte[] hash(final String path) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(new File(path).toPath()));
+		} catch (final IOException | NoSuchAlgorithmException e) {
+			return new byte[0];
+		}
+	}
+
 	/**
 	 * Compile.
 	 *
@@ -142,7 +328,7 @@ public class GamlModelBuilder implements IGamlModelBuilder {
 	@Override
 	public IModel compile(final URI uri, final List<GamlCompilationError> errors) {
 		// We build the description and fill the errors list
-		final ModelDescription model = buildModelDescription(uri, errors);
+		final ModelDescription model = buildModelDescription(uri, errors, null);
 		// And compile it before returning it, unless it is null.
 		return model == null ? null : (IModel) model.compile();
 	}
@@ -154,9 +340,13 @@ public class GamlModelBuilder implements IGamlModelBuilder {
 	 *            the uri
 	 * @param errors
 	 *            the errors
+	 * @param files
+	 *            a set that will be filled with the paths of the files loaded to build the description, i.e. the file
+	 *            of the model and the files it imports (can be null)
 	 * @return the model description
 	 */
-	private ModelDescription buildModelDescription(final URI uri, final List<GamlCompilationError> errors) {
+	private ModelDescription buildModelDescription(final URI uri, final List<GamlCompilationError> errors,
+			final Set<String> files) {
 		try {
 			final GamlResource r = (GamlResource) buildResourceSet.getResource(uri, true);
 			// Syntactic errors detected, we cannot build the resource
@@ -176,13 +366,25 @@ public class GamlModelBuilder implements IGamlModelBuilder {
 			if (r.getValidationContext().hasErrors()) return null;
 			return model;
 		} finally {
-			final boolean wasDeliver = buildResourceSet.eDeliver();
-			try {
-				buildResourceSet.eSetDeliver(false);
-				buildResourceSet.getResources().clear();
-			} finally {
-				buildResourceSet.eSetDeliver(wasDeliver);
+			if (files != null) {
+				for (final Resource resource : buildResourceSet.getResources()) {
+					if (resource.getURI().isFile()) { files.add(resource.getURI().toFileString()); }
+				}
 			}
+			clearResourceSet();
+		}
+	}
+
+	/**
+	 * Removes all the resources from the build resource set.
+	 */
+	private void clearResourceSet() {
+		final boolean wasDeliver = buildResourceSet.eDeliver();
+		try {
+			buildResourceSet.eSetDeliver(false);
+			buildResourceSet.getResources().clear();
+		} finally {
+			buildResourceSet.eSetDeliver(wasDeliver);
 		}
 	}
 
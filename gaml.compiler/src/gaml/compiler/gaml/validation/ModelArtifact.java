@@ -0,0 +1,174 @@
+/*******************************************************************************************************
+ *
+ * ModelArtifact.java, in gaml.compiler, is part of the source code of the GAMA modeling and simulation platform .
+ *
+ * (c) 2007-2024 UMI 209 UMMISCO IRD/SU & Partners (IRIT, MIAT, TLU, CTU)
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package gaml.compiler.gaml.validation;
+
+import static gaml.compiler.gaml.resource.GamlResourceServices.properlyEncodedURI;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtext.resource.persistence.ResourceStorageLoadable;
+import org.eclipse.xtext.resource.persistence.ResourceStorageWritable;
+
+import gama.core.runtime.GAMA;
+import gaml.compiler.gaml.indexer.GamlResourceIndexer;
+import gaml.compiler.gaml.resource.GamlResource;
+
+/**
+ * A model saved in a binary form (see {@link GamlModelBuilder#saveArtifact(File, File, List)}), so that it can be run
+ * without parsing and linking its files again. For the file of the model and each of the files it imports, the
+ * artifact contains the contents of its resource (syntax tree, node model and exported names) as stored by Xtext.
+ * The descriptions of the model are still built and validated from these trees when the artifact is loaded, as they
+ * bind the expressions to the operators and types of the running platform: an artifact only saves the time taken to
+ * parse and link the files, which the headless runner logs apart from the rest of the compilation. As the node model
+ * holds the whole text of the files, an artifact is not smaller than them, and does not hide them. An artifact is
+ * stamped with a hash of the grammar and of the metamodel of GAML, which the stored trees depend on, and rejected by
+ * the builds whose grammar differs (the version of GAMA is not enough, as all the development builds share the same
+ * one). The files are addressed relatively to the model, so that the artifact can replace it next to the files it
+ * uses.
+ */
+public final class ModelArtifact {
+
+	/** The extension of the artifacts. */
+	public static final String EXTENSION = "gamlc";
+
+	/** The header of the artifacts. */
+	private static final String HEADER = "GAML compiled model";
+
+	/** The version of the format of the artifacts. */
+	private static final int FORMAT = 1;
+
+	/** The resources of the bundle that define the syntax trees stored in the artifacts. */
+	private static final String[] GRAMMAR = { "/gaml/compiler/Gaml.xtextbin", "/model/generated/Gaml.ecore" };
+
+	/** The stamp of the artifacts produced by this build: the version of GAMA and a hash of its grammar. */
+	private static final String STAMP = GAMA.VERSION + " (" + grammarHash() + ")";
+
+	/**
+	 * Instantiates a new model artifact.
+	 */
+	private ModelArtifact() {}
+
+	/**
+	 * The SHA-256 hash of the grammar and of the metamodel of GAML, in hexadecimal.
+	 *
+	 * @return the hash
+	 */
+	private static String grammarHash() {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (final String name : GRAMMAR) {
+				try (InputStream in = ModelArtifact.class.getResourceAsStream(name)) {
+					// Should not happen, as both are packaged with the bundle
+					digest.update(in == null ? name.getBytes(StandardCharsets.UTF_8) : in.readAllBytes());
+				}
+			}
+			return HexFormat.of().formatHex(digest.digest()).substring(0, 16);
+		} catch (final NoSuchAlgorithmException | IOException e) {
+			// Every JVM supports SHA-256, and the resources of the bundle can be read
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Whether a file is an artifact, judging by its extension.
+	 *
+	 * @param file
+	 *            the file
+	 * @return true, if it is an artifact
+	 */
+	public static boolean isArtifact(final File file) {
+		return file.getName().endsWith("." + EXTENSION);
+	}
+
+	/**
+	 * Writes the resources of a model in an artifact.
+	 *
+	 * @param artifact
+	 *            the artifact
+	 * @param resources
+	 *            the resources, freshly parsed, the first one being the one of the model
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	static void write(final File artifact, final List<GamlResource> resources) throws IOException {
+		final URI model = resources.get(0).getURI();
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(artifact)))) {
+			out.writeUTF(HEADER);
+			out.writeInt(FORMAT);
+			out.writeUTF(STAMP);
+			out.writeInt(resources.size());
+			for (final GamlResource resource : resources) {
+				final URI uri = resource.getURI();
+				out.writeUTF(
+						uri.equals(model) ? model.lastSegment() : uri.deresolve(model, true, true, false).toString());
+				final ByteArrayOutputStream contents = new ByteArrayOutputStream();
+				// The node model is stored too, as the lazy links and the errors refer to it
+				new ResourceStorageWritable(contents, true).writeResource(resource);
+				out.writeInt(contents.size());
+				contents.writeTo(out);
+			}
+		}
+	}
+
+	/**
+	 * Loads the resources stored in an artifact in a resource set, and indexes their imports.
+	 *
+	 * @param artifact
+	 *            the artifact
+	 * @param set
+	 *            the resource set
+	 * @return the URI of the resource of the model
+	 * @throws IOException
+	 *             if the file is not an artifact, or if it has been produced by a build of GAMA with another grammar
+	 */
+	static URI load(final File artifact, final ResourceSet set) throws IOException {
+		final URI base = URI.createFileURI(artifact.getAbsolutePath());
+		final List<GamlResource> resources = new ArrayList<>();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(artifact)))) {
+			if (!HEADER.equals(in.readUTF())) throw new IOException(artifact + " is not a compiled model");
+			final int format = in.readInt();
+			final String stamp = in.readUTF();
+			if (format != FORMAT || !STAMP.equals(stamp)) throw new IOException(
+					artifact + " has been compiled by " + stamp + " and must be compiled again by " + STAMP);
+			final int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				final URI uri = properlyEncodedURI(URI.createURI(in.readUTF()).resolve(base));
+				final byte[] contents = new byte[in.readInt()];
+				in.readFully(contents);
+				final GamlResource resource = (GamlResource) set.createResource(uri);
+				resource.loadFromStorage(new ResourceStorageLoadable(new ByteArrayInputStream(contents), true));
+				resources.add(resource);
+			}
+		}
+		if (resources.isEmpty()) throw new IOException(artifact + " does not contain any model");
+		// The imports are indexed once all the resources are in the set, so that they are not parsed again
+		for (final GamlResource resource : resources) { GamlResourceIndexer.updateImports(resource); }
+		return resources.get(0).getURI();
+	}
+
+}